@@ -0,0 +1,190 @@
+package com.example.Grocito.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import com.example.Grocito.metrics.PincodeTagPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.core.env.MapPropertySource;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wiring helpers so services can be benchmarked without the application or a database. The services
+ * under test are created by a small Spring context, so they are wired exactly as in the application
+ * (@Autowired by type, @Value with the given properties or the defaults, @PostConstruct), and
+ * repositories are replaced by in-memory stubs.
+ */
+final class BenchmarkSupport {
+
+    private static final String APPLICATION_PACKAGE = "com.example.Grocito.";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Services log at DEBUG; without the application properties logback would print every call
+     */
+    static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static Wiring wiring() {
+        return new Wiring();
+    }
+
+    /**
+     * Components, stubs and properties of one benchmark context. Metrics (in-memory registry) and an
+     * ObjectMapper configured like the Spring Boot one are always present. An application dependency
+     * that is not supplied is filled with a placeholder that throws on first use, naming the type, so a
+     * collaborator added to the measured path fails the run instead of going unnoticed.
+     */
+    static final class Wiring {
+
+        private final Map<String, Object> properties = new HashMap<>();
+        private final List<Object> beans = new ArrayList<>();
+        private final List<Class<?>> components = new ArrayList<>();
+
+        private Wiring() {
+        }
+
+        Wiring property(String name, Object value) {
+            properties.put(name, value);
+            return this;
+        }
+
+        /**
+         * An instance used as is (stubs, prepared fixtures); not autowired
+         */
+        Wiring bean(Object instance) {
+            beans.add(instance);
+            return this;
+        }
+
+        /**
+         * Classes Spring creates and wires
+         */
+        Wiring component(Class<?>... types) {
+            components.addAll(List.of(types));
+            return this;
+        }
+
+        AnnotationConfigApplicationContext start() {
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+            var beanFactory = context.getDefaultListableBeanFactory();
+            beanFactory.setAutowireCandidateResolver(new PlaceholderResolver());
+            beanFactory.registerSingleton("meterRegistry", new SimpleMeterRegistry());
+            if (beans.stream().noneMatch(ObjectMapper.class::isInstance)) {
+                beanFactory.registerSingleton("objectMapper", objectMapper());
+            }
+            for (int i = 0; i < beans.size(); i++) {
+                beanFactory.registerSingleton("benchmarkBean" + i, beans.get(i));
+            }
+            context.register(GrocitoMetrics.class, PincodeTagPolicy.class);
+            context.register(components.toArray(Class<?>[]::new));
+            context.refresh();
+            return context;
+        }
+    }
+
+    /**
+     * Same modules and date format as the Spring Boot mapper
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static final class PlaceholderResolver extends ContextAnnotationAutowireCandidateResolver {
+
+        @Override
+        public Object getLazyResolutionProxyIfNecessary(DependencyDescriptor descriptor, String beanName) {
+            Object lazy = super.getLazyResolutionProxyIfNecessary(descriptor, beanName);
+            if (lazy != null || !descriptor.isRequired() || getSuggestedValue(descriptor) != null) {
+                return lazy;
+            }
+            Class<?> type = descriptor.getDependencyType();
+            if (!type.getName().startsWith(APPLICATION_PACKAGE) || Modifier.isFinal(type.getModifiers())
+                    || ((ListableBeanFactory) getBeanFactory()).getBeanNamesForType(type).length > 0) {
+                return null;
+            }
+            return placeholder(type, beanName);
+        }
+
+        private static Object placeholder(Class<?> type, String requiredBy) {
+            ProxyFactory factory = new ProxyFactory();
+            if (type.isInterface()) {
+                factory.addInterface(type);
+            } else {
+                factory.setTargetClass(type);
+                factory.setProxyTargetClass(true);
+            }
+            factory.addAdvice((MethodInterceptor) invocation -> {
+                Method method = invocation.getMethod();
+                if (method.getName().equals("toString") && method.getParameterCount() == 0) {
+                    return type.getSimpleName() + "Placeholder";
+                }
+                throw new UnsupportedOperationException(requiredBy + " called " + type.getSimpleName() + "."
+                        + method.getName() + ", which the benchmark does not provide");
+            });
+            return factory.getProxy(type.getClassLoader());
+        }
+    }
+
+    /**
+     * Repository stub answering the given methods by name; any other call fails loudly
+     */
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (self, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) {
+                        return answer.apply(args);
+                    }
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "hashCode" -> System.identityHashCode(self);
+                            case "equals" -> self == args[0];
+                            default -> repositoryType.getSimpleName() + "Stub";
+                        };
+                    }
+                    throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                });
+        return repositoryType.cast(proxy);
+    }
+
+    /**
+     * Handle to a private service method, resolved once so the benchmark measures only the call
+     */
+    static MethodHandle privateMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+        try {
+            var method = owner.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Cannot access " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Controller.DeliveryFeeController;
+import com.example.Grocito.service.BulkEarningsService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk earnings of a payout run: the streaming parser/generator path against binding the whole body and
+ * serializing the whole response
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkEarningsBenchmark {
+
+    @Param({"500", "20000"})
+    private int deliveries;
+
+    private AnnotationConfigApplicationContext context;
+    private ObjectMapper objectMapper;
+    private BulkEarningsService bulkEarningsService;
+    private DeliveryFeeController deliveryFeeController;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkSupport.quietLogging();
+        context = Fixtures.pricing(List.of())
+                .component(BulkEarningsService.class, DeliveryFeeController.class)
+                .start();
+        objectMapper = context.getBean(ObjectMapper.class);
+        bulkEarningsService = context.getBean(BulkEarningsService.class);
+        deliveryFeeController = context.getBean(DeliveryFeeController.class);
+
+        Random random = new Random(42);
+        List<Map<String, Object>> rows = new ArrayList<>(deliveries);
+        for (int i = 0; i < deliveries; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("orderId", 1_000_000L + i);
+            row.put("orderAmount", 50 + random.nextInt(60000) / 100.0);
+            row.put("bonuses", random.nextInt(4) == 0 ? 5 : 0);
+            rows.add(row);
+        }
+        body = objectMapper.writeValueAsBytes(Map.of("deliveries", rows));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        JsonParser parser = bulkEarningsService.openDeliveries(new ByteArrayInputStream(body));
+        bulkEarningsService.writeEarnings(parser, null, new BlackholeOutputStream(blackhole));
+    }
+
+    @Benchmark
+    public void inMemory(Blackhole blackhole) throws IOException {
+        // What Spring MVC does around the non-streaming endpoint: bind the body, serialize the response map
+        DeliveryFeeController.BulkEarningsRequest request =
+                objectMapper.readValue(body, DeliveryFeeController.BulkEarningsRequest.class);
+        objectMapper.writeValue(new BlackholeOutputStream(blackhole),
+                deliveryFeeController.calculateBulkEarnings(request).getBody());
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+}
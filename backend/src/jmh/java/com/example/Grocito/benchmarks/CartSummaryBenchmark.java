@@ -0,0 +1,50 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.Cart;
+import com.example.Grocito.Repository.CartRepository;
+import com.example.Grocito.Services.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart summary build in CartService (per-item maps, subtotal and stock checks)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartSummaryBenchmark {
+
+    @Param({"3", "20", "100"})
+    private int itemCount;
+
+    private AnnotationConfigApplicationContext context;
+    private CartService cartService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        Cart cart = Fixtures.cart(Fixtures.user(1), Fixtures.products(itemCount));
+        context = BenchmarkSupport.wiring()
+                .component(CartService.class)
+                .bean(BenchmarkSupport.stub(CartRepository.class, Map.of("findByUserId", args -> Optional.of(cart))))
+                .start();
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> cartSummary() {
+        return cartService.getCartSummary(1L);
+    }
+}
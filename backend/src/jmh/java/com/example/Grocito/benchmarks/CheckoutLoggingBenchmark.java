@@ -0,0 +1,181 @@
+package com.example.Grocito.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.Grocito.Entity.Cart;
+import com.example.Grocito.Entity.CartItem;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.CartRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.Services.CartService;
+import com.example.Grocito.Services.OrderService;
+import com.example.Grocito.logging.DebugLogTargets;
+import com.example.Grocito.routing.ReadYourWritesTracker;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * OrderService.placeOrderFromCart (repositories stubbed) with logging off, with the production
+ * pipeline (INFO, async appender, targeted DEBUG filter armed) and with synchronous file logging.
+ * Every repository call waits repositoryLatencyMicros to stand in for the database round trip;
+ * with 0 the score shows the raw logging cost per checkout.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutLoggingBenchmark {
+
+    private static final MethodHandle CREATE_ORDER = BenchmarkSupport.privateMethod(OrderService.class,
+            "createOrderFromCart", Long.class, String.class, String.class, String.class, String.class);
+
+    @Param({"off", "async", "sync"})
+    private String logging;
+
+    @Param({"0", "100"})
+    private long repositoryLatencyMicros;
+
+    private AnnotationConfigApplicationContext context;
+    private OrderService orderService;
+    private Cart cart;
+    private List<CartItem> cartItems;
+    private List<Product> products;
+    private Appender<ILoggingEvent> appender;
+    private Path logFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        User user = Fixtures.user(1);
+        products = Fixtures.products(10);
+        cart = Fixtures.cart(user, products);
+        cartItems = new ArrayList<>(cart.getItems());
+
+        BenchmarkSupport.Wiring wiring = Fixtures.pricing(List.of())
+                .component(OrderService.class, CartService.class, ReadYourWritesTracker.class)
+                .bean(BenchmarkSupport.stub(CartRepository.class, Map.of(
+                        "findByUserId", args -> roundTrip(Optional.of(cart)),
+                        "save", args -> roundTrip(args[0]))))
+                .bean(BenchmarkSupport.stub(UserRepository.class,
+                        Map.of("findById", args -> roundTrip(Optional.of(user)))))
+                .bean(BenchmarkSupport.stub(ProductRepository.class,
+                        Map.of("save", args -> roundTrip(args[0]))))
+                .bean(BenchmarkSupport.stub(OrderRepository.class,
+                        Map.of("save", args -> roundTrip(args[0]))));
+        if ("async".equals(logging)) {
+            wiring.component(DebugLogTargets.class);
+        }
+        context = wiring.start();
+        orderService = context.getBean(OrderService.class);
+
+        logFile = Files.createTempFile("checkout-logging", ".log");
+        configureLogging();
+
+        // What RequestLogContextInterceptor puts into the MDC of a checkout request
+        MDC.put("requestId", "3f9a1c2b7d4e5f60");
+        MDC.put("userId", "1");
+        MDC.put("pincode", Fixtures.PINCODE);
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void restock() {
+        for (Product product : products) {
+            product.setStock(Integer.MAX_VALUE / 2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        MDC.clear();
+        // Uninstalls the debug targeting filter
+        context.close();
+        if (appender != null) {
+            rootLogger().detachAppender(appender);
+            appender.stop();
+        }
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public Object placeOrderFromCart() throws Throwable {
+        // clearCart empties the cart at the end of every checkout
+        cart.getItems().addAll(cartItems);
+        return CREATE_ORDER.invoke(orderService, 1L, "12 Market Road, Bangalore", "COD", null, Fixtures.PINCODE);
+    }
+
+    private Object roundTrip(Object result) {
+        if (repositoryLatencyMicros > 0) {
+            LockSupport.parkNanos(repositoryLatencyMicros * 1000);
+        }
+        return result;
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = rootLogger();
+        root.detachAndStopAllAppenders();
+        context.getLogger("com.example.Grocito").setLevel(null);
+
+        if ("off".equals(logging)) {
+            root.setLevel(Level.OFF);
+            return;
+        }
+        root.setLevel(Level.INFO);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        // Same as logging.pattern.file
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} [%X{requestId:-}] - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        if ("sync".equals(logging)) {
+            appender = file;
+        } else {
+            // Same settings as ASYNC_FILE in logback-spring.xml
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+
+            // Armed for another user, so every DEBUG call pays the filter check but stays disabled
+            this.context.getBean(DebugLogTargets.class).addUser("2", 30);
+        }
+        root.addAppender(appender);
+    }
+
+    private static ch.qos.logback.classic.Logger rootLogger() {
+        return (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.service.DeliveryFeeService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BigDecimal fee and earnings API of DeliveryFeeService (over the paise pricing engine), below and above the free delivery threshold
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeliveryFeeBenchmark {
+
+    @Param({"149.50", "199.00", "845.25"})
+    private String orderAmount;
+
+    private AnnotationConfigApplicationContext context;
+    private DeliveryFeeService deliveryFeeService;
+    private BigDecimal amount;
+    private BigDecimal bonuses;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        context = Fixtures.pricing(List.of()).component(DeliveryFeeService.class).start();
+        deliveryFeeService = context.getBean(DeliveryFeeService.class);
+        amount = new BigDecimal(orderAmount);
+        bonuses = new BigDecimal("5.00");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DeliveryFeeService.DeliveryFeeCalculation deliveryFee() {
+        return deliveryFeeService.calculateDeliveryFee(amount);
+    }
+
+    @Benchmark
+    public DeliveryFeeService.PartnerEarnings partnerEarnings() {
+        return deliveryFeeService.calculatePartnerEarnings(amount, bonuses);
+    }
+
+    @Benchmark
+    public void feeAndEarnings(Blackhole blackhole) {
+        blackhole.consume(deliveryFeeService.calculateDeliveryFee(amount));
+        blackhole.consume(deliveryFeeService.calculatePartnerEarnings(amount, bonuses));
+    }
+}
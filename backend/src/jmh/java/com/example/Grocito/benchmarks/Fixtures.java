@@ -0,0 +1,161 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.Cart;
+import com.example.Grocito.Entity.CartItem;
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Location;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.etag.ResourceVersions;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingOverride;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shaped like production rows
+ */
+final class Fixtures {
+
+    static final String PINCODE = "560001";
+
+    private static final String[] CATEGORIES = {"Fruits", "Vegetables", "Dairy", "Bakery", "Beverages", "Snacks"};
+
+    private Fixtures() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setDescription("Fresh product number " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            product.setPrice(10 + random.nextInt(490) + 0.5 * random.nextInt(2));
+            product.setImageUrl("https://cdn.example.com/products/" + i + ".jpg");
+            product.setPincode(PINCODE);
+            product.setStock(random.nextInt(200));
+            products.add(product);
+        }
+        return products;
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName("Customer " + id);
+        user.setEmail("customer" + id + "@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setRole("USER");
+        user.setAddress("12 Market Road, Bangalore");
+        user.setPincode(PINCODE);
+        user.setContactNumber("9876543210");
+        return user;
+    }
+
+    static Cart cart(User user, List<Product> products) {
+        Cart cart = new Cart();
+        cart.setId(user.getId());
+        cart.setUser(user);
+        List<CartItem> items = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            items.add(new CartItem((long) i + 1, products.get(i), 1 + i % 4, cart));
+        }
+        cart.setItems(items);
+        return cart;
+    }
+
+    static DeliveryPartnerAuth partner(long id) {
+        DeliveryPartnerAuth partner = new DeliveryPartnerAuth();
+        partner.setId(id);
+        partner.setFullName("Partner " + id);
+        partner.setEmail("partner" + id + "@example.com");
+        partner.setPhoneNumber("90000" + String.format("%05d", id));
+        partner.setPincode(PINCODE);
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber("KA01AB" + id);
+        partner.setVerificationStatus("VERIFIED");
+        return partner;
+    }
+
+    static Order order(long id, User user, DeliveryPartnerAuth partner, List<Product> products) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setDeliveryPartner(partner);
+        order.setStatus("DELIVERED");
+        order.setOrderTime(LocalDateTime.of(2024, 6, 1, 10, 30).plusMinutes(id));
+        order.setDeliveredAt(order.getOrderTime().plusMinutes(25));
+        order.setDeliveryAddress(user.getAddress());
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PAID");
+        order.setActualPaymentMethod("UPI");
+
+        List<OrderItem> items = new ArrayList<>(products.size());
+        double total = 0;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            OrderItem item = new OrderItem();
+            item.setId(id * 100 + i);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            item.setPrice(product.getPrice());
+            item.setTotalPrice(product.getPrice() * item.getQuantity());
+            item.setOrder(order);
+            items.add(item);
+            total += item.getTotalPrice();
+        }
+        order.setItems(items);
+        order.setDeliveryFee(total >= 199 ? 0 : 40);
+        order.setTotalAmount(total + order.getDeliveryFee());
+        return order;
+    }
+
+    static List<Location> locations(int count) {
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = new Location();
+            location.setId((long) i + 1);
+            location.setPincode(String.valueOf(560001 + i));
+            location.setAreaName("Area " + i);
+            location.setCity("Bangalore");
+            location.setState("Karnataka");
+            location.setServiceAvailable(i % 3 != 0);
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Wiring with the pricing engine on the default application.properties amounts and the given
+     * overrides, loaded through the overrides file as in production
+     */
+    static BenchmarkSupport.Wiring pricing(List<PricingOverride> overrides) {
+        BenchmarkSupport.Wiring wiring = BenchmarkSupport.wiring()
+                .component(PricingEngine.class, ResourceVersions.class)
+                .property("pricing.reload-check-seconds", 0);
+        if (overrides.isEmpty()) {
+            return wiring;
+        }
+        try {
+            Path file = Files.createTempFile("pricing-overrides", ".json");
+            file.toFile().deleteOnExit();
+            BenchmarkSupport.objectMapper().writeValue(file.toFile(), overrides);
+            return wiring.property("pricing.overrides-file", file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
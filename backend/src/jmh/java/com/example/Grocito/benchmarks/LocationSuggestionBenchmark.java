@@ -0,0 +1,56 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.Location;
+import com.example.Grocito.Repository.LocationRepository;
+import com.example.Grocito.Services.LocationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location suggestion path in LocationService with the ranked repository result already in memory,
+ * so only the service-side work is measured (query normalization, pincode detection, truncation)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocationSuggestionBenchmark {
+
+    @Param({"5", "50"})
+    private int matches;
+
+    @Param({"Area", "560001"})
+    private String query;
+
+    private AnnotationConfigApplicationContext context;
+    private LocationService locationService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        List<Location> ranked = Fixtures.locations(matches);
+        context = BenchmarkSupport.wiring()
+                .component(LocationService.class)
+                .bean(BenchmarkSupport.stub(LocationRepository.class,
+                        Map.of("findSuggestions", args -> new ArrayList<>(ranked))))
+                .start();
+        locationService = context.getBean(LocationService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Location> suggestions() {
+        return locationService.getLocationSuggestions(" " + query + " ");
+    }
+}
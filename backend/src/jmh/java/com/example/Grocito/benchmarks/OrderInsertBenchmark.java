@@ -0,0 +1,141 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.GrocitoApplication;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.Repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order inserts through Hibernate with Snowflake ids (items cascade with the order, inserts are batched),
+ * from one thread and from several threads at once. Runs the application against an in-memory H2 in MySQL
+ * mode, so it measures the application side of the write path; the key-range spreading of the ids
+ * only pays off on a distributed database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderInsertBenchmark {
+
+    // Orders committed per transaction, like a checkout burst or a batch import
+    private static final int ORDERS_PER_TRANSACTION = 10;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private OrderRepository orderRepository;
+    private User customer;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        // Passed as arguments, which take precedence over application.properties
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:insert-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.hikari.maximum-pool-size", "16");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.flyway.enabled", "false");
+        properties.put("schema.plan-check.enabled", "false");
+        properties.put("location.api.enabled", "false");
+        properties.put("order-archive.interval-hours", "0");
+        properties.put("partner-read-model.check-interval-minutes", "0");
+        properties.put("leaderboards.rebuild-interval-minutes", "0");
+        properties.put("logging.file.name", "target/jmh-logs/grocito.log");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.example.Grocito", "WARN");
+
+        context = new SpringApplicationBuilder(GrocitoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("local")
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        User user = new User();
+        user.setFullName("Benchmark Customer");
+        user.setEmail("insert-benchmark@example.com");
+        user.setRole("USER");
+        user.setPincode("560001");
+        user.setRegisteredDate(LocalDate.now());
+        customer = context.getBean(UserRepository.class).save(user);
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(productRepository.save(new Product(null, "Product " + i, null, 20.0 + i, "Fruits", null,
+                    "560001", 1000)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Order> insertSingleThread() {
+        return insertOrders();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Order> insertFourThreads() {
+        return insertOrders();
+    }
+
+    private List<Order> insertOrders() {
+        return transactionTemplate.execute(status -> {
+            List<Order> orders = new ArrayList<>(ORDERS_PER_TRANSACTION);
+            for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                orders.add(order());
+            }
+            return orderRepository.saveAll(orders);
+        });
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus("PLACED");
+        order.setOrderTime(LocalDateTime.now());
+        order.setDeliveryAddress("Benchmark Street 1");
+        order.setPincode("560001");
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PENDING");
+        double total = 0;
+        for (Product product : products) {
+            OrderItem item = new OrderItem(null, 1, product.getPrice(), product.getPrice(), order, product);
+            order.getItems().add(item);
+            total += product.getPrice();
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.Cart;
+import com.example.Grocito.Entity.CartItem;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingRule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order subtotal, delivery fee and partner earning as computed by OrderService when an order is placed from a cart
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({"3", "20", "100"})
+    private int itemCount;
+
+    private AnnotationConfigApplicationContext context;
+    private PricingEngine pricingEngine;
+    private List<CartItem> cartItems;
+    private LocalDateTime orderTime;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        context = Fixtures.pricing(List.of()).start();
+        pricingEngine = context.getBean(PricingEngine.class);
+        Cart cart = Fixtures.cart(Fixtures.user(1), Fixtures.products(itemCount));
+        cartItems = cart.getItems();
+        orderTime = LocalDateTime.of(2024, 1, 15, 10, 30);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public double orderTotal() {
+        // Same arithmetic as OrderService.placeOrderFromCart
+        double orderTotal = 0.0;
+        for (CartItem cartItem : cartItems) {
+            orderTotal += cartItem.getProduct().getPrice() * cartItem.getQuantity();
+        }
+        PricingRule pricing = pricingEngine.rule(Fixtures.PINCODE, orderTime);
+        long subtotal = PricingEngine.toPaise(orderTotal);
+        double deliveryFee = PricingEngine.toRupeesDouble(pricing.deliveryFee(subtotal));
+        double partnerEarning = PricingEngine.toRupeesDouble(pricing.partnerEarning(subtotal));
+        return orderTotal + deliveryFee + partnerEarning;
+    }
+}
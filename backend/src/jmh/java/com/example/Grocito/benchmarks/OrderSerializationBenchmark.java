@@ -0,0 +1,86 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.dto.OrderLineDto;
+import com.example.Grocito.dto.OrderSummaryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of order lists: full Order entity graphs versus the OrderSummaryDto projection
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int orderCount;
+
+    @Param({"5"})
+    private int itemsPerOrder;
+
+    private ObjectMapper objectMapper;
+    private List<Order> orders;
+    private List<OrderSummaryDto> summaries;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        // Same modules and date format as the Spring Boot mapper
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        List<Product> products = Fixtures.products(itemsPerOrder);
+        User user = Fixtures.user(1);
+        DeliveryPartnerAuth partner = Fixtures.partner(1);
+        orders = new ArrayList<>(orderCount);
+        summaries = new ArrayList<>(orderCount);
+        for (long id = 1; id <= orderCount; id++) {
+            Order order = Fixtures.order(id, user, partner, products);
+            orders.add(order);
+            summaries.add(toSummary(order));
+        }
+    }
+
+    @Benchmark
+    public byte[] entityGraph() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] summaryProjection() throws Exception {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+
+    private static OrderSummaryDto toSummary(Order order) {
+        User user = order.getUser();
+        DeliveryPartnerAuth partner = order.getDeliveryPartner();
+        OrderSummaryDto summary = new OrderSummaryDto(order.getId(), order.getStatus(), order.getOrderTime(),
+                order.getDeliveryAddress(), order.getPincode(), order.getTotalAmount(), order.getDeliveryFee(),
+                order.getPaymentMethod(), order.getPaymentStatus(), order.getActualPaymentMethod(),
+                order.getAssignedAt(), order.getPickedUpAt(), order.getDeliveredAt(), order.getCancelledAt(),
+                user.getId(), user.getFullName(), user.getEmail(), user.getContactNumber(),
+                partner.getId(), partner.getFullName(), partner.getPhoneNumber(),
+                partner.getVehicleType(), partner.getVehicleNumber());
+        order.getItems().forEach(item -> summary.items().add(new OrderLineDto(order.getId(), item.getId(),
+                item.getQuantity(), item.getPrice(), item.getTotalPrice(), item.getProduct().getId(),
+                item.getProduct().getName(), item.getProduct().getPrice(), item.getProduct().getImageUrl(),
+                item.getProduct().getCategory())));
+        return summary;
+    }
+}
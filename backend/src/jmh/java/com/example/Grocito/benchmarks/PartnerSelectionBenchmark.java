@@ -0,0 +1,56 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.Services.OrderAssignmentService;
+import com.example.Grocito.readmodel.PartnerReadModel;
+import com.example.Grocito.readmodel.PartnerView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Available partner lookup in OrderAssignmentService (served by PartnerReadModel), which runs for
+ * every automatic assignment
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartnerSelectionBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int partnersInPincode;
+
+    private AnnotationConfigApplicationContext context;
+    private OrderAssignmentService orderAssignmentService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        context = BenchmarkSupport.wiring()
+                .component(OrderAssignmentService.class, PartnerReadModel.class)
+                .start();
+        orderAssignmentService = context.getBean(OrderAssignmentService.class);
+        PartnerReadModel partnerReadModel = context.getBean(PartnerReadModel.class);
+
+        // Verified partners that went online, the same calls registration and updateAvailability make
+        for (long id = 1; id <= partnersInPincode; id++) {
+            partnerReadModel.authChanged(PartnerView.of(Fixtures.partner(id)));
+            partnerReadModel.setAvailable(id, true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long selectPartner() {
+        List<Long> available = orderAssignmentService.getAvailablePartners(Fixtures.PINCODE);
+        return available.isEmpty() ? null : available.get(0);
+    }
+}
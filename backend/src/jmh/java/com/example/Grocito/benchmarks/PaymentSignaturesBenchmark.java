@@ -0,0 +1,73 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.payments.PaymentSignatures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook signature check of a typical payment.captured body: the per-thread Mac of PaymentSignatures
+ * against looking up and keying a new Mac for every webhook
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentSignaturesBenchmark {
+
+    private static final String SECRET = "benchmark-webhook-secret";
+
+    private AnnotationConfigApplicationContext context;
+    private PaymentSignatures signatures;
+    private byte[] body;
+    private String signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkSupport.quietLogging();
+        context = BenchmarkSupport.wiring()
+                .component(PaymentSignatures.class)
+                .property("payments.razorpay.key-secret", "benchmark-key-secret")
+                .property("payments.razorpay.webhook-secret", SECRET)
+                .start();
+        signatures = context.getBean(PaymentSignatures.class);
+        body = ("{\"entity\":\"event\",\"account_id\":\"acc_BFQ7uQEaa7j2z7\",\"event\":\"payment.captured\"," +
+                "\"contains\":[\"payment\"],\"payload\":{\"payment\":{\"entity\":{\"id\":\"pay_DESlfW9H8K9uqM\"," +
+                "\"entity\":\"payment\",\"amount\":24900,\"currency\":\"INR\",\"status\":\"captured\"," +
+                "\"order_id\":\"order_DESlLckIVRkHWj\",\"invoice_id\":null,\"international\":false,\"method\":\"upi\"," +
+                "\"amount_refunded\":0,\"refund_status\":null,\"captured\":true,\"description\":\"Grocito order\"," +
+                "\"card_id\":null,\"bank\":null,\"wallet\":null,\"vpa\":\"customer@okbank\",\"email\":\"customer@example.com\"," +
+                "\"contact\":\"+919876543210\",\"notes\":[],\"fee\":588,\"tax\":90,\"error_code\":null," +
+                "\"error_description\":null,\"created_at\":1567674599}}},\"created_at\":1567674606}")
+                .getBytes(StandardCharsets.UTF_8);
+        signature = HexFormat.of().formatHex(newMac().doFinal(body));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private static Mac newMac() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac;
+    }
+
+    @Benchmark
+    public boolean perThreadMac() {
+        return signatures.verifyWebhook(body, signature);
+    }
+
+    @Benchmark
+    public boolean newMacPerWebhook() throws Exception {
+        return HexFormat.of().formatHex(newMac().doFinal(body)).equals(signature);
+    }
+}
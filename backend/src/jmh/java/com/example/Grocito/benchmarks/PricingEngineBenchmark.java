@@ -0,0 +1,73 @@
+package com.example.Grocito.benchmarks;
+
+import com.example.Grocito.pricing.EarningsBatch;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingOverride;
+import com.example.Grocito.pricing.PricingRule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule lookup with per-pincode and time-of-day overrides, and the bulk earnings pass of the partner dashboard
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingEngineBenchmark {
+
+    @Param({"20", "500"})
+    private int deliveries;
+
+    private AnnotationConfigApplicationContext context;
+    private PricingEngine pricingEngine;
+    private LocalDateTime orderTime;
+    private long orderAmount;
+    private long[] orderAmounts;
+    private long[] bonuses;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        context = Fixtures.pricing(List.of(
+                new PricingOverride(null, LocalTime.of(22, 0), LocalTime.of(6, 0), null, new BigDecimal("60.00"), new BigDecimal("45.00"), null),
+                new PricingOverride(Fixtures.PINCODE, null, null, new BigDecimal("299.00"), null, null, null))).start();
+        pricingEngine = context.getBean(PricingEngine.class);
+        orderTime = LocalDateTime.of(2024, 1, 15, 23, 15);
+        orderAmount = 14950;
+        Random random = new Random(42);
+        orderAmounts = new long[deliveries];
+        bonuses = new long[deliveries];
+        for (int i = 0; i < deliveries; i++) {
+            orderAmounts[i] = 5000 + random.nextInt(80000);
+            bonuses[i] = random.nextInt(4) == 0 ? 500 : 0;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long feeAndEarning() {
+        PricingRule rule = pricingEngine.rule(Fixtures.PINCODE, orderTime);
+        return rule.deliveryFee(orderAmount) + rule.partnerEarning(orderAmount);
+    }
+
+    @Benchmark
+    public long bulkEarnings() {
+        EarningsBatch batch = EarningsBatch.evaluate(pricingEngine.policy(), pricingEngine.rule(Fixtures.PINCODE),
+                orderAmounts, bonuses, deliveries);
+        return batch.totals().totalEarnings() + batch.totals().averageEarnings();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Grocito.loadtest;
+
+/**
+ * Number of sessions of one kind the current phase wants running; sessions above it idle
+ */
+class ActiveCount {
+
+    private volatile int count;
+
+    void set(int count) {
+        this.count = count;
+    }
+
+    boolean allows(int sessionIndex) {
+        return sessionIndex < count;
+    }
+}
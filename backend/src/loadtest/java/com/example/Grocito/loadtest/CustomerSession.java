@@ -0,0 +1,157 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One simulated shopper: logs in once, then loops over weighted actions until stopped
+ */
+class CustomerSession implements Runnable {
+
+    private static final String[] SEARCH_TERMS = {"Fresh", "Organic", "Dairy", "Premium", "Snacks", "Value"};
+    private static final String[] SUGGEST_TERMS = {"Load", "5601", "Karn", "Test"};
+
+    private final LoadTestClient client;
+    private final Scenario scenario;
+    private final int userIndex;
+    private final String[] actions;
+    private final int[] cumulativeWeights;
+    private final ActiveCount active;
+
+    private Long userId;
+    private String token;
+    private String pincode;
+    private String address;
+    private final List<Long> productIds = new ArrayList<>();
+    private int cartItems;
+
+    CustomerSession(LoadTestClient client, Scenario scenario, int userIndex, ActiveCount active) {
+        this.client = client;
+        this.scenario = scenario;
+        this.userIndex = userIndex;
+        this.active = active;
+
+        Map<String, Integer> mix = scenario.getCustomerMix();
+        this.actions = mix.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[actions.length];
+        int total = 0;
+        for (int i = 0; i < actions.length; i++) {
+            total += Math.max(0, mix.get(actions[i]));
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!login()) {
+            return;
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            if (!active.allows(userIndex)) {
+                LoadTestRunner.pause(250);
+                continue;
+            }
+            perform(nextAction());
+            LoadTestRunner.pause(scenario.getThinkTimeMillis());
+        }
+    }
+
+    private boolean login() {
+        LoadTestClient.Response response = client.post("login", "/api/users/login", null,
+                Map.of("email", LoadTestNaming.userEmail(userIndex % scenario.getUsers()),
+                        "password", LoadTestNaming.PASSWORD));
+        if (!response.ok()) {
+            return false;
+        }
+        JsonNode user = response.json();
+        userId = user.path("id").asLong();
+        token = user.path("token").asText(null);
+        pincode = user.path("pincode").asText();
+        address = user.path("address").asText("Load Test Street");
+        return true;
+    }
+
+    private String nextAction() {
+        int total = cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+        if (total == 0) {
+            return "browse";
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    private void perform(String action) {
+        switch (action) {
+            case "browse" -> browse();
+            case "search" -> client.get("search", "/api/products/search/pincode/" + pincode + "?keyword="
+                    + encode(pick(SEARCH_TERMS)), token);
+            case "suggest" -> client.get("suggest", "/api/locations/suggestions?query=" + encode(pick(SUGGEST_TERMS)), token);
+            case "addToCart" -> addToCart();
+            case "checkout" -> checkout();
+            case "orderHistory" -> client.get("orderHistory", "/api/orders/user/" + userId + "?limit=20", token);
+            default -> throw new RuntimeException("Unknown customer action: " + action);
+        }
+    }
+
+    private void browse() {
+        LoadTestClient.Response response = client.get("browse", "/api/products/pincode/" + pincode, token);
+        if (response.ok() && productIds.isEmpty()) {
+            for (JsonNode product : response.json()) {
+                productIds.add(product.path("id").asLong());
+            }
+        }
+    }
+
+    private void addToCart() {
+        if (productIds.isEmpty()) {
+            browse();
+            if (productIds.isEmpty()) {
+                return;
+            }
+        }
+        Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+        LoadTestClient.Response response = client.post("addToCart", "/api/cart/add", token,
+                Map.of("userId", userId, "productId", productId, "quantity", 1 + ThreadLocalRandom.current().nextInt(3)));
+        if (response.ok()) {
+            cartItems++;
+        }
+    }
+
+    private void checkout() {
+        // An empty cart is rejected by the service, so shoppers always fill one first
+        if (cartItems == 0) {
+            addToCart();
+        }
+        String path = "/api/orders/place-from-cart?userId=" + userId
+                + "&deliveryAddress=" + encode(address) + "&paymentMethod=COD&landingPagePincode=" + pincode;
+        // Like the mobile clients, a checkout that timed out is retried once with the same key
+        String idempotencyKey = UUID.randomUUID().toString();
+        LoadTestClient.Response response = client.post("checkout", path, token, null, idempotencyKey);
+        if (response.status == -1) {
+            response = client.post("checkout", path, token, null, idempotencyKey);
+        }
+        if (response.ok()) {
+            cartItems = 0;
+        }
+    }
+
+    private static String pick(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
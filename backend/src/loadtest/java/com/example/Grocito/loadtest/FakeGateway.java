@@ -0,0 +1,159 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for Razorpay: serves the Orders API the backend calls (POST /v1/orders) and makes the webhook
+ * bodies and signatures the real gateway would send for payments of those orders.
+ */
+class FakeGateway {
+
+    private static final String ID_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final Scenario.Webhooks config;
+    private final ObjectMapper objectMapper;
+    private final HttpServer server;
+    private final String expectedAuthorization;
+    // Amount in paise of every gateway order created
+    private final Map<String, Long> orderAmounts = new ConcurrentHashMap<>();
+    private final AtomicInteger rejectedCalls = new AtomicInteger();
+
+    FakeGateway(Scenario.Webhooks config, ObjectMapper objectMapper) throws IOException {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.expectedAuthorization = "Basic " + Base64.getEncoder().encodeToString(
+                (config.getKeyId() + ":" + config.getKeySecret()).getBytes(StandardCharsets.UTF_8));
+        this.server = HttpServer.create(new InetSocketAddress(config.getGatewayPort()), 0);
+        server.createContext("/v1/orders", this::createOrder);
+        server.setExecutor(Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "fake-gateway");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    int ordersCreated() {
+        return orderAmounts.size();
+    }
+
+    int rejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    Long amountOf(String gatewayOrderId) {
+        return orderAmounts.get(gatewayOrderId);
+    }
+
+    private void createOrder(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())
+                    || !expectedAuthorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                rejectedCalls.incrementAndGet();
+                respond(exchange, 401, Map.of("error", Map.of("code", "BAD_REQUEST_ERROR", "description", "Authentication failed")));
+                return;
+            }
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            long amount = request.path("amount").asLong();
+            String id = "order_" + randomId();
+            orderAmounts.put(id, amount);
+            respond(exchange, 200, Map.of("id", id, "entity", "order", "amount", amount, "amount_paid", 0,
+                    "currency", request.path("currency").asText("INR"), "receipt", request.path("receipt").asText(""),
+                    "status", "created"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static String randomId() {
+        StringBuilder id = new StringBuilder(14);
+        for (int i = 0; i < 14; i++) {
+            id.append(ID_CHARACTERS.charAt(ThreadLocalRandom.current().nextInt(ID_CHARACTERS.length())));
+        }
+        return id.toString();
+    }
+
+    /**
+     * Webhook body for a payment event (payment.authorized, payment.captured, payment.failed)
+     */
+    byte[] paymentEvent(String type, String gatewayOrderId, String paymentId, long amount) {
+        ObjectNode payment = objectMapper.createObjectNode()
+                .put("id", paymentId)
+                .put("entity", "payment")
+                .put("amount", amount)
+                .put("currency", "INR")
+                .put("status", type.substring("payment.".length()))
+                .put("order_id", gatewayOrderId)
+                .put("method", ThreadLocalRandom.current().nextBoolean() ? "upi" : "card");
+        if ("payment.failed".equals(type)) {
+            payment.put("error_code", "BAD_REQUEST_ERROR").put("error_description", "Payment was declined by the bank");
+        } else {
+            payment.putNull("error_code").putNull("error_description");
+        }
+        ObjectNode event = objectMapper.createObjectNode()
+                .put("entity", "event")
+                .put("account_id", "acc_loadtest")
+                .put("event", type)
+                .put("created_at", System.currentTimeMillis() / 1000);
+        event.putArray("contains").add("payment");
+        event.putObject("payload").putObject("payment").set("entity", payment);
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    String webhookSignature(byte[] body) {
+        return hmac(config.getWebhookSecret(), body);
+    }
+
+    String checkoutSignature(String gatewayOrderId, String paymentId) {
+        return hmac(config.getKeySecret(), (gatewayOrderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String hmac(String secret, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.Grocito.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-thread latency samples, merged once at the end so recording never contends between virtual users
+ */
+class LatencyRecorder {
+
+    private final List<Map<String, Samples>> perThread = new ArrayList<>();
+    private final ThreadLocal<Map<String, Samples>> local = ThreadLocal.withInitial(() -> {
+        Map<String, Samples> samples = new HashMap<>();
+        synchronized (perThread) {
+            perThread.add(samples);
+        }
+        return samples;
+    });
+
+    private volatile boolean recording;
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void record(String endpoint, long nanos, boolean error) {
+        if (recording) {
+            local.get().computeIfAbsent(endpoint, k -> new Samples()).add(nanos, error);
+        }
+    }
+
+    /**
+     * Endpoint -> merged samples, sorted by latency
+     */
+    Map<String, Samples> merge() {
+        Map<String, Samples> merged = new TreeMap<>();
+        synchronized (perThread) {
+            for (Map<String, Samples> samples : perThread) {
+                samples.forEach((endpoint, s) -> merged.computeIfAbsent(endpoint, k -> new Samples()).addAll(s));
+            }
+        }
+        merged.values().forEach(Samples::sort);
+        return merged;
+    }
+
+    static class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value, boolean error) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        void sort() {
+            Arrays.sort(nanos, 0, size);
+        }
+
+        int count() {
+            return size;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        double percentileMillis(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return nanos[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+        }
+
+        double meanMillis() {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += nanos[i];
+            }
+            return size == 0 ? 0 : total / (double) size / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Thin HTTP wrapper that times every call against the named endpoint in the {@link LatencyRecorder}
+ */
+class LoadTestClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final ObjectMapper objectMapper;
+
+    LoadTestClient(HttpClient httpClient, String baseUrl, LatencyRecorder recorder, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+        this.objectMapper = objectMapper;
+    }
+
+    Response get(String endpoint, String path, String token) {
+        return send(endpoint, request(path, token).GET());
+    }
+
+    Response post(String endpoint, String path, String token, Object body) {
+        return send(endpoint, request(path, token).POST(bodyOf(body)));
+    }
+
+    Response post(String endpoint, String path, String token, Object body, String idempotencyKey) {
+        return send(endpoint, request(path, token).header("Idempotency-Key", idempotencyKey).POST(bodyOf(body)));
+    }
+
+    Response postRaw(String endpoint, String path, byte[] body, Map<String, String> headers) {
+        HttpRequest.Builder builder = request(path, null);
+        headers.forEach(builder::header);
+        return send(endpoint, builder.POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+    }
+
+    Response put(String endpoint, String path, String token, Object body) {
+        return send(endpoint, request(path, token).PUT(bodyOf(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher bodyOf(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to serialize request body: " + e.getMessage());
+        }
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            // 409 on accept-order is a lost race between partners, not a server failure
+            boolean error = response.statusCode() >= 500 || (response.statusCode() >= 400 && response.statusCode() != 409);
+            recorder.record(endpoint, elapsed, error);
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, true);
+            return new Response(-1, new byte[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(-1, new byte[0]);
+        }
+    }
+
+    class Response {
+        final int status;
+        final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode json() {
+            try {
+                return body.length == 0 ? objectMapper.nullNode() : objectMapper.readTree(body);
+            } catch (IOException e) {
+                return objectMapper.nullNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.Grocito.loadtest;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Location;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.LocationRepository;
+import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.Repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds pincodes, products, customers and verified partners when the app runs with the loadtest profile.
+ * Naming follows {@link LoadTestNaming} so the load generator can log in without a shared fixture file.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+    private final Logger logger = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+
+    private static final String[] CATEGORIES = {"Fruits", "Vegetables", "Dairy", "Bakery", "Beverages", "Snacks", "Staples"};
+    private static final String[] PRODUCT_WORDS = {"Organic", "Fresh", "Premium", "Farm", "Classic", "Daily", "Value"};
+
+    @Value("${loadtest.seed.pincodes:20}")
+    private int pincodes;
+
+    @Value("${loadtest.seed.products-per-pincode:50}")
+    private int productsPerPincode;
+
+    @Value("${loadtest.seed.users:2000}")
+    private int users;
+
+    @Value("${loadtest.seed.partners-per-pincode:5}")
+    private int partnersPerPincode;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userRepository.findByEmail(LoadTestNaming.userEmail(0)).isPresent()) {
+            logger.info("Load test data already present, skipping seed");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(7);
+
+        List<Location> locations = new ArrayList<>(pincodes);
+        List<Product> products = new ArrayList<>(pincodes * productsPerPincode);
+        List<DeliveryPartnerAuth> partners = new ArrayList<>(pincodes * partnersPerPincode);
+        for (int p = 0; p < pincodes; p++) {
+            String pincode = LoadTestNaming.pincode(p);
+
+            Location location = new Location();
+            location.setPincode(pincode);
+            location.setAreaName("Load Test Area " + p);
+            location.setCity("Load Test City");
+            location.setState("Karnataka");
+            location.setServiceAvailable(true);
+            locations.add(location);
+
+            for (int i = 0; i < productsPerPincode; i++) {
+                Product product = new Product();
+                product.setName(PRODUCT_WORDS[i % PRODUCT_WORDS.length] + " " + CATEGORIES[i % CATEGORIES.length] + " " + i);
+                product.setDescription("Load test product " + i + " for " + pincode);
+                product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+                product.setPrice(10 + random.nextInt(300));
+                product.setImageUrl("https://cdn.example.com/loadtest/" + i + ".jpg");
+                product.setPincode(pincode);
+                // Deep stock so checkout measures the happy path rather than stock conflicts
+                product.setStock(1_000_000);
+                products.add(product);
+            }
+
+            for (int k = 0; k < partnersPerPincode; k++) {
+                DeliveryPartnerAuth partner = new DeliveryPartnerAuth();
+                partner.setEmail(LoadTestNaming.partnerEmail(p, k));
+                partner.setPassword(LoadTestNaming.PASSWORD);
+                partner.setPhoneNumber(String.format("7%02d%07d", p % 100, k));
+                partner.setFullName("Load Partner " + p + "-" + k);
+                partner.setPincode(pincode);
+                partner.setVehicleType("BIKE");
+                partner.setVehicleNumber("LT" + p + "X" + k);
+                partner.setLicenseNumber("DL-LT-" + p + "-" + k);
+                partner.setVerificationStatus("VERIFIED");
+                partners.add(partner);
+            }
+        }
+
+        List<User> customers = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            User user = new User();
+            user.setFullName("Load Customer " + u);
+            user.setEmail(LoadTestNaming.userEmail(u));
+            user.setPassword(LoadTestNaming.PASSWORD);
+            user.setRole("USER");
+            user.setAddress(u + " Load Test Street");
+            user.setPincode(LoadTestNaming.pincode(u % pincodes));
+            user.setContactNumber(String.format("9%09d", u));
+            user.setRegisteredDate(LocalDate.now());
+            customers.add(user);
+        }
+
+        locationRepository.saveAll(locations);
+        productRepository.saveAll(products);
+        partnerRepository.saveAll(partners);
+        userRepository.saveAll(customers);
+
+        logger.info("Seeded {} pincodes, {} products, {} partners and {} users in {} ms",
+                locations.size(), products.size(), partners.size(), customers.size(), System.currentTimeMillis() - start);
+    }
+}
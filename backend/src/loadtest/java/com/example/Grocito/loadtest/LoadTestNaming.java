@@ -0,0 +1,24 @@
+package com.example.Grocito.loadtest;
+
+/**
+ * Shared naming scheme between {@link LoadTestDataSeeder} and {@link LoadTestRunner}
+ */
+final class LoadTestNaming {
+
+    static final String PASSWORD = "loadtest";
+
+    private LoadTestNaming() {
+    }
+
+    static String pincode(int index) {
+        return String.valueOf(560100 + index);
+    }
+
+    static String userEmail(int index) {
+        return "loadtest-user-" + index + "@example.com";
+    }
+
+    static String partnerEmail(int pincodeIndex, int partnerIndex) {
+        return "loadtest-partner-" + pincodeIndex + "-" + partnerIndex + "@example.com";
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives a scenario against a running backend and prints throughput and latency percentiles per endpoint.
+ *
+ * Usage: LoadTestRunner <scenario> [baseUrl]
+ * where scenario is a file path or the name of a bundled scenario (smoke, peak-hour, concurrency-5k,
+ * order-contention, webhook-storm). Scenarios with a contention section race status changes instead (see
+ * {@link OrderContentionRun}) and exit with status 1 when a transition was lost; scenarios with a webhooks section
+ * pay orders through a fake gateway (see {@link WebhookStormRun}) and exit with status 1 when an order ended up
+ * with the wrong payment.
+ */
+public class LoadTestRunner {
+
+    private static final String DEFAULT_BASE_URL = "http://localhost:8080";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadTestRunner <scenario> [baseUrl]");
+            System.exit(2);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Scenario scenario = loadScenario(objectMapper, args[0]);
+        String baseUrl = args.length > 1 ? args[1] : DEFAULT_BASE_URL;
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LoadTestClient client = new LoadTestClient(httpClient, baseUrl, recorder, objectMapper);
+
+        if (scenario.getContention() != null) {
+            System.out.printf("Scenario %s against %s: %d orders raced by %d workers%n", scenario.getName(), baseUrl,
+                    scenario.getContention().getOrders(), scenario.getContention().getWorkers());
+            OrderContentionRun run = new OrderContentionRun(client, scenario);
+            recorder.startRecording();
+            double elapsedSeconds = run.run();
+            Map<String, LatencyRecorder.Samples> results = recorder.merge();
+            printReport(results, Map.of(), elapsedSeconds);
+            run.printReport(elapsedSeconds);
+            Path output = writeReport(objectMapper, scenario, baseUrl, results, Map.of(), elapsedSeconds);
+            System.out.println("Results written to " + output);
+            System.exit(run.passed() ? 0 : 1);
+        }
+
+        if (scenario.getWebhooks() != null) {
+            Scenario.Webhooks webhooks = scenario.getWebhooks();
+            System.out.printf("Scenario %s against %s: %d orders paid by %d workers, every webhook sent %d times, "
+                            + "fake gateway on port %d%n", scenario.getName(), baseUrl, webhooks.getOrders(),
+                    webhooks.getWorkers(), webhooks.getReplays(), webhooks.getGatewayPort());
+            FakeGateway gateway = new FakeGateway(webhooks, objectMapper);
+            gateway.start();
+            WebhookStormRun run = new WebhookStormRun(client, scenario, gateway);
+            recorder.startRecording();
+            double elapsedSeconds;
+            try {
+                elapsedSeconds = run.run();
+            } finally {
+                gateway.stop();
+            }
+            Map<String, LatencyRecorder.Samples> results = recorder.merge();
+            printReport(results, Map.of(), elapsedSeconds);
+            run.printReport();
+            Path output = writeReport(objectMapper, scenario, baseUrl, results, Map.of(), elapsedSeconds);
+            System.out.println("Results written to " + output);
+            System.exit(run.passed() ? 0 : 1);
+        }
+
+        ActiveCount activeCustomers = new ActiveCount();
+        ActiveCount activePartners = new ActiveCount();
+        List<Thread> sessions = new ArrayList<>();
+        for (int i = 0; i < scenario.maxPartners(); i++) {
+            sessions.add(new Thread(new PartnerSession(client, scenario, i, activePartners), "partner-" + i));
+        }
+        for (int i = 0; i < scenario.maxCustomers(); i++) {
+            sessions.add(new Thread(new CustomerSession(client, scenario, i, activeCustomers), "customer-" + i));
+        }
+
+        System.out.printf("Scenario %s against %s: %d customers, %d partners, %d s (+%d s warmup)%n",
+                scenario.getName(), baseUrl, scenario.maxCustomers(), scenario.maxPartners(),
+                scenario.totalSeconds(), scenario.getWarmupSeconds());
+
+        if (!scenario.getPhases().isEmpty()) {
+            Scenario.Phase first = scenario.getPhases().get(0);
+            activeCustomers.set(first.getCustomers());
+            activePartners.set(first.getPartners());
+        }
+        sessions.forEach(Thread::start);
+        Thread.sleep(scenario.getWarmupSeconds() * 1000);
+
+        // Logins and warmup traffic are excluded from the report
+        recorder.startRecording();
+        ServerSampler sampler = new ServerSampler(httpClient, baseUrl, objectMapper);
+        Thread samplerThread = new Thread(sampler, "server-sampler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        long start = System.nanoTime();
+        for (Scenario.Phase phase : scenario.getPhases()) {
+            System.out.printf("Phase %s: %d customers, %d partners for %d s%n",
+                    phase.getName(), phase.getCustomers(), phase.getPartners(), phase.getDurationSeconds());
+            activeCustomers.set(phase.getCustomers());
+            activePartners.set(phase.getPartners());
+            Thread.sleep(phase.getDurationSeconds() * 1000);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        samplerThread.interrupt();
+        sessions.forEach(Thread::interrupt);
+        for (Thread session : sessions) {
+            session.join(5000);
+        }
+
+        Map<String, LatencyRecorder.Samples> results = recorder.merge();
+        Map<String, Double> serverPeaks = sampler.peaks();
+        printReport(results, serverPeaks, elapsedSeconds);
+        Path output = writeReport(objectMapper, scenario, baseUrl, results, serverPeaks, elapsedSeconds);
+        System.out.println("Results written to " + output);
+        System.exit(0);
+    }
+
+    static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Scenario loadScenario(ObjectMapper objectMapper, String nameOrPath) throws IOException {
+        Path path = Path.of(nameOrPath);
+        if (Files.isRegularFile(path)) {
+            return objectMapper.readValue(path.toFile(), Scenario.class);
+        }
+        try (InputStream in = LoadTestRunner.class.getResourceAsStream("/scenarios/" + nameOrPath + ".json")) {
+            if (in == null) {
+                throw new RuntimeException("Scenario not found: " + nameOrPath);
+            }
+            return objectMapper.readValue(in, Scenario.class);
+        }
+    }
+
+    private static void printReport(Map<String, LatencyRecorder.Samples> results, Map<String, Double> serverPeaks,
+                                    double elapsedSeconds) {
+        System.out.printf("%n%-20s %9s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "count", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder.Samples> entry : results.entrySet()) {
+            LatencyRecorder.Samples samples = entry.getValue();
+            total += samples.count();
+            System.out.printf("%-20s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), samples.count(), samples.count() / elapsedSeconds, samples.errors(),
+                    samples.percentileMillis(50), samples.percentileMillis(99),
+                    samples.percentileMillis(99.9), samples.percentileMillis(100));
+        }
+        System.out.printf("%-20s %9d %9.1f%n%n", "total", total, total / elapsedSeconds);
+        if (!serverPeaks.isEmpty()) {
+            System.out.println("Server peaks (from /actuator/metrics):");
+            serverPeaks.forEach((key, value) -> System.out.printf("  %-22s %,.2f%n", key, value));
+            System.out.println();
+        }
+    }
+
+    private static Path writeReport(ObjectMapper objectMapper, Scenario scenario, String baseUrl,
+                                    Map<String, LatencyRecorder.Samples> results, Map<String, Double> serverPeaks,
+                                    double elapsedSeconds) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("scenario", scenario.getName());
+        report.put("baseUrl", baseUrl);
+        report.put("durationSeconds", elapsedSeconds);
+        ArrayNode endpoints = report.putArray("endpoints");
+        results.forEach((endpoint, samples) -> endpoints.addObject()
+                .put("endpoint", endpoint)
+                .put("count", samples.count())
+                .put("throughput", samples.count() / elapsedSeconds)
+                .put("errors", samples.errors())
+                .put("meanMs", samples.meanMillis())
+                .put("p50Ms", samples.percentileMillis(50))
+                .put("p99Ms", samples.percentileMillis(99))
+                .put("p999Ms", samples.percentileMillis(99.9))
+                .put("maxMs", samples.percentileMillis(100)));
+        ObjectNode server = report.putObject("serverPeaks");
+        serverPeaks.forEach(server::put);
+
+        Path output = Path.of("target", "loadtest-" + scenario.getName() + "-result.json");
+        Files.createDirectories(output.getParent());
+        objectMapper.writeValue(output.toFile(), report);
+        return output;
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Races partners and an admin over the same orders to check the order state machine. Every order is
+ * placed, all partners of its pincode try to accept it at once, and the winner walks it to DELIVERED,
+ * tapping every step twice, while an admin cancels it after a random delay. An order fails the check when
+ * more than one partner got it, a step was acknowledged twice, or the status it ended with is not the one
+ * the acknowledged changes lead to (a lost transition).
+ */
+class OrderContentionRun {
+
+    private static final List<String> DELIVERY_STEPS = List.of("PICKED_UP", "OUT_FOR_DELIVERY", "DELIVERED");
+    // Violations printed in full, the rest are only counted
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+
+    private final LoadTestClient client;
+    private final Scenario scenario;
+    private final Scenario.Contention contention;
+    private final ExecutorService racers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "contention-racer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger nextOrder = new AtomicInteger();
+    private final AtomicInteger checkedOrders = new AtomicInteger();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    OrderContentionRun(LoadTestClient client, Scenario scenario) {
+        this.client = client;
+        this.scenario = scenario;
+        this.contention = scenario.getContention();
+    }
+
+    /**
+     * Race all orders; returns the elapsed seconds
+     */
+    double run() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < contention.getWorkers(); i++) {
+            int worker = i;
+            workers.add(new Thread(() -> work(worker), "contention-worker-" + i));
+        }
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        racers.shutdownNow();
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+
+    boolean passed() {
+        return violations.isEmpty() && checkedOrders.get() > 0;
+    }
+
+    void printReport(double elapsedSeconds) {
+        System.out.printf("%nOrder contention: %d orders checked (%d delivered, %d cancelled) by %d workers in %.1f s%n",
+                checkedOrders.get(), delivered.get(), cancelled.get(), contention.getWorkers(), elapsedSeconds);
+        System.out.printf("  status changes acknowledged %d of %d attempts, %.1f changes/s%n",
+                acknowledged.get(), attempts.get(), acknowledged.get() / elapsedSeconds);
+        System.out.printf("  violations %d%n", violations.size());
+        synchronized (violations) {
+            violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(violation -> System.out.println("    " + violation));
+        }
+    }
+
+    private void work(int worker) {
+        // Worker n shops as customer n, whose pincode is n modulo the pincode count (see LoadTestDataSeeder)
+        Customer customer = Customer.login(client, worker % scenario.getUsers());
+        if (customer == null) {
+            violations.add("worker " + worker + ": customer login failed");
+            return;
+        }
+        int pincodeIndex = worker % Math.max(1, scenario.getPincodes());
+        List<String> partners = new ArrayList<>();
+        for (int slot = 0; slot < scenario.getPartnersPerPincode(); slot++) {
+            LoadTestClient.Response response = client.post("partnerLogin", "/api/delivery-partner-auth/login", null,
+                    Map.of("emailOrPhone", LoadTestNaming.partnerEmail(pincodeIndex, slot), "password", LoadTestNaming.PASSWORD));
+            String token = response.ok() ? response.json().path("token").asText(null) : null;
+            if (token != null) {
+                partners.add(token);
+            }
+        }
+        if (partners.isEmpty()) {
+            violations.add("worker " + worker + ": no partner could log in");
+            return;
+        }
+
+        while (nextOrder.getAndIncrement() < contention.getOrders() && !Thread.currentThread().isInterrupted()) {
+            Long orderId = customer.placeOrder();
+            if (orderId != null) {
+                race(orderId, partners);
+            }
+        }
+    }
+
+    private void race(long orderId, List<String> partners) {
+        List<Boolean> accepts = together(partners.size(), i -> client.post("acceptOrder",
+                "/api/delivery-partner-dashboard/accept-order/" + orderId, partners.get(i), null).ok());
+        attempts.addAndGet(accepts.size());
+        int winner = accepts.indexOf(true);
+        long winners = accepts.stream().filter(Boolean::booleanValue).count();
+        if (winners != 1) {
+            violation(orderId, winners + " partners accepted the order");
+            if (winners == 0) {
+                return;
+            }
+        }
+        acknowledged.incrementAndGet();
+        String partner = partners.get(winner);
+
+        Future<Boolean> cancel = racers.submit(() -> {
+            LoadTestRunner.pause(ThreadLocalRandom.current().nextLong(contention.getMaxCancelDelayMillis() + 1));
+            return client.put("adminCancel", "/api/orders/" + orderId + "/status", null, Map.of("status", "CANCELLED")).ok();
+        });
+
+        List<String> steps = new ArrayList<>();
+        for (String step : DELIVERY_STEPS) {
+            if ("DELIVERED".equals(step) && !collectPayment(orderId, partner)) {
+                break;
+            }
+            // A double tap: both requests read the same status, at most one may win
+            List<Boolean> taps = together(2, i -> client.put("updateOrderStatus",
+                    "/api/delivery-partner-dashboard/update-order-status/" + orderId, partner, Map.of("status", step)).ok());
+            attempts.addAndGet(taps.size());
+            long applied = taps.stream().filter(Boolean::booleanValue).count();
+            if (applied > 1) {
+                violation(orderId, step + " acknowledged " + applied + " times");
+            }
+            if (applied == 0) {
+                break;
+            }
+            steps.add(step);
+        }
+
+        boolean wasCancelled = outcome(cancel);
+        attempts.incrementAndGet();
+        acknowledged.addAndGet(steps.size() + (wasCancelled ? 1 : 0));
+
+        String expected = wasCancelled ? "CANCELLED" : steps.isEmpty() ? "ASSIGNED" : steps.get(steps.size() - 1);
+        LoadTestClient.Response response = client.get("orderStatus", "/api/orders/" + orderId, null);
+        String actual = response.ok() ? response.json().path("status").asText() : "unknown (HTTP " + response.status + ")";
+        if (wasCancelled && steps.contains("DELIVERED")) {
+            violation(orderId, "both DELIVERED and CANCELLED were acknowledged");
+        } else if (!expected.equals(actual)) {
+            violation(orderId, "acknowledged " + steps + (wasCancelled ? " and CANCELLED" : "") + " but the order is " + actual);
+        }
+        if ("DELIVERED".equals(actual)) {
+            delivered.incrementAndGet();
+        } else if ("CANCELLED".equals(actual)) {
+            cancelled.incrementAndGet();
+        }
+        checkedOrders.incrementAndGet();
+    }
+
+    /**
+     * COD orders are paid before delivery; the payment save can lose against the admin's cancel, so retry
+     * while the order is still open
+     */
+    private boolean collectPayment(long orderId, String partner) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            if (client.put("collectPayment", "/api/orders/" + orderId + "/payment?actualPaymentMethod=CASH", partner, null).ok()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private interface Call {
+        boolean send(int index);
+    }
+
+    /**
+     * Send the calls at the same moment and wait for all of them
+     */
+    private List<Boolean> together(int count, Call call) {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(racers.submit(() -> {
+                ready.await();
+                return call.send(index);
+            }));
+        }
+        ready.countDown();
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(outcome(future));
+        }
+        return results;
+    }
+
+    private static boolean outcome(Future<Boolean> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private void violation(long orderId, String message) {
+        violations.add("order " + orderId + ": " + message);
+    }
+
+    /**
+     * A logged in shopper placing single item COD orders
+     */
+    record Customer(LoadTestClient client, long userId, String token, String pincode, String address, List<Long> productIds) {
+
+        static Customer login(LoadTestClient client, int userIndex) {
+            LoadTestClient.Response response = client.post("login", "/api/users/login", null,
+                    Map.of("email", LoadTestNaming.userEmail(userIndex), "password", LoadTestNaming.PASSWORD));
+            if (!response.ok()) {
+                return null;
+            }
+            JsonNode user = response.json();
+            String token = user.path("token").asText(null);
+            String pincode = user.path("pincode").asText();
+            List<Long> productIds = new ArrayList<>();
+            for (JsonNode product : client.get("browse", "/api/products/pincode/" + pincode, token).json()) {
+                productIds.add(product.path("id").asLong());
+            }
+            if (productIds.isEmpty()) {
+                return null;
+            }
+            return new Customer(client, user.path("id").asLong(), token, pincode,
+                    user.path("address").asText("Load Test Street"), productIds);
+        }
+
+        Long placeOrder() {
+            Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+            if (!client.post("addToCart", "/api/cart/add", token, Map.of("userId", userId, "productId", productId, "quantity", 1)).ok()) {
+                return null;
+            }
+            LoadTestClient.Response response = client.post("checkout", "/api/orders/place-from-cart?userId=" + userId
+                    + "&deliveryAddress=" + URLEncoder.encode(address, StandardCharsets.UTF_8)
+                    + "&paymentMethod=COD&landingPagePincode=" + pincode, token, null, UUID.randomUUID().toString());
+            return response.ok() ? response.json().path("id").asLong() : null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * One simulated delivery partner: heartbeats, accepts orders in its pincode and walks its orders to DELIVERED.
+ * Orders can also arrive through automatic assignment at checkout, so the active set is read from my-orders.
+ */
+class PartnerSession implements Runnable {
+
+    // Same limit the assignment service enforces per partner
+    private static final int MAX_ACTIVE_ORDERS = 2;
+    private static final Map<String, String> NEXT_STATUS = Map.of(
+            "ASSIGNED", "PICKED_UP",
+            "PICKED_UP", "OUT_FOR_DELIVERY",
+            "OUT_FOR_DELIVERY", "DELIVERED");
+
+    private final LoadTestClient client;
+    private final Scenario scenario;
+    private final int partnerIndex;
+    private final ActiveCount active;
+
+    private String token;
+
+    PartnerSession(LoadTestClient client, Scenario scenario, int partnerIndex, ActiveCount active) {
+        this.client = client;
+        this.scenario = scenario;
+        this.partnerIndex = partnerIndex;
+        this.active = active;
+    }
+
+    @Override
+    public void run() {
+        if (!login()) {
+            return;
+        }
+        client.post("toggleAvailability", "/api/delivery-partner-dashboard/toggle-availability", token,
+                Map.of("isAvailable", true));
+
+        while (!Thread.currentThread().isInterrupted()) {
+            if (active.allows(partnerIndex)) {
+                client.post("heartbeat", "/api/delivery-partner-dashboard/heartbeat", token, null);
+                int activeOrders = advanceOrders();
+                if (activeOrders >= 0 && activeOrders < MAX_ACTIVE_ORDERS) {
+                    acceptNext();
+                }
+            }
+            LoadTestRunner.pause(scenario.getPartnerPollMillis());
+        }
+    }
+
+    private boolean login() {
+        // Partners are spread over the pincodes the same way customers are
+        int pincodeIndex = partnerIndex % Math.max(1, scenario.getPincodes());
+        int slot = (partnerIndex / Math.max(1, scenario.getPincodes())) % Math.max(1, scenario.getPartnersPerPincode());
+        LoadTestClient.Response response = client.post("partnerLogin", "/api/delivery-partner-auth/login", null,
+                Map.of("emailOrPhone", LoadTestNaming.partnerEmail(pincodeIndex, slot),
+                        "password", LoadTestNaming.PASSWORD));
+        if (!response.ok()) {
+            return false;
+        }
+        token = response.json().path("token").asText(null);
+        return token != null;
+    }
+
+    private void acceptNext() {
+        LoadTestClient.Response response = client.get("availableOrders", "/api/delivery-partner-dashboard/available-orders", token);
+        if (!response.ok()) {
+            return;
+        }
+        for (JsonNode order : response.json()) {
+            LoadTestClient.Response accept = client.post("acceptOrder",
+                    "/api/delivery-partner-dashboard/accept-order/" + order.path("id").asLong(), token, null);
+            // 409 means another partner won the race, try the next order
+            if (accept.status != 409) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move every assigned order one step forward; returns how many were active, or -1 if unknown
+     */
+    private int advanceOrders() {
+        LoadTestClient.Response response = client.get("myOrders", "/api/delivery-partner-dashboard/my-orders", token);
+        if (!response.ok()) {
+            return -1;
+        }
+        int activeOrders = 0;
+        for (JsonNode order : response.json()) {
+            activeOrders++;
+            long orderId = order.path("id").asLong();
+            String next = NEXT_STATUS.get(order.path("status").asText());
+            if (next == null) {
+                continue;
+            }
+            if ("DELIVERED".equals(next) && "PENDING".equals(order.path("paymentStatus").asText("PENDING"))) {
+                // COD orders must be paid before they can be marked delivered
+                client.put("collectPayment", "/api/orders/" + orderId + "/payment?actualPaymentMethod=CASH", token, null);
+            }
+            if (client.put("updateOrderStatus", "/api/delivery-partner-dashboard/update-order-status/" + orderId, token,
+                    Map.of("status", next)).ok() && "DELIVERED".equals(next)) {
+                activeOrders--;
+            }
+        }
+        return activeOrders;
+    }
+}
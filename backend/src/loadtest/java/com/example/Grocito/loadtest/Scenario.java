@@ -0,0 +1,138 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test scenario read from a JSON file (see src/loadtest/resources/scenarios).
+ * Phases run back to back, so a peak hour can be described as ramp-up, peak and ramp-down.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Scenario {
+
+    private String name = "scenario";
+    // Must match the loadtest.seed.* settings of the target application
+    private int pincodes = 20;
+    private int users = 2000;
+    private int partnersPerPincode = 5;
+    private long warmupSeconds = 10;
+    private long thinkTimeMillis = 200;
+    private long partnerPollMillis = 1000;
+    private List<Phase> phases = new ArrayList<>();
+    // Relative weights of customer actions: browse, search, suggest, addToCart, checkout, orderHistory
+    private Map<String, Integer> customerMix = new LinkedHashMap<>();
+    // Set for an order state machine contention run (see OrderContentionRun) instead of the sessions
+    private Contention contention;
+    // Set for a payment webhook storm against a fake gateway (see WebhookStormRun) instead of the sessions
+    private Webhooks webhooks;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Phase {
+        private String name = "phase";
+        private long durationSeconds = 60;
+        private int customers = 50;
+        private int partners = 20;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public long getDurationSeconds() { return durationSeconds; }
+        public void setDurationSeconds(long durationSeconds) { this.durationSeconds = durationSeconds; }
+        public int getCustomers() { return customers; }
+        public void setCustomers(int customers) { this.customers = customers; }
+        public int getPartners() { return partners; }
+        public void setPartners(int partners) { this.partners = partners; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Contention {
+        private int orders = 100;
+        // Parallel orders; worker n uses customer n and the partners of its pincode
+        private int workers = 4;
+        private long maxCancelDelayMillis = 50;
+
+        public int getOrders() { return orders; }
+        public void setOrders(int orders) { this.orders = orders; }
+        public int getWorkers() { return workers; }
+        public void setWorkers(int workers) { this.workers = workers; }
+        public long getMaxCancelDelayMillis() { return maxCancelDelayMillis; }
+        public void setMaxCancelDelayMillis(long maxCancelDelayMillis) { this.maxCancelDelayMillis = maxCancelDelayMillis; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Webhooks {
+        private int orders = 200;
+        private int workers = 8;
+        // Copies of every event sent at the same moment, like a gateway retry burst
+        private int replays = 4;
+        // Every n-th order only gets forged and underpaid captures and has to stay unpaid
+        private int forgedEvery = 10;
+        // Every n-th paid order also returns through the checkout callback while its webhooks arrive
+        private int checkoutEvery = 4;
+        private long drainSeconds = 60;
+        // Must match payments.razorpay.* of the target application
+        private int gatewayPort = 9091;
+        private String keyId = "rzp_test_loadtest";
+        private String keySecret = "loadtest-key-secret";
+        private String webhookSecret = "loadtest-webhook-secret";
+
+        public int getOrders() { return orders; }
+        public void setOrders(int orders) { this.orders = orders; }
+        public int getWorkers() { return workers; }
+        public void setWorkers(int workers) { this.workers = workers; }
+        public int getReplays() { return replays; }
+        public void setReplays(int replays) { this.replays = replays; }
+        public int getForgedEvery() { return forgedEvery; }
+        public void setForgedEvery(int forgedEvery) { this.forgedEvery = forgedEvery; }
+        public int getCheckoutEvery() { return checkoutEvery; }
+        public void setCheckoutEvery(int checkoutEvery) { this.checkoutEvery = checkoutEvery; }
+        public long getDrainSeconds() { return drainSeconds; }
+        public void setDrainSeconds(long drainSeconds) { this.drainSeconds = drainSeconds; }
+        public int getGatewayPort() { return gatewayPort; }
+        public void setGatewayPort(int gatewayPort) { this.gatewayPort = gatewayPort; }
+        public String getKeyId() { return keyId; }
+        public void setKeyId(String keyId) { this.keyId = keyId; }
+        public String getKeySecret() { return keySecret; }
+        public void setKeySecret(String keySecret) { this.keySecret = keySecret; }
+        public String getWebhookSecret() { return webhookSecret; }
+        public void setWebhookSecret(String webhookSecret) { this.webhookSecret = webhookSecret; }
+    }
+
+    public int maxCustomers() {
+        return phases.stream().mapToInt(Phase::getCustomers).max().orElse(0);
+    }
+
+    public int maxPartners() {
+        return phases.stream().mapToInt(Phase::getPartners).max().orElse(0);
+    }
+
+    public long totalSeconds() {
+        return phases.stream().mapToLong(Phase::getDurationSeconds).sum();
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getPincodes() { return pincodes; }
+    public void setPincodes(int pincodes) { this.pincodes = pincodes; }
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+    public int getPartnersPerPincode() { return partnersPerPincode; }
+    public void setPartnersPerPincode(int partnersPerPincode) { this.partnersPerPincode = partnersPerPincode; }
+    public long getWarmupSeconds() { return warmupSeconds; }
+    public void setWarmupSeconds(long warmupSeconds) { this.warmupSeconds = warmupSeconds; }
+    public long getThinkTimeMillis() { return thinkTimeMillis; }
+    public void setThinkTimeMillis(long thinkTimeMillis) { this.thinkTimeMillis = thinkTimeMillis; }
+    public long getPartnerPollMillis() { return partnerPollMillis; }
+    public void setPartnerPollMillis(long partnerPollMillis) { this.partnerPollMillis = partnerPollMillis; }
+    public List<Phase> getPhases() { return phases; }
+    public void setPhases(List<Phase> phases) { this.phases = phases; }
+    public Map<String, Integer> getCustomerMix() { return customerMix; }
+    public void setCustomerMix(Map<String, Integer> customerMix) { this.customerMix = customerMix; }
+    public Contention getContention() { return contention; }
+    public void setContention(Contention contention) { this.contention = contention; }
+    public Webhooks getWebhooks() { return webhooks; }
+    public void setWebhooks(Webhooks webhooks) { this.webhooks = webhooks; }
+}
@@ -0,0 +1,88 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Polls the backend's actuator metrics during the run and keeps the peak of each gauge,
+ * so platform and virtual thread modes can be compared on memory and thread count, not just latency.
+ */
+class ServerSampler implements Runnable {
+
+    private static final long INTERVAL_MILLIS = 2000;
+    // Actuator metric name and optional tag filter -> report key
+    private static final Map<String, String> GAUGES = new LinkedHashMap<>();
+
+    static {
+        GAUGES.put("jvm.memory.used?tag=area:heap", "heapUsedBytes");
+        GAUGES.put("jvm.memory.used?tag=area:nonheap", "nonHeapUsedBytes");
+        GAUGES.put("jvm.threads.live", "liveThreads");
+        GAUGES.put("process.cpu.usage", "processCpuUsage");
+        GAUGES.put("hikaricp.connections.pending", "dbPendingConnections");
+        GAUGES.put("grocito.db.admission.waiting", "dbAdmissionWaiting");
+    }
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Double> peaks = new LinkedHashMap<>();
+
+    ServerSampler(HttpClient httpClient, String baseUrl, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            GAUGES.forEach((metric, key) -> {
+                Double value = read(metric);
+                if (value != null) {
+                    synchronized (peaks) {
+                        peaks.merge(key, value, Math::max);
+                    }
+                }
+            });
+            LoadTestRunner.pause(INTERVAL_MILLIS);
+        }
+    }
+
+    Map<String, Double> peaks() {
+        synchronized (peaks) {
+            return new LinkedHashMap<>(peaks);
+        }
+    }
+
+    private Double read(String metric) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if ("VALUE".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
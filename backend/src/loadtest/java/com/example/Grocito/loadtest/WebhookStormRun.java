@@ -0,0 +1,315 @@
+package com.example.Grocito.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pays orders through a {@link FakeGateway} and replays the gateway's webhooks in storms. Every order is
+ * placed as COD, two concurrent requests create its gateway order, and its payment events (an earlier
+ * failed attempt, the authorization and the capture) are each sent several times at once in random order,
+ * sometimes racing the checkout callback. Every n-th order instead gets forged captures and a correctly
+ * signed capture for less than the order total. Once the webhook queues have drained, every paid order has
+ * to be PAID by its captured payment and every forged one still PENDING.
+ */
+class WebhookStormRun {
+
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+    // 503 answers (queue full) are retried like the gateway does, a second apart
+    private static final int MAX_SEND_ATTEMPTS = 10;
+
+    private record Expectation(long orderId, String gatewayOrderId, String paymentId) {}
+
+    private final LoadTestClient client;
+    private final Scenario scenario;
+    private final Scenario.Webhooks webhooks;
+    private final FakeGateway gateway;
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "webhook-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger nextOrder = new AtomicInteger();
+    private final AtomicInteger checkedOrders = new AtomicInteger();
+    private final AtomicInteger paidOrders = new AtomicInteger();
+    private final AtomicInteger forgedOrders = new AtomicInteger();
+    private final AtomicInteger checkoutCallbacks = new AtomicInteger();
+    private final AtomicLong webhooksSent = new AtomicLong();
+    private final AtomicLong duplicatesAcknowledged = new AtomicLong();
+    private final AtomicLong forgedAccepted = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+    private final List<Expectation> expectations = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    private double stormSeconds;
+    private double drainSeconds;
+    private Map<String, Long> serverCounts = Map.of();
+
+    WebhookStormRun(LoadTestClient client, Scenario scenario, FakeGateway gateway) {
+        this.client = client;
+        this.scenario = scenario;
+        this.webhooks = scenario.getWebhooks();
+        this.gateway = gateway;
+    }
+
+    /**
+     * Pay all orders, wait for the backend to apply the events and check the orders; returns the elapsed seconds
+     */
+    double run() throws InterruptedException {
+        Map<String, Long> before = eventCounts(client.get("webhookStats", "/actuator/paymentwebhooks", null).json());
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < webhooks.getWorkers(); i++) {
+            int worker = i;
+            workers.add(new Thread(() -> work(worker), "webhook-worker-" + i));
+        }
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        senders.shutdownNow();
+        long stormEnd = System.nanoTime();
+        stormSeconds = (stormEnd - start) / 1_000_000_000.0;
+
+        JsonNode stats = drain();
+        drainSeconds = (System.nanoTime() - stormEnd) / 1_000_000_000.0;
+        Map<String, Long> after = eventCounts(stats);
+        Map<String, Long> delta = new TreeMap<>();
+        after.forEach((outcome, count) -> delta.put(outcome, count - before.getOrDefault(outcome, 0L)));
+        serverCounts = delta;
+        // Forged events are acknowledged like any other and have to be thrown out by the verifier
+        if (delta.getOrDefault("rejected", 0L) != forgedAccepted.get()) {
+            violations.add("verifier rejected " + delta.getOrDefault("rejected", 0L) + " webhooks, "
+                    + forgedAccepted.get() + " forged ones were accepted");
+        }
+
+        synchronized (expectations) {
+            expectations.forEach(this::check);
+        }
+        return (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+
+    boolean passed() {
+        return violations.isEmpty() && checkedOrders.get() > 0;
+    }
+
+    void printReport() {
+        System.out.printf("%nWebhook storm: %d orders checked (%d paid, %d forged) by %d workers in %.1f s, applied within %.1f s more%n",
+                checkedOrders.get(), paidOrders.get(), forgedOrders.get(), webhooks.getWorkers(), stormSeconds, drainSeconds);
+        System.out.printf("  webhooks sent %d (%.1f/s), %d acknowledged as duplicates, %d refused with 503%n",
+                webhooksSent.get(), webhooksSent.get() / stormSeconds, duplicatesAcknowledged.get(), queueFull.get());
+        System.out.printf("  gateway orders created %d, gateway calls rejected %d, checkout callbacks %d%n",
+                gateway.ordersCreated(), gateway.rejectedCalls(), checkoutCallbacks.get());
+        System.out.printf("  backend events %s%n", serverCounts);
+        System.out.printf("  violations %d%n", violations.size());
+        synchronized (violations) {
+            violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(violation -> System.out.println("    " + violation));
+        }
+    }
+
+    private void work(int worker) {
+        OrderContentionRun.Customer customer = OrderContentionRun.Customer.login(client, worker % scenario.getUsers());
+        if (customer == null) {
+            violations.add("worker " + worker + ": customer login failed");
+            return;
+        }
+        int index;
+        while ((index = nextOrder.getAndIncrement()) < webhooks.getOrders() && !Thread.currentThread().isInterrupted()) {
+            Long orderId = customer.placeOrder();
+            if (orderId != null) {
+                pay(index, orderId);
+            }
+        }
+    }
+
+    private void pay(int index, long orderId) {
+        List<String> gatewayOrderIds = together(List.of(() -> createGatewayOrder(orderId), () -> createGatewayOrder(orderId)));
+        Set<String> distinct = new HashSet<>(gatewayOrderIds);
+        if (distinct.size() != 1 || distinct.contains(null)) {
+            violation(orderId, "concurrent gateway order requests returned " + gatewayOrderIds);
+            return;
+        }
+        String gatewayOrderId = gatewayOrderIds.get(0);
+        Long amount = gateway.amountOf(gatewayOrderId);
+        if (amount == null) {
+            violation(orderId, "gateway order " + gatewayOrderId + " is not known to the gateway");
+            return;
+        }
+
+        List<Callable<String>> sends = new ArrayList<>();
+        Expectation expectation;
+        if (index % Math.max(1, webhooks.getForgedEvery()) == 0) {
+            // Captures signed with the wrong secret, each with a new event id, and one underpaid capture replayed
+            for (int i = 0; i < webhooks.getReplays(); i++) {
+                byte[] forged = gateway.paymentEvent("payment.captured", gatewayOrderId, "pay_" + FakeGateway.randomId(), amount);
+                String signature = FakeGateway.hmac("not-the-webhook-secret", forged);
+                String eventId = "evt_" + FakeGateway.randomId();
+                sends.add(() -> sendEvent(forged, signature, eventId, true));
+            }
+            addEvent(sends, gateway.paymentEvent("payment.captured", gatewayOrderId, "pay_" + FakeGateway.randomId(), amount - 100));
+            expectation = new Expectation(orderId, gatewayOrderId, null);
+            forgedOrders.incrementAndGet();
+        } else {
+            String failedPayment = "pay_" + FakeGateway.randomId();
+            String paidPayment = "pay_" + FakeGateway.randomId();
+            addEvent(sends, gateway.paymentEvent("payment.failed", gatewayOrderId, failedPayment, amount));
+            addEvent(sends, gateway.paymentEvent("payment.authorized", gatewayOrderId, paidPayment, amount));
+            addEvent(sends, gateway.paymentEvent("payment.captured", gatewayOrderId, paidPayment, amount));
+            if (paidOrders.incrementAndGet() % Math.max(1, webhooks.getCheckoutEvery()) == 0) {
+                sends.add(() -> checkoutCallback(orderId, gatewayOrderId, paidPayment));
+            }
+            expectation = new Expectation(orderId, gatewayOrderId, paidPayment);
+        }
+        Collections.shuffle(sends);
+        for (String failure : together(sends)) {
+            if (failure != null) {
+                violation(orderId, failure);
+            }
+        }
+        expectations.add(expectation);
+    }
+
+    private String createGatewayOrder(long orderId) {
+        LoadTestClient.Response response = client.post("createGatewayOrder",
+                "/api/orders/" + orderId + "/create-razorpay-order", null, Map.of());
+        return response.ok() ? response.json().path("id").asText(null) : null;
+    }
+
+    /**
+     * One event, replayed by the gateway: the same body and event id several times
+     */
+    private void addEvent(List<Callable<String>> sends, byte[] body) {
+        String signature = gateway.webhookSignature(body);
+        String eventId = "evt_" + FakeGateway.randomId();
+        for (int i = 0; i < webhooks.getReplays(); i++) {
+            sends.add(() -> sendEvent(body, signature, eventId, false));
+        }
+    }
+
+    /**
+     * Null when the backend acknowledged the webhook, otherwise what went wrong
+     */
+    private String sendEvent(byte[] body, String signature, String eventId, boolean forged) {
+        for (int attempt = 0; attempt < MAX_SEND_ATTEMPTS; attempt++) {
+            LoadTestClient.Response response = client.postRaw("webhook", "/api/payments/webhook", body,
+                    Map.of("Content-Type", "application/json", "X-Razorpay-Signature", signature, "X-Razorpay-Event-Id", eventId));
+            webhooksSent.incrementAndGet();
+            if (response.status == 503) {
+                queueFull.incrementAndGet();
+                LoadTestRunner.pause(1000);
+                continue;
+            }
+            if (!response.ok()) {
+                return "webhook " + eventId + " answered HTTP " + response.status;
+            }
+            if ("duplicate".equals(response.json().path("status").asText())) {
+                duplicatesAcknowledged.incrementAndGet();
+            } else if (forged) {
+                forgedAccepted.incrementAndGet();
+            }
+            return null;
+        }
+        return "webhook " + eventId + " refused " + MAX_SEND_ATTEMPTS + " times";
+    }
+
+    private String checkoutCallback(long orderId, String gatewayOrderId, String paymentId) {
+        checkoutCallbacks.incrementAndGet();
+        LoadTestClient.Response response = client.post("verifyPayment", "/api/orders/" + orderId + "/verify-payment", null,
+                Map.of("razorpay_order_id", gatewayOrderId, "razorpay_payment_id", paymentId,
+                        "razorpay_signature", gateway.checkoutSignature(gatewayOrderId, paymentId)));
+        return response.ok() ? null : "checkout callback answered HTTP " + response.status + " " + response.json().path("error").asText();
+    }
+
+    /**
+     * Poll the backend until every accepted webhook has been applied or dropped
+     */
+    private JsonNode drain() {
+        long deadline = System.nanoTime() + webhooks.getDrainSeconds() * 1_000_000_000L;
+        while (true) {
+            JsonNode stats = client.get("webhookStats", "/actuator/paymentwebhooks", null).json();
+            if (stats.path("pending").asInt(-1) == 0) {
+                return stats;
+            }
+            if (System.nanoTime() > deadline) {
+                violations.add("webhooks still pending after " + webhooks.getDrainSeconds() + " s: " + stats);
+                return stats;
+            }
+            LoadTestRunner.pause(100);
+        }
+    }
+
+    private void check(Expectation expectation) {
+        LoadTestClient.Response response = client.get("orderStatus", "/api/orders/" + expectation.orderId(), null);
+        if (!response.ok()) {
+            violation(expectation.orderId(), "order lookup answered HTTP " + response.status);
+            return;
+        }
+        JsonNode order = response.json();
+        String paymentStatus = order.path("paymentStatus").asText();
+        String paymentId = order.path("paymentId").textValue();
+        if (!expectation.gatewayOrderId().equals(order.path("gatewayOrderId").textValue())) {
+            violation(expectation.orderId(), "linked to gateway order " + order.path("gatewayOrderId").textValue()
+                    + " instead of " + expectation.gatewayOrderId());
+        }
+        if (expectation.paymentId() == null) {
+            if (!"PENDING".equals(paymentStatus)) {
+                violation(expectation.orderId(), "forged or underpaid capture applied, payment " + paymentStatus + " by " + paymentId);
+            }
+        } else if (!"PAID".equals(paymentStatus) || !expectation.paymentId().equals(paymentId)) {
+            violation(expectation.orderId(), "payment " + paymentStatus + " by " + paymentId + ", expected PAID by " + expectation.paymentId());
+        }
+        checkedOrders.incrementAndGet();
+    }
+
+    private static Map<String, Long> eventCounts(JsonNode stats) {
+        Map<String, Long> counts = new TreeMap<>();
+        stats.path("events").fields().forEachRemaining(entry -> counts.put(entry.getKey(), entry.getValue().asLong()));
+        return counts;
+    }
+
+    /**
+     * Start the calls at the same moment and wait for all of them
+     */
+    private <T> List<T> together(List<Callable<T>> calls) {
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> call : calls) {
+            futures.add(senders.submit(() -> {
+                ready.await();
+                return call.call();
+            }));
+        }
+        ready.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(null);
+            } catch (ExecutionException e) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    private void violation(long orderId, String message) {
+        violations.add("order " + orderId + ": " + message);
+    }
+}
@@ -1,16 +1,40 @@
 package com.example.Grocito.Controller;
 
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.etag.ConditionalResponses;
+import com.example.Grocito.etag.ResourceVersions;
+import com.example.Grocito.pricing.EarningsBatch;
+import com.example.Grocito.pricing.EarningsTotals;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingRule;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.service.BulkEarningsService;
 import com.example.Grocito.service.DeliveryFeeService;
 import com.example.Grocito.service.DeliveryFeeService.DeliveryFeeCalculation;
 import com.example.Grocito.service.DeliveryFeeService.PartnerEarnings;
 import com.example.Grocito.service.DeliveryFeeService.DeliveryPolicy;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+
+import static com.example.Grocito.pricing.PricingEngine.toRupees;
 
 @RestController
 @RequestMapping("/api/delivery-fee")
@@ -20,6 +44,21 @@ public class DeliveryFeeController {
     @Autowired
     private DeliveryFeeService deliveryFeeService;
 
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private BulkEarningsService bulkEarningsService;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository deliveryPartnerAuthRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConditionalResponses conditionalResponses;
+
     /**
      * Calculate delivery fee for an order
      */
@@ -27,7 +66,8 @@ public class DeliveryFeeController {
     public ResponseEntity<Map<String, Object>> calculateDeliveryFee(@RequestBody Map<String, Object> request) {
         try {
             BigDecimal orderAmount = new BigDecimal(request.get("orderAmount").toString());
-            DeliveryFeeCalculation calculation = deliveryFeeService.calculateDeliveryFee(orderAmount);
+            String pincode = request.get("pincode") != null ? request.get("pincode").toString() : null;
+            DeliveryFeeCalculation calculation = deliveryFeeService.calculateDeliveryFee(orderAmount, pincode);
             
             Map<String, Object> response = new HashMap<>();
             response.put("orderAmount", calculation.getOrderAmount());
@@ -61,7 +101,9 @@ public class DeliveryFeeController {
             BigDecimal bonuses = request.containsKey("bonuses") ? 
                 new BigDecimal(request.get("bonuses").toString()) : BigDecimal.ZERO;
             
-            PartnerEarnings earnings = deliveryFeeService.calculatePartnerEarnings(orderAmount, bonuses);
+            String pincode = request.get("pincode") != null ? request.get("pincode").toString() : null;
+            
+            PartnerEarnings earnings = deliveryFeeService.calculatePartnerEarnings(orderAmount, bonuses, pincode);
             
             Map<String, Object> response = new HashMap<>();
             response.put("orderAmount", earnings.getOrderAmount());
@@ -86,81 +128,59 @@ public class DeliveryFeeController {
      * Get delivery policy information
      */
     @GetMapping("/policy")
-    public ResponseEntity<Map<String, Object>> getDeliveryPolicy() {
-        DeliveryPolicy policy = deliveryFeeService.getPolicyInfo();
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("freeDeliveryThreshold", policy.getFreeDeliveryThreshold());
-        response.put("deliveryFee", policy.getDeliveryFee());
-        response.put("partnerEarnings", Map.of(
-            "paidDelivery", policy.getPartnerEarningsPaid(),
-            "freeDelivery", policy.getPartnerEarningsFree()
-        ));
-        response.put("partnerSharePercentage", 75);
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> getDeliveryPolicy(HttpServletRequest request) {
+        return conditionalResponses.respond(request, ResourceVersions.DELIVERY_POLICY, "policy", () -> {
+            DeliveryPolicy policy = deliveryFeeService.getPolicyInfo();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("freeDeliveryThreshold", policy.getFreeDeliveryThreshold());
+            response.put("deliveryFee", policy.getDeliveryFee());
+            response.put("partnerEarnings", Map.of(
+                "paidDelivery", policy.getPartnerEarningsPaid(),
+                "freeDelivery", policy.getPartnerEarningsFree()
+            ));
+            response.put("partnerSharePercentage", 75);
+            return response;
+        });
     }
 
     /**
-     * Calculate bulk earnings for multiple deliveries (for partner dashboard)
+     * Calculate bulk earnings for multiple deliveries (for partner dashboard). The amounts are evaluated
+     * in paise over arrays, with the rules in force for the optional pincode.
      */
     @PostMapping("/bulk-earnings")
-    public ResponseEntity<Map<String, Object>> calculateBulkEarnings(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<Map<String, Object>> calculateBulkEarnings(@RequestBody BulkEarningsRequest request) {
         try {
-            @SuppressWarnings("unchecked")
-            java.util.List<Map<String, Object>> deliveries = 
-                (java.util.List<Map<String, Object>>) request.get("deliveries");
-            
-            BigDecimal totalEarnings = BigDecimal.ZERO;
-            int totalDeliveries = deliveries.size();
-            int freeDeliveries = 0;
-            int paidDeliveries = 0;
-            BigDecimal totalBonuses = BigDecimal.ZERO;
-            BigDecimal totalBaseEarnings = BigDecimal.ZERO;
+            List<DeliveryAmount> deliveries = request.getDeliveries();
+            int count = deliveries.size();
+            long[] orderAmounts = new long[count];
+            long[] bonuses = new long[count];
+            for (int i = 0; i < count; i++) {
+                DeliveryAmount delivery = deliveries.get(i);
+                orderAmounts[i] = PricingEngine.roundToPaise(delivery.getOrderAmount());
+                bonuses[i] = delivery.getBonuses() != null ? PricingEngine.roundToPaise(delivery.getBonuses()) : 0;
+            }
             
-            java.util.List<Map<String, Object>> earningsBreakdown = new java.util.ArrayList<>();
+            PricingRule rule = pricingEngine.rule(request.getPincode());
+            EarningsBatch batch = EarningsBatch.evaluate(pricingEngine.policy(), rule, orderAmounts, bonuses, count);
             
-            for (Map<String, Object> delivery : deliveries) {
-                BigDecimal orderAmount = new BigDecimal(delivery.get("orderAmount").toString());
-                BigDecimal bonuses = delivery.containsKey("bonuses") ? 
-                    new BigDecimal(delivery.get("bonuses").toString()) : BigDecimal.ZERO;
-                
-                PartnerEarnings earnings = deliveryFeeService.calculatePartnerEarnings(orderAmount, bonuses);
-                
-                totalEarnings = totalEarnings.add(earnings.getTotalEarnings());
-                totalBonuses = totalBonuses.add(earnings.getTotalBonuses());
-                totalBaseEarnings = totalBaseEarnings.add(earnings.getBaseEarnings());
-                
-                if ("FREE_DELIVERY".equals(earnings.getDeliveryType())) {
-                    freeDeliveries++;
-                } else {
-                    paidDeliveries++;
-                }
-                
-                Map<String, Object> earningDetail = new HashMap<>();
-                earningDetail.put("orderId", delivery.get("orderId"));
-                earningDetail.put("orderAmount", earnings.getOrderAmount());
-                earningDetail.put("deliveryType", earnings.getDeliveryType());
-                earningDetail.put("baseEarnings", earnings.getBaseEarnings());
-                earningDetail.put("totalBonuses", earnings.getTotalBonuses());
-                earningDetail.put("totalEarnings", earnings.getTotalEarnings());
-                earningsBreakdown.add(earningDetail);
+            List<EarningsLine> earningsBreakdown = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                earningsBreakdown.add(new EarningsLine(deliveries.get(i).getOrderId(), toRupees(orderAmounts[i]),
+                        batch.isFreeDelivery(i) ? "FREE_DELIVERY" : "PAID_DELIVERY", toRupees(batch.baseEarnings(i)),
+                        toRupees(bonuses[i]), toRupees(batch.totalEarnings(i))));
             }
             
-            // Check for daily target bonus (12+ deliveries)
-            BigDecimal dailyTargetBonus = totalDeliveries >= 12 ? new BigDecimal("80.00") : BigDecimal.ZERO;
-            totalEarnings = totalEarnings.add(dailyTargetBonus);
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("totalDeliveries", totalDeliveries);
-            response.put("freeDeliveries", freeDeliveries);
-            response.put("paidDeliveries", paidDeliveries);
-            response.put("totalEarnings", totalEarnings);
-            response.put("totalBaseEarnings", totalBaseEarnings);
-            response.put("totalBonuses", totalBonuses.add(dailyTargetBonus));
-            response.put("dailyTargetBonus", dailyTargetBonus);
-            response.put("averageEarningsPerDelivery", 
-                totalDeliveries > 0 ? totalEarnings.divide(new BigDecimal(totalDeliveries), 2, java.math.RoundingMode.HALF_UP) : BigDecimal.ZERO);
+            response.put("totalDeliveries", count);
+            EarningsTotals totals = batch.totals();
+            response.put("freeDeliveries", totals.freeDeliveries());
+            response.put("paidDeliveries", totals.paidDeliveries());
+            response.put("totalEarnings", toRupees(totals.totalEarnings()));
+            response.put("totalBaseEarnings", toRupees(totals.totalBaseEarnings()));
+            response.put("totalBonuses", toRupees(totals.totalBonuses()));
+            response.put("dailyTargetBonus", toRupees(totals.dailyTargetBonus()));
+            response.put("averageEarningsPerDelivery", toRupees(totals.averageEarnings()));
             response.put("earningsBreakdown", earningsBreakdown);
             
             return ResponseEntity.ok(response);
@@ -171,4 +191,96 @@ public class DeliveryFeeController {
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Bulk earnings for payout runs of any size: the body ({"deliveries": [...]} or a bare array) is parsed
+     * and the breakdown written one delivery at a time, the totals follow the rows. An invalid delivery
+     * ends the response with "error" and "message" in place of the totals.
+     */
+    @PostMapping("/bulk-earnings/stream")
+    public ResponseEntity<StreamingResponseBody> streamBulkEarnings(@RequestParam(required = false) String pincode,
+                                                                    HttpServletRequest request) {
+        JsonParser deliveries;
+        try {
+            deliveries = bulkEarningsService.openDeliveries(request.getInputStream());
+        } catch (IOException | IllegalArgumentException e) {
+            return errorBody(HttpStatus.BAD_REQUEST, "Invalid deliveries data", e.getMessage());
+        }
+        StreamingResponseBody body = outputStream -> bulkEarningsService.writeEarnings(deliveries, pincode, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Earnings of a partner's orders delivered between two days (inclusive), read from the orders instead of
+     * the request. For the partner themself, admins of the partner's pincode and super admins.
+     */
+    @GetMapping("/partners/{partnerId}/earnings")
+    public ResponseEntity<StreamingResponseBody> streamPartnerEarnings(@PathVariable Long partnerId,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                       HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        if (principal == null) {
+            return errorBody(HttpStatus.FORBIDDEN, "Access denied", "Authentication required");
+        }
+        if (to.isBefore(from)) {
+            return errorBody(HttpStatus.BAD_REQUEST, "Invalid date range", "to must not be before from");
+        }
+        if (!(principal.isPartner() && partnerId.equals(principal.getId()))) {
+            boolean superAdmin = principal.isUser() && "SUPER_ADMIN".equals(principal.getRole());
+            boolean admin = principal.isUser() && "ADMIN".equals(principal.getRole());
+            if (!superAdmin && !admin) {
+                return errorBody(HttpStatus.FORBIDDEN, "Access denied", "Partners can only see their own earnings");
+            }
+            DeliveryPartnerAuth partner = deliveryPartnerAuthRepository.findById(partnerId).orElse(null);
+            if (partner == null) {
+                return errorBody(HttpStatus.NOT_FOUND, "Partner not found", "No delivery partner with id " + partnerId);
+            }
+            if (admin && !Objects.equals(partner.getPincode(), principal.getPincode())) {
+                return errorBody(HttpStatus.FORBIDDEN, "Access denied", "Partner is outside your pincode");
+            }
+        }
+        StreamingResponseBody body = outputStream -> bulkEarningsService.writePartnerEarnings(partnerId, from, to, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorBody(HttpStatus status, String error, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, errorResponse));
+    }
+    
+    // DTOs for bulk earnings
+    public static class BulkEarningsRequest {
+        private String pincode;
+        private List<DeliveryAmount> deliveries;
+        
+        public String getPincode() { return pincode; }
+        public void setPincode(String pincode) { this.pincode = pincode; }
+        public List<DeliveryAmount> getDeliveries() { return deliveries; }
+        public void setDeliveries(List<DeliveryAmount> deliveries) { this.deliveries = deliveries; }
+    }
+    
+    public static class DeliveryAmount {
+        private Object orderId;
+        private BigDecimal orderAmount;
+        private BigDecimal bonuses;
+        
+        public Object getOrderId() { return orderId; }
+        public void setOrderId(Object orderId) { this.orderId = orderId; }
+        public BigDecimal getOrderAmount() { return orderAmount; }
+        public void setOrderAmount(BigDecimal orderAmount) { this.orderAmount = orderAmount; }
+        public BigDecimal getBonuses() { return bonuses; }
+        public void setBonuses(BigDecimal bonuses) { this.bonuses = bonuses; }
+    }
+    
+    public record EarningsLine(Object orderId, BigDecimal orderAmount, String deliveryType,
+                               BigDecimal baseEarnings, BigDecimal totalBonuses, BigDecimal totalEarnings) {}
+}
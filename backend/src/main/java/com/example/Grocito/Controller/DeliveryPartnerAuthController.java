@@ -2,6 +2,8 @@ package com.example.Grocito.Controller;
 
 import com.example.Grocito.Entity.DeliveryPartnerAuth;
 import com.example.Grocito.Services.DeliveryPartnerAuthService;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.security.AuthTokenService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +25,9 @@ public class DeliveryPartnerAuthController {
     @Autowired
     private DeliveryPartnerAuthService authService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
     /**
      * Register a new delivery partner
      */
@@ -81,8 +86,8 @@ public class DeliveryPartnerAuthController {
                 // Remove password from response
                 auth.setPassword(null);
 
-                // Generate a simple token (in production, use JWT)
-                String token = "dp-token-" + auth.getId() + "-" + System.currentTimeMillis();
+                // Signed, self-contained token verified by TokenAuthenticationFilter
+                String token = authTokenService.issuePartnerToken(auth);
 
                 Map<String, Object> response = new HashMap<>();
                 response.put("message", "Login successful");
@@ -106,6 +111,10 @@ public class DeliveryPartnerAuthController {
      */
     @GetMapping("/pending-verification")
     public ResponseEntity<?> getPendingVerificationRequests(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -133,6 +142,10 @@ public class DeliveryPartnerAuthController {
     public ResponseEntity<?> updateVerificationStatus(@PathVariable Long authId,
             @RequestBody Map<String, String> requestData,
             HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             String status = requestData.get("status");
             if (status == null || (!status.equals("VERIFIED") && !status.equals("REJECTED"))) {
@@ -285,6 +298,10 @@ public class DeliveryPartnerAuthController {
     @GetMapping("/all")
     public ResponseEntity<?> getAllAuthRecords(@RequestParam(required = false) String status,
             HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -311,6 +328,10 @@ public class DeliveryPartnerAuthController {
     @GetMapping("/search")
     public ResponseEntity<?> searchAuthRecords(@RequestParam String keyword,
             HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -335,6 +356,10 @@ public class DeliveryPartnerAuthController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getAuthRecordById(@PathVariable Long id, HttpServletRequest request) {
+        if (!isAdminOrSelf(request, id)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -364,6 +389,10 @@ public class DeliveryPartnerAuthController {
     public ResponseEntity<?> updateAuthRecord(@PathVariable Long id,
             @RequestBody DeliveryPartnerAuth updatedAuth,
             HttpServletRequest request) {
+        if (!isAdminOrSelf(request, id)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -392,6 +421,10 @@ public class DeliveryPartnerAuthController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deactivateAuthRecord(@PathVariable Long id, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             String userRole = getUserRoleFromRequest(request);
             String userPincode = getUserPincodeFromRequest(request);
@@ -414,65 +447,46 @@ public class DeliveryPartnerAuthController {
         }
     }
 
-    // Helper methods for role-based access control
+    // Helper methods for role-based access control (principal is set by TokenAuthenticationFilter)
     private String getUserRoleFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null ? principal.getRole() : null; // null for anonymous callers
+    }
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-
-            if (token.contains("demo-admin-token")) {
-                // Extract user ID from token format: demo-admin-token-{userId}-{timestamp}
-                String[] parts = token.split("-");
-                if (parts.length >= 4) {
-                    String userId = parts[3]; // Get the user ID part
-                    if ("1".equals(userId)) {
-                        return "SUPER_ADMIN"; // User ID 1 is Super Admin
-                    } else {
-                        return "ADMIN"; // Other user IDs are regular admins
-                    }
-                }
-                return "ADMIN"; // Default to ADMIN if pattern doesn't match
-            }
+    private String getUserPincodeFromRequest(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+
+        if (principal != null && "ADMIN".equals(principal.getRole()) && principal.isUser()) {
+            return principal.getPincode() != null ? principal.getPincode() : "441904"; // Default pincode for other admins
         }
 
-        // Default to ADMIN for development (more restrictive)
-        return "ADMIN";
+        return null; // Super admin (no pincode restriction) or not an admin
     }
 
-    private String getUserPincodeFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
+    private boolean isAdmin(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null && principal.isAdmin();
+    }
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-
-            if (token.contains("demo-admin-token")) {
-                // Extract user ID from token format: demo-admin-token-{userId}-{timestamp}
-                String[] parts = token.split("-");
-                if (parts.length >= 4) {
-                    String userId = parts[3]; // Get the user ID part
-                    switch (userId) {
-                        case "1": return null; // Super admin - no pincode restriction
-                        case "2": return "110001"; // South Delhi Admin
-                        case "3": return "110002"; // North Delhi Admin
-                        case "4": return "110003"; // East Delhi Admin
-                        case "5": return "412105"; // Pune Admin
-                        case "6": return "441904"; // Nagpur Admin
-                        case "7": return "441904"; // Default Demo Admin
-                        default: return "441904"; // Default pincode for other admins
-                    }
-                }
-            }
-        }
+    // Admins, or the delivery partner the auth record belongs to
+    private boolean isAdminOrSelf(HttpServletRequest request, Long authId) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null && (principal.isAdmin() || (principal.isPartner() && principal.getId().equals(authId)));
+    }
 
-        return "441904"; // Default pincode restriction for development
+    private ResponseEntity<?> adminRequired() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Admin access required"));
     }
     
     /**
      * Admin: Get all partners with delivery statistics
      */
     @GetMapping("/admin/partners-with-stats")
-    public ResponseEntity<?> getAllPartnersWithStats() {
+    public ResponseEntity<?> getAllPartnersWithStats(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             logger.info("Admin fetching all partners with delivery statistics");
             
@@ -495,7 +509,11 @@ public class DeliveryPartnerAuthController {
      * Admin: Get delivery statistics for a specific partner
      */
     @GetMapping("/admin/partner/{partnerId}/stats")
-    public ResponseEntity<?> getPartnerStats(@PathVariable Long partnerId) {
+    public ResponseEntity<?> getPartnerStats(@PathVariable Long partnerId, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+
         try {
             logger.info("Admin fetching delivery statistics for partner: {}", partnerId);
             
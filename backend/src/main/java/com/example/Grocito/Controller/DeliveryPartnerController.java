@@ -2,6 +2,7 @@ package com.example.Grocito.Controller;
 
 import com.example.Grocito.Entity.DeliveryPartner;
 import com.example.Grocito.Services.DeliveryPartnerService;
+import com.example.Grocito.security.AuthPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +74,10 @@ public class DeliveryPartnerController {
             @RequestParam(required = false) String search,
             HttpServletRequest request) {
         
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Fetching delivery partners with filters");
             
@@ -90,7 +95,7 @@ public class DeliveryPartnerController {
                 // Paginated request with filters
                 Page<DeliveryPartner> partnerPage = deliveryPartnerService.getFilteredPartners(
                         page, size, sortBy, verificationStatus, accountStatus, 
-                        availabilityStatus, pincode, userRole, userPincode);
+                        availabilityStatus, pincode, search, userRole, userPincode);
                 return ResponseEntity.ok(partnerPage);
             }
         } catch (Exception e) {
@@ -105,6 +110,10 @@ public class DeliveryPartnerController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getDeliveryPartnerById(@PathVariable Long id, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Fetching delivery partner with ID: {}", id);
             
@@ -131,6 +140,10 @@ public class DeliveryPartnerController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updatePartner(@PathVariable Long id, @RequestBody DeliveryPartner partner, 
                                           HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Updating delivery partner with ID: {}", id);
             
@@ -161,6 +174,10 @@ public class DeliveryPartnerController {
     public ResponseEntity<?> updateAvailability(@PathVariable Long id, 
                                                @RequestBody Map<String, Object> availabilityData,
                                                HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Updating availability for partner ID: {}", id);
             
@@ -223,6 +240,10 @@ public class DeliveryPartnerController {
     public ResponseEntity<?> updateVerificationStatus(@PathVariable Long id, 
                                                      @RequestBody Map<String, String> verificationData,
                                                      HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Updating verification status for partner ID: {}", id);
             
@@ -273,6 +294,10 @@ public class DeliveryPartnerController {
      */
     @GetMapping("/analytics")
     public ResponseEntity<?> getAnalytics(HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Fetching delivery partner analytics");
             
@@ -289,11 +314,36 @@ public class DeliveryPartnerController {
         }
     }
     
+    /**
+     * Leaderboard of a pincode by completion-rate, rating or earnings
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<?> getLeaderboard(@RequestParam(required = false) String pincode,
+                                            @RequestParam(defaultValue = "completion-rate") String metric,
+                                            @RequestParam(defaultValue = "10") int limit,
+                                            HttpServletRequest request) {
+        try {
+            logger.info("Fetching {} leaderboard for pincode: {}", metric, pincode);
+            
+            String userRole = getUserRoleFromRequest(request);
+            String userPincode = getUserPincodeFromRequest(request);
+            
+            return ResponseEntity.ok(deliveryPartnerService.getLeaderboard(pincode, metric, limit, userRole, userPincode));
+        } catch (Exception e) {
+            logger.error("Error fetching leaderboard: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Error fetching leaderboard: " + e.getMessage());
+        }
+    }
+    
     /**
      * Search delivery partners
      */
     @GetMapping("/search")
     public ResponseEntity<?> searchPartners(@RequestParam String keyword, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Searching delivery partners with keyword: {}", keyword);
             
@@ -315,6 +365,10 @@ public class DeliveryPartnerController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deletePartner(@PathVariable Long id, HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return adminRequired();
+        }
+        
         try {
             logger.info("Deleting delivery partner with ID: {}", id);
             
@@ -384,57 +438,28 @@ public class DeliveryPartnerController {
         }
     }
     
-    // Helper methods for role-based access control
+    // Helper methods for role-based access control (principal is set by TokenAuthenticationFilter)
     private String getUserRoleFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
-            if (token.contains("demo-admin-token")) {
-                // Extract user ID from token format: demo-admin-token-{userId}-{timestamp}
-                String[] parts = token.split("-");
-                if (parts.length >= 4) {
-                    String userId = parts[3]; // Get the user ID part
-                    if ("1".equals(userId)) {
-                        return "SUPER_ADMIN"; // User ID 1 is Super Admin
-                    } else {
-                        return "ADMIN"; // Other user IDs are regular admins
-                    }
-                }
-                return "ADMIN"; // Default to ADMIN if pattern doesn't match
-            }
-        }
-        
-        // Default to SUPER_ADMIN for development
-        return "SUPER_ADMIN";
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null ? principal.getRole() : null; // null for anonymous callers
     }
     
     private String getUserPincodeFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
+        AuthPrincipal principal = AuthPrincipal.from(request);
         
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
-            if (token.contains("demo-admin-token")) {
-                // Extract user ID from token format: demo-admin-token-{userId}-{timestamp}
-                String[] parts = token.split("-");
-                if (parts.length >= 4) {
-                    String userId = parts[3]; // Get the user ID part
-                    switch (userId) {
-                        case "1": return null; // Super admin - no pincode restriction
-                        case "2": return "110001"; // South Delhi Admin
-                        case "3": return "110002"; // North Delhi Admin
-                        case "4": return "110003"; // East Delhi Admin
-                        case "5": return "412105"; // Pune Admin
-                        case "6": return "441904"; // Nagpur Admin
-                        case "7": return "441904"; // Default Demo Admin
-                        default: return "441904"; // Default pincode for other admins
-                    }
-                }
-            }
+        if (principal != null && principal.isUser() && "ADMIN".equals(principal.getRole())) {
+            return principal.getPincode() != null ? principal.getPincode() : "441904"; // Default pincode for other admins
         }
         
-        return null; // Super admin access (no pincode restriction)
+        return null; // Super admin (no pincode restriction) or not an admin
+    }
+    
+    private boolean isAdmin(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null && principal.isAdmin();
+    }
+    
+    private ResponseEntity<?> adminRequired() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Admin access required");
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,9 @@
 package com.example.Grocito.Controller;
 
 import com.example.Grocito.Services.OrderAssignmentService;
-import com.example.Grocito.Services.DeliveryPartnerAuthService;
 import com.example.Grocito.Entity.Order;
 import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.security.AuthPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +15,6 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/delivery-partner-dashboard")
@@ -25,9 +24,6 @@ public class DeliveryPartnerDashboardController {
 
     @Autowired
     private OrderAssignmentService orderAssignmentService;
-    
-    @Autowired
-    private DeliveryPartnerAuthService authService;
 
     /**
      * Get dashboard data for delivery partner
@@ -172,20 +168,15 @@ public class DeliveryPartnerDashboardController {
     @GetMapping("/available-orders")
     public ResponseEntity<?> getAvailableOrders(HttpServletRequest request) {
         try {
-            Long partnerId = getPartnerIdFromToken(request);
-            if (partnerId == null) {
+            AuthPrincipal principal = getPartnerPrincipal(request);
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "Invalid or missing authentication token"));
             }
 
-            // Get partner's pincode
-            Optional<DeliveryPartnerAuth> partnerOpt = authService.getAuthRecordById(partnerId, null, null);
-            if (!partnerOpt.isPresent()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "Partner not found"));
-            }
-
-            String pincode = partnerOpt.get().getPincode();
+            // Partner's pincode is carried in the signed token
+            Long partnerId = principal.getId();
+            String pincode = principal.getPincode();
             List<Order> availableOrders = orderAssignmentService.getPendingOrdersForPincode(pincode);
             
             logger.info("Found {} available orders for partner {} in pincode {}", 
@@ -245,6 +236,26 @@ public class DeliveryPartnerDashboardController {
         }
     }
 
+    /**
+     * Get the partner's leaderboard ranks in their pincode
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<?> getLeaderboardRanks(HttpServletRequest request) {
+        try {
+            Long partnerId = getPartnerIdFromToken(request);
+            if (partnerId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Invalid or missing authentication token"));
+            }
+
+            return ResponseEntity.ok(orderAssignmentService.getPartnerRanks(partnerId));
+        } catch (Exception e) {
+            logger.error("Error fetching leaderboard ranks: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch leaderboard ranks: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get completed orders (delivered/cancelled)
      */
@@ -365,28 +376,19 @@ public class DeliveryPartnerDashboardController {
         }
     }
 
+    /**
+     * Get the authenticated delivery partner (set by TokenAuthenticationFilter)
+     */
+    private AuthPrincipal getPartnerPrincipal(HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null && principal.isPartner() ? principal : null;
+    }
+
     /**
      * Extract partner ID from delivery partner token
      */
     private Long getPartnerIdFromToken(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
-            // Parse delivery partner token format: dp-token-{partnerId}-{timestamp}
-            if (token.startsWith("dp-token-")) {
-                try {
-                    String[] parts = token.split("-");
-                    if (parts.length >= 3) {
-                        return Long.parseLong(parts[2]);
-                    }
-                } catch (NumberFormatException e) {
-                    logger.warn("Invalid partner token format: {}", token);
-                }
-            }
-        }
-        
-        return null;
+        AuthPrincipal principal = getPartnerPrincipal(request);
+        return principal != null ? principal.getId() : null;
     }
-}
\ No newline at end of file
+}
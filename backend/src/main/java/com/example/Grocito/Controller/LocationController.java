@@ -2,6 +2,9 @@ package com.example.Grocito.Controller;
 
 import com.example.Grocito.Entity.Location;
 import com.example.Grocito.Services.LocationService;
+import com.example.Grocito.etag.ConditionalResponses;
+import com.example.Grocito.etag.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +27,9 @@ public class LocationController {
     
     @Autowired
     private LocationService locationService;
+
+    @Autowired
+    private ConditionalResponses conditionalResponses;
     
     // Health check endpoint for debugging
     @GetMapping("/health")
@@ -212,13 +218,16 @@ public class LocationController {
     
     // Get all serviceable locations
     @GetMapping("/serviceable")
-    public ResponseEntity<List<Location>> getServiceableLocations() {
+    public ResponseEntity<byte[]> getServiceableLocations(HttpServletRequest request) {
         logger.info("Getting all serviceable locations");
         
         try {
-            List<Location> locations = locationService.getServiceableLocations();
-            logger.debug("Found {} serviceable locations", locations.size());
-            return ResponseEntity.ok(locations);
+            // Answered with 304 without querying while no location has changed
+            return conditionalResponses.respond(request, ResourceVersions.LOCATIONS, "serviceable", () -> {
+                List<Location> locations = locationService.getServiceableLocations();
+                logger.debug("Found {} serviceable locations", locations.size());
+                return locations;
+            });
         } catch (Exception e) {
             logger.error("Error getting serviceable locations", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -227,13 +236,16 @@ public class LocationController {
     
     // Get all unique cities
     @GetMapping("/cities")
-    public ResponseEntity<List<String>> getAllCities() {
+    public ResponseEntity<byte[]> getAllCities(HttpServletRequest request) {
         logger.info("Getting all unique cities");
         
         try {
-            List<String> cities = locationService.getAllCities();
-            logger.debug("Found {} unique cities", cities.size());
-            return ResponseEntity.ok(cities);
+            // Answered with 304 without querying while no location has changed
+            return conditionalResponses.respond(request, ResourceVersions.LOCATIONS, "cities", () -> {
+                List<String> cities = locationService.getAllCities();
+                logger.debug("Found {} unique cities", cities.size());
+                return cities;
+            });
         } catch (Exception e) {
             logger.error("Error getting cities", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -242,13 +254,16 @@ public class LocationController {
     
     // Get all unique states
     @GetMapping("/states")
-    public ResponseEntity<List<String>> getAllStates() {
+    public ResponseEntity<byte[]> getAllStates(HttpServletRequest request) {
         logger.info("Getting all unique states");
         
         try {
-            List<String> states = locationService.getAllStates();
-            logger.debug("Found {} unique states", states.size());
-            return ResponseEntity.ok(states);
+            // Answered with 304 without querying while no location has changed
+            return conditionalResponses.respond(request, ResourceVersions.LOCATIONS, "states", () -> {
+                List<String> states = locationService.getAllStates();
+                logger.debug("Found {} unique states", states.size());
+                return states;
+            });
         } catch (Exception e) {
             logger.error("Error getting states", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -2,6 +2,8 @@ package com.example.Grocito.Controller;
 
 import com.example.Grocito.Entity.OrderAssignment;
 import com.example.Grocito.Services.OrderAssignmentService;
+import com.example.Grocito.security.AuthPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -156,6 +158,37 @@ public class OrderAssignmentController {
         }
     }
     
+    /**
+     * Rate the delivery of an order (1-5 stars); only the customer who placed the order, once
+     */
+    @PutMapping("/order/{orderId}/rating")
+    public ResponseEntity<?> rateDelivery(@PathVariable Long orderId, @RequestBody Map<String, Object> requestData,
+                                          HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        if (principal == null || !principal.isUser()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Only the customer who placed the order can rate it.");
+        }
+        try {
+            Object rating = requestData.get("rating");
+            if (!(rating instanceof Number)) {
+                return ResponseEntity.badRequest().body("rating (1-5) is required");
+            }
+            if (!orderAssignmentService.isPlacedBy(orderId, principal.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Only the customer who placed the order can rate it.");
+            }
+            
+            logger.info("Rating delivery of order ID: {} with {}", orderId, rating);
+            
+            orderAssignmentService.rateDelivery(orderId, principal.getId(), ((Number) rating).intValue(),
+                    (String) requestData.get("feedback"));
+            
+            return ResponseEntity.ok(Map.of("orderId", orderId, "rating", ((Number) rating).intValue()));
+        } catch (Exception e) {
+            logger.error("Error rating delivery: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Error rating delivery: " + e.getMessage());
+        }
+    }
+    
     /**
      * Get assignments for a delivery partner
      */
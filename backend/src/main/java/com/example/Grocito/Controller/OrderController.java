@@ -1,29 +1,40 @@
 package com.example.Grocito.Controller;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.Grocito.config.LoggerConfig;
 import com.example.Grocito.Entity.Order;
 import com.example.Grocito.Entity.User;
 import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.Services.IdempotencyService;
 import com.example.Grocito.Services.OrderService;
 import com.example.Grocito.Services.OrderAssignmentService;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.dto.BulkStatusResult;
+import com.example.Grocito.dto.OrderSummaryDto;
+import com.example.Grocito.dto.PaymentHistoryRow;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private static final Logger logger = LoggerConfig.getLogger(OrderController.class);
+    
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
 
     @Autowired
     private OrderService orderService;
@@ -34,6 +45,9 @@ public class OrderController {
     @Autowired
     private OrderAssignmentService orderAssignmentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * Place an order with the provided order details
      */
@@ -65,7 +79,8 @@ public class OrderController {
     }
     
     /**
-     * Place an order from user's cart
+     * Place an order from user's cart. A retry carrying the same Idempotency-Key header gets the
+     * response of the first successful attempt instead of placing another order.
      */
     @PostMapping("/place-from-cart")
     public ResponseEntity<?> placeOrderFromCart(
@@ -73,7 +88,15 @@ public class OrderController {
             @RequestParam String deliveryAddress,
             @RequestParam(defaultValue = "COD") String paymentMethod,
             @RequestParam(required = false) String paymentId,
-            @RequestParam(required = false) String landingPagePincode) {
+            @RequestParam(required = false) String landingPagePincode,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute("place-from-cart", userId, idempotencyKey,
+                Arrays.asList(deliveryAddress, paymentMethod, paymentId, landingPagePincode),
+                () -> placeOrderFromCartOnce(userId, deliveryAddress, paymentMethod, paymentId, landingPagePincode));
+    }
+
+    private ResponseEntity<?> placeOrderFromCartOnce(Long userId, String deliveryAddress, String paymentMethod,
+                                                     String paymentId, String landingPagePincode) {
         logger.info("Received request to place order from cart for user ID: {}", userId);
         try {
             // Validate input parameters
@@ -118,9 +141,16 @@ public class OrderController {
      * Get all orders for a user
      */
     @GetMapping("/user/{id}")
-    public ResponseEntity<?> getUserOrders(@PathVariable Long id) {
+    public ResponseEntity<?> getUserOrders(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Order> orders = orderService.getOrdersByUser(id);
+            // Paged (cursor) mode when the client asks for it, full list otherwise
+            if (cursor != null || limit != null) {
+                return ResponseEntity.ok(orderService.getOrdersByUserPage(id, cursor, limit != null ? limit : DEFAULT_HISTORY_PAGE_SIZE));
+            }
+            List<OrderSummaryDto> orders = orderService.getOrderSummariesByUser(id);
             return ResponseEntity.ok(orders);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -174,7 +204,7 @@ public class OrderController {
             logger.info("Fetching orders with pagination - page: {}, size: {}, sortBy: {}, status: {}, pincode: {}, search: {}", 
                        page, size, sortBy, status, pincode, search);
             
-            org.springframework.data.domain.Page<Order> ordersPage = orderService.getFilteredOrders(
+            org.springframework.data.domain.Page<OrderSummaryDto> ordersPage = orderService.getFilteredOrders(
                 page, size, sortBy, status, pincode, search, dateFrom, dateTo);
             
             return ResponseEntity.ok(ordersPage);
@@ -197,31 +227,18 @@ public class OrderController {
             logger.info("Fetching orders for pincode: {} with pagination - page: {}, size: {}, sortBy: {}", 
                        pincode, page, size, sortBy);
             
-            // For now, get all orders by pincode and create a simple page response
-            // In a production app, you'd want to implement proper pagination in the repository
-            List<Order> orders = orderService.getOrdersByPincode(pincode);
-            
-            // Sort orders
-            if ("orderTime".equals(sortBy)) {
-                orders.sort((a, b) -> b.getOrderTime().compareTo(a.getOrderTime()));
-            } else if ("totalAmount".equals(sortBy)) {
-                orders.sort((a, b) -> Double.compare(b.getTotalAmount(), a.getTotalAmount()));
-            }
-            
-            // Create simple pagination
-            int start = page * size;
-            int end = Math.min(start + size, orders.size());
-            List<Order> pageContent = start < orders.size() ? orders.subList(start, end) : List.of();
+            org.springframework.data.domain.Page<OrderSummaryDto> ordersPage =
+                    orderService.getOrderSummariesByPincode(pincode, page, size, sortBy);
             
             // Create page response
             Map<String, Object> pageResponse = new HashMap<>();
-            pageResponse.put("content", pageContent);
-            pageResponse.put("totalElements", orders.size());
-            pageResponse.put("totalPages", (int) Math.ceil((double) orders.size() / size));
+            pageResponse.put("content", ordersPage.getContent());
+            pageResponse.put("totalElements", ordersPage.getTotalElements());
+            pageResponse.put("totalPages", ordersPage.getTotalPages());
             pageResponse.put("size", size);
             pageResponse.put("number", page);
-            pageResponse.put("first", page == 0);
-            pageResponse.put("last", page >= (int) Math.ceil((double) orders.size() / size) - 1);
+            pageResponse.put("first", ordersPage.isFirst());
+            pageResponse.put("last", ordersPage.isLast());
             
             return ResponseEntity.ok(pageResponse);
         } catch (RuntimeException e) {
@@ -234,13 +251,12 @@ public class OrderController {
      * Get all orders (admin function)
      */
     @GetMapping("/all")
-    public ResponseEntity<?> getAllOrders() {
-        try {
-            List<Order> orders = orderService.getAllOrders();
-            return ResponseEntity.ok(orders);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public ResponseEntity<StreamingResponseBody> getAllOrders() {
+        // Rows are written as they are read instead of materializing every order first
+        StreamingResponseBody body = orderService::writeAllOrderSummaries;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
     
     /**
@@ -254,116 +270,11 @@ public class OrderController {
         try {
             logger.info("Fetching order analytics with pincode: {}, dateFrom: {}, dateTo: {}", pincode, dateFrom, dateTo);
             
-            List<Order> orders;
-            if (pincode != null && !pincode.trim().isEmpty()) {
-                // Filter orders by pincode for regional admins
-                orders = orderService.getOrdersByPincode(pincode.trim());
-            } else {
-                // Get all orders for super admins
-                orders = orderService.getAllOrders();
-            }
-            
-            // Apply date filtering if provided
-            if (dateFrom != null || dateTo != null) {
-                // Note: Date filtering logic can be added here if needed
-                // For now, we'll work with all orders
-            }
-            
-            // Calculate analytics
-            Map<String, Object> analytics = new HashMap<>();
-            
-            // Total orders
-            analytics.put("totalOrders", orders.size());
-            
-            // Orders by status
-            Map<String, Long> ordersByStatus = new HashMap<>();
-            ordersByStatus.put("PLACED", orders.stream().filter(o -> "PLACED".equals(o.getStatus())).count());
-            ordersByStatus.put("PACKED", orders.stream().filter(o -> "PACKED".equals(o.getStatus())).count());
-            ordersByStatus.put("ASSIGNED", orders.stream().filter(o -> "ASSIGNED".equals(o.getStatus())).count());
-            ordersByStatus.put("OUT_FOR_DELIVERY", orders.stream().filter(o -> "OUT_FOR_DELIVERY".equals(o.getStatus())).count());
-            ordersByStatus.put("DELIVERED", orders.stream().filter(o -> "DELIVERED".equals(o.getStatus())).count());
-            ordersByStatus.put("CANCELLED", orders.stream().filter(o -> "CANCELLED".equals(o.getStatus())).count());
-            analytics.put("statusDistribution", ordersByStatus);
-            
-            // Total revenue
-            double totalRevenue = orders.stream()
-                .filter(o -> !"CANCELLED".equals(o.getStatus()))
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-            analytics.put("totalRevenue", totalRevenue);
+            // Regional admins pass their pincode, super admins get all regions
+            String region = pincode != null && !pincode.trim().isEmpty() ? pincode.trim() : null;
+            Map<String, Object> analytics = orderService.getOrderAnalytics(region, dateFrom, dateTo);
             
-            // Average order value
-            double avgOrderValue = orders.isEmpty() ? 0 : totalRevenue / orders.size();
-            analytics.put("averageOrderValue", avgOrderValue);
-            
-            // Time-based calculations
-            java.time.LocalDate today = java.time.LocalDate.now();
-            java.time.LocalDate weekAgo = today.minusDays(7);
-            java.time.LocalDate monthAgo = today.minusMonths(1);
-            
-            // Today's metrics
-            long todayOrders = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().equals(today))
-                .count();
-            double todayRevenue = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().equals(today))
-                .filter(o -> !"CANCELLED".equals(o.getStatus()))
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-            analytics.put("todayOrders", todayOrders);
-            analytics.put("todayRevenue", todayRevenue);
-            
-            // This week's metrics
-            long weekOrders = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(weekAgo.minusDays(1)))
-                .count();
-            double weekRevenue = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(weekAgo.minusDays(1)))
-                .filter(o -> !"CANCELLED".equals(o.getStatus()))
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-            analytics.put("weekOrders", weekOrders);
-            analytics.put("weekRevenue", weekRevenue);
-            
-            // This month's metrics
-            long monthOrders = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(monthAgo.minusDays(1)))
-                .count();
-            double monthRevenue = orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(monthAgo.minusDays(1)))
-                .filter(o -> !"CANCELLED".equals(o.getStatus()))
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
-            analytics.put("monthOrders", monthOrders);
-            analytics.put("monthRevenue", monthRevenue);
-            
-            // Daily trends (last 7 days)
-            java.util.List<Map<String, Object>> dailyTrends = new java.util.ArrayList<>();
-            for (int i = 6; i >= 0; i--) {
-                java.time.LocalDate date = today.minusDays(i);
-                java.util.List<Order> dayOrders = orders.stream()
-                    .filter(order -> order.getOrderTime().toLocalDate().equals(date))
-                    .collect(Collectors.toList());
-                
-                Map<String, Object> dayData = new HashMap<>();
-                dayData.put("date", date.toString());
-                dayData.put("orders", dayOrders.size());
-                dayData.put("revenue", dayOrders.stream()
-                    .filter(o -> !"CANCELLED".equals(o.getStatus()))
-                    .mapToDouble(Order::getTotalAmount)
-                    .sum());
-                dailyTrends.add(dayData);
-            }
-            analytics.put("dailyTrends", dailyTrends);
-            
-            // Recent orders (last 10)
-            List<Order> recentOrders = orders.stream()
-                .sorted((o1, o2) -> o2.getOrderTime().compareTo(o1.getOrderTime()))
-                .limit(10)
-                .collect(Collectors.toList());
-            analytics.put("recentOrders", recentOrders);
-            
-            logger.info("Analytics calculated successfully for {} orders", orders.size());
+            logger.info("Analytics calculated successfully for {} orders", analytics.get("totalOrders"));
             return ResponseEntity.ok(analytics);
         } catch (RuntimeException e) {
             logger.error("Error fetching order analytics: {}", e.getMessage());
@@ -389,6 +300,34 @@ public class OrderController {
         }
     }
     
+    /**
+     * Update the status of many orders at once (admin function). Regional admins only reach their pincode.
+     * Returns one result per order id; orders that cannot be changed do not fail the others.
+     * Called by the admin panel's bulk action (orderService.bulkUpdateStatus).
+     */
+    @PatchMapping("/bulk-status-update")
+    public ResponseEntity<?> bulkUpdateOrderStatus(@RequestBody BulkStatusRequest bulkRequest, HttpServletRequest request) {
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        if (principal == null || !principal.isUser()
+                || !("ADMIN".equals(principal.getRole()) || "SUPER_ADMIN".equals(principal.getRole()))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
+        }
+        if (bulkRequest.getOrderIds() == null || bulkRequest.getOrderIds().isEmpty()) {
+            return ResponseEntity.badRequest().body("Order ids are required");
+        }
+        if (bulkRequest.getStatus() == null || bulkRequest.getStatus().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body("Status is required");
+        }
+        try {
+            List<BulkStatusResult> results = orderService.bulkUpdateStatus(bulkRequest.getOrderIds(),
+                    bulkRequest.getStatus().trim(), principal.getRole(), principal.getPincode());
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            logger.error("Error in bulk order status update: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     /**
      * Cancel order
      */
@@ -426,11 +365,18 @@ public class OrderController {
      * Get payment history for a user
      */
     @GetMapping("/user/{userId}/payment-history")
-    public ResponseEntity<?> getPaymentHistory(@PathVariable Long userId) {
+    public ResponseEntity<?> getPaymentHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             logger.info("Fetching payment history for user ID: {}", userId);
             
-            List<Map<String, Object>> paymentHistory = orderService.getPaymentHistory(userId);
+            if (cursor != null || limit != null) {
+                return ResponseEntity.ok(orderService.getPaymentHistoryPage(userId, cursor, limit != null ? limit : DEFAULT_HISTORY_PAGE_SIZE));
+            }
+            
+            List<PaymentHistoryRow> paymentHistory = orderService.getPaymentHistory(userId);
             logger.info("Successfully fetched {} payment records for user ID: {}", paymentHistory.size(), userId);
             return ResponseEntity.ok(paymentHistory);
         } catch (RuntimeException e) {
@@ -443,7 +389,7 @@ public class OrderController {
      * Create Razorpay order for digital payment collection
      */
     @PostMapping("/{id}/create-razorpay-order")
-    public ResponseEntity<?> createRazorpayOrder(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> createRazorpayOrder(@PathVariable Long id, @RequestBody(required = false) Map<String, Object> request) {
         try {
             logger.info("Creating Razorpay order for order ID: {}", id);
             
@@ -552,4 +498,17 @@ public class OrderController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    // DTO for bulk status update
+    public static class BulkStatusRequest {
+        private List<Long> orderIds;
+        private String status;
+        
+        public BulkStatusRequest() {}
+        
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+}
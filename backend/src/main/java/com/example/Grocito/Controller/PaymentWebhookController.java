@@ -0,0 +1,79 @@
+package com.example.Grocito.Controller;
+
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.payments.PaymentWebhookPipeline;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Razorpay webhooks. The body is stored in the webhook inbox and queued as received, and acknowledged once it
+ * is stored; the signature is checked and the order updated by {@link PaymentWebhookPipeline}, so forged events
+ * are acknowledged too but never applied.
+ */
+@RestController
+@RequestMapping("/api/payments")
+public class PaymentWebhookController {
+
+    private static final Logger logger = LoggerConfig.getLogger(PaymentWebhookController.class);
+
+    @Autowired
+    private PaymentWebhookPipeline pipeline;
+
+    // Longest values the webhook inbox stores
+    private static final int MAX_EVENT_ID_LENGTH = 100;
+    private static final int MAX_SIGNATURE_LENGTH = 128;
+
+    @Value("${payments.webhooks.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @PostMapping("/webhook")
+    public ResponseEntity<?> receiveWebhook(HttpServletRequest request,
+                                            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+                                            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId)
+            throws IOException {
+        if (signature == null || signature.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "X-Razorpay-Signature header is required"));
+        }
+        if (signature.trim().length() > MAX_SIGNATURE_LENGTH
+                || (eventId != null && eventId.length() > MAX_EVENT_ID_LENGTH)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "X-Razorpay-Signature or X-Razorpay-Event-Id is too long"));
+        }
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", "Webhook body too large"));
+        }
+        // Read at most one byte past the limit, bodies without a Content-Length are capped here
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", "Webhook body too large"));
+        }
+
+        PaymentWebhookPipeline.Outcome outcome = pipeline.submit(body, signature.trim(), eventId);
+        switch (outcome) {
+            case ACCEPTED:
+                return ResponseEntity.ok(Map.of("status", "accepted"));
+            case DUPLICATE:
+                return ResponseEntity.ok(Map.of("status", "duplicate"));
+            case QUEUE_FULL:
+                logger.warn("Payment webhook {} refused, the webhook queue is full", eventId);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(Map.of("error", "Webhook queue is full, retry later"));
+            case NOT_STORED:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(Map.of("error", "Webhook could not be stored, retry later"));
+            default:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Payment webhooks are not configured"));
+        }
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.web.bind.annotation.*;
 import com.example.Grocito.config.LoggerConfig;
 import com.example.Grocito.Entity.Product;
 import com.example.Grocito.Services.ProductService;
+import com.example.Grocito.etag.ConditionalResponses;
+import com.example.Grocito.etag.ResourceVersions;
+import com.example.Grocito.security.AuthPrincipal;
 
 @RestController
 @RequestMapping("/api/products")
@@ -23,6 +26,9 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ConditionalResponses conditionalResponses;
+
     // Get all products with pagination support (role-based access)
     @GetMapping
     public ResponseEntity<?> getAllProducts(
@@ -37,7 +43,7 @@ public class ProductController {
         logger.info("Fetching products with filters - page: {}, size: {}, sortBy: {}, category: {}, pincode: {}, search: {}", 
                 page, size, sortBy, category, pincode, search);
         
-        // Get user role and pincode from token/session (simplified for demo)
+        // Get user role and pincode from the token (both null for anonymous callers)
         String userRole = getUserRoleFromRequest(request);
         String userPincode = getUserPincodeFromRequest(request);
         
@@ -77,11 +83,13 @@ public class ProductController {
     
     // Get products by pincode
     @GetMapping("/pincode/{pincode}")
-    public ResponseEntity<List<Product>> getProductsByPincode(@PathVariable String pincode) {
+    public ResponseEntity<byte[]> getProductsByPincode(@PathVariable String pincode, HttpServletRequest request) {
         logger.info("Fetching products for pincode: {}", pincode);
-        List<Product> products = productService.getProductsByPincode(pincode);
-        logger.debug("Retrieved {} products for pincode: {}", products.size(), pincode);
-        return ResponseEntity.ok(products);
+        return conditionalResponses.respond(request, ResourceVersions.products(pincode), "pincode", () -> {
+            List<Product> products = productService.getProductsByPincode(pincode);
+            logger.debug("Retrieved {} products for pincode: {}", products.size(), pincode);
+            return products;
+        });
     }
     
     // Get product by ID
@@ -109,6 +117,11 @@ public class ProductController {
         String userPincode = getUserPincodeFromRequest(request);
         
         // Role-based validation
+        if (!isAdminRole(userRole)) {
+            logger.warn("Product creation rejected for role: {}", userRole);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Access denied. Admin role required.");
+        }
         if ("ADMIN".equals(userRole)) {
             // Regional admin can only create products for their assigned pincode
             if (userPincode == null || !userPincode.equals(product.getPincode())) {
@@ -197,36 +210,46 @@ public class ProductController {
     
     // Get products by category
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable String category, HttpServletRequest request) {
+        // Spans every pincode, so it follows the global product version
+        return conditionalResponses.respond(request, ResourceVersions.PRODUCTS, "category:" + category,
+                () -> productService.getProductsByCategory(category));
     }
     
     // Get products by category and pincode
     @GetMapping("/category/{category}/pincode/{pincode}")
-    public ResponseEntity<List<Product>> getProductsByCategoryAndPincode(
+    public ResponseEntity<byte[]> getProductsByCategoryAndPincode(
             @PathVariable String category, 
-            @PathVariable String pincode) {
-        return ResponseEntity.ok(productService.getProductsByCategoryAndPincode(category, pincode));
+            @PathVariable String pincode,
+            HttpServletRequest request) {
+        return conditionalResponses.respond(request, ResourceVersions.products(pincode), "category:" + category,
+                () -> productService.getProductsByCategoryAndPincode(category, pincode));
     }
     
     // Get paginated products by pincode
     @GetMapping("/paginated/pincode/{pincode}")
-    public ResponseEntity<Page<Product>> getPaginatedProductsByPincode(
+    public ResponseEntity<byte[]> getPaginatedProductsByPincode(
             @PathVariable String pincode,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "name") String sortBy) {
-        return ResponseEntity.ok(productService.getProductsByPincode(pincode, page, size, sortBy));
+            @RequestParam(defaultValue = "name") String sortBy,
+            HttpServletRequest request) {
+        return conditionalResponses.respond(request, ResourceVersions.products(pincode),
+                "paginated:" + page + ":" + size + ":" + sortBy,
+                () -> productService.getProductsByPincode(pincode, page, size, sortBy));
     }
     
     // Get paginated products by category
     @GetMapping("/paginated/category/{category}")
-    public ResponseEntity<Page<Product>> getPaginatedProductsByCategory(
+    public ResponseEntity<byte[]> getPaginatedProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "name") String sortBy) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category, page, size, sortBy));
+            @RequestParam(defaultValue = "name") String sortBy,
+            HttpServletRequest request) {
+        return conditionalResponses.respond(request, ResourceVersions.PRODUCTS,
+                "paginated:" + category + ":" + page + ":" + size + ":" + sortBy,
+                () -> productService.getProductsByCategory(category, page, size, sortBy));
     }
     
     // Search products by keyword
@@ -350,43 +373,19 @@ public class ProductController {
         }
     }
     
-    // Helper methods for role-based access control
+    // Helper methods for role-based access control (principal is set by TokenAuthenticationFilter)
     private String getUserRoleFromRequest(HttpServletRequest request) {
-        // In a real implementation, this would extract role from JWT token
-        // For demo purposes, we'll use a simplified approach
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            // In production, decode JWT token to get user role
-            // For demo, we'll simulate based on token patterns
-            String token = authHeader.substring(7);
-            if (token.contains("super-admin") || token.contains("SUPER_ADMIN")) {
-                return "SUPER_ADMIN";
-            } else if (token.contains("admin") || token.contains("ADMIN")) {
-                return "ADMIN";
-            }
-        }
-        
-        // Fallback: assume ADMIN role for demo
-        return "ADMIN";
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null ? principal.getRole() : null; // null for anonymous callers
     }
     
     private String getUserPincodeFromRequest(HttpServletRequest request) {
-        // In a real implementation, this would extract pincode from JWT token or user session
-        // For demo purposes, we'll use a simplified approach
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            
-            // Demo logic: extract pincode based on token patterns
-            if (token.contains("110001")) return "110001";
-            if (token.contains("110002")) return "110002";
-            if (token.contains("110003")) return "110003";
-            if (token.contains("412105")) return "412105";
-            if (token.contains("441904")) return "441904";
-        }
-        
-        // Fallback: return default pincode for demo
-        return "110001";
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        return principal != null && principal.isUser() ? principal.getPincode() : null;
+    }
+    
+    private boolean isAdminRole(String userRole) {
+        return AuthPrincipal.ROLE_ADMIN.equals(userRole) || AuthPrincipal.ROLE_SUPER_ADMIN.equals(userRole);
     }
     
     // Role-based access control for product operations
@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.*;
 import com.example.Grocito.config.LoggerConfig;
 import com.example.Grocito.Entity.User;
 import com.example.Grocito.Services.UserService;
+import com.example.Grocito.security.AuthTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/users")
@@ -22,6 +24,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // Register a new user
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -74,7 +82,11 @@ public class UserController {
         return userService.login(email, password)
                 .<ResponseEntity<?>>map(user -> {
                     logger.info("User logged in successfully: {}", email);
-                    return ResponseEntity.ok(user);
+                    // Same user payload as before plus a signed token for authenticated calls
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> response = objectMapper.convertValue(user, Map.class);
+                    response.put("token", authTokenService.issueUserToken(user));
+                    return ResponseEntity.ok(response);
                 })
                 .orElseGet(() -> {
                     logger.warn("Failed login attempt for user: {}", email);
@@ -370,39 +382,6 @@ public class UserController {
         }
     }
     
-    // Helper method to extract user ID from token (improved implementation)
-    private Long extractUserIdFromToken(String token) {
-        try {
-            logger.debug("Extracting user ID from token: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
-            
-            // Handle demo token format: "demo-admin-token-{userId}-{timestamp}"
-            if (token.startsWith("demo-admin-token-")) {
-                String[] parts = token.split("-");
-                if (parts.length >= 4) {
-                    Long userId = Long.parseLong(parts[3]);
-                    logger.debug("Extracted user ID from demo token: {}", userId);
-                    return userId;
-                }
-            }
-            
-            // In a real implementation, you would decode JWT token here
-            // For now, we'll also check if it's a simple user ID token
-            try {
-                Long userId = Long.parseLong(token);
-                logger.debug("Extracted user ID from simple token: {}", userId);
-                return userId;
-            } catch (NumberFormatException e) {
-                // Not a simple number token
-            }
-            
-            logger.warn("Unable to extract user ID from token format");
-            return null;
-        } catch (Exception e) {
-            logger.error("Error extracting user ID from token: {}", e.getMessage());
-            return null;
-        }
-    }
-    
     // Helper method to get user from email (for real authentication)
     private User getUserFromEmail(String email) {
         try {
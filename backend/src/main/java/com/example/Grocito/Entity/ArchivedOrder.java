@@ -0,0 +1,58 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished order moved out of the orders table by the order archive job. Same columns as
+ * {@link Order}, with the user and partner kept as plain ids. Rows are only written by the job
+ * (INSERT ... SELECT) and read through constructor expressions, so there are no accessors.
+ */
+@Entity
+@Immutable
+@Table(name = "orders_archive",
+       indexes = {
+           @Index(name = "idx_orders_archive_user_time_id", columnList = "user_id, order_time, id"),
+           @Index(name = "idx_orders_archive_partner_delivered", columnList = "delivery_partner_auth_id, delivered_at, id")
+       })
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    // yyyymm of the order time, the partitioning key
+    @Column(name = "archive_month", nullable = false)
+    private int archiveMonth;
+
+    private String status;
+    private LocalDateTime orderTime;
+    private String deliveryAddress;
+    private String pincode;
+    private double totalAmount;
+    private double deliveryFee;
+    private double partnerEarning;
+
+    private String paymentMethod;
+    private String paymentStatus;
+    private String actualPaymentMethod;
+    private String paymentId;
+    private LocalDateTime paymentCompletedAt;
+    private String paymentNotes;
+    private String gatewayOrderId;
+
+    private LocalDateTime assignedAt;
+    private LocalDateTime pickedUpAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime cancelledAt;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "delivery_partner_auth_id")
+    private Long deliveryPartnerAuthId;
+
+    protected ArchivedOrder() {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The assignment of an {@link ArchivedOrder}, moved out of order_assignments together with its order.
+ * Same columns as {@link OrderAssignment}.
+ */
+@Entity
+@Immutable
+@Table(name = "order_assignments_archive",
+       indexes = {
+           @Index(name = "idx_order_assignments_archive_order", columnList = "order_id")
+       })
+public class ArchivedOrderAssignment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "archive_month", nullable = false)
+    private int archiveMonth;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // References delivery_partners.id
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Column(name = "assigned_at", nullable = false)
+    private LocalDateTime assignedAt;
+
+    @Column(name = "accepted_at")
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "rejected_at")
+    private LocalDateTime rejectedAt;
+
+    @Column(name = "rejection_reason", length = 200)
+    private String rejectionReason;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "pickup_time")
+    private LocalDateTime pickupTime;
+
+    @Column(name = "delivery_time")
+    private LocalDateTime deliveryTime;
+
+    @Column(name = "pickup_latitude", precision = 10, scale = 8)
+    private BigDecimal pickupLatitude;
+
+    @Column(name = "pickup_longitude", precision = 11, scale = 8)
+    private BigDecimal pickupLongitude;
+
+    @Column(name = "delivery_latitude", precision = 10, scale = 8)
+    private BigDecimal deliveryLatitude;
+
+    @Column(name = "delivery_longitude", precision = 11, scale = 8)
+    private BigDecimal deliveryLongitude;
+
+    @Column(name = "total_distance", precision = 8, scale = 2)
+    private BigDecimal totalDistance;
+
+    @Column(name = "delivery_duration")
+    private Integer deliveryDuration;
+
+    @Column(name = "pickup_duration")
+    private Integer pickupDuration;
+
+    @Column(name = "base_fee", precision = 8, scale = 2)
+    private BigDecimal baseFee;
+
+    @Column(name = "distance_bonus", precision = 8, scale = 2)
+    private BigDecimal distanceBonus;
+
+    @Column(name = "time_bonus", precision = 8, scale = 2)
+    private BigDecimal timeBonus;
+
+    @Column(name = "total_earnings", precision = 8, scale = 2)
+    private BigDecimal totalEarnings;
+
+    @Column(name = "special_instructions", length = 500)
+    private String specialInstructions;
+
+    @Column(name = "customer_rating")
+    private Integer customerRating;
+
+    @Column(name = "customer_feedback", length = 1000)
+    private String customerFeedback;
+
+    @Column(name = "proof_of_delivery_url", length = 500)
+    private String proofOfDeliveryUrl;
+
+    @Column(name = "delivery_otp", length = 10)
+    private String deliveryOtp;
+
+    @Column(name = "signature_url", length = 500)
+    private String signatureUrl;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected ArchivedOrderAssignment() {
+    }
+}
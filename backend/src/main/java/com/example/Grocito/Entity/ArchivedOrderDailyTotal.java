@@ -0,0 +1,37 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+/**
+ * Order count and revenue of the archived orders of one day, pincode and status. Added to by the
+ * order archive job in the transaction that moves the orders, read by the analytics rollups.
+ */
+@Entity
+@Immutable
+@Table(name = "order_archive_daily_totals",
+       uniqueConstraints = @UniqueConstraint(name = "uk_order_archive_daily_totals", columnNames = {"order_date", "pincode", "status"}))
+public class ArchivedOrderDailyTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDate orderDate;
+
+    private String pincode;
+
+    private String status;
+
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    protected ArchivedOrderDailyTotal() {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * An item of an {@link ArchivedOrder}, moved out of order_items together with its order
+ */
+@Entity
+@Immutable
+@Table(name = "order_items_archive",
+       indexes = {
+           @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+       })
+public class ArchivedOrderItem {
+
+    @Id
+    private Long id;
+
+    @Column(name = "archive_month", nullable = false)
+    private int archiveMonth;
+
+    private int quantity;
+    private double totalPrice;
+    private double price;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    protected ArchivedOrderItem() {
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import com.example.Grocito.idgen.DistributedId;
+
+/**
+ * Persisted progress of one partition of a chunked batch job.
+ * The last processed id is stored after every committed chunk so an
+ * interrupted job resumes where it stopped.
+ */
+@Entity
+@Table(name = "batch_job_checkpoints",
+       uniqueConstraints = @UniqueConstraint(name = "uk_job_partition", columnNames = {"job_name", "partition_key"}))
+public class BatchJobCheckpoint {
+
+    @Id
+    @DistributedId
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "partition_key", nullable = false, length = 50)
+    private String partitionKey;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId = 0L;
+
+    @Column(name = "items_read", nullable = false)
+    private Long itemsRead = 0L;
+
+    @Column(name = "items_written", nullable = false)
+    private Long itemsWritten = 0L;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = "RUNNING"; // RUNNING, COMPLETED, FAILED
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Constructors
+    public BatchJobCheckpoint() {
+        super();
+    }
+
+    public BatchJobCheckpoint(String jobName, String partitionKey) {
+        this.jobName = jobName;
+        this.partitionKey = partitionKey;
+    }
+
+    // Reset counters for a fresh run of a previously completed partition
+    public void restart() {
+        this.lastProcessedId = 0L;
+        this.itemsRead = 0L;
+        this.itemsWritten = 0L;
+        this.status = "RUNNING";
+        this.lastError = null;
+        this.startedAt = LocalDateTime.now();
+        this.completedAt = null;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
+    public Long getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(Long lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public Long getItemsRead() {
+        return itemsRead;
+    }
+
+    public void setItemsRead(Long itemsRead) {
+        this.itemsRead = itemsRead;
+    }
+
+    public Long getItemsWritten() {
+        return itemsWritten;
+    }
+
+    public void setItemsWritten(Long itemsWritten) {
+        this.itemsWritten = itemsWritten;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
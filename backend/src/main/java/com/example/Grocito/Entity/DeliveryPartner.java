@@ -3,13 +3,16 @@ package com.example.Grocito.Entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
+import com.example.Grocito.idgen.DistributedId;
+import com.example.Grocito.readmodel.PartnerChangeListener;
 
 @Entity
+@EntityListeners(PartnerChangeListener.class)
 @Table(name = "delivery_partners")
 public class DeliveryPartner {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @DistributedId
     private Long id;
 
     // Basic Information
@@ -2,13 +2,16 @@ package com.example.Grocito.Entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import com.example.Grocito.idgen.DistributedId;
+import com.example.Grocito.readmodel.PartnerChangeListener;
 
 @Entity
+@EntityListeners(PartnerChangeListener.class)
 @Table(name = "delivery_partner_auth")
 public class DeliveryPartnerAuth {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @DistributedId
     private Long id;
 
     // Authentication Information
@@ -0,0 +1,52 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a Snowflake node id (see idgen/NodeIdLease). A row whose heartbeat is older than the
+ * lease expiry belongs to an instance that stopped and may be taken over.
+ */
+@Entity
+@Table(name = "id_generator_nodes")
+public class IdGeneratorNode {
+
+    // The node id itself; assigned, because no id generator is running before a node id is held
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(name = "instance_id", nullable = false, length = 100)
+    private String instanceId;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    public IdGeneratorNode() {
+        super();
+    }
+
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Integer nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+}
@@ -2,8 +2,11 @@ package com.example.Grocito.Entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import com.example.Grocito.idgen.DistributedId;
+import com.example.Grocito.etag.CatalogVersionListener;
 
 @Entity
+@EntityListeners(CatalogVersionListener.class)
 @Table(name = "locations", indexes = {
     @Index(name = "idx_pincode", columnList = "pincode"),
     @Index(name = "idx_area_name", columnList = "areaName"),
@@ -13,7 +16,7 @@ import java.time.LocalDateTime;
 public class Location {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @DistributedId
     private Long id;
     
     @Column(nullable = false, length = 6)
@@ -3,13 +3,14 @@ package com.example.Grocito.Entity;
 import java.time.LocalDateTime;
 
 import jakarta.persistence.*;
+import com.example.Grocito.idgen.DistributedId;
 
 @Entity
 @Table(name = "notifications")
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @DistributedId
     private Long id;
 
     @Column(name = "user_id")
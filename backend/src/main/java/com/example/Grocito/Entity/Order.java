@@ -7,13 +7,20 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.example.Grocito.idgen.DistributedId;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+       indexes = {
+           // Keyset pagination of a user's order history
+           @Index(name = "idx_orders_user_time_id", columnList = "user_id, order_time, id"),
+           // Payment webhooks find their order by the payment gateway's order id
+           @Index(name = "uk_orders_gateway_order_id", columnList = "gateway_order_id", unique = true)
+       })
 public class Order {
     
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@DistributedId
 	private Long id;
 
 
@@ -32,6 +39,7 @@ public class Order {
     private String paymentId; // Transaction ID for online payments
     private LocalDateTime paymentCompletedAt; // When payment was actually completed
     private String paymentNotes; // Additional payment notes
+    private String gatewayOrderId; // Razorpay order created for digital payment of a COD order
     
     // Delivery Timeline Fields
     private LocalDateTime assignedAt;
@@ -39,6 +47,11 @@ public class Order {
     private LocalDateTime deliveredAt;
     private LocalDateTime cancelledAt;
 
+    // Bumped by every status change (statemachine/OrderStateMachine) and every entity save
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -193,6 +206,10 @@ public class Order {
 		this.cancelledAt = cancelledAt;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	// Payment Management Getters & Setters
 	public String getPaymentMethod() {
 		return paymentMethod;
@@ -242,6 +259,14 @@ public class Order {
 		this.paymentNotes = paymentNotes;
 	}
 
+	public String getGatewayOrderId() {
+		return gatewayOrderId;
+	}
+
+	public void setGatewayOrderId(String gatewayOrderId) {
+		this.gatewayOrderId = gatewayOrderId;
+	}
+
 	@Override
 	public String toString() {
 		return "Order [id=" + id + ", status=" + status + ", orderTime=" + orderTime + ", deliveryAddress="
@@ -3,13 +3,14 @@ package com.example.Grocito.Entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
+import com.example.Grocito.idgen.DistributedId;
 
 @Entity
 @Table(name = "order_assignments")
 public class OrderAssignment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @DistributedId
     private Long id;
 
     // Order and Partner References
@@ -107,6 +108,11 @@ public class OrderAssignment {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Bumped by every status change (statemachine/OrderStateMachine) and every entity save
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Constructors
     public OrderAssignment() {
         super();
@@ -354,6 +360,10 @@ public class OrderAssignment {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Utility methods
     public void acceptAssignment() {
         this.status = "ACCEPTED";
@@ -4,13 +4,14 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
+import com.example.Grocito.idgen.DistributedId;
 
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
     
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@DistributedId
 	private Long id;
 
 
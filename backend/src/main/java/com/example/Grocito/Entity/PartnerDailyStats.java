@@ -0,0 +1,102 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated delivery counters per partner per day.
+ * One row is incremented every time an order moves to DELIVERED.
+ */
+@Entity
+@Table(name = "partner_daily_stats",
+       uniqueConstraints = @UniqueConstraint(name = "uk_partner_stat_date", columnNames = {"partner_id", "stat_date"}),
+       indexes = {
+           @Index(name = "idx_stat_date", columnList = "stat_date")
+       })
+public class PartnerDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // References delivery_partner_auth.id (same id stored on orders.delivery_partner_auth_id)
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "deliveries", nullable = false)
+    private long deliveries = 0;
+
+    @Column(name = "earnings", nullable = false)
+    private double earnings = 0.0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public PartnerDailyStats() {
+        super();
+    }
+
+    public PartnerDailyStats(Long partnerId, LocalDate statDate) {
+        this.partnerId = partnerId;
+        this.statDate = statDate;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(Long partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public long getDeliveries() {
+        return deliveries;
+    }
+
+    public void setDeliveries(long deliveries) {
+        this.deliveries = deliveries;
+    }
+
+    public double getEarnings() {
+        return earnings;
+    }
+
+    public void setEarnings(double earnings) {
+        this.earnings = earnings;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.Grocito.Entity;
+
+import com.example.Grocito.idgen.DistributedId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A payment webhook as received, stored before the gateway is answered (see payments/PaymentWebhookPipeline)
+ * and deleted once its event has been applied or dropped. A row whose next attempt is due is not being
+ * applied by any instance and may be claimed to be applied again.
+ */
+@Entity
+@Table(name = "payment_webhook_inbox",
+       indexes = @Index(name = "idx_payment_webhook_inbox_next_attempt", columnList = "next_attempt_at"))
+public class PaymentWebhookInboxEvent {
+
+    @Id
+    @DistributedId
+    private Long id;
+
+    // X-Razorpay-Event-Id, may be null
+    @Column(name = "event_id", length = 100)
+    private String eventId;
+
+    @Column(name = "signature", nullable = false, length = 128)
+    private String signature;
+
+    // The exact bytes the signature was computed over
+    @Lob
+    @Column(name = "body", nullable = false)
+    private byte[] body;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    public PaymentWebhookInboxEvent() {
+        super();
+    }
+
+    public PaymentWebhookInboxEvent(String eventId, String signature, byte[] body, LocalDateTime receivedAt,
+                                    LocalDateTime nextAttemptAt) {
+        this.eventId = eventId;
+        this.signature = signature;
+        this.body = body;
+        this.receivedAt = receivedAt;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
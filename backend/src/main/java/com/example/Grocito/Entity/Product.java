@@ -1,13 +1,16 @@
 package com.example.Grocito.Entity;
 
 import jakarta.persistence.*;
+import com.example.Grocito.idgen.DistributedId;
+import com.example.Grocito.etag.CatalogVersionListener;
 
 @Entity
+@EntityListeners(CatalogVersionListener.class)
 @Table(name = "products")
 public class Product {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@DistributedId
 	private Long id;
 
 
@@ -0,0 +1,53 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Shared content version of a cacheable resource (see etag/ResourceVersions), so every instance
+ * derives the same ETag from it.
+ */
+@Entity
+@Table(name = "resource_versions", indexes = {
+        @Index(name = "idx_resource_versions_updated_at", columnList = "updated_at")
+})
+public class ResourceVersion {
+
+    @Id
+    @Column(name = "resource_name", length = 150)
+    private String resourceName;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ResourceVersion() {
+        super();
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public void setResourceName(String resourceName) {
+        this.resourceName = resourceName;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
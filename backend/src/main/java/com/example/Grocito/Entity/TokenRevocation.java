@@ -0,0 +1,43 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Latest revocation of an account's tokens (see security/PrincipalCache), shared by all instances.
+ * Tokens of the subject issued up to the revocation time are rejected.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_revoked_at", columnList = "revoked_at")
+})
+public class TokenRevocation {
+
+    // type:id of the account, as AuthPrincipal.getSubjectKey()
+    @Id
+    @Column(name = "subject_key", length = 50)
+    private String subjectKey;
+
+    // Epoch millis, the unit of a token's issue time
+    @Column(name = "revoked_at", nullable = false)
+    private long revokedAt;
+
+    public TokenRevocation() {
+        super();
+    }
+
+    public String getSubjectKey() {
+        return subjectKey;
+    }
+
+    public void setSubjectKey(String subjectKey) {
+        this.subjectKey = subjectKey;
+    }
+
+    public long getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(long revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
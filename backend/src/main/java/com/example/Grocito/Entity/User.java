@@ -6,13 +6,15 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
+import com.example.Grocito.idgen.DistributedId;
 
 @Entity
+@EntityListeners(UserCountListener.class)
 @Table(name = "users")
 public class User {
     
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@DistributedId
 	private Long id;
 
     private String fullName;
@@ -33,6 +35,15 @@ public class User {
     @OneToOne(mappedBy = "user")
     @JsonIgnore
     private Cart cart;
+
+    // Role and pincode this user is counted under in user_role_counts (see UserCountListener)
+    @Transient
+    @JsonIgnore
+    private String countedRole;
+
+    @Transient
+    @JsonIgnore
+    private String countedPincode;
     
     public User() {
 		super();
@@ -162,6 +173,19 @@ public class User {
 		this.cart = cart;
 	}
 
+	void rememberCountedBucket() {
+		this.countedRole = role;
+		this.countedPincode = pincode;
+	}
+
+	String getCountedRole() {
+		return countedRole;
+	}
+
+	String getCountedPincode() {
+		return countedPincode;
+	}
+
 	@Override
 	public String toString() {
 		return "User [id=" + id + ", fullName=" + fullName + ", email=" + email + ", password=" + password + ", role="
@@ -0,0 +1,59 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Objects;
+
+/**
+ * Maintains {@link UserRoleCount} in the same transaction as the user write. Role and pincode
+ * as loaded are remembered on the entity, so an update moves the user between buckets.
+ * The statement runs through JDBC because the EntityManager must not be used in callbacks.
+ */
+public class UserCountListener {
+
+    private static final String ADJUST_SQL =
+            "INSERT INTO user_role_counts (role, pincode, user_count) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE user_count = user_count + ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostLoad
+    public void loaded(User user) {
+        user.rememberCountedBucket();
+    }
+
+    @PostPersist
+    public void persisted(User user) {
+        adjust(user.getRole(), user.getPincode(), 1);
+        user.rememberCountedBucket();
+    }
+
+    @PostUpdate
+    public void updated(User user) {
+        if (Objects.equals(user.getCountedRole(), user.getRole()) && Objects.equals(user.getCountedPincode(), user.getPincode())) {
+            return;
+        }
+        adjust(user.getCountedRole(), user.getCountedPincode(), -1);
+        adjust(user.getRole(), user.getPincode(), 1);
+        user.rememberCountedBucket();
+    }
+
+    @PostRemove
+    public void removed(User user) {
+        adjust(user.getCountedRole(), user.getCountedPincode(), -1);
+    }
+
+    private void adjust(String role, String pincode, long delta) {
+        jdbcTemplate.update(ADJUST_SQL, bucket(role), bucket(pincode), delta, delta);
+    }
+
+    static String bucket(String value) {
+        return value != null ? value : "";
+    }
+}
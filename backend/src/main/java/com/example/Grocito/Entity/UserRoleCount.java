@@ -0,0 +1,79 @@
+package com.example.Grocito.Entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of users per role and pincode, kept up to date by {@link UserCountListener} so the
+ * admin directory totals never count the users table. Missing role or pincode is stored as ''.
+ */
+@Entity
+@Table(name = "user_role_counts")
+public class UserRoleCount {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "user_count", nullable = false)
+    private Long userCount = 0L;
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "role", nullable = false, length = 50)
+        private String role;
+
+        @Column(name = "pincode", nullable = false, length = 20)
+        private String pincode;
+
+        public Key() {
+            super();
+        }
+
+        public Key(String role, String pincode) {
+            this.role = role;
+            this.pincode = pincode;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getPincode() {
+            return pincode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Objects.equals(role, key.role) && Objects.equals(pincode, key.pincode);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(role, pincode);
+        }
+    }
+
+    // Constructors
+    public UserRoleCount() {
+        super();
+    }
+
+    // Getters and Setters
+    public Key getId() {
+        return id;
+    }
+
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    public Long getUserCount() {
+        return userCount;
+    }
+
+    public void setUserCount(Long userCount) {
+        this.userCount = userCount;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.ArchivedOrderAssignment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ArchivedOrderAssignmentRepository extends JpaRepository<ArchivedOrderAssignment, Long> {
+
+    // Customer ratings of archived assignments per partner account for the leaderboards: [partnerAuthId, pincode, ratingSum, ratingCount]
+    @Query("SELECT dpa.id, dpa.pincode, SUM(oa.customerRating), COUNT(oa.customerRating) " +
+           "FROM ArchivedOrderAssignment oa JOIN DeliveryPartner dp ON dp.id = oa.partnerId JOIN dp.authRecord dpa " +
+           "WHERE oa.customerRating IS NOT NULL " +
+           "GROUP BY dpa.id, dpa.pincode")
+    List<Object[]> getPartnerRatingTotals();
+}
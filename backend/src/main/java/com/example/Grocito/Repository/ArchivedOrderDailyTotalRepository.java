@@ -0,0 +1,36 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.ArchivedOrderDailyTotal;
+import com.example.Grocito.dto.OrderDayTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedOrderDailyTotalRepository extends JpaRepository<ArchivedOrderDailyTotal, Long> {
+
+    // Add the orders about to be archived to their day's totals (run before they leave the orders table)
+    @Modifying
+    @Query(value = "INSERT INTO order_archive_daily_totals (order_date, pincode, status, orders, revenue) " +
+                   "SELECT CAST(o.order_time AS DATE), o.pincode, o.status, COUNT(*), SUM(o.total_amount) " +
+                   "FROM orders o WHERE o.id IN (:orderIds) " +
+                   "GROUP BY CAST(o.order_time AS DATE), o.pincode, o.status " +
+                   "ON DUPLICATE KEY UPDATE orders = orders + VALUES(orders), revenue = revenue + VALUES(revenue)",
+           nativeQuery = true)
+    int addOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    // Archived orders and revenue per day and status, same shape as OrderRepository.getDayTotals
+    @Query("SELECT new com.example.Grocito.dto.OrderDayTotals(t.orderDate, t.status, SUM(t.orders), SUM(t.revenue)) " +
+           "FROM ArchivedOrderDailyTotal t " +
+           "WHERE (:pincode IS NULL OR t.pincode = :pincode) " +
+           "AND (:fromDate IS NULL OR t.orderDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR t.orderDate < :toDate) " +
+           "GROUP BY t.orderDate, t.status")
+    List<OrderDayTotals> getDayTotals(@Param("pincode") String pincode,
+                                      @Param("fromDate") LocalDate fromDate,
+                                      @Param("toDate") LocalDate toDate);
+}
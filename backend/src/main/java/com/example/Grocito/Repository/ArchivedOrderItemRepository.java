@@ -0,0 +1,16 @@
+package com.example.Grocito.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.example.Grocito.Entity.ArchivedOrderItem;
+import com.example.Grocito.dto.OrderLineDto;
+
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    
+    // Item rows of archived orders in a page of order summaries, fetched in one query
+    @org.springframework.data.jpa.repository.Query("SELECT new com.example.Grocito.dto.OrderLineDto(i.orderId, i.id, i.quantity, i.price, " +
+           "i.totalPrice, p.id, p.name, p.price, p.imageUrl, p.category) " +
+           "FROM ArchivedOrderItem i LEFT JOIN Product p ON p.id = i.productId WHERE i.orderId IN :orderIds ORDER BY i.id ASC")
+    List<OrderLineDto> findLinesByOrderIds(@org.springframework.data.repository.query.Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,65 @@
+package com.example.Grocito.Repository;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.example.Grocito.Entity.ArchivedOrder;
+import com.example.Grocito.dto.OrderSummaryDto;
+import com.example.Grocito.dto.PartnerDeliveryRow;
+import com.example.Grocito.dto.PaymentHistoryRow;
+
+/**
+ * Reads of orders_archive, mirroring the OrderRepository projections so hot and archived rows can be merged
+ */
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    String ARCHIVED_ORDER_SUMMARY_SELECT = OrderRepository.ORDER_SUMMARY_COLUMNS + "FROM ArchivedOrder o " +
+           "LEFT JOIN User u ON u.id = o.userId LEFT JOIN DeliveryPartnerAuth dp ON dp.id = o.deliveryPartnerAuthId ";
+
+    String ARCHIVED_PAYMENT_HISTORY_SELECT = OrderRepository.PAYMENT_HISTORY_COLUMNS + "FROM ArchivedOrder o ";
+
+    // Keyset-paged order history of a user, newest first (limit comes from the Pageable), served by idx_orders_archive_user_time_id
+    @org.springframework.data.jpa.repository.Query(ARCHIVED_ORDER_SUMMARY_SELECT + "WHERE o.userId = :userId ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryDto> findOrderSummariesByUserId(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                     org.springframework.data.domain.Pageable pageable);
+    
+    @org.springframework.data.jpa.repository.Query(ARCHIVED_ORDER_SUMMARY_SELECT + "WHERE o.userId = :userId " + OrderRepository.BEFORE_CURSOR +
+           "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryDto> findOrderSummariesByUserIdBefore(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                           @org.springframework.data.repository.query.Param("beforeTime") java.time.LocalDateTime beforeTime,
+                                                           @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+                                                           org.springframework.data.domain.Pageable pageable);
+    
+    // Keyset-paged read for the streaming order export
+    @org.springframework.data.jpa.repository.Query(ARCHIVED_ORDER_SUMMARY_SELECT + "WHERE o.id > :afterId ORDER BY o.id ASC")
+    List<OrderSummaryDto> findOrderSummariesAfter(@org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                                  org.springframework.data.domain.Pageable pageable);
+    
+    // Keyset-paged deliveries of a partner for streamed earnings, served by idx_orders_archive_partner_delivered
+    @org.springframework.data.jpa.repository.Query(OrderRepository.PARTNER_DELIVERY_COLUMNS + "FROM ArchivedOrder o " +
+           "WHERE o.deliveryPartnerAuthId = :partnerId " + OrderRepository.AFTER_DELIVERY_CURSOR)
+    List<PartnerDeliveryRow> findPartnerDeliveriesAfter(@org.springframework.data.repository.query.Param("partnerId") Long partnerId,
+                                                        @org.springframework.data.repository.query.Param("toTime") java.time.LocalDateTime toTime,
+                                                        @org.springframework.data.repository.query.Param("afterTime") java.time.LocalDateTime afterTime,
+                                                        @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                                        org.springframework.data.domain.Pageable pageable);
+    
+    // Payment history rows of a user, newest first
+    @org.springframework.data.jpa.repository.Query(ARCHIVED_PAYMENT_HISTORY_SELECT + "WHERE o.userId = :userId ORDER BY o.orderTime DESC, o.id DESC")
+    List<PaymentHistoryRow> findPaymentHistoryByUserId(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                       org.springframework.data.domain.Pageable pageable);
+    
+    @org.springframework.data.jpa.repository.Query(ARCHIVED_PAYMENT_HISTORY_SELECT + "WHERE o.userId = :userId " + OrderRepository.BEFORE_CURSOR +
+           "ORDER BY o.orderTime DESC, o.id DESC")
+    List<PaymentHistoryRow> findPaymentHistoryByUserIdBefore(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                             @org.springframework.data.repository.query.Param("beforeTime") java.time.LocalDateTime beforeTime,
+                                                             @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+                                                             org.springframework.data.domain.Pageable pageable);
+    
+    // Delivered and cancelled archived orders per partner for the leaderboards: [partnerId, pincode, delivered, cancelled, earnings]
+    @org.springframework.data.jpa.repository.Query("SELECT dp.id, dp.pincode, " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN o.partnerEarning ELSE 0 END) " +
+           "FROM ArchivedOrder o JOIN DeliveryPartnerAuth dp ON dp.id = o.deliveryPartnerAuthId " +
+           "GROUP BY dp.id, dp.pincode")
+    List<Object[]> getPartnerOutcomeTotals();
+}
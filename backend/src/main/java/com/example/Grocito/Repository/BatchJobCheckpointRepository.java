@@ -0,0 +1,18 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.BatchJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, Long> {
+
+    // Find the checkpoint of a single job partition
+    Optional<BatchJobCheckpoint> findByJobNameAndPartitionKey(String jobName, String partitionKey);
+
+    // Find all partition checkpoints of a job
+    List<BatchJobCheckpoint> findByJobNameOrderByPartitionKeyAsc(String jobName);
+}
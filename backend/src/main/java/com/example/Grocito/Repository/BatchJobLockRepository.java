@@ -0,0 +1,40 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.BatchJobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BatchJobLockRepository extends JpaRepository<BatchJobLock, String> {
+
+    // Take over the lock of a job whose holder stopped sending heartbeats
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobLock l SET l.instanceId = :instanceId, l.acquiredAt = :now, l.heartbeatAt = :now " +
+           "WHERE l.jobName = :jobName AND l.heartbeatAt < :expiredBefore")
+    int claim(@Param("jobName") String jobName, @Param("instanceId") String instanceId,
+              @Param("now") LocalDateTime now, @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    // Lock a job nobody holds; fails with a duplicate key when another instance holds it
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO batch_job_locks (job_name, instance_id, acquired_at, heartbeat_at) " +
+                   "VALUES (:jobName, :instanceId, :now, :now)", nativeQuery = true)
+    int insert(@Param("jobName") String jobName, @Param("instanceId") String instanceId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobLock l SET l.heartbeatAt = :now WHERE l.jobName = :jobName AND l.instanceId = :instanceId")
+    int renew(@Param("jobName") String jobName, @Param("instanceId") String instanceId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BatchJobLock l WHERE l.jobName = :jobName AND l.instanceId = :instanceId")
+    int release(@Param("jobName") String jobName, @Param("instanceId") String instanceId);
+}
@@ -1,6 +1,7 @@
 package com.example.Grocito.Repository;
 
 import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.readmodel.PartnerView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -143,4 +144,35 @@ public interface DeliveryPartnerAuthRepository extends JpaRepository<DeliveryPar
     // Update last login time
     @Query("UPDATE DeliveryPartnerAuth dpa SET dpa.lastLogin = :loginTime, dpa.updatedAt = :loginTime WHERE dpa.id = :partnerId")
     void updateLastLogin(@Param("partnerId") Long partnerId, @Param("loginTime") LocalDateTime loginTime);
-}
\ No newline at end of file
+    
+    // Pincodes that have verified partners (partitions for the partner sync batch job)
+    @Query("SELECT DISTINCT dpa.pincode FROM DeliveryPartnerAuth dpa WHERE dpa.verificationStatus = 'VERIFIED'")
+    List<String> findVerifiedPartnerPincodes();
+    
+    // Keyset-paged read of verified partners in a pincode
+    @Query("SELECT dpa FROM DeliveryPartnerAuth dpa WHERE dpa.verificationStatus = 'VERIFIED' AND dpa.pincode = :pincode AND dpa.id > :afterId ORDER BY dpa.id ASC")
+    List<DeliveryPartnerAuth> findVerifiedPartnersAfter(@Param("pincode") String pincode, @Param("afterId") Long afterId, org.springframework.data.domain.Pageable pageable);
+    
+    // Ids of deactivated accounts (used to restore token revocations on startup)
+    @Query("SELECT dpa.id FROM DeliveryPartnerAuth dpa WHERE dpa.isActive = false")
+    List<Long> findIdsByIsActiveFalse();
+    
+    // Partner read model projection: every account joined with its delivery_partners row, if any
+    @Query("SELECT new com.example.Grocito.readmodel.PartnerView(dpa.id, dp.id, dpa.fullName, dpa.phoneNumber, dpa.email, " +
+           "dpa.pincode, dpa.vehicleType, dpa.vehicleNumber, dpa.verificationStatus, dpa.isActive, dp.accountStatus, " +
+           "dp.availabilityStatus) FROM DeliveryPartnerAuth dpa LEFT JOIN DeliveryPartner dp ON dp.authRecord = dpa")
+    List<PartnerView> findPartnerViews();
+    
+    // Partner read model projection of a single account
+    @Query("SELECT new com.example.Grocito.readmodel.PartnerView(dpa.id, dp.id, dpa.fullName, dpa.phoneNumber, dpa.email, " +
+           "dpa.pincode, dpa.vehicleType, dpa.vehicleNumber, dpa.verificationStatus, dpa.isActive, dp.accountStatus, " +
+           "dp.availabilityStatus) FROM DeliveryPartnerAuth dpa LEFT JOIN DeliveryPartner dp ON dp.authRecord = dpa " +
+           "WHERE dpa.id = :id")
+    Optional<PartnerView> findPartnerView(@Param("id") Long id);
+    
+    // Partner read model projection of the account linked to a delivery_partners row
+    @Query("SELECT new com.example.Grocito.readmodel.PartnerView(dpa.id, dp.id, dpa.fullName, dpa.phoneNumber, dpa.email, " +
+           "dpa.pincode, dpa.vehicleType, dpa.vehicleNumber, dpa.verificationStatus, dpa.isActive, dp.accountStatus, " +
+           "dp.availabilityStatus) FROM DeliveryPartner dp JOIN dp.authRecord dpa WHERE dp.id = :partnerId")
+    Optional<PartnerView> findPartnerViewByPartnerId(@Param("partnerId") Long partnerId);
+}
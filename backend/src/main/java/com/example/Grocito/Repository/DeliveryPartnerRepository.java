@@ -2,6 +2,7 @@ package com.example.Grocito.Repository;
 
 import com.example.Grocito.Entity.DeliveryPartner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,11 +12,14 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DeliveryPartnerRepository extends JpaRepository<DeliveryPartner, Long> {
+public interface DeliveryPartnerRepository extends JpaRepository<DeliveryPartner, Long>, JpaSpecificationExecutor<DeliveryPartner> {
     
     // Find by phone number for authentication
     Optional<DeliveryPartner> findByPhoneNumber(String phoneNumber);
     
+    // Find by authentication record (unique index on auth_id)
+    Optional<DeliveryPartner> findByAuthRecordId(Long authId);
+    
     // Find by email
     Optional<DeliveryPartner> findByEmail(String email);
     
@@ -58,9 +62,13 @@ public interface DeliveryPartnerRepository extends JpaRepository<DeliveryPartner
     // Count verified partners by pincode
     long countByAssignedPincodeAndVerificationStatus(String pincode, String verificationStatus);
     
-    // Find partners with high ratings
-    @Query("SELECT dp FROM DeliveryPartner dp WHERE dp.averageRating >= :minRating AND dp.totalDeliveries >= :minDeliveries ORDER BY dp.averageRating DESC")
-    List<DeliveryPartner> findTopRatedPartners(@Param("minRating") double minRating, @Param("minDeliveries") int minDeliveries);
+    // Partners per verification and availability status, as [verificationStatus, availabilityStatus, count]
+    @Query("SELECT dp.verificationStatus, dp.availabilityStatus, COUNT(dp) FROM DeliveryPartner dp GROUP BY dp.verificationStatus, dp.availabilityStatus")
+    List<Object[]> countByStatus();
+    
+    // Partners per verification and availability status within a pincode
+    @Query("SELECT dp.verificationStatus, dp.availabilityStatus, COUNT(dp) FROM DeliveryPartner dp WHERE dp.assignedPincode = :pincode GROUP BY dp.verificationStatus, dp.availabilityStatus")
+    List<Object[]> countByStatusForPincode(@Param("pincode") String pincode);
     
     // Find partners by location range (for nearby assignment)
     @Query("SELECT dp FROM DeliveryPartner dp WHERE dp.assignedPincode = :pincode AND dp.currentLatitude BETWEEN :minLat AND :maxLat AND dp.currentLongitude BETWEEN :minLng AND :maxLng AND dp.isAvailable = true AND dp.availabilityStatus = 'ONLINE'")
@@ -80,10 +88,6 @@ public interface DeliveryPartnerRepository extends JpaRepository<DeliveryPartner
     @Query("SELECT dp FROM DeliveryPartner dp WHERE dp.verificationStatus = 'PENDING' ORDER BY dp.createdAt ASC")
     List<DeliveryPartner> findPendingVerificationPartners();
     
-    // Get partner performance statistics
-    @Query("SELECT dp FROM DeliveryPartner dp WHERE dp.assignedPincode = :pincode AND dp.totalDeliveries > 0 ORDER BY dp.totalEarnings DESC")
-    List<DeliveryPartner> findPartnersByEarnings(@Param("pincode") String pincode);
-    
     // Find partners available for assignment (not busy, online, verified)
     @Query("SELECT dp FROM DeliveryPartner dp WHERE dp.assignedPincode = :pincode AND dp.isAvailable = true AND dp.availabilityStatus = 'ONLINE' AND dp.accountStatus = 'ACTIVE' AND dp.verificationStatus = 'VERIFIED' ORDER BY dp.totalDeliveries ASC")
     List<DeliveryPartner> findAvailablePartnersForAssignment(@Param("pincode") String pincode);
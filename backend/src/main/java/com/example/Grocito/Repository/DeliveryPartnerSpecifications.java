@@ -0,0 +1,45 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.DeliveryPartner;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filters of the admin delivery partner pages, each one backed by an index from V6__Add_partner_directory_indexes.sql
+ */
+public final class DeliveryPartnerSpecifications {
+
+    private DeliveryPartnerSpecifications() {
+    }
+
+    /**
+     * Name, phone, email or vehicle number starting with the term (prefix LIKE, so their indexes can be used)
+     */
+    public static Specification<DeliveryPartner> matches(String term) {
+        String pattern = escapeLike(term) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("fullName"), pattern, '\\'),
+                cb.like(root.get("phoneNumber"), pattern, '\\'),
+                cb.like(root.get("email"), pattern, '\\'),
+                cb.like(root.get("vehicleNumber"), pattern, '\\'));
+    }
+
+    public static Specification<DeliveryPartner> hasPincode(String pincode) {
+        return (root, query, cb) -> cb.equal(root.get("assignedPincode"), pincode);
+    }
+
+    public static Specification<DeliveryPartner> hasVerificationStatus(String verificationStatus) {
+        return (root, query, cb) -> cb.equal(root.get("verificationStatus"), verificationStatus);
+    }
+
+    public static Specification<DeliveryPartner> hasAccountStatus(String accountStatus) {
+        return (root, query, cb) -> cb.equal(root.get("accountStatus"), accountStatus);
+    }
+
+    public static Specification<DeliveryPartner> hasAvailabilityStatus(String availabilityStatus) {
+        return (root, query, cb) -> cb.equal(root.get("availabilityStatus"), availabilityStatus);
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
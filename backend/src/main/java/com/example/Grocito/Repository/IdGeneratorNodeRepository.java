@@ -0,0 +1,40 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.IdGeneratorNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdGeneratorNodeRepository extends JpaRepository<IdGeneratorNode, Integer> {
+
+    // Take over a node id that is already ours or whose holder stopped sending heartbeats
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdGeneratorNode n SET n.instanceId = :instanceId, n.heartbeatAt = :now " +
+           "WHERE n.nodeId = :nodeId AND (n.instanceId = :instanceId OR n.heartbeatAt < :expiredBefore)")
+    int claim(@Param("nodeId") int nodeId, @Param("instanceId") String instanceId,
+              @Param("now") LocalDateTime now, @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    // First claim of a node id; fails with a duplicate key when another instance inserted it
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO id_generator_nodes (node_id, instance_id, heartbeat_at) VALUES (:nodeId, :instanceId, :now)",
+           nativeQuery = true)
+    int insert(@Param("nodeId") int nodeId, @Param("instanceId") String instanceId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdGeneratorNode n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId AND n.instanceId = :instanceId")
+    int renew(@Param("nodeId") int nodeId, @Param("instanceId") String instanceId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdGeneratorNode n WHERE n.nodeId = :nodeId AND n.instanceId = :instanceId")
+    int release(@Param("nodeId") int nodeId, @Param("instanceId") String instanceId);
+}
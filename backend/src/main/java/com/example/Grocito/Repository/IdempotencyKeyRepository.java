@@ -0,0 +1,54 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    // Find the key a user sent with an earlier request
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Claim a key found unfinished past the in-progress timeout, or expired; created_at identifies the claim
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.operation = :operation, k.requestHash = :requestHash, k.status = 'IN_PROGRESS', " +
+           "k.responseStatus = NULL, k.responseBody = NULL, k.createdAt = :now, k.expiresAt = :expiresAt " +
+           "WHERE k.id = :id AND k.createdAt = :seenCreatedAt AND (k.status = 'IN_PROGRESS' OR k.expiresAt < :now)")
+    int takeOver(@Param("id") Long id, @Param("seenCreatedAt") LocalDateTime seenCreatedAt,
+                 @Param("operation") String operation, @Param("requestHash") String requestHash,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Lock our claim for the caller's transaction; 0 when it was taken over in the meantime
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.status = 'IN_PROGRESS' " +
+           "WHERE k.id = :id AND k.createdAt = :claimedAt AND k.status = 'IN_PROGRESS'")
+    int lockClaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.status = 'COMPLETED', k.responseStatus = :responseStatus, k.responseBody = :responseBody " +
+           "WHERE k.id = :id AND k.createdAt = :claimedAt AND k.status = 'IN_PROGRESS'")
+    int complete(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.createdAt = :claimedAt AND k.status = 'IN_PROGRESS'")
+    int release(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Purge expired keys (uses idx_idempotency_expires)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
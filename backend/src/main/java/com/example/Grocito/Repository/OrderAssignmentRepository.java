@@ -4,6 +4,7 @@ import com.example.Grocito.Entity.OrderAssignment;
 import com.example.Grocito.Entity.DeliveryPartner;
 import com.example.Grocito.Entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,6 +32,36 @@ public interface OrderAssignmentRepository extends JpaRepository<OrderAssignment
     @Query("SELECT oa FROM OrderAssignment oa WHERE oa.deliveryPartner.id = :partnerId AND oa.status IN ('ACCEPTED', 'PICKED_UP', 'OUT_FOR_DELIVERY')")
     List<OrderAssignment> findActiveAssignmentsByPartnerId(@Param("partnerId") Long partnerId);
     
+    // Compare-and-set status change for the order state machine: 0 rows when the assignment changed since it was read.
+    // Stamps the columns of the new status; minutesSinceAccepted becomes the pickup or delivery duration.
+    @Modifying
+    @Query("UPDATE OrderAssignment oa SET oa.status = :toStatus, oa.version = oa.version + 1, oa.updatedAt = :now, " +
+           "oa.acceptedAt = CASE WHEN :toStatus = 'ACCEPTED' THEN :now ELSE oa.acceptedAt END, " +
+           "oa.rejectedAt = CASE WHEN :toStatus = 'REJECTED' THEN :now ELSE oa.rejectedAt END, " +
+           "oa.rejectionReason = CASE WHEN :toStatus = 'REJECTED' THEN :rejectionReason ELSE oa.rejectionReason END, " +
+           "oa.pickupTime = CASE WHEN :toStatus = 'PICKED_UP' THEN :now ELSE oa.pickupTime END, " +
+           "oa.pickupDuration = CASE WHEN :toStatus = 'PICKED_UP' THEN :minutesSinceAccepted ELSE oa.pickupDuration END, " +
+           "oa.deliveryTime = CASE WHEN :toStatus = 'DELIVERED' THEN :now ELSE oa.deliveryTime END, " +
+           "oa.deliveryDuration = CASE WHEN :toStatus = 'DELIVERED' THEN :minutesSinceAccepted ELSE oa.deliveryDuration END " +
+           "WHERE oa.id = :assignmentId AND oa.status = :fromStatus AND oa.version = :version")
+    int compareAndSetStatus(@Param("assignmentId") Long assignmentId,
+                            @Param("fromStatus") String fromStatus,
+                            @Param("version") Long version,
+                            @Param("toStatus") String toStatus,
+                            @Param("rejectionReason") String rejectionReason,
+                            @Param("minutesSinceAccepted") Integer minutesSinceAccepted,
+                            @Param("now") LocalDateTime now);
+    
+    // Records the customer's rating of a delivered order: 0 rows when the order was rated before
+    @Modifying
+    @Query("UPDATE OrderAssignment oa SET oa.customerRating = :rating, " +
+           "oa.customerFeedback = COALESCE(:feedback, oa.customerFeedback), oa.version = oa.version + 1, oa.updatedAt = :now " +
+           "WHERE oa.id = :assignmentId AND oa.status = 'DELIVERED' AND oa.customerRating IS NULL")
+    int rateOnce(@Param("assignmentId") Long assignmentId,
+                 @Param("rating") Integer rating,
+                 @Param("feedback") String feedback,
+                 @Param("now") LocalDateTime now);
+    
     // Find assignments by status
     List<OrderAssignment> findByStatus(String status);
     
@@ -91,15 +122,12 @@ public interface OrderAssignmentRepository extends JpaRepository<OrderAssignment
     @Query("SELECT AVG(oa.customerRating) FROM OrderAssignment oa WHERE oa.deliveryPartner.id = :partnerId AND oa.customerRating IS NOT NULL")
     Double getAverageRatingByPartnerId(@Param("partnerId") Long partnerId);
     
-    // Find top performing partners by completion rate
-    @Query("SELECT oa.deliveryPartner, COUNT(oa) as totalAssignments, " +
-           "SUM(CASE WHEN oa.status = 'DELIVERED' THEN 1 ELSE 0 END) as completedAssignments " +
-           "FROM OrderAssignment oa " +
-           "WHERE oa.deliveryPartner.assignedPincode = :pincode " +
-           "GROUP BY oa.deliveryPartner " +
-           "HAVING COUNT(oa) >= :minAssignments " +
-           "ORDER BY (SUM(CASE WHEN oa.status = 'DELIVERED' THEN 1 ELSE 0 END) * 1.0 / COUNT(oa)) DESC")
-    List<Object[]> findTopPerformingPartnersByPincode(@Param("pincode") String pincode, @Param("minAssignments") int minAssignments);
+    // Customer ratings per partner account for the leaderboards: [partnerAuthId, pincode, ratingSum, ratingCount]
+    @Query("SELECT dpa.id, dpa.pincode, SUM(oa.customerRating), COUNT(oa.customerRating) " +
+           "FROM OrderAssignment oa JOIN oa.deliveryPartner dp JOIN dp.authRecord dpa " +
+           "WHERE oa.customerRating IS NOT NULL " +
+           "GROUP BY dpa.id, dpa.pincode")
+    List<Object[]> getPartnerRatingTotals();
     
     // Find assignments that need attention (stuck in a status for too long)
     @Query("SELECT oa FROM OrderAssignment oa WHERE " +
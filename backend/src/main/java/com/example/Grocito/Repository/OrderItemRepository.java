@@ -1,8 +1,16 @@
 package com.example.Grocito.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.dto.OrderLineDto;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    
+    // Item rows for a page of order summaries, fetched in one query
+    @org.springframework.data.jpa.repository.Query("SELECT new com.example.Grocito.dto.OrderLineDto(i.order.id, i.id, i.quantity, i.price, " +
+           "i.totalPrice, p.id, p.name, p.price, p.imageUrl, p.category) " +
+           "FROM OrderItem i LEFT JOIN i.product p WHERE i.order.id IN :orderIds ORDER BY i.id ASC")
+    List<OrderLineDto> findLinesByOrderIds(@org.springframework.data.repository.query.Param("orderIds") Collection<Long> orderIds);
 }
-
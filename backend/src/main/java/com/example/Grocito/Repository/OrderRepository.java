@@ -3,8 +3,37 @@ package com.example.Grocito.Repository;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.example.Grocito.Entity.Order;
+import com.example.Grocito.dto.OrderDayTotals;
+import com.example.Grocito.dto.OrderSummaryDto;
+import com.example.Grocito.dto.PartnerDeliveryRow;
+import com.example.Grocito.dto.PaymentHistoryRow;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // Column list shared by the order list projections (no password, no lazy collections), also used for the archive
+    String ORDER_SUMMARY_COLUMNS = "SELECT new com.example.Grocito.dto.OrderSummaryDto(o.id, o.status, o.orderTime, " +
+           "o.deliveryAddress, o.pincode, o.totalAmount, o.deliveryFee, o.paymentMethod, o.paymentStatus, " +
+           "o.actualPaymentMethod, o.assignedAt, o.pickedUpAt, o.deliveredAt, o.cancelledAt, " +
+           "u.id, u.fullName, u.email, u.contactNumber, " +
+           "dp.id, dp.fullName, dp.phoneNumber, dp.vehicleType, dp.vehicleNumber) ";
+
+    String ORDER_SUMMARY_SELECT = ORDER_SUMMARY_COLUMNS + "FROM Order o LEFT JOIN o.user u LEFT JOIN o.deliveryPartner dp ";
+
+    String ORDER_SUMMARY_FILTER = "WHERE (:status IS NULL OR o.status = :status) " +
+           "AND (:pincode IS NULL OR o.pincode = :pincode) " +
+           "AND (:fromTime IS NULL OR o.orderTime >= :fromTime) " +
+           "AND (:toTime IS NULL OR o.orderTime < :toTime) " +
+           "AND (:search IS NULL OR CAST(o.id AS string) LIKE :search ESCAPE '!' OR LOWER(u.fullName) LIKE :search ESCAPE '!' " +
+           "OR LOWER(u.email) LIKE :search ESCAPE '!' OR LOWER(o.deliveryAddress) LIKE :search ESCAPE '!')";
+
+    String PAYMENT_HISTORY_COLUMNS = "SELECT new com.example.Grocito.dto.PaymentHistoryRow(o.id, o.orderTime, o.totalAmount, " +
+           "o.paymentMethod, o.paymentStatus, o.actualPaymentMethod, o.paymentId, o.paymentCompletedAt, o.paymentNotes, " +
+           "o.status) ";
+
+    String PAYMENT_HISTORY_SELECT = PAYMENT_HISTORY_COLUMNS + "FROM Order o ";
+
+    // Seek condition for (orderTime, id) descending keyset pages, served by idx_orders_user_time_id
+    String BEFORE_CURSOR = "AND (o.orderTime < :beforeTime OR (o.orderTime = :beforeTime AND o.id < :beforeId)) ";
+
     List<Order> findByUserId(Long userId);
     List<Order> findByUserIdOrderByOrderTimeDesc(Long userId);
     List<Order> findByPincode(String pincode);
@@ -34,6 +63,97 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         @org.springframework.data.repository.query.Param("afterDate") java.time.LocalDateTime afterDate
     );
     
+    // Compare-and-set status change for the order state machine: 0 rows when the order changed since it was read.
+    // Stamps the timeline column of the new status.
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Order o SET o.status = :toStatus, o.version = o.version + 1, " +
+           "o.pickedUpAt = CASE WHEN :toStatus = 'PICKED_UP' THEN :now ELSE o.pickedUpAt END, " +
+           "o.deliveredAt = CASE WHEN :toStatus = 'DELIVERED' THEN :now ELSE o.deliveredAt END, " +
+           "o.cancelledAt = CASE WHEN :toStatus = 'CANCELLED' THEN :now ELSE o.cancelledAt END " +
+           "WHERE o.id = :orderId AND o.status = :fromStatus AND o.version = :version")
+    int compareAndSetStatus(@org.springframework.data.repository.query.Param("orderId") Long orderId,
+                            @org.springframework.data.repository.query.Param("fromStatus") String fromStatus,
+                            @org.springframework.data.repository.query.Param("version") Long version,
+                            @org.springframework.data.repository.query.Param("toStatus") String toStatus,
+                            @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+    
+    // Compare-and-set move to ASSIGNED, taking the order for the partner. The fee charged and the total stay as
+    // stored at checkout; the earning is the stored one unless the order had none
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Order o SET o.status = 'ASSIGNED', o.version = o.version + 1, " +
+           "o.deliveryPartner = :partner, o.assignedAt = :now, o.partnerEarning = :partnerEarning " +
+           "WHERE o.id = :orderId AND o.status = :fromStatus AND o.version = :version")
+    int compareAndSetAssigned(@org.springframework.data.repository.query.Param("orderId") Long orderId,
+                              @org.springframework.data.repository.query.Param("fromStatus") String fromStatus,
+                              @org.springframework.data.repository.query.Param("version") Long version,
+                              @org.springframework.data.repository.query.Param("partner") com.example.Grocito.Entity.DeliveryPartnerAuth partner,
+                              @org.springframework.data.repository.query.Param("partnerEarning") double partnerEarning,
+                              @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+    
+    // Access check of a bulk update: the orders a regional admin of the pincode may not touch
+    @org.springframework.data.jpa.repository.Query("SELECT o.id FROM Order o WHERE o.id IN :orderIds " +
+           "AND (o.pincode IS NULL OR o.pincode <> :pincode)")
+    List<Long> findIdsOutsidePincode(@org.springframework.data.repository.query.Param("orderIds") java.util.Collection<Long> orderIds,
+                                     @org.springframework.data.repository.query.Param("pincode") String pincode);
+
+    // Columns the transition rules look at, locked for a bulk status change:
+    // [id, status, pincode, paymentMethod, paymentStatus, partnerId, partnerEarning]
+    @org.springframework.data.jpa.repository.Lock(jakarta.persistence.LockModeType.PESSIMISTIC_WRITE)
+    @org.springframework.data.jpa.repository.Query("SELECT o.id, o.status, o.pincode, o.paymentMethod, o.paymentStatus, " +
+           "o.deliveryPartner.id, o.partnerEarning FROM Order o WHERE o.id IN :orderIds")
+    List<Object[]> lockStatusRows(@org.springframework.data.repository.query.Param("orderIds") java.util.Collection<Long> orderIds);
+
+    // Set-based status change, same stamps as compareAndSetStatus. The status filter keeps final orders final
+    // even for ids the caller did not check.
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Order o SET o.status = :toStatus, o.version = o.version + 1, " +
+           "o.pickedUpAt = CASE WHEN :toStatus = 'PICKED_UP' THEN :now ELSE o.pickedUpAt END, " +
+           "o.deliveredAt = CASE WHEN :toStatus = 'DELIVERED' THEN :now ELSE o.deliveredAt END, " +
+           "o.cancelledAt = CASE WHEN :toStatus = 'CANCELLED' THEN :now ELSE o.cancelledAt END " +
+           "WHERE o.id IN :orderIds AND o.status <> :toStatus AND o.status NOT IN ('DELIVERED', 'CANCELLED')")
+    int updateStatusOfAll(@org.springframework.data.repository.query.Param("orderIds") java.util.Collection<Long> orderIds,
+                          @org.springframework.data.repository.query.Param("toStatus") String toStatus,
+                          @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+
+    // Links the order to its payment gateway order once; 0 rows when a concurrent request linked one first
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Order o SET o.gatewayOrderId = :gatewayOrderId, o.version = o.version + 1 " +
+           "WHERE o.id = :orderId AND o.gatewayOrderId IS NULL")
+    int linkGatewayOrder(@org.springframework.data.repository.query.Param("orderId") Long orderId,
+                         @org.springframework.data.repository.query.Param("gatewayOrderId") String gatewayOrderId);
+
+    // Read from the database, not the persistence context, to see a link made by a concurrent request
+    @org.springframework.data.jpa.repository.Query("SELECT o.gatewayOrderId FROM Order o WHERE o.id = :orderId")
+    String findGatewayOrderId(@org.springframework.data.repository.query.Param("orderId") Long orderId);
+
+    // Marks a gateway payment of the order as paid, unless it is already (by the payment webhook or an earlier callback)
+    // or the order was cancelled
+    @org.springframework.data.jpa.repository.Modifying(clearAutomatically = true)
+    @org.springframework.data.jpa.repository.Query("UPDATE Order o SET o.paymentStatus = 'PAID', o.paymentId = :paymentId, " +
+           "o.actualPaymentMethod = :actualPaymentMethod, o.paymentCompletedAt = :now, o.paymentNotes = :paymentNotes, " +
+           "o.version = o.version + 1 " +
+           "WHERE o.id = :orderId AND o.gatewayOrderId = :gatewayOrderId AND o.paymentStatus <> 'PAID' " +
+           "AND o.status <> 'CANCELLED'")
+    int markGatewayPaymentPaid(@org.springframework.data.repository.query.Param("orderId") Long orderId,
+                               @org.springframework.data.repository.query.Param("gatewayOrderId") String gatewayOrderId,
+                               @org.springframework.data.repository.query.Param("paymentId") String paymentId,
+                               @org.springframework.data.repository.query.Param("actualPaymentMethod") String actualPaymentMethod,
+                               @org.springframework.data.repository.query.Param("paymentNotes") String paymentNotes,
+                               @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+
+    // Whether the order was placed by this customer
+    boolean existsByIdAndUser_Id(Long id, Long userId);
+    
+    // Delivered and cancelled orders per partner for the leaderboards: [partnerId, pincode, delivered, cancelled, earnings]
+    @org.springframework.data.jpa.repository.Query("SELECT dp.id, dp.pincode, " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN o.partnerEarning ELSE 0 END) " +
+           "FROM Order o JOIN o.deliveryPartner dp WHERE o.status IN ('DELIVERED', 'CANCELLED') " +
+           "GROUP BY dp.id, dp.pincode")
+    List<Object[]> getPartnerOutcomeTotals();
+    
     // Methods for real earnings calculation
     @org.springframework.data.jpa.repository.Query("SELECT SUM(o.partnerEarning) FROM Order o WHERE o.deliveryPartner.id = :partnerId AND o.status = :status")
     Double sumPartnerEarningsByDeliveryPartnerIdAndStatus(
@@ -58,9 +178,114 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     long countByStatus(String status);
     long countByStatusIn(List<String> statuses);
     List<Order> findByPincodeAndStatusIn(String pincode, List<String> statuses);
+    List<Order> findTop10ByOrderByOrderTimeDesc();
+    List<Order> findTop10ByPincodeOrderByOrderTimeDesc(String pincode);
+    
+    // Orders and revenue per day and status for the analytics rollups (archived orders are rolled up separately)
+    @org.springframework.data.jpa.repository.Query("SELECT new com.example.Grocito.dto.OrderDayTotals(CAST(o.orderTime AS LocalDate), o.status, " +
+           "COUNT(o), SUM(o.totalAmount)) FROM Order o " +
+           "WHERE (:pincode IS NULL OR o.pincode = :pincode) " +
+           "AND (:fromTime IS NULL OR o.orderTime >= :fromTime) " +
+           "AND (:toTime IS NULL OR o.orderTime < :toTime) " +
+           "GROUP BY CAST(o.orderTime AS LocalDate), o.status")
+    List<OrderDayTotals> getDayTotals(@org.springframework.data.repository.query.Param("pincode") String pincode,
+                                      @org.springframework.data.repository.query.Param("fromTime") java.time.LocalDateTime fromTime,
+                                      @org.springframework.data.repository.query.Param("toTime") java.time.LocalDateTime toTime);
+    
+    // Count and revenue of the orders delivered in a time range: [orders, revenue]
+    @org.springframework.data.jpa.repository.Query("SELECT COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM Order o " +
+           "WHERE o.status = 'DELIVERED' AND o.deliveredAt >= :fromTime AND o.deliveredAt < :toTime " +
+           "AND (:pincode IS NULL OR o.pincode = :pincode)")
+    List<Object[]> getDeliveredTotals(@org.springframework.data.repository.query.Param("pincode") String pincode,
+                                      @org.springframework.data.repository.query.Param("fromTime") java.time.LocalDateTime fromTime,
+                                      @org.springframework.data.repository.query.Param("toTime") java.time.LocalDateTime toTime);
+    
+    // Keyset-paged reads for the order archive job: finished orders of one month placed before the cutoff
+    @org.springframework.data.jpa.repository.Query("SELECT MIN(o.orderTime) FROM Order o WHERE o.status IN ('DELIVERED', 'CANCELLED') " +
+           "AND o.orderTime < :before")
+    java.time.LocalDateTime findOldestArchivableOrderTime(@org.springframework.data.repository.query.Param("before") java.time.LocalDateTime before);
+    
+    @org.springframework.data.jpa.repository.Query("SELECT o.id FROM Order o WHERE o.status IN ('DELIVERED', 'CANCELLED') " +
+           "AND o.orderTime >= :from AND o.orderTime < :before AND o.id > :afterId ORDER BY o.id ASC")
+    List<Long> findArchivableOrderIdsAfter(@org.springframework.data.repository.query.Param("from") java.time.LocalDateTime from,
+                                           @org.springframework.data.repository.query.Param("before") java.time.LocalDateTime before,
+                                           @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                           org.springframework.data.domain.Pageable pageable);
     
     @org.springframework.data.jpa.repository.Query("SELECT o FROM Order o WHERE o.pincode = :pincode AND o.status = :status ORDER BY o.orderTime DESC")
     List<Order> findByPincodeAndStatusOrderByOrderTimeDesc(@org.springframework.data.repository.query.Param("pincode") String pincode, 
                                                            @org.springframework.data.repository.query.Param("status") String status);
-}
+    
+    String PARTNER_DELIVERY_COLUMNS = "SELECT new com.example.Grocito.dto.PartnerDeliveryRow(o.id, o.pincode, o.orderTime, " +
+           "o.deliveredAt, o.totalAmount, o.deliveryFee, o.partnerEarning) ";
 
+    // Delivered-after-cursor filter of the partner earnings keyset reads, (deliveredAt, id) ascending
+    String AFTER_DELIVERY_CURSOR = "AND o.status = 'DELIVERED' AND o.deliveredAt < :toTime " +
+           "AND (o.deliveredAt > :afterTime OR (o.deliveredAt = :afterTime AND o.id > :afterId)) " +
+           "ORDER BY o.deliveredAt ASC, o.id ASC";
+
+    // Keyset-paged deliveries of a partner for streamed earnings, served by idx_orders_partner_status_delivered
+    @org.springframework.data.jpa.repository.Query(PARTNER_DELIVERY_COLUMNS + "FROM Order o WHERE o.deliveryPartner.id = :partnerId " +
+           AFTER_DELIVERY_CURSOR)
+    List<PartnerDeliveryRow> findPartnerDeliveriesAfter(@org.springframework.data.repository.query.Param("partnerId") Long partnerId,
+                                                        @org.springframework.data.repository.query.Param("toTime") java.time.LocalDateTime toTime,
+                                                        @org.springframework.data.repository.query.Param("afterTime") java.time.LocalDateTime afterTime,
+                                                        @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                                        org.springframework.data.domain.Pageable pageable);
+    
+    // Keyset-paged reads for the order earnings migration batch job (a null pincode is a partition of its own)
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT o.pincode FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveryPartner IS NOT NULL " +
+           "AND (o.partnerEarning IS NULL OR o.partnerEarning = 0)")
+    List<String> findPincodesWithDeliveredOrdersMissingEarnings();
+    
+    @org.springframework.data.jpa.repository.Query("SELECT o FROM Order o WHERE o.status = 'DELIVERED' AND o.deliveryPartner IS NOT NULL " +
+           "AND (o.partnerEarning IS NULL OR o.partnerEarning = 0) " +
+           "AND (o.pincode = :pincode OR (:pincode IS NULL AND o.pincode IS NULL)) AND o.id > :afterId ORDER BY o.id ASC")
+    List<Order> findDeliveredOrdersMissingEarningsAfter(@org.springframework.data.repository.query.Param("pincode") String pincode,
+                                                        @org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                                        org.springframework.data.domain.Pageable pageable);
+    
+    // Lean order list projections, sorting comes from the Pageable
+    @org.springframework.data.jpa.repository.Query(value = ORDER_SUMMARY_SELECT + ORDER_SUMMARY_FILTER,
+           countQuery = "SELECT COUNT(o) FROM Order o LEFT JOIN o.user u " + ORDER_SUMMARY_FILTER)
+    org.springframework.data.domain.Page<OrderSummaryDto> findOrderSummaries(
+        @org.springframework.data.repository.query.Param("status") String status,
+        @org.springframework.data.repository.query.Param("pincode") String pincode,
+        @org.springframework.data.repository.query.Param("fromTime") java.time.LocalDateTime fromTime,
+        @org.springframework.data.repository.query.Param("toTime") java.time.LocalDateTime toTime,
+        @org.springframework.data.repository.query.Param("search") String search,
+        org.springframework.data.domain.Pageable pageable
+    );
+    
+    @org.springframework.data.jpa.repository.Query(ORDER_SUMMARY_SELECT + "WHERE o.user.id = :userId ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryDto> findOrderSummariesByUserId(@org.springframework.data.repository.query.Param("userId") Long userId);
+    
+    // Keyset-paged read for the streaming order export
+    @org.springframework.data.jpa.repository.Query(ORDER_SUMMARY_SELECT + "WHERE o.id > :afterId ORDER BY o.id ASC")
+    List<OrderSummaryDto> findOrderSummariesAfter(@org.springframework.data.repository.query.Param("afterId") Long afterId,
+                                                  org.springframework.data.domain.Pageable pageable);
+    
+    // Keyset-paged order history of a user, newest first (limit comes from the Pageable)
+    @org.springframework.data.jpa.repository.Query(ORDER_SUMMARY_SELECT + "WHERE o.user.id = :userId ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryDto> findOrderSummariesByUserIdFirstPage(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                              org.springframework.data.domain.Pageable pageable);
+    
+    @org.springframework.data.jpa.repository.Query(ORDER_SUMMARY_SELECT + "WHERE o.user.id = :userId " + BEFORE_CURSOR +
+           "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryDto> findOrderSummariesByUserIdBefore(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                           @org.springframework.data.repository.query.Param("beforeTime") java.time.LocalDateTime beforeTime,
+                                                           @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+                                                           org.springframework.data.domain.Pageable pageable);
+    
+    // Payment history rows of a user, newest first
+    @org.springframework.data.jpa.repository.Query(PAYMENT_HISTORY_SELECT + "WHERE o.user.id = :userId ORDER BY o.orderTime DESC, o.id DESC")
+    List<PaymentHistoryRow> findPaymentHistoryByUserId(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                       org.springframework.data.domain.Pageable pageable);
+    
+    @org.springframework.data.jpa.repository.Query(PAYMENT_HISTORY_SELECT + "WHERE o.user.id = :userId " + BEFORE_CURSOR +
+           "ORDER BY o.orderTime DESC, o.id DESC")
+    List<PaymentHistoryRow> findPaymentHistoryByUserIdBefore(@org.springframework.data.repository.query.Param("userId") Long userId,
+                                                             @org.springframework.data.repository.query.Param("beforeTime") java.time.LocalDateTime beforeTime,
+                                                             @org.springframework.data.repository.query.Param("beforeId") Long beforeId,
+                                                             org.springframework.data.domain.Pageable pageable);
+}
@@ -0,0 +1,66 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.PartnerDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PartnerDailyStatsRepository extends JpaRepository<PartnerDailyStats, Long> {
+
+    // Atomically add one delivery to the partner's counters for the given day
+    @Modifying
+    @Query(value = "INSERT INTO partner_daily_stats (partner_id, stat_date, deliveries, earnings, updated_at) " +
+                   "VALUES (:partnerId, :statDate, 1, :earning, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE deliveries = deliveries + 1, earnings = earnings + :earning, updated_at = NOW()",
+           nativeQuery = true)
+    int incrementDelivery(@Param("partnerId") Long partnerId,
+                          @Param("statDate") LocalDate statDate,
+                          @Param("earning") double earning);
+
+    // Rebuild every counter from the orders table (used to backfill an empty stats table). Orders are dated
+    // like PartnerStatsService.statDate: delivery time, else order time for rows delivered without one.
+    @Modifying
+    @Query(value = "INSERT INTO partner_daily_stats (partner_id, stat_date, deliveries, earnings, updated_at) " +
+                   "SELECT o.delivery_partner_auth_id, DATE(COALESCE(o.delivered_at, o.order_time, NOW())), COUNT(*), " +
+                   "COALESCE(SUM(o.partner_earning), 0), NOW() " +
+                   "FROM orders o " +
+                   "WHERE o.status = 'DELIVERED' AND o.delivery_partner_auth_id IS NOT NULL " +
+                   "GROUP BY o.delivery_partner_auth_id, DATE(COALESCE(o.delivered_at, o.order_time, NOW()))",
+           nativeQuery = true)
+    int rebuildFromOrders();
+
+    // Totals for a single partner: total, today, since week start and since month start
+    // Row layout: [totalDeliveries, totalEarnings, todayDeliveries, todayEarnings, weekDeliveries, weekEarnings, monthDeliveries, monthEarnings]
+    @Query("SELECT COALESCE(SUM(s.deliveries), 0), COALESCE(SUM(s.earnings), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :today THEN s.deliveries ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :today THEN s.earnings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :weekStart THEN s.deliveries ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :weekStart THEN s.earnings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :monthStart THEN s.deliveries ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.statDate >= :monthStart THEN s.earnings ELSE 0 END), 0) " +
+           "FROM PartnerDailyStats s WHERE s.partnerId = :partnerId")
+    List<Object[]> getPartnerTotals(@Param("partnerId") Long partnerId,
+                                    @Param("today") LocalDate today,
+                                    @Param("weekStart") LocalDate weekStart,
+                                    @Param("monthStart") LocalDate monthStart);
+
+    // Same totals for every partner in a single grouped query
+    // Row layout: [partnerId, totalDeliveries, totalEarnings, todayDeliveries, todayEarnings, weekDeliveries, weekEarnings, monthDeliveries, monthEarnings]
+    @Query("SELECT s.partnerId, SUM(s.deliveries), SUM(s.earnings), " +
+           "SUM(CASE WHEN s.statDate >= :today THEN s.deliveries ELSE 0 END), " +
+           "SUM(CASE WHEN s.statDate >= :today THEN s.earnings ELSE 0 END), " +
+           "SUM(CASE WHEN s.statDate >= :weekStart THEN s.deliveries ELSE 0 END), " +
+           "SUM(CASE WHEN s.statDate >= :weekStart THEN s.earnings ELSE 0 END), " +
+           "SUM(CASE WHEN s.statDate >= :monthStart THEN s.deliveries ELSE 0 END), " +
+           "SUM(CASE WHEN s.statDate >= :monthStart THEN s.earnings ELSE 0 END) " +
+           "FROM PartnerDailyStats s GROUP BY s.partnerId")
+    List<Object[]> getAllPartnerTotals(@Param("today") LocalDate today,
+                                       @Param("weekStart") LocalDate weekStart,
+                                       @Param("monthStart") LocalDate monthStart);
+}
@@ -0,0 +1,46 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.PaymentWebhookInboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentWebhookInboxRepository extends JpaRepository<PaymentWebhookInboxEvent, Long> {
+
+    // Events no instance is applying: failed ones and those left by a stopped instance
+    @Query("SELECT e FROM PaymentWebhookInboxEvent e WHERE e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id")
+    List<PaymentWebhookInboxEvent> findDue(@Param("now") LocalDateTime now, Pageable page);
+
+    // Take a due event for another attempt; 0 rows when another instance took it first
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentWebhookInboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :retryAt " +
+           "WHERE e.id = :id AND e.attempts = :attempts AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("attempts") int attempts, @Param("now") LocalDateTime now,
+              @Param("retryAt") LocalDateTime retryAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentWebhookInboxEvent e SET e.lastError = :error WHERE e.id = :id")
+    int recordError(@Param("id") Long id, @Param("error") String error);
+
+    // Hands events this instance will not apply to the other instances (and to its own next start)
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentWebhookInboxEvent e SET e.nextAttemptAt = :now WHERE e.id IN :ids")
+    int makeDue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentWebhookInboxEvent e WHERE e.id = :id")
+    int remove(@Param("id") Long id);
+}
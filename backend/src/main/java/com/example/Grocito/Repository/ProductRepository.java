@@ -1,9 +1,11 @@
 package com.example.Grocito.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -47,5 +49,16 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Count methods for admin dashboard
     long countByPincode(String pincode);
+    
+    // Puts the items of cancelled orders back in stock, summed per product in one statement.
+    // Bypasses the catalog version listener, callers bump the versions of findPincodesOfOrders themselves.
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + CAST((SELECT SUM(i.quantity) FROM OrderItem i " +
+           "WHERE i.product = p AND i.order.id IN :orderIds) AS Integer) " +
+           "WHERE p.id IN (SELECT i.product.id FROM OrderItem i WHERE i.order.id IN :orderIds)")
+    int restoreStockOfOrders(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT DISTINCT p.pincode FROM OrderItem i JOIN i.product p WHERE i.order.id IN :orderIds")
+    List<String> findPincodesOfOrders(@Param("orderIds") Collection<Long> orderIds);
 }
 
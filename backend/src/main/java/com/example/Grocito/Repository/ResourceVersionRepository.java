@@ -0,0 +1,39 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.ResourceVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ResourceVersionRepository extends JpaRepository<ResourceVersion, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO resource_versions (resource_name, version, updated_at) VALUES (:resource, 1, :now) " +
+                   "ON DUPLICATE KEY UPDATE version = version + 1, updated_at = :now",
+           nativeQuery = true)
+    int increment(@Param("resource") String resource, @Param("now") LocalDateTime now);
+
+    // Every resource whose name matches the LIKE pattern, e.g. all product listings
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE resource_versions SET version = version + 1, updated_at = :now WHERE resource_name LIKE :pattern",
+           nativeQuery = true)
+    int incrementMatching(@Param("pattern") String pattern, @Param("now") LocalDateTime now);
+
+    // Row at version 0 for a resource served before it was ever written, so incrementMatching reaches it
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO resource_versions (resource_name, version, updated_at) VALUES (:resource, 0, :now)",
+           nativeQuery = true)
+    int register(@Param("resource") String resource, @Param("now") LocalDateTime now);
+
+    List<ResourceVersion> findByUpdatedAtAfter(LocalDateTime since);
+}
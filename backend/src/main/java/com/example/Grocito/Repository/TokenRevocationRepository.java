@@ -0,0 +1,31 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    // Never moves a revocation back, two instances may revoke the same account at once
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO token_revocations (subject_key, revoked_at) VALUES (:subjectKey, :revokedAt) " +
+                   "ON DUPLICATE KEY UPDATE revoked_at = GREATEST(revoked_at, :revokedAt)",
+           nativeQuery = true)
+    int record(@Param("subjectKey") String subjectKey, @Param("revokedAt") long revokedAt);
+
+    List<TokenRevocation> findByRevokedAtGreaterThan(long since);
+
+    // Revocations older than the token lifetime can no longer match a valid token
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :before")
+    int deleteRevokedBefore(@Param("before") long before);
+}
@@ -1,12 +1,35 @@
 package com.example.Grocito.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.Grocito.Entity.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
     
     // Count users by pincode for admin dashboard
     long countByPincode(String pincode);
+
+    // Admin directory pages whose total comes from user_role_counts (no COUNT query)
+    List<User> findAllBy(Pageable pageable);
+
+    List<User> findByRole(String role, Pageable pageable);
+
+    List<User> findByPincode(String pincode, Pageable pageable);
+
+    List<User> findByRoleAndPincode(String role, String pincode, Pageable pageable);
+
+    // Record a login at most once per day; role and pincode are unchanged, so user_role_counts is not affected
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastLogin = :today WHERE u.id = :id AND (u.lastLogin IS NULL OR u.lastLogin < :today)")
+    int recordLogin(@Param("id") Long id, @Param("today") LocalDate today);
 }
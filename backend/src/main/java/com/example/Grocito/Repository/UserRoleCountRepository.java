@@ -0,0 +1,29 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.UserRoleCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface UserRoleCountRepository extends JpaRepository<UserRoleCount, UserRoleCount.Key> {
+
+    // Total number of users
+    @Query("SELECT COALESCE(SUM(c.userCount), 0) FROM UserRoleCount c")
+    long sumAll();
+
+    // Users having one of the roles, across all pincodes
+    @Query("SELECT COALESCE(SUM(c.userCount), 0) FROM UserRoleCount c WHERE c.id.role IN :roles")
+    long sumByRoles(@Param("roles") Collection<String> roles);
+
+    // Users in one pincode, across all roles
+    @Query("SELECT COALESCE(SUM(c.userCount), 0) FROM UserRoleCount c WHERE c.id.pincode = :pincode")
+    long sumByPincode(@Param("pincode") String pincode);
+
+    // Users with the role in the pincode
+    @Query("SELECT COALESCE(SUM(c.userCount), 0) FROM UserRoleCount c WHERE c.id.role = :role AND c.id.pincode = :pincode")
+    long sumByRoleAndPincode(@Param("role") String role, @Param("pincode") String pincode);
+}
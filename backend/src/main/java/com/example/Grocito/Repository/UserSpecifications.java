@@ -0,0 +1,58 @@
+package com.example.Grocito.Repository;
+
+import com.example.Grocito.Entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the admin user directory, each one backed by an index from V5__Add_user_directory_indexes.sql
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    /**
+     * Name or email starting with the term (prefix LIKE, so the name and email indexes can be used)
+     */
+    public static Specification<User> nameOrEmailStartsWith(String term) {
+        String pattern = escapeLike(term) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(root.get("fullName"), pattern, '\\'),
+                cb.like(root.get("email"), pattern, '\\'));
+    }
+
+    public static Specification<User> hasRole(String role) {
+        return (root, query, cb) -> cb.equal(root.get("role"), role);
+    }
+
+    public static Specification<User> hasPincode(String pincode) {
+        return (root, query, cb) -> cb.equal(root.get("pincode"), pincode);
+    }
+
+    /**
+     * Last login after the date, or registered after it for users who never logged in.
+     * Both branches are ranges on idx_users_last_login_registered.
+     */
+    public static Specification<User> activeSince(LocalDate since) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("lastLogin"), since),
+                cb.and(cb.isNull(root.get("lastLogin")), cb.greaterThan(root.get("registeredDate"), since)));
+    }
+
+    /**
+     * Complement of {@link #activeSince}; users without any activity date count as inactive
+     */
+    public static Specification<User> inactiveSince(LocalDate since) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThanOrEqualTo(root.get("lastLogin"), since),
+                cb.and(cb.isNull(root.get("lastLogin")), cb.or(
+                        cb.isNull(root.get("registeredDate")),
+                        cb.lessThanOrEqualTo(root.get("registeredDate"), since))));
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -7,6 +7,7 @@ import com.example.Grocito.Repository.UserRepository;
 import com.example.Grocito.Repository.OrderRepository;
 import com.example.Grocito.Repository.ProductRepository;
 import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.dto.OrderDayTotals;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -32,6 +33,9 @@ public class AdminDashboardService {
         @Autowired
         private ProductRepository productRepository;
 
+        @Autowired
+        private OrderService orderService;
+
         /**
          * Get dashboard statistics based on admin role and pincode restrictions
          */
@@ -147,24 +151,16 @@ public class AdminDashboardService {
                 LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
                 LocalDateTime endOfDay = startOfDay.plusDays(1);
 
-                List<Order> todayOrders = orderRepository.findAll().stream()
-                                .filter(order -> "DELIVERED".equals(order.getStatus()))
-                                .filter(order -> order.getDeliveredAt() != null)
-                                .filter(order -> order.getDeliveredAt().isAfter(startOfDay)
-                                                && order.getDeliveredAt().isBefore(endOfDay))
-                                .collect(Collectors.toList());
+                Object[] today = orderRepository.getDeliveredTotals(null, startOfDay, endOfDay).get(0);
+                long todayOrders = ((Number) today[0]).longValue();
+                double todayRevenue = ((Number) today[1]).doubleValue();
 
-                double todayRevenue = todayOrders.stream()
-                                .mapToDouble(Order::getTotalAmount)
-                                .sum();
-
-                // Total revenue
-                double totalRevenue = orderRepository.findByStatus("DELIVERED").stream()
-                                .mapToDouble(Order::getTotalAmount)
-                                .sum();
+                // Total revenue, archived orders included
+                double[] delivered = deliveredTotals(null);
+                double totalRevenue = delivered[1];
 
                 // Average order value
-                long deliveredOrdersCount = orderRepository.countByStatus("DELIVERED");
+                long deliveredOrdersCount = (long) delivered[0];
                 double averageOrderValue = deliveredOrdersCount > 0 ? totalRevenue / deliveredOrdersCount : 0;
 
                 stats.put("totalUsers", totalUsers);
@@ -173,7 +169,7 @@ public class AdminDashboardService {
                 stats.put("todayRevenue", todayRevenue);
                 stats.put("totalRevenue", totalRevenue);
                 stats.put("averageOrderValue", averageOrderValue);
-                stats.put("recentOrdersCount", todayOrders.size());
+                stats.put("recentOrdersCount", todayOrders);
 
                 logger.info("Global stats calculated - Users: {}, Active Orders: {}, Products: {}, Today's Revenue: ₹{}",
                                 totalUsers, activeOrders, totalProducts, todayRevenue);
@@ -206,23 +202,16 @@ public class AdminDashboardService {
                 LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
                 LocalDateTime endOfDay = startOfDay.plusDays(1);
 
-                List<Order> todayOrders = orderRepository.findByPincodeAndStatus(pincode, "DELIVERED").stream()
-                                .filter(order -> order.getDeliveredAt() != null)
-                                .filter(order -> order.getDeliveredAt().isAfter(startOfDay)
-                                                && order.getDeliveredAt().isBefore(endOfDay))
-                                .collect(Collectors.toList());
-
-                double todayRevenue = todayOrders.stream()
-                                .mapToDouble(Order::getTotalAmount)
-                                .sum();
+                Object[] today = orderRepository.getDeliveredTotals(pincode, startOfDay, endOfDay).get(0);
+                long todayOrders = ((Number) today[0]).longValue();
+                double todayRevenue = ((Number) today[1]).doubleValue();
 
-                // Total revenue in this pincode
-                double totalRevenue = orderRepository.findByPincodeAndStatus(pincode, "DELIVERED").stream()
-                                .mapToDouble(Order::getTotalAmount)
-                                .sum();
+                // Total revenue in this pincode, archived orders included
+                double[] delivered = deliveredTotals(pincode);
+                double totalRevenue = delivered[1];
 
                 // Average order value in this pincode
-                long deliveredOrdersCount = orderRepository.findByPincodeAndStatus(pincode, "DELIVERED").size();
+                long deliveredOrdersCount = (long) delivered[0];
                 double averageOrderValue = deliveredOrdersCount > 0 ? totalRevenue / deliveredOrdersCount : 0;
 
                 stats.put("totalUsers", totalUsers);
@@ -231,7 +220,7 @@ public class AdminDashboardService {
                 stats.put("todayRevenue", todayRevenue);
                 stats.put("totalRevenue", totalRevenue);
                 stats.put("averageOrderValue", averageOrderValue);
-                stats.put("recentOrdersCount", todayOrders.size());
+                stats.put("recentOrdersCount", todayOrders);
 
                 logger.info("Pincode {} stats calculated - Users: {}, Active Orders: {}, Products: {}, Today's Revenue: ₹{}",
                                 pincode, totalUsers, activeOrders, totalProducts, todayRevenue);
@@ -253,4 +242,16 @@ public class AdminDashboardService {
                 stats.put("recentOrdersCount", 0);
                 return stats;
         }
-}
\ No newline at end of file
+
+        // [delivered orders, their revenue] of a pincode (null for all), hot and archived orders together
+        private double[] deliveredTotals(String pincode) {
+                double[] totals = new double[2];
+                for (OrderDayTotals day : orderService.getOrderDayTotals(pincode, null, null)) {
+                        if ("DELIVERED".equals(day.status())) {
+                                totals[0] += day.orders();
+                                totals[1] += day.revenue();
+                        }
+                }
+                return totals;
+        }
+}
@@ -19,6 +19,7 @@ import com.example.Grocito.Repository.CartItemRepository;
 import com.example.Grocito.Repository.CartRepository;
 import com.example.Grocito.Repository.ProductRepository;
 import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.metrics.GrocitoMetrics;
 
 @Service
 public class CartService {
@@ -37,6 +38,9 @@ public class CartService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GrocitoMetrics metrics;
+
     // Add item to cart with stock validation
     public Cart addToCart(Long userId, Long productId, int quantity) {
         logger.info("Adding product ID: {} to cart for user ID: {}, quantity: {}", productId, userId, quantity);
@@ -59,6 +63,7 @@ public class CartService {
         if (product.getStock() < quantity) {
             logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                     product.getName(), productId, product.getStock(), quantity);
+            metrics.stockConflict("cart", product.getPincode());
             throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                     ". Available: " + product.getStock());
         }
@@ -85,6 +90,7 @@ public class CartService {
                 if (product.getStock() < newQuantity) {
                     logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                             product.getName(), productId, product.getStock(), newQuantity);
+                    metrics.stockConflict("cart", product.getPincode());
                     throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                             ". Available: " + product.getStock() + ", Requested: " + newQuantity);
                 }
@@ -180,6 +186,7 @@ public class CartService {
         if (product.getStock() < quantity) {
             logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                     product.getName(), product.getId(), product.getStock(), quantity);
+            metrics.stockConflict("cart", product.getPincode());
             throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                     ". Available: " + product.getStock() + ", Requested: " + quantity);
         }
@@ -214,6 +221,7 @@ public class CartService {
         if (product.getStock() < quantity) {
             logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                     product.getName(), productId, product.getStock(), quantity);
+            metrics.stockConflict("cart", product.getPincode());
             throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                     ". Available: " + product.getStock() + ", Requested: " + quantity);
         }
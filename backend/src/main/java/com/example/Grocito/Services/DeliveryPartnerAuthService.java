@@ -4,9 +4,13 @@ import com.example.Grocito.Entity.DeliveryPartnerAuth;
 import com.example.Grocito.Entity.Order;
 import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
 import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.security.AuthTokenService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +33,12 @@ public class DeliveryPartnerAuthService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private PartnerStatsService partnerStatsService;
+    
+    @Autowired
+    private AuthTokenService authTokenService;
+    
     /**
      * Register a new delivery partner
      */
@@ -137,6 +147,11 @@ public class DeliveryPartnerAuthService {
         
         DeliveryPartnerAuth updatedAuth = authRepository.save(auth);
         
+        // Partners that lose verification must not keep using previously issued tokens
+        if (!"VERIFIED".equals(status)) {
+            authTokenService.revoke(AuthPrincipal.TYPE_PARTNER, authId);
+        }
+        
         // No need to create separate delivery partner record
         // The delivery_partner_auth table IS the main delivery partner table
         
@@ -340,11 +355,23 @@ public class DeliveryPartnerAuthService {
         auth.setUpdatedAt(LocalDateTime.now());
         
         authRepository.save(auth);
+        authTokenService.revoke(AuthPrincipal.TYPE_PARTNER, id);
         
         // No separate delivery partner record to deactivate
         // The auth record IS the main delivery partner record
     }
     
+    /**
+     * Revocations are stored, this also covers partners deactivated before they were (and any whose
+     * revocation was purged while they stayed inactive)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void revokeInactivePartnerTokens() {
+        List<Long> inactiveIds = authRepository.findIdsByIsActiveFalse();
+        inactiveIds.forEach(id -> authTokenService.revoke(AuthPrincipal.TYPE_PARTNER, id));
+        logger.info("Revoked tokens for {} inactive delivery partners", inactiveIds.size());
+    }
+    
     // Private helper methods
     
     private void validateRegistrationData(DeliveryPartnerAuth auth) {
@@ -453,12 +480,11 @@ public class DeliveryPartnerAuthService {
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
         
         try {
-            // Get successful deliveries count
-            long successfulDeliveries = orderRepository.countByDeliveryPartnerIdAndStatus(partnerId, "DELIVERED");
-            
-            // Get total earnings from delivered orders
-            Double totalEarnings = orderRepository.sumPartnerEarningsByDeliveryPartnerIdAndStatus(partnerId, "DELIVERED");
-            if (totalEarnings == null) totalEarnings = 0.0;
+            // Delivered counts and earnings come from the pre-aggregated daily stats table
+            PartnerStatsService.PartnerTotals totals = partnerStatsService.getPartnerTotals(partnerId);
+            long successfulDeliveries = totals.getTotalDeliveries();
+            double totalEarnings = totals.getTotalEarnings();
+            double monthlyEarnings = totals.getMonthEarnings();
             
             // Get recent successful deliveries (last 5)
             List<Order> recentDeliveries = orderRepository.findByDeliveryPartnerIdAndStatusOrderByDeliveredAtDesc(partnerId, "DELIVERED");
@@ -466,12 +492,6 @@ public class DeliveryPartnerAuthService {
                 recentDeliveries = recentDeliveries.subList(0, 5);
             }
             
-            // Get current month earnings
-            java.time.LocalDateTime startOfMonth = java.time.LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            Double monthlyEarnings = orderRepository.sumPartnerEarningsByDeliveryPartnerIdAndStatusAndDeliveredAtAfter(
-                partnerId, "DELIVERED", startOfMonth);
-            if (monthlyEarnings == null) monthlyEarnings = 0.0;
-            
             stats.put("successfulDeliveries", successfulDeliveries);
             stats.put("totalEarnings", totalEarnings);
             stats.put("monthlyEarnings", monthlyEarnings);
@@ -492,12 +512,14 @@ public class DeliveryPartnerAuthService {
     }
     
     /**
-     * Get all partners with their delivery statistics
+     * Get all partners with their delivery statistics.
+     * Statistics for every partner are loaded with a single grouped query.
      */
     public List<java.util.Map<String, Object>> getAllPartnersWithStats() {
         logger.info("Getting all partners with delivery statistics");
         
         List<DeliveryPartnerAuth> partners = authRepository.findAll();
+        java.util.Map<Long, PartnerStatsService.PartnerTotals> allTotals = partnerStatsService.getAllPartnerTotals();
         List<java.util.Map<String, Object>> partnersWithStats = new java.util.ArrayList<>();
         
         for (DeliveryPartnerAuth partner : partners) {
@@ -518,15 +540,17 @@ public class DeliveryPartnerAuthService {
             partnerData.put("lastLogin", partner.getLastLogin());
             
             // Add delivery statistics only for verified partners
-            if ("VERIFIED".equals(partner.getVerificationStatus())) {
-                java.util.Map<String, Object> stats = getPartnerDeliveryStats(partner.getId());
-                partnerData.putAll(stats);
+            PartnerStatsService.PartnerTotals totals = "VERIFIED".equals(partner.getVerificationStatus())
+                    ? allTotals.get(partner.getId()) : null;
+            if (totals != null) {
+                partnerData.put("successfulDeliveries", totals.getTotalDeliveries());
+                partnerData.put("totalEarnings", totals.getTotalEarnings());
+                partnerData.put("monthlyEarnings", totals.getMonthEarnings());
             } else {
-                // For non-verified partners, set default values
+                // For non-verified partners or partners without deliveries, set default values
                 partnerData.put("successfulDeliveries", 0L);
                 partnerData.put("totalEarnings", 0.0);
                 partnerData.put("monthlyEarnings", 0.0);
-                partnerData.put("recentDeliveries", new java.util.ArrayList<>());
             }
             
             partnersWithStats.add(partnerData);
@@ -535,4 +559,4 @@ public class DeliveryPartnerAuthService {
         logger.info("Retrieved {} partners with statistics", partnersWithStats.size());
         return partnersWithStats;
     }
-}
\ No newline at end of file
+}
@@ -2,22 +2,42 @@ package com.example.Grocito.Services;
 
 import com.example.Grocito.Entity.DeliveryPartner;
 import com.example.Grocito.Repository.DeliveryPartnerRepository;
+import com.example.Grocito.Repository.DeliveryPartnerSpecifications;
+import com.example.Grocito.readmodel.PartnerLeaderboards;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class DeliveryPartnerService {
     private final Logger logger = LoggerFactory.getLogger(DeliveryPartnerService.class);
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "id", "fullName", "createdAt", "averageRating", "totalDeliveries", "totalEarnings");
+
     @Autowired
     private DeliveryPartnerRepository deliveryPartnerRepository;
 
+    @Autowired
+    private PartnerLeaderboards leaderboards;
+
+    @Value("${delivery-partners.search.max-results:50}")
+    private int searchMaxResults;
+
     public DeliveryPartner registerPartner(DeliveryPartner partner) {
         logger.info("Registering new delivery partner: {}", partner.getFullName());
 
@@ -75,38 +95,29 @@ public class DeliveryPartnerService {
         return deliveryPartnerRepository.findOnlinePartnersByPincode(pincode);
     }
 
-    public org.springframework.data.domain.Page<DeliveryPartner> getFilteredPartners(
+    public Page<DeliveryPartner> getFilteredPartners(
             int page, int size, String sortBy, String verificationStatus, String accountStatus,
-            String availabilityStatus, String pincode, String userRole, String userPincode) {
-
-        List<DeliveryPartner> allPartners = getAllDeliveryPartners(userRole, userPincode);
-
-        java.util.stream.Stream<DeliveryPartner> stream = allPartners.stream();
+            String availabilityStatus, String pincode, String search, String userRole, String userPincode) {
 
+        Specification<DeliveryPartner> filters = visibleTo(userRole, userPincode);
         if (verificationStatus != null && !verificationStatus.isEmpty()) {
-            stream = stream.filter(p -> verificationStatus.equals(p.getVerificationStatus()));
+            filters = filters.and(DeliveryPartnerSpecifications.hasVerificationStatus(verificationStatus));
         }
         if (accountStatus != null && !accountStatus.isEmpty()) {
-            stream = stream.filter(p -> accountStatus.equals(p.getAccountStatus()));
+            filters = filters.and(DeliveryPartnerSpecifications.hasAccountStatus(accountStatus));
         }
         if (availabilityStatus != null && !availabilityStatus.isEmpty()) {
-            stream = stream.filter(p -> availabilityStatus.equals(p.getAvailabilityStatus()));
+            filters = filters.and(DeliveryPartnerSpecifications.hasAvailabilityStatus(availabilityStatus));
         }
         if (pincode != null && !pincode.isEmpty()) {
-            stream = stream.filter(p -> pincode.equals(p.getAssignedPincode()));
+            filters = filters.and(DeliveryPartnerSpecifications.hasPincode(pincode));
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            filters = filters.and(DeliveryPartnerSpecifications.matches(search.trim()));
         }
 
-        List<DeliveryPartner> filteredPartners = stream.collect(java.util.stream.Collectors.toList());
-
-        int start = page * size;
-        int end = Math.min(start + size, filteredPartners.size());
-        List<DeliveryPartner> pageContent = start < filteredPartners.size() ? filteredPartners.subList(start, end)
-                : new java.util.ArrayList<>();
-
-        return new org.springframework.data.domain.PageImpl<>(
-                pageContent,
-                org.springframework.data.domain.PageRequest.of(page, size),
-                filteredPartners.size());
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(size, 1), sortOrder(sortBy));
+        return deliveryPartnerRepository.findAll(filters, pageable);
     }
 
     public DeliveryPartner updatePartner(DeliveryPartner partner) {
@@ -175,17 +186,33 @@ public class DeliveryPartnerService {
         return deliveryPartnerRepository.save(partner);
     }
 
-    public java.util.Map<String, Object> getDeliveryPartnerAnalytics(String userRole, String userPincode) {
-        List<DeliveryPartner> partners = getAllDeliveryPartners(userRole, userPincode);
-
-        java.util.Map<String, Object> analytics = new java.util.HashMap<>();
-
-        long totalPartners = partners.size();
-        long verifiedPartners = partners.stream().filter(p -> "VERIFIED".equals(p.getVerificationStatus())).count();
-        long pendingPartners = partners.stream().filter(p -> "PENDING".equals(p.getVerificationStatus())).count();
-        long onlinePartners = partners.stream().filter(p -> "ONLINE".equals(p.getAvailabilityStatus())).count();
-        long busyPartners = partners.stream().filter(p -> "BUSY".equals(p.getAvailabilityStatus())).count();
+    public Map<String, Object> getDeliveryPartnerAnalytics(String userRole, String userPincode) {
+        // One row per (verification status, availability status) pair instead of loading every partner
+        List<Object[]> statusCounts = "ADMIN".equals(userRole) && userPincode != null
+                ? deliveryPartnerRepository.countByStatusForPincode(userPincode)
+                : deliveryPartnerRepository.countByStatus();
+
+        long totalPartners = 0;
+        long verifiedPartners = 0;
+        long pendingPartners = 0;
+        long onlinePartners = 0;
+        long busyPartners = 0;
+        for (Object[] row : statusCounts) {
+            long count = ((Number) row[2]).longValue();
+            totalPartners += count;
+            if ("VERIFIED".equals(row[0])) {
+                verifiedPartners += count;
+            } else if ("PENDING".equals(row[0])) {
+                pendingPartners += count;
+            }
+            if ("ONLINE".equals(row[1])) {
+                onlinePartners += count;
+            } else if ("BUSY".equals(row[1])) {
+                busyPartners += count;
+            }
+        }
 
+        Map<String, Object> analytics = new HashMap<>();
         analytics.put("totalPartners", totalPartners);
         analytics.put("verifiedPartners", verifiedPartners);
         analytics.put("pendingPartners", pendingPartners);
@@ -196,22 +223,27 @@ public class DeliveryPartnerService {
         return analytics;
     }
 
-    public List<DeliveryPartner> searchPartners(String keyword, String userRole, String userPincode) {
-        List<DeliveryPartner> allPartners = getAllDeliveryPartners(userRole, userPincode);
+    /**
+     * Best partners of a pincode by completion-rate, rating or earnings; admins only see their own pincode
+     */
+    public List<PartnerLeaderboards.RankedPartner> getLeaderboard(String pincode, String metric, int limit,
+                                                                  String userRole, String userPincode) {
+        String boardPincode = "ADMIN".equals(userRole) && userPincode != null ? userPincode : pincode;
+        if (boardPincode == null || boardPincode.isEmpty()) {
+            throw new RuntimeException("Pincode is required");
+        }
+        return leaderboards.top(boardPincode, PartnerLeaderboards.Metric.from(metric), Math.min(Math.max(limit, 1), 100));
+    }
 
+    public List<DeliveryPartner> searchPartners(String keyword, String userRole, String userPincode) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return allPartners;
+            return getAllDeliveryPartners(userRole, userPincode);
         }
 
-        String searchTerm = keyword.toLowerCase().trim();
-        return allPartners.stream()
-                .filter(partner -> (partner.getFullName() != null
-                        && partner.getFullName().toLowerCase().contains(searchTerm)) ||
-                        (partner.getPhoneNumber() != null && partner.getPhoneNumber().contains(searchTerm)) ||
-                        (partner.getEmail() != null && partner.getEmail().toLowerCase().contains(searchTerm)) ||
-                        (partner.getVehicleNumber() != null
-                                && partner.getVehicleNumber().toLowerCase().contains(searchTerm)))
-                .collect(java.util.stream.Collectors.toList());
+        Specification<DeliveryPartner> filters = visibleTo(userRole, userPincode)
+                .and(DeliveryPartnerSpecifications.matches(keyword.trim()));
+        return deliveryPartnerRepository.findBy(filters,
+                query -> query.sortBy(sortOrder(null)).limit(searchMaxResults).all());
     }
 
     public void deletePartner(Long partnerId) {
@@ -231,10 +263,20 @@ public class DeliveryPartnerService {
 
     public Optional<DeliveryPartner> getPartnerByAuthId(Long authId) {
         logger.debug("Finding delivery partner by auth ID: {}", authId);
+        return deliveryPartnerRepository.findByAuthRecordId(authId);
+    }
+
+    // Admins only see the partners of their own pincode
+    private Specification<DeliveryPartner> visibleTo(String userRole, String userPincode) {
+        if ("ADMIN".equals(userRole) && userPincode != null) {
+            return Specification.where(DeliveryPartnerSpecifications.hasPincode(userPincode));
+        }
+        return Specification.where(null);
+    }
 
-        List<DeliveryPartner> allPartners = deliveryPartnerRepository.findAll();
-        return allPartners.stream()
-                .filter(partner -> partner.getAuthRecord() != null && partner.getAuthRecord().getId().equals(authId))
-                .findFirst();
+    // Id as tie-breaker keeps pages stable when the sort column has duplicates
+    private static Sort sortOrder(String sortBy) {
+        String property = sortBy != null && SORTABLE_PROPERTIES.contains(sortBy) ? sortBy : "fullName";
+        return Sort.by(property).and(Sort.by("id"));
     }
-}
\ No newline at end of file
+}
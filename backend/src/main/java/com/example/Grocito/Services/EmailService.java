@@ -3,6 +3,7 @@ package com.example.Grocito.Services;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Service;
 import com.example.Grocito.config.LoggerConfig;
 import com.example.Grocito.Entity.Order;
 import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.metrics.GrocitoMetrics;
 
 import jakarta.mail.internet.MimeMessage;
 
@@ -24,6 +26,9 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private GrocitoMetrics metrics;
+
     @Value("${spring.mail.username:}")
     private String fromEmail;
 
@@ -47,7 +52,7 @@ public class EmailService {
             helper.setSubject(subject);
             helper.setText(text, false); // Plain text
             
-            mailSender.send(message);
+            send("simple", message);
             
             logger.info("✅ Simple email sent successfully to: {}", to);
 
@@ -56,6 +61,11 @@ public class EmailService {
         }
     }
 
+    // Timed per email type, SMTP round trips are often the slowest part of the request that triggers them
+    private void send(String type, MimeMessage message) {
+        metrics.time(GrocitoMetrics.EMAIL_SEND, Tags.of("type", type), () -> mailSender.send(message));
+    }
+
     /**
      * Send welcome email to new user
      */
@@ -78,7 +88,7 @@ public class EmailService {
             String htmlContent = createWelcomeEmailHtml(fullName);
             helper.setText(htmlContent, true);
             
-            mailSender.send(message);
+            send("welcome", message);
             
             logger.info("✅ Welcome email sent successfully to: {}", email);
 
@@ -109,7 +119,7 @@ public class EmailService {
             String htmlContent = createPasswordResetEmailHtml(fullName, temporaryPassword);
             helper.setText(htmlContent, true);
             
-            mailSender.send(message);
+            send("password_reset", message);
             
             logger.info("✅ Password reset email sent successfully to: {}", email);
 
@@ -145,7 +155,7 @@ public class EmailService {
             helper.setText(emailContent, true);
             
             // Send email
-            mailSender.send(message);
+            send("delivery_receipt", message);
             
             logger.info("✅ Delivery receipt email sent successfully for order ID: {} to {}", 
                        order.getId(), order.getUser().getEmail());
@@ -0,0 +1,356 @@
+package com.example.Grocito.Services;
+
+import com.example.Grocito.Entity.IdempotencyKey;
+import com.example.Grocito.Repository.IdempotencyKeyRepository;
+import com.example.Grocito.config.LoggerConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per client Idempotency-Key. Successful responses are stored in
+ * memory and in the idempotency_keys table until they expire, a retry gets the stored response
+ * replayed. A duplicate arriving while the first request still runs on this instance waits for
+ * its outcome instead of executing again.
+ *
+ * The claim row doubles as a lock: it is inserted (or taken over with a conditional update on its
+ * created_at) before the action, and the action runs in one transaction with the update that marks it
+ * COMPLETED, which locks the row until the result is committed or rolled back.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerConfig.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.memory.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMillis;
+
+    // A claim older than this may be taken over. A request that is still running keeps its row locked,
+    // so the takeover waits for its outcome instead of running the action a second time
+    @Value("${idempotency.in-progress-timeout-seconds:60}")
+    private long inProgressTimeoutSeconds;
+
+    @Value("${idempotency.purge-interval-minutes:60}")
+    private long purgeIntervalMinutes;
+
+    private record StoredResponse(String requestHash, int status, byte[] body, LocalDateTime expiresAt) {}
+
+    private record Execution(String requestHash, CompletableFuture<ResponseEntity<?>> outcome) {}
+
+    // Access-ordered, recently used keys stay in memory, older ones are read back from the table
+    private final Map<String, StoredResponse> completed = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final ConcurrentHashMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void startPurger() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-key-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopPurger() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the action unless the user already sent this key.
+     *
+     * @param operation    name of the endpoint, part of the request fingerprint
+     * @param key          the Idempotency-Key header, the action simply runs when it is absent
+     * @param requestParts request parameters; a key reused with different parameters is rejected
+     */
+    public ResponseEntity<?> execute(String operation, Long userId, String key, List<?> requestParts,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String trimmedKey = key.trim();
+        if (trimmedKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = fingerprint(operation, requestParts);
+        String cacheKey = userId + ":" + trimmedKey;
+
+        StoredResponse stored = lookup(cacheKey);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        Execution execution = new Execution(requestHash, new CompletableFuture<>());
+        Execution running = inFlight.putIfAbsent(cacheKey, execution);
+        if (running != null) {
+            return awaitRunning(running, requestHash, trimmedKey);
+        }
+
+        try {
+            ResponseEntity<?> response = executeOnce(operation, userId, trimmedKey, cacheKey, requestHash, action, execution);
+            execution.outcome().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            execution.outcome().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, execution);
+        }
+    }
+
+    private ResponseEntity<?> executeOnce(String operation, Long userId, String key, String cacheKey, String requestHash,
+                                          Supplier<ResponseEntity<?>> action, Execution execution) {
+        // Completed by a request that finished between the lookup and registering this execution
+        StoredResponse stored = lookup(cacheKey);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key);
+        IdempotencyKey claim;
+        if (existing.isPresent()) {
+            IdempotencyKey found = existing.get();
+            if (found.getExpiresAt().isAfter(now)) {
+                if ("COMPLETED".equals(found.getStatus())) {
+                    stored = remember(cacheKey, new StoredResponse(found.getRequestHash(), found.getResponseStatus(),
+                            found.getResponseBody().getBytes(StandardCharsets.UTF_8), found.getExpiresAt()));
+                    return replay(stored, requestHash);
+                }
+                if (found.getCreatedAt().isAfter(now.minusSeconds(inProgressTimeoutSeconds))) {
+                    // Still running on another instance
+                    return inProgress(key);
+                }
+            }
+            // Only succeeds while the row is as we read it; a live request holds its row locked, so this
+            // waits for it and then finds the key completed or released
+            if (idempotencyKeyRepository.takeOver(found.getId(), found.getCreatedAt(), operation, requestHash, now,
+                    now.plusHours(ttlHours)) == 0) {
+                return inProgress(key);
+            }
+            if ("IN_PROGRESS".equals(found.getStatus()) && found.getExpiresAt().isAfter(now)) {
+                logger.warn("Taking over abandoned idempotency key {} of user {}", key, userId);
+            }
+            claim = found;
+            claim.setCreatedAt(now);
+            claim.setExpiresAt(now.plusHours(ttlHours));
+        } else {
+            claim = new IdempotencyKey();
+            claim.setUserId(userId);
+            claim.setIdempotencyKey(key);
+            claim.setOperation(operation);
+            claim.setRequestHash(requestHash);
+            claim.setStatus("IN_PROGRESS");
+            claim.setCreatedAt(now);
+            claim.setExpiresAt(now.plusHours(ttlHours));
+            try {
+                claim = idempotencyKeyRepository.saveAndFlush(claim);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance claimed the key first
+                return inProgress(key);
+            }
+        }
+
+        Long claimId = claim.getId();
+        LocalDateTime claimedAt = claim.getCreatedAt();
+        byte[][] storedBody = new byte[1][];
+        ResponseEntity<?> response;
+        try {
+            // The action and the COMPLETED mark commit together: an order is never committed under a key
+            // that still looks unfinished, so a takeover can never place a second one
+            response = transactionTemplate.execute(status -> {
+                if (idempotencyKeyRepository.lockClaim(claimId, claimedAt) == 0) {
+                    return inProgress(key);
+                }
+                ResponseEntity<?> result = action.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    status.setRollbackOnly();
+                    return result;
+                }
+                storedBody[0] = serialize(result.getBody());
+                if (idempotencyKeyRepository.complete(claimId, claimedAt, result.getStatusCode().value(),
+                        new String(storedBody[0], StandardCharsets.UTF_8)) == 0) {
+                    throw new IllegalStateException("Idempotency key " + key + " was taken over while its request ran");
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            release(claimId, claimedAt, key);
+            throw e;
+        }
+
+        if (storedBody[0] == null) {
+            // Failures (empty cart, out of stock) are not stored, the client may fix the cause and retry with the same key
+            release(claimId, claimedAt, key);
+            return response;
+        }
+
+        stored = remember(cacheKey, new StoredResponse(requestHash, response.getStatusCode().value(), storedBody[0],
+                claim.getExpiresAt()));
+
+        // Waiting duplicates get the stored bytes rather than sharing the entity with this request
+        execution.outcome().complete(replay(stored, requestHash));
+        return response;
+    }
+
+    private ResponseEntity<?> awaitRunning(Execution running, String requestHash, String key) {
+        if (!running.requestHash().equals(requestHash)) {
+            return keyReused();
+        }
+        try {
+            return running.outcome().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return inProgress(key);
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("The original request with this " + HEADER + " failed, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress(key);
+        }
+    }
+
+    private StoredResponse lookup(String cacheKey) {
+        synchronized (completed) {
+            StoredResponse stored = completed.get(cacheKey);
+            if (stored != null && stored.expiresAt().isBefore(LocalDateTime.now())) {
+                completed.remove(cacheKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private StoredResponse remember(String cacheKey, StoredResponse stored) {
+        synchronized (completed) {
+            completed.put(cacheKey, stored);
+        }
+        return stored;
+    }
+
+    private void release(Long claimId, LocalDateTime claimedAt, String key) {
+        try {
+            idempotencyKeyRepository.release(claimId, claimedAt);
+        } catch (RuntimeException e) {
+            // The claim then blocks the key until in-progress-timeout-seconds have passed
+            logger.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return keyReused();
+        }
+        return ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body());
+    }
+
+    private ResponseEntity<?> inProgress(String key) {
+        logger.debug("Request with idempotency key {} is still in progress", key);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Retry-After", "1")
+                .body("A request with this " + HEADER + " is still being processed");
+    }
+
+    private ResponseEntity<?> keyReused() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(HEADER + " was already used for a different request");
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store idempotent response: " + e.getMessage());
+        }
+    }
+
+    private static String fingerprint(String operation, List<?> requestParts) {
+        StringBuilder request = new StringBuilder(operation);
+        for (Object part : requestParts) {
+            request.append('\u0000').append(part);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available: " + e.getMessage());
+        }
+    }
+
+    void purgeExpired() {
+        try {
+            int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+            synchronized (completed) {
+                completed.values().removeIf(stored -> stored.expiresAt().isBefore(LocalDateTime.now()));
+            }
+            if (deleted > 0) {
+                logger.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.Grocito.Services;
 
 import com.example.Grocito.Entity.Location;
 import com.example.Grocito.Repository.LocationRepository;
+import com.example.Grocito.metrics.GrocitoMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -39,6 +41,9 @@ public class LocationService {
     @Autowired
     private LocationRepository locationRepository;
     
+    @Autowired
+    private GrocitoMetrics metrics;
+    
     private RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -55,6 +60,10 @@ public class LocationService {
     
     // Get location suggestions based on query (area name or pincode)
     public List<Location> getLocationSuggestions(String query) {
+        return metrics.time(GrocitoMetrics.LOCATION_SUGGESTIONS, () -> findLocationSuggestions(query));
+    }
+    
+    private List<Location> findLocationSuggestions(String query) {
         logger.info("Getting location suggestions for query: {}", query);
         
         if (query == null || query.trim().length() < 2) {
@@ -90,8 +99,10 @@ public class LocationService {
         Optional<Location> existingLocation = locationRepository.findByPincodeAndIsActiveTrue(pincode);
         if (existingLocation.isPresent()) {
             logger.debug("Location already exists in database for pincode: {}", pincode);
+            metrics.cacheHit(GrocitoMetrics.CACHE_LOCATIONS);
             return existingLocation.get();
         }
+        metrics.cacheMiss(GrocitoMetrics.CACHE_LOCATIONS);
         
         // If external API is disabled, skip API call
         if (!externalApiEnabled) {
@@ -408,6 +419,7 @@ public class LocationService {
     }
     
     // Get location statistics
+    @Transactional(readOnly = true)
     public Map<String, Object> getLocationStatistics() {
         logger.info("Calculating location statistics");
         
@@ -0,0 +1,106 @@
+package com.example.Grocito.Services;
+
+import com.example.Grocito.batch.BatchJobProgress;
+import com.example.Grocito.batch.BatchJobRunner;
+import com.example.Grocito.batch.OrderArchiveJob;
+import com.example.Grocito.config.LoggerConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot/cold split of the order tables. Runs {@link OrderArchiveJob} periodically and tells the order
+ * reads which orders can be in the archive: only finished orders placed before the archive cutoff, so
+ * reads of newer orders never have to look there.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerConfig.getLogger(OrderArchiveService.class);
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @Autowired
+    private OrderArchiveJob orderArchiveJob;
+
+    @Value("${order-archive.interval-hours:24}")
+    private long intervalHours;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @PostConstruct
+    public void startArchiving() {
+        if (intervalHours <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stopArchiving() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public LocalDateTime getCutoff() {
+        return orderArchiveJob.getCutoff();
+    }
+
+    /**
+     * Whether an order placed at this time may have been moved to the archive tables
+     */
+    public boolean mayBeArchived(LocalDateTime orderTime) {
+        return orderTime != null && orderTime.isBefore(getCutoff());
+    }
+
+    /**
+     * Move every finished order older than the cutoff to the archive. Resumable, a failed month is
+     * picked up again by the next run.
+     */
+    public Map<String, Object> archiveFinishedOrders() {
+        logger.info("Archiving finished orders placed before {}", getCutoff());
+
+        BatchJobProgress progress = batchJobRunner.run(orderArchiveJob);
+        Map<String, Object> result = new LinkedHashMap<>(progress.toMap());
+        result.put("cutoff", getCutoff().toString());
+        lastRun = result;
+
+        if (progress.getFailedPartitions() > 0) {
+            throw new RuntimeException("Archiving failed for " + progress.getFailedPartitions() +
+                    " month(s) after moving " + progress.getItemsWritten() + " orders, re-run to resume");
+        }
+        logger.info("Archived {} orders", progress.getItemsWritten());
+        return result;
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archiveFinishedOrders();
+        } catch (RuntimeException e) {
+            logger.warn("Order archiving failed: {}", e.getMessage());
+        }
+    }
+}
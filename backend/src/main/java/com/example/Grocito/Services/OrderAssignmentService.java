@@ -8,6 +8,17 @@ import com.example.Grocito.Repository.OrderRepository;
 import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
 import com.example.Grocito.Repository.DeliveryPartnerRepository;
 import com.example.Grocito.Repository.OrderAssignmentRepository;
+import com.example.Grocito.batch.BatchJobProgress;
+import com.example.Grocito.batch.BatchJobRunner;
+import com.example.Grocito.batch.DeliveryPartnerSyncJob;
+import com.example.Grocito.batch.OrderEarningsMigrationJob;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.readmodel.PartnerLeaderboards;
+import com.example.Grocito.readmodel.PartnerReadModel;
+import com.example.Grocito.readmodel.PartnerView;
+import com.example.Grocito.statemachine.Actor;
+import com.example.Grocito.statemachine.OrderStateMachine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +28,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 public class OrderAssignmentService {
@@ -28,14 +37,36 @@ public class OrderAssignmentService {
     private OrderRepository orderRepository;
     
     @Autowired
-    private EmailService emailService;
+    private DeliveryPartnerAuthRepository deliveryPartnerRepository;
     
     @Autowired
-    private DeliveryPartnerAuthRepository deliveryPartnerRepository;
+    private PartnerStatsService partnerStatsService;
     
-    // In-memory storage for real-time notifications (in production, use Redis or message queue)
-    private final ConcurrentHashMap<String, List<Long>> availablePartnersByPincode = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, LocalDateTime> partnerLastSeen = new ConcurrentHashMap<>();
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+    
+    @Autowired
+    private OrderEarningsMigrationJob orderEarningsMigrationJob;
+    
+    @Autowired
+    private DeliveryPartnerSyncJob deliveryPartnerSyncJob;
+    
+    @Autowired
+    private GrocitoMetrics metrics;
+    
+    // Partner details and online state for dispatch, without reading delivery_partner_auth per request
+    @Autowired
+    private PartnerReadModel partnerReadModel;
+    
+    @Autowired
+    private PartnerLeaderboards leaderboards;
+    
+    // Status changes: compare-and-set with the transition rules and hooks
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+    
+    @Autowired
+    private PricingEngine pricingEngine;
     
     /**
      * Update delivery partner availability status
@@ -60,20 +91,20 @@ public class OrderAssignmentService {
         partner.setUpdatedAt(LocalDateTime.now());
         DeliveryPartnerAuth updatedPartner = deliveryPartnerRepository.save(partner);
         
-        // Update in-memory availability tracking
+        // Recorded on the delivery_partners row as well: the in-memory list is per instance, and every
+        // instance re-checks the row before assigning an order
         String pincode = partner.getPincode();
-        if (isAvailable) {
-            availablePartnersByPincode.computeIfAbsent(pincode, k -> new CopyOnWriteArrayList<>()).add(partnerId);
-            partnerLastSeen.put(partnerId, LocalDateTime.now());
-            logger.info("Partner {} is now AVAILABLE in pincode {}", partnerId, pincode);
-        } else {
-            List<Long> partners = availablePartnersByPincode.get(pincode);
-            if (partners != null) {
-                partners.remove(partnerId);
-            }
-            partnerLastSeen.remove(partnerId);
-            logger.info("Partner {} is now OFFLINE in pincode {}", partnerId, pincode);
-        }
+        PartnerView view = partnerReadModel.getOrLoad(partnerId)
+                .orElseThrow(() -> new RuntimeException("Delivery partner not found with ID: " + partnerId));
+        DeliveryPartner deliveryPartner = deliveryPartnerFor(view);
+        deliveryPartner.setIsAvailable(isAvailable);
+        deliveryPartner.setAvailabilityStatus(isAvailable ? "ONLINE" : "OFFLINE");
+        deliveryPartner.setLastActiveAt(LocalDateTime.now());
+        deliveryPartnerRepository2.save(deliveryPartner);
+        
+        // Update in-memory availability tracking
+        partnerReadModel.setAvailable(partnerId, isAvailable);
+        logger.info("Partner {} is now {} in pincode {}", partnerId, isAvailable ? "AVAILABLE" : "OFFLINE", pincode);
         
         return updatedPartner;
     }
@@ -82,16 +113,7 @@ public class OrderAssignmentService {
      * Get available delivery partners for a pincode
      */
     public List<Long> getAvailablePartners(String pincode) {
-        List<Long> partners = availablePartnersByPincode.getOrDefault(pincode, new CopyOnWriteArrayList<>());
-        
-        // Remove partners who haven't been seen in the last 5 minutes
-        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
-        partners.removeIf(partnerId -> {
-            LocalDateTime lastSeen = partnerLastSeen.get(partnerId);
-            return lastSeen == null || lastSeen.isBefore(cutoff);
-        });
-        
-        return partners;
+        return partnerReadModel.getAvailablePartners(pincode);
     }
     
     /**
@@ -142,67 +164,22 @@ public class OrderAssignmentService {
             throw new RuntimeException("You already have 2 active orders. Please complete them before accepting new orders.");
         }
         
-        // Calculate delivery fee and partner earning
-        double deliveryFee = calculateDeliveryFee(order.getTotalAmount());
-        double partnerEarning = calculatePartnerEarning(deliveryFee, order.getTotalAmount());
+        // The fee and earning stored at checkout stand; only orders stored without an earning get one now
+        double partnerEarning = order.getPartnerEarning() > 0 ? order.getPartnerEarning()
+                : pricingEngine.missingPartnerEarning(order.getPincode(), order.getOrderTime(),
+                        order.getTotalAmount(), order.getDeliveryFee());
         
-        // Assign the order
-        order.setDeliveryPartner(partner);
-        order.setStatus("ASSIGNED");
-        order.setAssignedAt(LocalDateTime.now());
-        order.setDeliveryFee(deliveryFee);
-        order.setPartnerEarning(partnerEarning);
-        orderRepository.save(order);
-        
-        // If partner now has 2 active orders, remove them from available list
-        if (activeOrdersCount + 1 >= 2) {
-            List<Long> availablePartners = availablePartnersByPincode.get(partner.getPincode());
-            if (availablePartners != null) {
-                availablePartners.remove(partnerId);
-            }
-            logger.info("Partner {} removed from available list (reached 2 active orders limit)", partnerId);
+        // Compare-and-set from PLACED, so only one of the partners racing for the order gets it. The partner
+        // leaves the available list in a hook once at the active order limit.
+        if (!orderStateMachine.assign(order, partner, partnerEarning)) {
+            logger.warn("Order {} was taken by another partner", orderId);
+            return false;
         }
         
         logger.info("Order {} successfully assigned to partner {} with earning ₹{}", orderId, partnerId, partnerEarning);
         return true;
     }
     
-    /**
-     * Calculate delivery fee based on order amount
-     * Policy: Free delivery for orders >= ₹199, otherwise ₹40
-     */
-    private double calculateDeliveryFee(double orderAmount) {
-        final double FREE_DELIVERY_THRESHOLD = 199.0;
-        final double DELIVERY_FEE = 40.0;
-        
-        if (orderAmount >= FREE_DELIVERY_THRESHOLD) {
-            logger.debug("Free delivery applied for order amount: ₹{}", orderAmount);
-            return 0.0;
-        } else {
-            logger.debug("Delivery fee of ₹{} applied for order amount: ₹{}", DELIVERY_FEE, orderAmount);
-            return DELIVERY_FEE;
-        }
-    }
-    
-    /**
-     * Calculate partner earning from delivery
-     * Policy: ₹25 for free delivery orders, ₹30 for paid delivery orders
-     */
-    private double calculatePartnerEarning(double deliveryFee, double orderAmount) {
-        final double FREE_DELIVERY_PARTNER_EARNING = 25.0;
-        final double PAID_DELIVERY_PARTNER_EARNING = 30.0;
-        
-        if (deliveryFee == 0.0) {
-            // Free delivery - partner gets ₹25 from Grocito
-            logger.debug("Partner earning for free delivery: ₹{}", FREE_DELIVERY_PARTNER_EARNING);
-            return FREE_DELIVERY_PARTNER_EARNING;
-        } else {
-            // Paid delivery - partner gets ₹30 from ₹40 delivery fee
-            logger.debug("Partner earning for paid delivery: ₹{}", PAID_DELIVERY_PARTNER_EARNING);
-            return PAID_DELIVERY_PARTNER_EARNING;
-        }
-    }
-    
     /**
      * Get pending orders for a specific pincode
      */
@@ -243,7 +220,8 @@ public class OrderAssignmentService {
     }
     
     /**
-     * Update order status by delivery partner
+     * Update order status by delivery partner. The state machine checks that the partner is assigned, the
+     * step order and the COD payment; stats, availability and the receipt email follow from its hooks.
      */
     @Transactional
     public Order updateOrderStatus(Long orderId, String newStatus, Long partnerId) {
@@ -255,99 +233,17 @@ public class OrderAssignmentService {
         }
         
         Order order = orderOpt.get();
-        
-        // Verify that this partner is assigned to this order
-        if (order.getDeliveryPartner() == null || !order.getDeliveryPartner().getId().equals(partnerId)) {
-            throw new RuntimeException("You are not assigned to this order");
+        if (!orderStateMachine.transition(order, newStatus, Actor.partner(partnerId))) {
+            throw new RuntimeException("Order is already " + newStatus);
         }
-        
-        // Update status and timestamps
-        String oldStatus = order.getStatus();
-        order.setStatus(newStatus);
-        
-        switch (newStatus) {
-            case "PICKED_UP":
-                if (!"ASSIGNED".equals(oldStatus)) {
-                    throw new RuntimeException("Can only pick up assigned orders");
-                }
-                order.setPickedUpAt(LocalDateTime.now());
-                break;
-            case "OUT_FOR_DELIVERY":
-                if (!"PICKED_UP".equals(oldStatus)) {
-                    throw new RuntimeException("Can only mark as out for delivery after pickup");
-                }
-                break;
-            case "DELIVERED":
-                if (!"OUT_FOR_DELIVERY".equals(oldStatus)) {
-                    throw new RuntimeException("Can only deliver orders that are out for delivery");
-                }
-                
-                // CRITICAL SECURITY CHECK: Prevent marking COD orders as delivered without payment collection
-                boolean isCODOrder = "COD".equals(order.getPaymentMethod()) || order.getPaymentMethod() == null;
-                boolean isPaymentPending = "PENDING".equals(order.getPaymentStatus()) || order.getPaymentStatus() == null;
-                
-                logger.debug("Delivery validation for order {} - PaymentMethod: {}, PaymentStatus: {}, isCOD: {}, isPending: {}", 
-                            orderId, order.getPaymentMethod(), order.getPaymentStatus(), isCODOrder, isPaymentPending);
-                
-                if (isCODOrder && isPaymentPending) {
-                    logger.warn("SECURITY VIOLATION: Partner {} attempted to mark COD order {} as delivered without payment collection", partnerId, orderId);
-                    throw new RuntimeException("Cannot mark COD order as delivered without collecting payment. Please collect payment first using the payment collection interface.");
-                }
-                
-                order.setDeliveredAt(LocalDateTime.now());
-                
-                // Check if partner now has less than 2 active orders, make them available again
-                DeliveryPartnerAuth partner = order.getDeliveryPartner();
-                long remainingActiveOrders = orderRepository.countByDeliveryPartnerIdAndStatusIn(partnerId, 
-                        List.of("ASSIGNED", "PICKED_UP", "OUT_FOR_DELIVERY")) - 1; // -1 because this order is being delivered
-                
-                if (remainingActiveOrders < 2) {
-                    String pincode = partner.getPincode();
-                    List<Long> availablePartners = availablePartnersByPincode.computeIfAbsent(pincode, k -> new CopyOnWriteArrayList<>());
-                    if (!availablePartners.contains(partnerId)) {
-                        availablePartners.add(partnerId);
-                        partnerLastSeen.put(partnerId, LocalDateTime.now());
-                        logger.info("Partner {} is now available again (has {} active orders)", partnerId, remainingActiveOrders);
-                    }
-                }
-                
-                // CRITICAL: Send delivery receipt email after successful delivery
-                logger.info("📧 Triggering delivery receipt email for order ID: {} delivered by partner: {}", orderId, partnerId);
-                try {
-                    emailService.sendDeliveryReceiptEmail(order);
-                } catch (Exception e) {
-                    logger.error("Failed to send delivery receipt email for order ID: {} - {}", orderId, e.getMessage());
-                    // Don't fail the delivery process if email fails
-                }
-                break;
-            case "CANCELLED":
-                order.setCancelledAt(LocalDateTime.now());
-                
-                // Check if partner now has less than 2 active orders, make them available again
-                DeliveryPartnerAuth cancelPartner = order.getDeliveryPartner();
-                long remainingActiveOrdersCancel = orderRepository.countByDeliveryPartnerIdAndStatusIn(partnerId, 
-                        List.of("ASSIGNED", "PICKED_UP", "OUT_FOR_DELIVERY")) - 1; // -1 because this order is being cancelled
-                
-                if (remainingActiveOrdersCancel < 2) {
-                    String cancelPincode = cancelPartner.getPincode();
-                    List<Long> availablePartners = availablePartnersByPincode.computeIfAbsent(cancelPincode, k -> new CopyOnWriteArrayList<>());
-                    if (!availablePartners.contains(partnerId)) {
-                        availablePartners.add(partnerId);
-                        partnerLastSeen.put(partnerId, LocalDateTime.now());
-                        logger.info("Partner {} is now available again after cancellation (has {} active orders)", partnerId, remainingActiveOrdersCancel);
-                    }
-                }
-                break;
-        }
-        
-        return orderRepository.save(order);
+        return order;
     }
     
     /**
      * Keep partner alive (heartbeat)
      */
     public void keepPartnerAlive(Long partnerId) {
-        partnerLastSeen.put(partnerId, LocalDateTime.now());
+        partnerReadModel.heartbeat(partnerId);
     }
     
     /**
@@ -356,34 +252,15 @@ public class OrderAssignmentService {
     public java.util.Map<String, Object> getPartnerStats(Long partnerId) {
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
         
-        // Get completed deliveries count
-        long completedDeliveries = orderRepository.countByDeliveryPartnerIdAndStatus(partnerId, "DELIVERED");
+        // Delivered counts and earnings come from the pre-aggregated daily stats table
+        PartnerStatsService.PartnerTotals totals = partnerStatsService.getPartnerTotals(partnerId);
         
         // Get current active orders
         long activeOrders = orderRepository.countByDeliveryPartnerIdAndStatusIn(partnerId, 
                 List.of("ASSIGNED", "PICKED_UP", "OUT_FOR_DELIVERY"));
         
-        // Calculate real total earnings from delivered orders
-        Double totalEarnings = orderRepository.sumPartnerEarningsByDeliveryPartnerIdAndStatus(partnerId, "DELIVERED");
-        if (totalEarnings == null) totalEarnings = 0.0;
-        
-        // Get today's deliveries and earnings
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        long todayDeliveries = orderRepository.countByDeliveryPartnerIdAndStatusAndDeliveredAtAfter(
-                partnerId, "DELIVERED", startOfDay);
-        
-        Double todayEarnings = orderRepository.sumPartnerEarningsByDeliveryPartnerIdAndStatusAndDeliveredAtAfter(
-                partnerId, "DELIVERED", startOfDay);
-        if (todayEarnings == null) todayEarnings = 0.0;
-        
-        // Get this week's stats
-        LocalDateTime startOfWeek = LocalDateTime.now().minusDays(7);
-        long weekDeliveries = orderRepository.countByDeliveryPartnerIdAndStatusAndDeliveredAtAfter(
-                partnerId, "DELIVERED", startOfWeek);
-        
-        Double weekEarnings = orderRepository.sumPartnerEarningsByDeliveryPartnerIdAndStatusAndDeliveredAtAfter(
-                partnerId, "DELIVERED", startOfWeek);
-        if (weekEarnings == null) weekEarnings = 0.0;
+        long completedDeliveries = totals.getTotalDeliveries();
+        double totalEarnings = totals.getTotalEarnings();
         
         // Calculate average earnings per delivery
         double avgEarningsPerDelivery = completedDeliveries > 0 ? totalEarnings / completedDeliveries : 0.0;
@@ -391,100 +268,64 @@ public class OrderAssignmentService {
         stats.put("completedDeliveries", completedDeliveries);
         stats.put("activeOrders", activeOrders);
         stats.put("totalEarnings", Math.round(totalEarnings * 100.0) / 100.0);
-        stats.put("todayDeliveries", todayDeliveries);
-        stats.put("todayEarnings", Math.round(todayEarnings * 100.0) / 100.0);
-        stats.put("weekDeliveries", weekDeliveries);
-        stats.put("weekEarnings", Math.round(weekEarnings * 100.0) / 100.0);
+        stats.put("todayDeliveries", totals.getTodayDeliveries());
+        stats.put("todayEarnings", Math.round(totals.getTodayEarnings() * 100.0) / 100.0);
+        stats.put("weekDeliveries", totals.getWeekDeliveries());
+        stats.put("weekEarnings", Math.round(totals.getWeekEarnings() * 100.0) / 100.0);
         stats.put("avgEarningsPerDelivery", Math.round(avgEarningsPerDelivery * 100.0) / 100.0);
         
         return stats;
     }
     
     /**
-     * Migrate existing orders to add earnings data
+     * The partner's rank in their pincode for each leaderboard metric; metrics they do not qualify for yet are left out
+     */
+    public java.util.Map<String, Object> getPartnerRanks(Long partnerId) {
+        java.util.Map<String, Object> ranks = new java.util.LinkedHashMap<>();
+        for (PartnerLeaderboards.Metric metric : PartnerLeaderboards.Metric.values()) {
+            leaderboards.rankOf(partnerId, metric)
+                    .ifPresent(rank -> ranks.put(metric.name().toLowerCase().replace('_', '-'), rank));
+        }
+        return ranks;
+    }
+    
+    /**
+     * Migrate existing orders to add earnings data.
+     * Runs as a chunked, resumable batch job partitioned by pincode.
      */
-    @Transactional
     public int migrateExistingOrdersEarnings() {
         logger.info("Starting migration of existing orders to add earnings data");
         
-        // Find all delivered orders without partner earnings
-        List<Order> ordersToUpdate = orderRepository.findByStatusAndPartnerEarningIsNull("DELIVERED");
-        
-        int updatedCount = 0;
-        for (Order order : ordersToUpdate) {
-            if (order.getDeliveryPartner() != null && order.getTotalAmount() > 0) {
-                // Calculate earnings for existing orders
-                double deliveryFee = calculateDeliveryFee(order.getTotalAmount());
-                double partnerEarning = calculatePartnerEarning(deliveryFee, order.getTotalAmount());
-                
-                order.setDeliveryFee(deliveryFee);
-                order.setPartnerEarning(partnerEarning);
-                
-                // Set delivered time if missing
-                if (order.getDeliveredAt() == null) {
-                    order.setDeliveredAt(order.getOrderTime().plusHours(1)); // Assume delivered 1 hour after order
-                }
-                
-                orderRepository.save(order);
-                updatedCount++;
-                
-                logger.info("Updated order {} with earnings: ₹{}", order.getId(), partnerEarning);
-            }
+        BatchJobProgress progress = batchJobRunner.run(orderEarningsMigrationJob);
+        if (progress.getFailedPartitions() > 0) {
+            throw new RuntimeException("Migration failed for " + progress.getFailedPartitions() + 
+                    " pincode(s) after updating " + progress.getItemsWritten() + " orders, re-run to resume");
         }
         
-        logger.info("Migration completed. Updated {} orders with earnings data", updatedCount);
-        return updatedCount;
+        logger.info("Migration completed. Updated {} orders with earnings data", progress.getItemsWritten());
+        return (int) progress.getItemsWritten();
     }
 
     /**
-     * Sync delivery partner data between tables to fix foreign key issues
+     * Sync delivery partner data between tables to fix foreign key issues.
+     * Runs as a chunked, resumable batch job partitioned by pincode. Assignments create a missing
+     * delivery_partners row themselves, so this is only needed to backfill the table.
      */
-    @Transactional
     public int syncDeliveryPartnerTables() {
         logger.info("Starting sync between delivery_partner_auth and delivery_partners tables");
         
-        try {
-            // Get all verified partners from delivery_partner_auth
-            List<DeliveryPartnerAuth> verifiedPartners = deliveryPartnerRepository.findByVerificationStatus("VERIFIED");
-            
-            int syncedCount = 0;
-            for (DeliveryPartnerAuth authPartner : verifiedPartners) {
-                try {
-                    // Use native SQL to insert/update delivery_partners table
-                    // This ensures the foreign key constraint can be satisfied
-                    String sql = "INSERT INTO delivery_partners (id, full_name, email, phone_number, pincode, " +
-                               "vehicle_type, vehicle_number, driving_license, verification_status, account_status, " +
-                               "availability_status, is_available, total_deliveries, successful_deliveries, " +
-                               "average_rating, total_earnings, created_at, updated_at) " +
-                               "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', 'OFFLINE', false, 0, 0, 0.0, 0.0, ?, ?) " +
-                               "ON DUPLICATE KEY UPDATE " +
-                               "full_name = VALUES(full_name), email = VALUES(email), phone_number = VALUES(phone_number), " +
-                               "pincode = VALUES(pincode), vehicle_type = VALUES(vehicle_type), " +
-                               "vehicle_number = VALUES(vehicle_number), driving_license = VALUES(driving_license), " +
-                               "verification_status = VALUES(verification_status), updated_at = VALUES(updated_at)";
-                    
-                    // Simplified approach - just log for now
-                    // TODO: Implement proper entity manager access if needed
-                    
-                    // For now, just log the sync attempt
-                    logger.info("Would sync partner {} (ID: {}) to delivery_partners table", 
-                               authPartner.getFullName(), authPartner.getId());
-                    syncedCount++;
-                    
-                } catch (Exception e) {
-                    logger.warn("Failed to sync partner {}: {}", authPartner.getId(), e.getMessage());
-                }
-            }
-            
-            logger.info("Sync completed. Processed {} verified partners", syncedCount);
-            return syncedCount;
-            
-        } catch (Exception e) {
-            logger.error("Error during sync: {}", e.getMessage());
-            throw new RuntimeException("Sync failed: " + e.getMessage());
+        BatchJobProgress progress = batchJobRunner.run(deliveryPartnerSyncJob);
+        if (progress.getFailedPartitions() > 0) {
+            throw new RuntimeException("Sync failed for " + progress.getFailedPartitions() + 
+                    " pincode(s) after syncing " + progress.getItemsWritten() + " partners, re-run to resume");
         }
+        
+        logger.info("Sync completed. Processed {} verified partners", progress.getItemsWritten());
+        // The job writes with native upserts that the read model listener does not see
+        partnerReadModel.load();
+        return (int) progress.getItemsWritten();
     }
-
+    
     /**
      * Get real-time dashboard data for delivery partner
      */
@@ -510,9 +351,7 @@ public class OrderAssignmentService {
         dashboardData.put("availableOrders", getPendingOrdersForPincode(partner.getPincode()));
         
         // Availability status
-        List<Long> availablePartners = availablePartnersByPincode.get(partner.getPincode());
-        boolean isAvailable = availablePartners != null && availablePartners.contains(partnerId);
-        dashboardData.put("isAvailable", isAvailable);
+        dashboardData.put("isAvailable", partnerReadModel.isAvailable(partnerId));
         
         return dashboardData;
     }
@@ -534,30 +373,46 @@ public class OrderAssignmentService {
         
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (!orderOpt.isPresent()) {
+            metrics.assignmentFailure("order_not_found", null);
             throw new RuntimeException("Order not found with ID: " + orderId);
         }
         
         Order order = orderOpt.get();
+        return metrics.time(GrocitoMetrics.ORDER_ASSIGN, order.getPincode(), () -> assignToAvailablePartner(order));
+    }
+    
+    private OrderAssignment assignToAvailablePartner(Order order) {
         String pincode = order.getPincode();
         
         // Get available partners for this pincode
         List<Long> availablePartners = getAvailablePartners(pincode);
         if (availablePartners.isEmpty()) {
+            metrics.assignmentFailure("no_available_partner", pincode);
             throw new RuntimeException("No available delivery partners for pincode: " + pincode);
         }
         
-        // Select the first available partner (can be enhanced with better logic)
-        Long selectedPartnerId = availablePartners.get(0);
-        
-        // Get the delivery partner
-        Optional<DeliveryPartnerAuth> partnerOpt = deliveryPartnerRepository.findById(selectedPartnerId);
-        if (!partnerOpt.isPresent()) {
-            throw new RuntimeException("Delivery partner not found with ID: " + selectedPartnerId);
+        // Select the first available partner (can be enhanced with better logic). The read model is per
+        // instance, so each candidate is re-read: a partner suspended, moved or gone offline through
+        // another instance is dropped here instead of being assigned.
+        PartnerView selected = null;
+        for (Long candidateId : availablePartners) {
+            Optional<PartnerView> current = partnerReadModel.refresh(candidateId);
+            if (current.isPresent() && isAssignable(current.get(), pincode)) {
+                selected = current.get();
+                break;
+            }
+            if (current.isPresent() && "OFFLINE".equals(current.get().availabilityStatus())) {
+                partnerReadModel.setAvailable(candidateId, false);
+            }
+            logger.info("Partner {} is no longer available for pincode {}, skipped", candidateId, pincode);
+        }
+        if (selected == null) {
+            metrics.assignmentFailure("no_available_partner", pincode);
+            throw new RuntimeException("No available delivery partners for pincode: " + pincode);
         }
         
         // Create assignment
-        DeliveryPartner deliveryPartner = new DeliveryPartner();
-        deliveryPartner.setId(selectedPartnerId);
+        DeliveryPartner deliveryPartner = deliveryPartnerFor(selected);
         
         OrderAssignment assignment = new OrderAssignment(order, deliveryPartner);
         assignment.setStatus("ASSIGNED");
@@ -577,14 +432,13 @@ public class OrderAssignmentService {
             throw new RuntimeException("Order not found with ID: " + orderId);
         }
         
-        Optional<DeliveryPartnerAuth> partnerOpt = deliveryPartnerRepository.findById(partnerId);
+        Optional<PartnerView> partnerOpt = partnerReadModel.getOrLoad(partnerId);
         if (!partnerOpt.isPresent()) {
             throw new RuntimeException("Delivery partner not found with ID: " + partnerId);
         }
         
         Order order = orderOpt.get();
-        DeliveryPartner deliveryPartner = new DeliveryPartner();
-        deliveryPartner.setId(partnerId);
+        DeliveryPartner deliveryPartner = deliveryPartnerFor(partnerOpt.get());
         
         OrderAssignment assignment = new OrderAssignment(order, deliveryPartner);
         assignment.setStatus("ASSIGNED");
@@ -592,6 +446,34 @@ public class OrderAssignmentService {
         return orderAssignmentRepository.save(assignment);
     }
     
+    private static boolean isAssignable(PartnerView partner, String pincode) {
+        return partner.isDispatchable() && pincode.equals(partner.pincode())
+                && !"OFFLINE".equals(partner.availabilityStatus());
+    }
+    
+    /**
+     * The partner's delivery_partners row for order_assignments.partner_id. Accounts without one
+     * get it created the same way the partner sync job does, then the row is found through its
+     * link to the account rather than by assuming the ids match.
+     */
+    private DeliveryPartner deliveryPartnerFor(PartnerView partner) {
+        Long partnerId = partner.partnerId();
+        if (partnerId == null) {
+            DeliveryPartnerAuth account = deliveryPartnerRepository.findById(partner.authId())
+                    .orElseThrow(() -> new RuntimeException("Delivery partner not found with ID: " + partner.authId()));
+            deliveryPartnerSyncJob.writeChunk(List.of(account));
+            Long createdId = deliveryPartnerRepository.findPartnerView(account.getId())
+                    .map(PartnerView::partnerId)
+                    .orElseThrow(() -> new RuntimeException("No delivery partner record linked to partner ID: " + account.getId()));
+            PartnerReadModel.afterCommit(() -> partnerReadModel.partnerChanged(account.getId(), createdId, "ACTIVE", "OFFLINE"));
+            logger.info("Created delivery_partners row {} for partner {}", createdId, account.getId());
+            partnerId = createdId;
+        }
+        Long rowId = partnerId;
+        return deliveryPartnerRepository2.findById(rowId)
+                .orElseThrow(() -> new RuntimeException("Delivery partner record not found with ID: " + rowId));
+    }
+    
     /**
      * Accept order assignment
      */
@@ -599,24 +481,11 @@ public class OrderAssignmentService {
     public OrderAssignment acceptOrder(Long assignmentId, Long partnerId) {
         logger.info("Partner {} accepting assignment {}", partnerId, assignmentId);
         
-        Optional<OrderAssignment> assignmentOpt = orderAssignmentRepository.findById(assignmentId);
-        if (!assignmentOpt.isPresent()) {
-            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
-        }
-        
-        OrderAssignment assignment = assignmentOpt.get();
-        
-        // Verify the partner owns this assignment
-        if (!assignment.getPartnerId().equals(partnerId)) {
-            throw new RuntimeException("Assignment does not belong to this partner");
-        }
-        
-        if (!"ASSIGNED".equals(assignment.getStatus())) {
+        OrderAssignment assignment = findAssignment(assignmentId);
+        if (!orderStateMachine.transition(assignment, "ACCEPTED", Actor.partner(partnerId))) {
             throw new RuntimeException("Assignment is not in ASSIGNED status");
         }
-        
-        assignment.acceptAssignment();
-        return orderAssignmentRepository.save(assignment);
+        return assignment;
     }
     
     /**
@@ -626,24 +495,10 @@ public class OrderAssignmentService {
     public void rejectOrder(Long assignmentId, Long partnerId, String rejectionReason) {
         logger.info("Partner {} rejecting assignment {} with reason: {}", partnerId, assignmentId, rejectionReason);
         
-        Optional<OrderAssignment> assignmentOpt = orderAssignmentRepository.findById(assignmentId);
-        if (!assignmentOpt.isPresent()) {
-            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
-        }
-        
-        OrderAssignment assignment = assignmentOpt.get();
-        
-        // Verify the partner owns this assignment
-        if (!assignment.getPartnerId().equals(partnerId)) {
-            throw new RuntimeException("Assignment does not belong to this partner");
-        }
-        
-        if (!"ASSIGNED".equals(assignment.getStatus())) {
+        OrderAssignment assignment = findAssignment(assignmentId);
+        if (!orderStateMachine.reject(assignment, Actor.partner(partnerId), rejectionReason)) {
             throw new RuntimeException("Assignment is not in ASSIGNED status");
         }
-        
-        assignment.rejectAssignment(rejectionReason);
-        orderAssignmentRepository.save(assignment);
     }
     
     /**
@@ -653,35 +508,56 @@ public class OrderAssignmentService {
     public OrderAssignment updateOrderStatus(Long assignmentId, Long partnerId, String newStatus) {
         logger.info("Partner {} updating assignment {} to status {}", partnerId, assignmentId, newStatus);
         
-        Optional<OrderAssignment> assignmentOpt = orderAssignmentRepository.findById(assignmentId);
-        if (!assignmentOpt.isPresent()) {
-            throw new RuntimeException("Assignment not found with ID: " + assignmentId);
+        OrderAssignment assignment = findAssignment(assignmentId);
+        String status = newStatus.toUpperCase();
+        if (!orderStateMachine.transition(assignment, status, Actor.partner(partnerId))) {
+            throw new RuntimeException("Assignment is already " + status);
+        }
+        return assignment;
+    }
+    
+    private OrderAssignment findAssignment(Long assignmentId) {
+        return orderAssignmentRepository.findById(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Assignment not found with ID: " + assignmentId));
+    }
+    
+    /**
+     * Whether the order was placed by this customer
+     */
+    public boolean isPlacedBy(Long orderId, Long customerId) {
+        return orderRepository.existsByIdAndUser_Id(orderId, customerId);
+    }
+    
+    /**
+     * Record the rating (1-5) of a delivered order by the customer who placed it; an order is rated once
+     */
+    @Transactional
+    public void rateDelivery(Long orderId, Long customerId, int rating, String feedback) {
+        if (rating < 1 || rating > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
         }
         
-        OrderAssignment assignment = assignmentOpt.get();
-        
-        // Verify the partner owns this assignment
-        if (!assignment.getPartnerId().equals(partnerId)) {
-            throw new RuntimeException("Assignment does not belong to this partner");
+        OrderAssignment assignment = orderAssignmentRepository.findByOrder_Id(orderId)
+                .orElseThrow(() -> new RuntimeException("No delivery assignment found for order ID: " + orderId));
+        if (!customerId.equals(assignment.getOrder().getUser().getId())) {
+            throw new RuntimeException("Order " + orderId + " was placed by another customer");
+        }
+        if (!"DELIVERED".equals(assignment.getStatus())) {
+            throw new RuntimeException("Only delivered orders can be rated");
         }
         
-        // Update status based on the new status
-        switch (newStatus.toUpperCase()) {
-            case "PICKED_UP":
-                assignment.markPickedUp();
-                break;
-            case "OUT_FOR_DELIVERY":
-                assignment.markOutForDelivery();
-                break;
-            case "DELIVERED":
-                assignment.markDelivered();
-                break;
-            default:
-                assignment.setStatus(newStatus);
-                break;
+        Long assignedId = assignment.getPartnerId();
+        Long partnerId = partnerReadModel.getOrLoadByPartnerId(assignedId)
+                .map(PartnerView::authId)
+                .orElseThrow(() -> new RuntimeException("No partner account linked to delivery partner ID: " + assignedId));
+        
+        // Conditional, so two concurrent ratings of the same order cannot both count
+        if (orderAssignmentRepository.rateOnce(assignment.getId(), rating, feedback, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Order " + orderId + " has already been rated");
         }
         
-        return orderAssignmentRepository.save(assignment);
+        leaderboards.recordRating(partnerId, assignment.getOrder().getPincode(), rating);
+        logger.info("Order {} rated {} for partner {}", orderId, rating, partnerId);
     }
     
     /**
@@ -690,10 +566,15 @@ public class OrderAssignmentService {
     public List<OrderAssignment> getPartnerAssignments(Long partnerId, String status) {
         logger.info("Fetching assignments for partner {} with status {}", partnerId, status);
         
+        // Assignments reference delivery_partners.id; no row yet means no assignments yet
+        Optional<Long> deliveryPartnerId = partnerReadModel.partnerIdFor(partnerId);
+        if (deliveryPartnerId.isEmpty()) {
+            return List.of();
+        }
         if (status != null && !status.trim().isEmpty()) {
-            return orderAssignmentRepository.findByStatusAndDeliveryPartnerId(status, partnerId);
+            return orderAssignmentRepository.findByStatusAndDeliveryPartnerId(status, deliveryPartnerId.get());
         } else {
-            return orderAssignmentRepository.findByDeliveryPartnerId(partnerId);
+            return orderAssignmentRepository.findByDeliveryPartnerId(deliveryPartnerId.get());
         }
     }
     
@@ -708,26 +589,23 @@ public class OrderAssignmentService {
         if (assignmentOpt.isPresent()) {
             OrderAssignment assignment = assignmentOpt.get();
             
-            // CRITICAL FIX: Get delivery partner data from delivery_partner_auth table
+            // CRITICAL FIX: Delivery partner data comes from the delivery_partner_auth account
             if (assignment.getDeliveryPartner() != null) {
                 Long partnerId = assignment.getDeliveryPartner().getId();
-                logger.info("Loading delivery partner details from auth table for partner ID: {}", partnerId);
-                
-                // Get the actual partner data from delivery_partner_auth table
-                Optional<DeliveryPartnerAuth> authPartnerOpt = deliveryPartnerRepository.findById(partnerId);
-                if (authPartnerOpt.isPresent()) {
-                    DeliveryPartnerAuth authPartner = authPartnerOpt.get();
+                Optional<PartnerView> accountOpt = partnerReadModel.getOrLoadByPartnerId(partnerId);
+                if (accountOpt.isPresent()) {
+                    PartnerView account = accountOpt.get();
                     
                     // Update the delivery partner object with real data
                     DeliveryPartner partner = assignment.getDeliveryPartner();
-                    partner.setFullName(authPartner.getFullName());
-                    partner.setPhoneNumber(authPartner.getPhoneNumber());
-                    partner.setEmail(authPartner.getEmail());
-                    partner.setVehicleType(authPartner.getVehicleType());
-                    partner.setVehicleNumber(authPartner.getVehicleNumber());
-                    partner.setAssignedPincode(authPartner.getPincode());
+                    partner.setFullName(account.fullName());
+                    partner.setPhoneNumber(account.phoneNumber());
+                    partner.setEmail(account.email());
+                    partner.setVehicleType(account.vehicleType());
+                    partner.setVehicleNumber(account.vehicleNumber());
+                    partner.setAssignedPincode(account.pincode());
                     
-                    logger.info("Successfully loaded partner data: {} - {}", authPartner.getFullName(), authPartner.getPhoneNumber());
+                    logger.debug("Loaded partner data: {} - {}", account.fullName(), account.phoneNumber());
                 } else {
                     logger.warn("No auth data found for partner ID: {}", partnerId);
                 }
@@ -1,11 +1,19 @@
 package com.example.Grocito.Services;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,10 +27,29 @@ import com.example.Grocito.Entity.Order;
 import com.example.Grocito.Entity.OrderItem;
 import com.example.Grocito.Entity.Product;
 import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.ArchivedOrderDailyTotalRepository;
+import com.example.Grocito.Repository.ArchivedOrderItemRepository;
+import com.example.Grocito.Repository.ArchivedOrderRepository;
 import com.example.Grocito.Repository.OrderItemRepository;
 import com.example.Grocito.Repository.OrderRepository;
 import com.example.Grocito.Repository.ProductRepository;
 import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.dto.BulkStatusResult;
+import com.example.Grocito.dto.CursorPage;
+import com.example.Grocito.dto.OrderCursor;
+import com.example.Grocito.dto.OrderDayTotals;
+import com.example.Grocito.dto.OrderLineDto;
+import com.example.Grocito.dto.OrderSummaryDto;
+import com.example.Grocito.dto.PaymentHistoryRow;
+import com.example.Grocito.etag.ResourceVersions;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import com.example.Grocito.payments.PaymentSignatures;
+import com.example.Grocito.payments.RazorpayGatewayClient;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingRule;
+import com.example.Grocito.routing.ReadYourWritesTracker;
+import com.example.Grocito.statemachine.Actor;
+import com.example.Grocito.statemachine.OrderStateMachine;
 
 @Service
 public class OrderService {
@@ -34,21 +61,59 @@ public class OrderService {
     
     @Autowired
     private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+    
+    @Autowired
+    private ArchivedOrderDailyTotalRepository archivedDailyTotalRepository;
+    
+    @Autowired
+    private OrderArchiveService orderArchiveService;
 
     @Autowired
     private ProductRepository productRepository;
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private GrocitoMetrics metrics;
     
     @Autowired
     private CartService cartService;
     
     @Autowired
-    private EmailService emailService;
+    private OrderAssignmentService orderAssignmentService;
     
+    // Status changes: compare-and-set with the transition rules and hooks
     @Autowired
-    private OrderAssignmentService orderAssignmentService;
+    private OrderStateMachine orderStateMachine;
+    
+    @Autowired
+    private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private RazorpayGatewayClient razorpayGateway;
+
+    @Autowired
+    private PaymentSignatures paymentSignatures;
+    
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String GATEWAY_CURRENCY = "INR";
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     /**
      * Place an order with the provided order details
@@ -84,6 +149,7 @@ public class OrderService {
             if (product.getStock() < item.getQuantity()) {
                 logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                         product.getName(), product.getId(), product.getStock(), item.getQuantity());
+                metrics.stockConflict("checkout", product.getPincode());
                 throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                         ". Available: " + product.getStock() + ", Requested: " + item.getQuantity());
             }
@@ -109,6 +175,7 @@ public class OrderService {
         
         order.setTotalAmount(orderTotal);
         Order savedOrder = orderRepository.save(order);
+        readYourWrites.recordWrite();
         
         // Automatically assign delivery partner after order is saved
         try {
@@ -128,6 +195,11 @@ public class OrderService {
      */
     @Transactional
     public Order placeOrderFromCart(Long userId, String deliveryAddress, String paymentMethod, String paymentId, String landingPagePincode) {
+        return metrics.time(GrocitoMetrics.ORDER_PLACE, landingPagePincode,
+                () -> createOrderFromCart(userId, deliveryAddress, paymentMethod, paymentId, landingPagePincode));
+    }
+
+    private Order createOrderFromCart(Long userId, String deliveryAddress, String paymentMethod, String paymentId, String landingPagePincode) {
         logger.info("Processing order from cart for user ID: {} with landing page pincode: {}", userId, landingPagePincode);
         
         // Get user's cart
@@ -200,6 +272,7 @@ public class OrderService {
             if (product.getStock() < cartItem.getQuantity()) {
                 logger.warn("Insufficient stock for product: {} (ID: {}). Available: {}, Requested: {}", 
                         product.getName(), product.getId(), product.getStock(), cartItem.getQuantity());
+                metrics.stockConflict("checkout", product.getPincode());
                 throw new RuntimeException("Not enough stock available for product: " + product.getName() + 
                         ". Available: " + product.getStock() + ", Requested: " + cartItem.getQuantity());
             }
@@ -225,9 +298,11 @@ public class OrderService {
                     product.getName(), itemTotal, product.getPrice(), cartItem.getQuantity());
         }
         
-        // Calculate delivery fee based on order amount
-        double deliveryFee = calculateDeliveryFee(orderTotal);
-        double partnerEarning = calculatePartnerEarning(orderTotal, deliveryFee);
+        // Delivery fee and partner earning from the rules in force for the pincode
+        PricingRule pricing = pricingEngine.rule(order.getPincode(), order.getOrderTime());
+        long subtotal = PricingEngine.toPaise(orderTotal);
+        double deliveryFee = PricingEngine.toRupeesDouble(pricing.deliveryFee(subtotal));
+        double partnerEarning = PricingEngine.toRupeesDouble(pricing.partnerEarning(subtotal));
         
         order.setItems(orderItems);
         order.setDeliveryFee(deliveryFee);
@@ -245,6 +320,7 @@ public class OrderService {
         // Clear the cart after successful order
         logger.debug("Clearing cart for user ID: {}", userId);
         cartService.clearCart(userId);
+        readYourWrites.recordWrite();
         
         return savedOrder;
     }
@@ -274,7 +350,9 @@ public class OrderService {
     }
     
     /**
-     * Update order status with COD payment validation
+     * Update order status (admin). A compare-and-set through the order state machine, which also runs
+     * the COD payment check for DELIVERED, the partner stats and the receipt email. Cancelling puts the
+     * stock back the same way the bulk update does.
      */
     @Transactional
     public Order updateOrderStatus(Long orderId, String status) {
@@ -285,45 +363,14 @@ public class OrderService {
                     return new RuntimeException("Order not found with id: " + orderId);
                 });
         
-        // CRITICAL SECURITY CHECK: Prevent marking COD orders as delivered without payment collection
-        if ("DELIVERED".equals(status)) {
-            logger.debug("Validating delivery completion for order ID: {}", orderId);
-            
-            // Check if this is a COD order
-            boolean isCODOrder = "COD".equals(order.getPaymentMethod()) || order.getPaymentMethod() == null;
-            boolean isPaymentPending = "PENDING".equals(order.getPaymentStatus()) || order.getPaymentStatus() == null;
-            
-            logger.debug("Order {} - PaymentMethod: {}, PaymentStatus: {}, isCOD: {}, isPending: {}", 
-                        orderId, order.getPaymentMethod(), order.getPaymentStatus(), isCODOrder, isPaymentPending);
-            
-            if (isCODOrder && isPaymentPending) {
-                logger.warn("SECURITY VIOLATION: Attempt to mark COD order {} as delivered without payment collection", orderId);
-                throw new RuntimeException("Cannot mark COD order as delivered without collecting payment. Please collect payment first using the payment collection interface.");
-            }
-            
-            // Set delivery timestamp for successful deliveries
-            order.setDeliveredAt(LocalDateTime.now());
-            logger.info("Setting delivery timestamp for order ID: {}", orderId);
-        }
-        
         logger.debug("Changing order status from '{}' to '{}' for order ID: {}", 
                 order.getStatus(), status, orderId);
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
-        logger.info("Order status successfully updated to '{}' for order ID: {}", status, orderId);
-        
-        // CRITICAL: Send delivery receipt email only after successful delivery
-        if ("DELIVERED".equals(status)) {
-            logger.info("📧 Triggering delivery receipt email for order ID: {}", orderId);
-            try {
-                emailService.sendDeliveryReceiptEmail(updatedOrder);
-            } catch (Exception e) {
-                logger.error("Failed to send delivery receipt email for order ID: {} - {}", orderId, e.getMessage());
-                // Don't fail the delivery process if email fails
-            }
+        // Stock is only restored by the request that actually cancels the order
+        if (orderStateMachine.transition(order, status, Actor.admin()) && "CANCELLED".equals(status)) {
+            restoreStock(List.of(orderId));
         }
-        
-        return updatedOrder;
+        logger.info("Order status successfully updated to '{}' for order ID: {}", status, orderId);
+        return order;
     }
     
     /**
@@ -344,6 +391,12 @@ public class OrderService {
             throw new RuntimeException("Cannot cancel an order that has been delivered");
         }
         
+        // Stock is only restored by the request that actually cancels the order
+        if (!orderStateMachine.transition(order, "CANCELLED", Actor.customer())) {
+            logger.info("Order ID: {} was already cancelled", orderId);
+            return order;
+        }
+        
         // Restore product stock
         logger.debug("Restoring stock for {} items in cancelled order ID: {}", order.getItems().size(), orderId);
         for (OrderItem item : order.getItems()) {
@@ -354,11 +407,8 @@ public class OrderService {
             productRepository.save(product);
         }
         
-        logger.debug("Setting order status to 'CANCELLED' for order ID: {}", orderId);
-        order.setStatus("CANCELLED");
-        Order cancelledOrder = orderRepository.save(order);
         logger.info("Order successfully cancelled for order ID: {}", orderId);
-        return cancelledOrder;
+        return order;
     }
     
     /**
@@ -410,7 +460,7 @@ public class OrderService {
     /**
      * Get payment history for a user
      */
-    public List<Map<String, Object>> getPaymentHistory(Long userId) {
+    public List<PaymentHistoryRow> getPaymentHistory(Long userId) {
         logger.info("Fetching payment history for user ID: {}", userId);
         
         // Validate user exists
@@ -420,72 +470,56 @@ public class OrderService {
                     return new RuntimeException("User not found with id: " + userId);
                 });
         
-        // Get all orders for the user
-        List<Order> orders = orderRepository.findByUserIdOrderByOrderTimeDesc(userId);
-        logger.debug("Found {} orders for user ID: {}", orders.size(), userId);
-        
-        // Convert to payment history format
-        List<Map<String, Object>> paymentHistory = new ArrayList<>();
-        
-        for (Order order : orders) {
-            Map<String, Object> paymentRecord = new HashMap<>();
-            paymentRecord.put("orderId", order.getId());
-            paymentRecord.put("orderTime", order.getOrderTime());
-            paymentRecord.put("totalAmount", order.getTotalAmount());
-            paymentRecord.put("paymentMethod", order.getPaymentMethod());
-            paymentRecord.put("paymentStatus", order.getPaymentStatus());
-            paymentRecord.put("actualPaymentMethod", order.getActualPaymentMethod());
-            paymentRecord.put("paymentId", order.getPaymentId());
-            paymentRecord.put("paymentCompletedAt", order.getPaymentCompletedAt());
-            paymentRecord.put("paymentNotes", order.getPaymentNotes());
-            paymentRecord.put("orderStatus", order.getStatus());
-            
-            // Add user-friendly payment description
-            String paymentDescription = getPaymentDescription(order);
-            paymentRecord.put("paymentDescription", paymentDescription);
-            
-            paymentHistory.add(paymentRecord);
-        }
+        // Rows are projected straight from the orders table and its archive, newest first
+        List<PaymentHistoryRow> paymentHistory = withArchived(
+                orderRepository.findPaymentHistoryByUserId(userId, org.springframework.data.domain.Pageable.unpaged()),
+                Integer.MAX_VALUE, PaymentHistoryRow::orderTime, PaymentHistoryRow::orderId,
+                () -> archivedOrderRepository.findPaymentHistoryByUserId(userId, org.springframework.data.domain.Pageable.unpaged()));
         
         logger.info("Payment history retrieved successfully for user ID: {} - {} records", userId, paymentHistory.size());
         return paymentHistory;
     }
     
     /**
-     * Helper method to validate payment methods
+     * Get one page of a user's payment history. Pass the nextCursor of the previous page to continue.
      */
-    private boolean isValidPaymentMethod(String paymentMethod) {
-        return paymentMethod != null && 
-               (paymentMethod.equals("CASH") || paymentMethod.equals("UPI") || paymentMethod.equals("CARD"));
+    public CursorPage<PaymentHistoryRow> getPaymentHistoryPage(Long userId, String cursor, int limit) {
+        logger.debug("Fetching payment history page for user ID: {}, limit: {}", userId, limit);
+        int pageSize = clampHistoryLimit(limit);
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, pageSize + 1);
+        
+        List<PaymentHistoryRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = withArchived(orderRepository.findPaymentHistoryByUserId(userId, pageable), pageSize + 1,
+                    PaymentHistoryRow::orderTime, PaymentHistoryRow::orderId,
+                    () -> archivedOrderRepository.findPaymentHistoryByUserId(userId, pageable));
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            rows = withArchived(orderRepository.findPaymentHistoryByUserIdBefore(userId, position.orderTime(), position.id(), pageable),
+                    pageSize + 1, PaymentHistoryRow::orderTime, PaymentHistoryRow::orderId,
+                    () -> archivedOrderRepository.findPaymentHistoryByUserIdBefore(userId, position.orderTime(), position.id(), pageable));
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        PaymentHistoryRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String nextCursor = hasMore ? new OrderCursor(last.orderTime(), last.orderId()).encode() : null;
+        return new CursorPage<>(rows, nextCursor, hasMore);
     }
     
     /**
-     * Helper method to generate user-friendly payment descriptions
+     * Helper method to validate payment methods
      */
-    private String getPaymentDescription(Order order) {
-        if ("ONLINE".equals(order.getPaymentMethod())) {
-            return "Paid Online";
-        } else if ("COD".equals(order.getPaymentMethod())) {
-            if ("PAID".equals(order.getPaymentStatus())) {
-                String method = order.getActualPaymentMethod();
-                if ("CASH".equals(method)) {
-                    return "Paid by Cash on Delivery";
-                } else if ("UPI".equals(method)) {
-                    return "Paid by UPI on Delivery";
-                } else if ("CARD".equals(method)) {
-                    return "Paid by Card on Delivery";
-                } else {
-                    return "Paid on Delivery";
-                }
-            } else {
-                return "Cash on Delivery - Payment Pending";
-            }
-        }
-        return "Unknown Payment Method";
+    private boolean isValidPaymentMethod(String paymentMethod) {
+        return paymentMethod != null && 
+               (paymentMethod.equals("CASH") || paymentMethod.equals("UPI") || paymentMethod.equals("CARD"));
     }
     
     /**
-     * Create Razorpay order for digital payment collection
+     * Create Razorpay order for digital payment collection. The amount is the order total; an order keeps the
+     * gateway order it got first, so a repeated request returns the same one.
      */
     public Map<String, Object> createRazorpayOrder(Long orderId, Map<String, Object> request) {
         logger.info("Creating Razorpay order for order ID: {}", orderId);
@@ -501,27 +535,44 @@ public class OrderService {
             logger.warn("Razorpay order creation rejected: Order ID: {} is not a COD order", orderId);
             throw new RuntimeException("Razorpay orders can only be created for COD orders");
         }
+        if ("PAID".equals(order.getPaymentStatus())) {
+            logger.warn("Razorpay order creation rejected: Order ID: {} is already paid", orderId);
+            throw new RuntimeException("Order is already paid");
+        }
         
-        try {
-            // For now, create a mock Razorpay order response
-            // In production, you would integrate with actual Razorpay API
-            Map<String, Object> razorpayOrder = new HashMap<>();
-            razorpayOrder.put("id", "order_" + orderId + "_" + System.currentTimeMillis());
-            razorpayOrder.put("amount", ((Number) request.get("amount")).intValue());
-            razorpayOrder.put("currency", request.get("currency"));
-            razorpayOrder.put("status", "created");
-            
-            logger.info("Razorpay order created successfully for order ID: {}", orderId);
-            return razorpayOrder;
-            
-        } catch (Exception e) {
-            logger.error("Error creating Razorpay order for order ID {}: {}", orderId, e.getMessage());
-            throw new RuntimeException("Failed to create Razorpay order: " + e.getMessage());
+        long amount = PricingEngine.toPaise(order.getTotalAmount());
+        Object requestedAmount = request != null ? request.get("amount") : null;
+        if (requestedAmount instanceof Number number && number.longValue() != amount) {
+            logger.warn("Razorpay order for order ID: {} requested {} paise, using the order total of {} paise",
+                    orderId, requestedAmount, amount);
         }
+        String gatewayOrderId = order.getGatewayOrderId();
+        if (gatewayOrderId == null) {
+            // Called outside a transaction, no connection is held while the gateway answers
+            String created = razorpayGateway.createOrder(orderId, amount, GATEWAY_CURRENCY);
+            if (orderRepository.linkGatewayOrder(orderId, created) == 1) {
+                gatewayOrderId = created;
+            } else {
+                // A concurrent request linked its gateway order first, the one created here is never paid
+                gatewayOrderId = orderRepository.findGatewayOrderId(orderId);
+                logger.debug("Razorpay order {} for order ID: {} lost to {}", created, orderId, gatewayOrderId);
+            }
+        }
+        
+        Map<String, Object> razorpayOrder = new HashMap<>();
+        razorpayOrder.put("id", gatewayOrderId);
+        razorpayOrder.put("amount", amount);
+        razorpayOrder.put("currency", GATEWAY_CURRENCY);
+        razorpayOrder.put("status", "created");
+        razorpayOrder.put("key", razorpayGateway.getKeyId());
+        
+        logger.info("Razorpay order {} ready for order ID: {}", gatewayOrderId, orderId);
+        return razorpayOrder;
     }
     
     /**
-     * Verify Razorpay payment and update order status
+     * Verify the Razorpay checkout signature and mark the order paid. The payment webhook marks it paid as
+     * well; whichever comes second finds the order paid and leaves it.
      */
     @Transactional
     public Order verifyRazorpayPayment(Long orderId, Map<String, Object> request) {
@@ -539,42 +590,43 @@ public class OrderService {
             throw new RuntimeException("Payment verification can only be done for COD orders");
         }
         
-        try {
-            // Extract payment details from request
-            String razorpayOrderId = (String) request.get("razorpay_order_id");
-            String razorpayPaymentId = (String) request.get("razorpay_payment_id");
-            String razorpaySignature = (String) request.get("razorpay_signature");
-            String paymentNotes = (String) request.get("paymentNotes");
-            
-            // In production, you would verify the signature with Razorpay
-            // For now, we'll assume the payment is valid if all required fields are present
-            if (razorpayOrderId == null || razorpayPaymentId == null || razorpaySignature == null) {
-                throw new RuntimeException("Invalid payment response from Razorpay");
-            }
-            
-            // Update payment information
-            logger.debug("Updating payment details for order ID: {}", orderId);
-            order.setActualPaymentMethod("UPI"); // Default to UPI for digital payments
-            order.setPaymentStatus("PAID");
-            order.setPaymentId(razorpayPaymentId);
-            order.setPaymentCompletedAt(LocalDateTime.now());
-            
-            if (paymentNotes != null && !paymentNotes.trim().isEmpty()) {
-                order.setPaymentNotes(paymentNotes.trim());
-            } else {
-                order.setPaymentNotes("Digital payment via Razorpay - Payment ID: " + razorpayPaymentId);
-            }
-            
-            Order updatedOrder = orderRepository.save(order);
-            logger.info("Razorpay payment verified and updated successfully for order ID: {} - Payment ID: {}", 
-                       orderId, razorpayPaymentId);
-            
-            return updatedOrder;
-            
-        } catch (Exception e) {
-            logger.error("Error verifying Razorpay payment for order ID {}: {}", orderId, e.getMessage());
-            throw new RuntimeException("Payment verification failed: " + e.getMessage());
+        // Extract payment details from request
+        String razorpayOrderId = (String) request.get("razorpay_order_id");
+        String razorpayPaymentId = (String) request.get("razorpay_payment_id");
+        String razorpaySignature = (String) request.get("razorpay_signature");
+        String paymentNotes = (String) request.get("paymentNotes");
+        
+        if (razorpayOrderId == null || razorpayPaymentId == null || razorpaySignature == null) {
+            throw new RuntimeException("Payment verification failed: Invalid payment response from Razorpay");
         }
+        if (!razorpayOrderId.equals(order.getGatewayOrderId())
+                || !paymentSignatures.verifyCheckout(razorpayOrderId, razorpayPaymentId, razorpaySignature)) {
+            logger.warn("SECURITY VIOLATION: Payment verification rejected for order ID: {} - signature does not match", orderId);
+            throw new RuntimeException("Payment verification failed: Invalid payment signature");
+        }
+        
+        String notes = paymentNotes != null && !paymentNotes.trim().isEmpty()
+                ? paymentNotes.trim()
+                : "Digital payment via Razorpay - Payment ID: " + razorpayPaymentId;
+        // UPI by default, the payment webhook does not correct it once the order is paid
+        int updated = orderRepository.markGatewayPaymentPaid(orderId, razorpayOrderId, razorpayPaymentId, "UPI",
+                notes, LocalDateTime.now());
+        
+        Order updatedOrder = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        if (updated == 0 && "CANCELLED".equals(updatedOrder.getStatus())) {
+            logger.warn("Payment verification for order ID: {} - order is cancelled, payment {} to be refunded",
+                    orderId, razorpayPaymentId);
+            throw new RuntimeException("Payment verification failed: Order is cancelled");
+        }
+        if (updated == 0 && !razorpayPaymentId.equals(updatedOrder.getPaymentId())) {
+            logger.warn("Payment verification for order ID: {} - already paid by payment {}", orderId, updatedOrder.getPaymentId());
+            throw new RuntimeException("Payment verification failed: Order is already paid");
+        }
+        
+        logger.info("Razorpay payment verified and updated successfully for order ID: {} - Payment ID: {}", 
+                   orderId, razorpayPaymentId);
+        return updatedOrder;
     }
     
     /**
@@ -640,222 +692,389 @@ public class OrderService {
     /**
      * Get filtered orders with pagination
      */
-    public org.springframework.data.domain.Page<Order> getFilteredOrders(
+    public org.springframework.data.domain.Page<OrderSummaryDto> getFilteredOrders(
             int page, int size, String sortBy, String status, String pincode, 
             String search, String dateFrom, String dateTo) {
+        return metrics.time(GrocitoMetrics.ORDER_FILTER, pincode,
+                () -> findFilteredOrders(page, size, sortBy, status, pincode, search, dateFrom, dateTo));
+    }
+
+    private org.springframework.data.domain.Page<OrderSummaryDto> findFilteredOrders(
+            int page, int size, String sortBy, String status, String pincode,
+            String search, String dateFrom, String dateTo) {
         
         logger.debug("Fetching filtered orders - page: {}, size: {}, sortBy: {}, status: {}, pincode: {}, search: {}", 
                 page, size, sortBy, status, pincode, search);
         
-        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(
-                page, size, org.springframework.data.domain.Sort.by(sortBy).descending());
-        
-        // For now, return all orders with basic filtering
-        // In a real implementation, you would create custom repository methods
-        List<Order> allOrders = orderRepository.findAll();
-        
-        // Apply filters
-        java.util.stream.Stream<Order> orderStream = allOrders.stream();
-        
-        if (status != null && !status.isEmpty()) {
-            orderStream = orderStream.filter(order -> status.equals(order.getStatus()));
-        }
-        
-        if (pincode != null && !pincode.isEmpty()) {
-            orderStream = orderStream.filter(order -> pincode.equals(order.getPincode()));
-        }
-        
-        if (search != null && !search.isEmpty()) {
-            String searchLower = search.toLowerCase();
-            orderStream = orderStream.filter(order -> 
-                order.getId().toString().contains(searchLower) ||
-                (order.getUser() != null && order.getUser().getFullName() != null && 
-                 order.getUser().getFullName().toLowerCase().contains(searchLower)) ||
-                (order.getUser() != null && order.getUser().getEmail() != null && 
-                 order.getUser().getEmail().toLowerCase().contains(searchLower)) ||
-                (order.getDeliveryAddress() != null && 
-                 order.getDeliveryAddress().toLowerCase().contains(searchLower))
-            );
-        }
-        
+        LocalDateTime fromTime = null;
         if (dateFrom != null && !dateFrom.isEmpty()) {
             try {
-                java.time.LocalDate fromDate = java.time.LocalDate.parse(dateFrom);
-                orderStream = orderStream.filter(order -> 
-                    order.getOrderTime().toLocalDate().isAfter(fromDate.minusDays(1)));
+                fromTime = java.time.LocalDate.parse(dateFrom).atStartOfDay();
             } catch (Exception e) {
                 logger.warn("Invalid dateFrom format: {}", dateFrom);
             }
         }
         
+        LocalDateTime toTime = null;
         if (dateTo != null && !dateTo.isEmpty()) {
             try {
-                java.time.LocalDate toDate = java.time.LocalDate.parse(dateTo);
-                orderStream = orderStream.filter(order -> 
-                    order.getOrderTime().toLocalDate().isBefore(toDate.plusDays(1)));
+                // Inclusive end date
+                toTime = java.time.LocalDate.parse(dateTo).plusDays(1).atStartOfDay();
             } catch (Exception e) {
                 logger.warn("Invalid dateTo format: {}", dateTo);
             }
         }
         
-        List<Order> filteredOrders = orderStream.collect(java.util.stream.Collectors.toList());
+        // '!' is the LIKE escape character of ORDER_SUMMARY_FILTER, so % and _ in the input match literally
+        String searchPattern = (search != null && !search.isEmpty())
+                ? "%" + search.toLowerCase().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%" : null;
         
-        // Sort orders
-        if ("orderTime".equals(sortBy)) {
-            filteredOrders.sort((a, b) -> b.getOrderTime().compareTo(a.getOrderTime()));
-        } else if ("totalAmount".equals(sortBy)) {
-            filteredOrders.sort((a, b) -> Double.compare(b.getTotalAmount(), a.getTotalAmount()));
+        org.springframework.data.domain.Page<OrderSummaryDto> summaries = orderRepository.findOrderSummaries(
+                emptyToNull(status), emptyToNull(pincode), fromTime, toTime, searchPattern,
+                orderSummaryPage(page, size, sortBy));
+        attachItems(summaries.getContent());
+        return summaries;
+    }
+    
+    /**
+     * Get a page of order summaries for a pincode (regional admins)
+     */
+    public org.springframework.data.domain.Page<OrderSummaryDto> getOrderSummariesByPincode(
+            String pincode, int page, int size, String sortBy) {
+        logger.debug("Fetching order summaries for pincode: {} - page: {}, size: {}", pincode, page, size);
+        org.springframework.data.domain.Page<OrderSummaryDto> summaries = orderRepository.findOrderSummaries(
+                null, pincode, null, null, null, orderSummaryPage(page, size, sortBy));
+        attachItems(summaries.getContent());
+        return summaries;
+    }
+    
+    /**
+     * Get order summaries for a user, newest first
+     */
+    public List<OrderSummaryDto> getOrderSummariesByUser(Long userId) {
+        logger.info("Retrieving order summaries for user ID: {}", userId);
+        List<OrderSummaryDto> summaries = withArchived(orderRepository.findOrderSummariesByUserId(userId),
+                Integer.MAX_VALUE, OrderSummaryDto::orderTime, OrderSummaryDto::id,
+                () -> archivedOrderRepository.findOrderSummariesByUserId(userId, org.springframework.data.domain.Pageable.unpaged()));
+        attachItems(summaries);
+        logger.debug("Found {} orders for user ID: {}", summaries.size(), userId);
+        return summaries;
+    }
+    
+    /**
+     * Get one page of a user's orders, newest first. Pass the nextCursor of the previous page to continue.
+     */
+    public CursorPage<OrderSummaryDto> getOrdersByUserPage(Long userId, String cursor, int limit) {
+        logger.debug("Fetching order page for user ID: {}, limit: {}", userId, limit);
+        int pageSize = clampHistoryLimit(limit);
+        // One extra row tells whether another page exists without a count query
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, pageSize + 1);
+        
+        List<OrderSummaryDto> summaries;
+        if (cursor == null || cursor.isEmpty()) {
+            summaries = withArchived(orderRepository.findOrderSummariesByUserIdFirstPage(userId, pageable), pageSize + 1,
+                    OrderSummaryDto::orderTime, OrderSummaryDto::id,
+                    () -> archivedOrderRepository.findOrderSummariesByUserId(userId, pageable));
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            summaries = withArchived(orderRepository.findOrderSummariesByUserIdBefore(userId, position.orderTime(), position.id(), pageable),
+                    pageSize + 1, OrderSummaryDto::orderTime, OrderSummaryDto::id,
+                    () -> archivedOrderRepository.findOrderSummariesByUserIdBefore(userId, position.orderTime(), position.id(), pageable));
         }
         
-        // Create page
-        int start = page * size;
-        int end = Math.min(start + size, filteredOrders.size());
-        List<Order> pageContent = start < filteredOrders.size() ? 
-                filteredOrders.subList(start, end) : new ArrayList<>();
-        
-        return new org.springframework.data.domain.PageImpl<>(
-                pageContent, pageable, filteredOrders.size());
+        boolean hasMore = summaries.size() > pageSize;
+        if (hasMore) {
+            summaries = summaries.subList(0, pageSize);
+        }
+        attachItems(summaries);
+        OrderSummaryDto last = summaries.isEmpty() ? null : summaries.get(summaries.size() - 1);
+        String nextCursor = hasMore ? new OrderCursor(last.orderTime(), last.id()).encode() : null;
+        return new CursorPage<>(summaries, nextCursor, hasMore);
     }
     
     /**
-     * Get order analytics
+     * Write all orders as a JSON array, reading them in id-ordered chunks so the
+     * full result set is never held in memory (admin export)
      */
-    public Map<String, Object> getOrderAnalytics(String pincode, String dateFrom, String dateTo) {
-        logger.debug("Calculating order analytics for pincode: {}", pincode);
-        
-        List<Order> orders = pincode != null ? getOrdersByPincode(pincode) : getAllOrders();
-        
-        // Apply date filtering
-        if (dateFrom != null || dateTo != null) {
-            orders = orders.stream().filter(order -> {
-                java.time.LocalDate orderDate = order.getOrderTime().toLocalDate();
-                
-                if (dateFrom != null) {
-                    try {
-                        java.time.LocalDate fromDate = java.time.LocalDate.parse(dateFrom);
-                        if (orderDate.isBefore(fromDate)) return false;
-                    } catch (Exception e) {
-                        logger.warn("Invalid dateFrom format: {}", dateFrom);
-                    }
-                }
-                
-                if (dateTo != null) {
-                    try {
-                        java.time.LocalDate toDate = java.time.LocalDate.parse(dateTo);
-                        if (orderDate.isAfter(toDate)) return false;
-                    } catch (Exception e) {
-                        logger.warn("Invalid dateTo format: {}", dateTo);
-                    }
-                }
-                
-                return true;
-            }).collect(java.util.stream.Collectors.toList());
+    public void writeAllOrderSummaries(java.io.OutputStream outputStream) throws java.io.IOException {
+        logger.info("Streaming all orders (admin function)");
+        long written = 0;
+        org.springframework.data.domain.Pageable chunkPage = org.springframework.data.domain.PageRequest.of(0, EXPORT_CHUNK_SIZE);
+        
+        try (com.fasterxml.jackson.core.JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            written += writeOrderSummaries(generator, afterId -> orderRepository.findOrderSummariesAfter(afterId, chunkPage));
+            written += writeOrderSummaries(generator, afterId -> archivedOrderRepository.findOrderSummariesAfter(afterId, chunkPage));
+            generator.writeEndArray();
+        }
+        logger.debug("Streamed {} orders", written);
+    }
+    
+    private long writeOrderSummaries(com.fasterxml.jackson.core.JsonGenerator generator,
+                                     Function<Long, List<OrderSummaryDto>> chunkAfter) throws java.io.IOException {
+        long written = 0;
+        Long afterId = 0L;
+        List<OrderSummaryDto> chunk;
+        do {
+            chunk = chunkAfter.apply(afterId);
+            attachItems(chunk);
+            for (OrderSummaryDto summary : chunk) {
+                objectMapper.writeValue(generator, summary);
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).id();
+                written += chunk.size();
+            }
+            generator.flush();
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+        return written;
+    }
+    
+    private org.springframework.data.domain.Pageable orderSummaryPage(int page, int size, String sortBy) {
+        // Only indexed, known properties may be used for sorting; id keeps the order stable across pages
+        String sortProperty = "totalAmount".equals(sortBy) ? "totalAmount" : "orderTime";
+        return org.springframework.data.domain.PageRequest.of(page, size,
+                org.springframework.data.domain.Sort.by(sortProperty).descending()
+                        .and(org.springframework.data.domain.Sort.by("id").descending()));
+    }
+    
+    // Load the items of all given orders with a single query
+    private void attachItems(List<OrderSummaryDto> summaries) {
+        if (summaries.isEmpty()) {
+            return;
         }
         
-        Map<String, Object> analytics = new HashMap<>();
-        
-        // Basic metrics
-        analytics.put("totalOrders", orders.size());
-        analytics.put("totalRevenue", orders.stream().mapToDouble(Order::getTotalAmount).sum());
-        analytics.put("averageOrderValue", orders.isEmpty() ? 0 : 
-                orders.stream().mapToDouble(Order::getTotalAmount).average().orElse(0));
-        
-        // Status distribution
-        Map<String, Long> statusDistribution = orders.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                    Order::getStatus, 
-                    java.util.stream.Collectors.counting()
-                ));
-        analytics.put("statusDistribution", statusDistribution);
-        
-        // Time-based metrics
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate weekAgo = today.minusDays(7);
-        java.time.LocalDate monthAgo = today.minusMonths(1);
+        Map<Long, OrderSummaryDto> summariesById = new HashMap<>();
+        for (OrderSummaryDto summary : summaries) {
+            summariesById.put(summary.id(), summary);
+        }
         
-        analytics.put("todayOrders", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().equals(today))
-                .count());
+        addLines(summariesById, orderItemRepository.findLinesByOrderIds(summariesById.keySet()));
         
-        analytics.put("weekOrders", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(weekAgo))
-                .count());
+        // Items of archived orders were moved along with them
+        List<Long> archivable = summaries.stream()
+                .filter(summary -> orderArchiveService.mayBeArchived(summary.orderTime()))
+                .map(OrderSummaryDto::id)
+                .toList();
+        if (!archivable.isEmpty()) {
+            addLines(summariesById, archivedOrderItemRepository.findLinesByOrderIds(archivable));
+        }
+    }
+    
+    private void addLines(Map<Long, OrderSummaryDto> summariesById, List<OrderLineDto> lines) {
+        for (OrderLineDto line : lines) {
+            OrderSummaryDto summary = summariesById.get(line.orderId());
+            if (summary != null) {
+                summary.items().add(line);
+            }
+        }
+    }
+    
+    /**
+     * Merge the archived rows of a history read into the hot rows, newest first, at most limit rows.
+     * The hot rows are read first, so an order archived in between is found in the archive instead of
+     * being missed (and kept once if it shows up in both).
+     */
+    private <T> List<T> withArchived(List<T> hot, int limit, Function<T, LocalDateTime> orderTime, Function<T, Long> id,
+                                     Supplier<List<T>> archived) {
+        // Archived orders are older than the cutoff, so they cannot make it into a full page of newer hot rows
+        if (hot.size() >= limit && !orderArchiveService.mayBeArchived(orderTime.apply(hot.get(hot.size() - 1)))) {
+            return hot;
+        }
+        List<T> archivedRows = archived.get();
+        if (archivedRows.isEmpty()) {
+            return hot;
+        }
         
-        analytics.put("monthOrders", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(monthAgo))
-                .count());
+        Map<Long, T> rowsById = new LinkedHashMap<>();
+        for (T row : hot) {
+            rowsById.put(id.apply(row), row);
+        }
+        for (T row : archivedRows) {
+            rowsById.putIfAbsent(id.apply(row), row);
+        }
+        List<T> rows = new ArrayList<>(rowsById.values());
+        rows.sort(Comparator.comparing(orderTime, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(id, Comparator.reverseOrder()));
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+    
+    private int clampHistoryLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+    }
+    
+    private String emptyToNull(String value) {
+        return (value == null || value.isEmpty()) ? null : value;
+    }
+    
+    /**
+     * Get order analytics, rolled up from per-day totals of the hot orders and the archive
+     * (dateFrom and dateTo are inclusive ISO dates)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getOrderAnalytics(String pincode, String dateFrom, String dateTo) {
+        logger.debug("Calculating order analytics for pincode: {}", pincode);
         
-        // Revenue metrics
-        analytics.put("todayRevenue", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().equals(today))
-                .mapToDouble(Order::getTotalAmount).sum());
+        LocalDate fromDate = parseDate(dateFrom, "dateFrom");
+        LocalDate toDate = parseDate(dateTo, "dateTo");
+        List<OrderDayTotals> days = getOrderDayTotals(pincode, fromDate, toDate != null ? toDate.plusDays(1) : null);
         
-        analytics.put("weekRevenue", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(weekAgo))
-                .mapToDouble(Order::getTotalAmount).sum());
+        LocalDate today = LocalDate.now();
+        LocalDate weekAgo = today.minusDays(7);
+        LocalDate monthAgo = today.minusMonths(1);
         
-        analytics.put("monthRevenue", orders.stream()
-                .filter(order -> order.getOrderTime().toLocalDate().isAfter(monthAgo))
-                .mapToDouble(Order::getTotalAmount).sum());
+        Map<String, Long> statusDistribution = new LinkedHashMap<>();
+        for (String status : List.of("PLACED", "PACKED", "ASSIGNED", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED")) {
+            statusDistribution.put(status, 0L);
+        }
+        Map<LocalDate, double[]> lastWeek = new HashMap<>();
+        long totalOrders = 0, todayOrders = 0, weekOrders = 0, monthOrders = 0;
+        double totalRevenue = 0, todayRevenue = 0, weekRevenue = 0, monthRevenue = 0;
+        
+        for (OrderDayTotals day : days) {
+            // Cancelled orders count as orders but not as revenue
+            double revenue = "CANCELLED".equals(day.status()) ? 0 : day.revenue();
+            statusDistribution.computeIfPresent(day.status() != null ? day.status() : "", (status, count) -> count + day.orders());
+            totalOrders += day.orders();
+            totalRevenue += revenue;
+            if (day.day() == null) {
+                continue;
+            }
+            if (day.day().equals(today)) {
+                todayOrders += day.orders();
+                todayRevenue += revenue;
+            }
+            if (!day.day().isBefore(weekAgo)) {
+                weekOrders += day.orders();
+                weekRevenue += revenue;
+            }
+            if (!day.day().isBefore(monthAgo)) {
+                monthOrders += day.orders();
+                monthRevenue += revenue;
+            }
+            double[] trend = lastWeek.computeIfAbsent(day.day(), date -> new double[2]);
+            trend[0] += day.orders();
+            trend[1] += revenue;
+        }
         
-        analytics.put("pincode", pincode != null ? pincode : "All Regions");
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalOrders", totalOrders);
+        analytics.put("statusDistribution", statusDistribution);
+        analytics.put("totalRevenue", totalRevenue);
+        analytics.put("averageOrderValue", totalOrders == 0 ? 0 : totalRevenue / totalOrders);
+        analytics.put("todayOrders", todayOrders);
+        analytics.put("todayRevenue", todayRevenue);
+        analytics.put("weekOrders", weekOrders);
+        analytics.put("weekRevenue", weekRevenue);
+        analytics.put("monthOrders", monthOrders);
+        analytics.put("monthRevenue", monthRevenue);
         
         // Daily trends (last 7 days)
         List<Map<String, Object>> dailyTrends = new ArrayList<>();
         for (int i = 6; i >= 0; i--) {
-            java.time.LocalDate date = today.minusDays(i);
-            List<Order> dayOrders = orders.stream()
-                    .filter(order -> order.getOrderTime().toLocalDate().equals(date))
-                    .collect(java.util.stream.Collectors.toList());
-            
+            LocalDate date = today.minusDays(i);
+            double[] trend = lastWeek.getOrDefault(date, new double[2]);
             Map<String, Object> dayData = new HashMap<>();
             dayData.put("date", date.toString());
-            dayData.put("orders", dayOrders.size());
-            dayData.put("revenue", dayOrders.stream().mapToDouble(Order::getTotalAmount).sum());
+            dayData.put("orders", (long) trend[0]);
+            dayData.put("revenue", trend[1]);
             dailyTrends.add(dayData);
         }
         analytics.put("dailyTrends", dailyTrends);
         
-        logger.debug("Analytics calculated for {} orders", orders.size());
+        // Recent orders are always in the hot table
+        analytics.put("recentOrders", pincode != null
+                ? orderRepository.findTop10ByPincodeOrderByOrderTimeDesc(pincode)
+                : orderRepository.findTop10ByOrderByOrderTimeDesc());
+        
+        logger.debug("Analytics calculated for {} orders", totalOrders);
         return analytics;
     }
     
     /**
-     * Bulk update order status with role-based access control
+     * Orders and revenue per day and status, hot and archived orders together.
+     * Null bounds are open, toDate is exclusive.
+     */
+    public List<OrderDayTotals> getOrderDayTotals(String pincode, LocalDate fromDate, LocalDate toDate) {
+        List<OrderDayTotals> totals = new ArrayList<>(orderRepository.getDayTotals(pincode,
+                fromDate != null ? fromDate.atStartOfDay() : null, toDate != null ? toDate.atStartOfDay() : null));
+        // Nothing placed after the archive cutoff has been archived
+        if (fromDate == null || orderArchiveService.mayBeArchived(fromDate.atStartOfDay())) {
+            totals.addAll(archivedDailyTotalRepository.getDayTotals(pincode, fromDate, toDate));
+        }
+        return totals;
+    }
+    
+    private LocalDate parseDate(String date, String name) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (java.time.format.DateTimeParseException e) {
+            logger.warn("Invalid {} format: {}", name, date);
+            return null;
+        }
+    }
+    
+    /**
+     * Bulk update order status with role-based access control. Set-based, whatever the batch size: one
+     * access check query, one locking read and one UPDATE for the permitted orders, and for cancellations one
+     * stock restore. An order that cannot be changed no longer fails the batch, every id gets its own result.
      */
     @Transactional
-    public List<Order> bulkUpdateStatus(List<Long> orderIds, String status, String userRole, String userPincode) {
+    public List<BulkStatusResult> bulkUpdateStatus(List<Long> orderIds, String status, String userRole, String userPincode) {
         logger.info("Processing bulk status update for {} orders to status: {} by {} admin", 
                    orderIds.size(), status, userRole);
         
-        List<Order> updatedOrders = new ArrayList<>();
+        Set<Long> ids = new LinkedHashSet<>(orderIds);
+        ids.remove(null);
         
-        for (Long orderId : orderIds) {
-            try {
-                Order order = orderRepository.findById(orderId)
-                        .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
-                
-                // Check access permissions
-                if ("ADMIN".equals(userRole) && !userPincode.equals(order.getPincode())) {
-                    logger.warn("Regional admin {} attempted to update unauthorized order ID: {} (pincode: {})", 
-                               userPincode, orderId, order.getPincode());
-                    throw new RuntimeException("Access denied for order ID " + orderId + 
-                            ". You can only update orders from your assigned region.");
-                }
-                
-                order.setStatus(status);
-                Order updatedOrder = orderRepository.save(order);
-                updatedOrders.add(updatedOrder);
-                
-                logger.debug("Updated order {} to status: {}", orderId, status);
-            } catch (Exception e) {
-                logger.error("Error updating order ID {}: {}", orderId, e.getMessage());
-                throw new RuntimeException("Failed to update order ID " + orderId + ": " + e.getMessage());
+        // Regional admins can only update orders from their own pincode
+        Set<Long> denied = new HashSet<>();
+        if ("ADMIN".equals(userRole)) {
+            denied.addAll(userPincode != null ? orderRepository.findIdsOutsidePincode(ids, userPincode) : ids);
+            if (!denied.isEmpty()) {
+                logger.warn("Regional admin {} attempted to update {} orders outside their region", userPincode, denied.size());
+            }
+        }
+        List<Long> permitted = ids.stream().filter(id -> !denied.contains(id)).toList();
+        
+        Map<Long, BulkStatusResult> results = new HashMap<>();
+        if (!permitted.isEmpty()) {
+            for (BulkStatusResult result : orderStateMachine.transitionAll(permitted, status, Actor.admin())) {
+                results.put(result.orderId(), result);
             }
         }
         
-        logger.info("Successfully updated {} orders to status: {}", updatedOrders.size(), status);
-        return updatedOrders;
+        if ("CANCELLED".equals(status)) {
+            List<Long> cancelled = permitted.stream()
+                    .filter(id -> results.get(id).result() == BulkStatusResult.Result.UPDATED)
+                    .toList();
+            restoreStock(cancelled);
+        }
+        
+        long updated = results.values().stream().filter(result -> result.result() == BulkStatusResult.Result.UPDATED).count();
+        logger.info("Bulk status update to {}: {} of {} orders updated", status, updated, ids.size());
+        return ids.stream()
+                .map(id -> denied.contains(id) ? BulkStatusResult.accessDenied(id) : results.get(id))
+                .toList();
+    }
+    
+    /**
+     * Put the items of cancelled orders back in stock, summed per product
+     */
+    private void restoreStock(List<Long> cancelledOrderIds) {
+        if (cancelledOrderIds.isEmpty()) {
+            return;
+        }
+        // The bulk UPDATE bypasses the catalog version listener
+        List<String> pincodes = productRepository.findPincodesOfOrders(cancelledOrderIds);
+        int products = productRepository.restoreStockOfOrders(cancelledOrderIds);
+        List<String> changed = new ArrayList<>(List.of(ResourceVersions.PRODUCTS));
+        pincodes.forEach(pincode -> changed.add(ResourceVersions.products(pincode)));
+        resourceVersions.bump(changed.toArray(String[]::new));
+        logger.debug("Restored stock of {} products for {} cancelled orders", products, cancelledOrderIds.size());
     }    
  
    /**
@@ -1068,40 +1287,4 @@ public class OrderService {
             return days + " day" + (days == 1 ? "" : "s") + " ago";
         }
     }
-    
-    /**
-     * Calculate delivery fee based on order amount
-     * Policy: Free delivery for orders >= ₹199, otherwise ₹40
-     */
-    private double calculateDeliveryFee(double orderAmount) {
-        final double FREE_DELIVERY_THRESHOLD = 199.0;
-        final double DELIVERY_FEE = 40.0;
-        
-        if (orderAmount >= FREE_DELIVERY_THRESHOLD) {
-            logger.debug("Free delivery applied for order amount: ₹{}", orderAmount);
-            return 0.0;
-        } else {
-            logger.debug("Delivery fee of ₹{} applied for order amount: ₹{}", DELIVERY_FEE, orderAmount);
-            return DELIVERY_FEE;
-        }
-    }
-    
-    /**
-     * Calculate partner earning based on order amount and delivery fee
-     * Policy: ₹25 for free delivery orders, ₹30 for paid delivery orders
-     */
-    private double calculatePartnerEarning(double orderAmount, double deliveryFee) {
-        final double FREE_DELIVERY_PARTNER_EARNING = 25.0;
-        final double PAID_DELIVERY_PARTNER_EARNING = 30.0;
-        
-        if (deliveryFee == 0.0) {
-            // Free delivery - partner gets ₹25 from Grocito
-            logger.debug("Partner earning for free delivery: ₹{}", FREE_DELIVERY_PARTNER_EARNING);
-            return FREE_DELIVERY_PARTNER_EARNING;
-        } else {
-            // Paid delivery - partner gets ₹30 from ₹40 delivery fee
-            logger.debug("Partner earning for paid delivery: ₹{}", PAID_DELIVERY_PARTNER_EARNING);
-            return PAID_DELIVERY_PARTNER_EARNING;
-        }
-    }
 }
@@ -0,0 +1,159 @@
+package com.example.Grocito.Services;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Repository.PartnerDailyStatsRepository;
+import com.example.Grocito.readmodel.PartnerLeaderboards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-partner daily delivery counters so dashboards read
+ * pre-aggregated totals instead of counting and summing the orders table.
+ */
+@Service
+public class PartnerStatsService {
+    private final Logger logger = LoggerFactory.getLogger(PartnerStatsService.class);
+
+    // Width of the "this week" window in days, today included
+    private static final int WEEK_WINDOW_DAYS = 7;
+
+    @Autowired
+    private PartnerDailyStatsRepository statsRepository;
+
+    @Autowired
+    private PartnerLeaderboards leaderboards;
+
+    /**
+     * Record a completed delivery. Must be called exactly once per order, when it moves to DELIVERED.
+     */
+    @Transactional
+    public void recordDelivery(Order order) {
+        if (order.getDeliveryPartner() == null) {
+            logger.debug("Order {} delivered without a partner, skipping stats update", order.getId());
+            return;
+        }
+
+        Long partnerId = order.getDeliveryPartner().getId();
+
+        statsRepository.incrementDelivery(partnerId, statDate(order), order.getPartnerEarning());
+        leaderboards.recordDelivery(partnerId, order.getPincode(), order.getPartnerEarning());
+        logger.debug("Recorded delivery of order {} for partner {} (₹{})", order.getId(), partnerId, order.getPartnerEarning());
+    }
+
+    /**
+     * Day a delivery is counted on: the delivery time, else the order time for rows delivered without
+     * one. rebuildFromOrders applies the same rule, so a rebuild reproduces the incremental counters.
+     */
+    static LocalDate statDate(Order order) {
+        LocalDateTime at = order.getDeliveredAt() != null ? order.getDeliveredAt()
+                : order.getOrderTime() != null ? order.getOrderTime() : LocalDateTime.now();
+        return at.toLocalDate();
+    }
+
+    /**
+     * Get aggregated totals for a single partner
+     */
+    public PartnerTotals getPartnerTotals(Long partnerId) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = statsRepository.getPartnerTotals(partnerId, today,
+                weekStart(today), today.withDayOfMonth(1));
+
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return new PartnerTotals();
+        }
+        return PartnerTotals.fromRow(rows.get(0), 0);
+    }
+
+    /**
+     * Get aggregated totals for every partner with at least one delivery, keyed by partner id
+     */
+    public Map<Long, PartnerTotals> getAllPartnerTotals() {
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = statsRepository.getAllPartnerTotals(today,
+                weekStart(today), today.withDayOfMonth(1));
+
+        Map<Long, PartnerTotals> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            totals.put(((Number) row[0]).longValue(), PartnerTotals.fromRow(row, 1));
+        }
+        return totals;
+    }
+
+    // First day of the week window: today and the six days before it
+    static LocalDate weekStart(LocalDate today) {
+        return today.minusDays(WEEK_WINDOW_DAYS - 1);
+    }
+
+    /**
+     * Backfill the counters from historical orders the first time the application starts with an empty table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        try {
+            if (statsRepository.count() > 0) {
+                return;
+            }
+            int rows = statsRepository.rebuildFromOrders();
+            logger.info("Backfilled partner daily stats from delivered orders ({} rows)", rows);
+        } catch (Exception e) {
+            logger.error("Failed to backfill partner daily stats: {}", e.getMessage());
+        }
+    }
+
+    // Result holder for aggregated partner counters
+    public static class PartnerTotals {
+        private long totalDeliveries;
+        private double totalEarnings;
+        private long todayDeliveries;
+        private double todayEarnings;
+        private long weekDeliveries;
+        private double weekEarnings;
+        private long monthDeliveries;
+        private double monthEarnings;
+
+        public PartnerTotals() {}
+
+        static PartnerTotals fromRow(Object[] row, int offset) {
+            PartnerTotals totals = new PartnerTotals();
+            totals.totalDeliveries = toLong(row[offset]);
+            totals.totalEarnings = toDouble(row[offset + 1]);
+            totals.todayDeliveries = toLong(row[offset + 2]);
+            totals.todayEarnings = toDouble(row[offset + 3]);
+            totals.weekDeliveries = toLong(row[offset + 4]);
+            totals.weekEarnings = toDouble(row[offset + 5]);
+            totals.monthDeliveries = toLong(row[offset + 6]);
+            totals.monthEarnings = toDouble(row[offset + 7]);
+            return totals;
+        }
+
+        private static long toLong(Object value) {
+            return value != null ? ((Number) value).longValue() : 0L;
+        }
+
+        private static double toDouble(Object value) {
+            return value != null ? ((Number) value).doubleValue() : 0.0;
+        }
+
+        // Getters
+        public long getTotalDeliveries() { return totalDeliveries; }
+        public double getTotalEarnings() { return totalEarnings; }
+        public long getTodayDeliveries() { return todayDeliveries; }
+        public double getTodayEarnings() { return todayEarnings; }
+        public long getWeekDeliveries() { return weekDeliveries; }
+        public double getWeekEarnings() { return weekEarnings; }
+        public long getMonthDeliveries() { return monthDeliveries; }
+        public double getMonthEarnings() { return monthEarnings; }
+    }
+}
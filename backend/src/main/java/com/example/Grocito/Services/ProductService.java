@@ -10,10 +10,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.Grocito.config.LoggerConfig;
 import com.example.Grocito.Entity.Product;
 import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.etag.ResourceVersions;
+import com.example.Grocito.metrics.GrocitoMetrics;
 
 @Service
 public class ProductService {
@@ -26,7 +29,14 @@ public class ProductService {
     @Autowired
     private LocationService locationService;
 
+    @Autowired
+    private GrocitoMetrics metrics;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     // Get products by pincode
+    @Transactional(readOnly = true)
     public List<Product> getProductsByPincode(String pincode) {
         logger.debug("Fetching products for pincode: {}", pincode);
         List<Product> products = productRepo.findByPincode(pincode);
@@ -35,6 +45,7 @@ public class ProductService {
     }
     
     // Get all products
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         logger.debug("Fetching all products");
         List<Product> products = productRepo.findAll();
@@ -66,6 +77,8 @@ public class ProductService {
     public Product updateProduct(Product product) {
         logger.info("Updating product with ID: {}", product.getId());
         Product updatedProduct = productRepo.save(product);
+        // The entity listener only sees the new pincode; an edit may have moved the product out of another one
+        resourceVersions.bumpAll(ResourceVersions.PRODUCTS);
         logger.info("Product updated successfully: {} (ID: {})", updatedProduct.getName(), updatedProduct.getId());
         return updatedProduct;
     }
@@ -78,6 +91,7 @@ public class ProductService {
     }
     
     // Get products by category
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
         logger.debug("Fetching products for category: {}", category);
         List<Product> products = productRepo.findByCategory(category);
@@ -86,6 +100,7 @@ public class ProductService {
     }
     
     // Get products by category and pincode
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategoryAndPincode(String category, String pincode) {
         logger.debug("Fetching products for category: {} and pincode: {}", category, pincode);
         List<Product> products = productRepo.findByCategoryAndPincode(category, pincode);
@@ -94,6 +109,7 @@ public class ProductService {
     }
     
     // Get paginated products by pincode
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByPincode(String pincode, int page, int size, String sortBy) {
         logger.debug("Fetching paginated products for pincode: {}, page: {}, size: {}, sortBy: {}", pincode, page, size, sortBy);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
@@ -107,6 +123,7 @@ public class ProductService {
     }
     
     // Get paginated products by category
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(String category, int page, int size, String sortBy) {
         logger.debug("Fetching paginated products for category: {}, page: {}, size: {}, sortBy: {}", category, page, size, sortBy);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
@@ -114,19 +131,22 @@ public class ProductService {
     }
     
     // Get paginated products by category and pincode
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByCategoryAndPincode(String category, String pincode, int page, int size, String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
         return productRepo.findByCategoryAndPincode(category, pincode, pageable);
     }
     
     // Search products by keyword
+    @Transactional(readOnly = true)
     public List<Product> searchProducts(String keyword) {
-        return productRepo.searchProducts(keyword);
+        return metrics.time(GrocitoMetrics.PRODUCT_SEARCH, () -> productRepo.searchProducts(keyword));
     }
     
     // Search products by keyword and pincode
+    @Transactional(readOnly = true)
     public List<Product> searchProductsByPincode(String keyword, String pincode) {
-        return productRepo.searchProductsByPincode(keyword, pincode);
+        return metrics.time(GrocitoMetrics.PRODUCT_SEARCH, pincode, () -> productRepo.searchProductsByPincode(keyword, pincode));
     }
     
     // Update product stock
@@ -138,6 +158,7 @@ public class ProductService {
     }
     
     // Get filtered products with pagination
+    @Transactional(readOnly = true)
     public Page<Product> getFilteredProducts(int page, int size, String sortBy, String category, String pincode, String search) {
         logger.debug("Fetching filtered products - page: {}, size: {}, sortBy: {}, category: {}, pincode: {}, search: {}", 
                 page, size, sortBy, category, pincode, search);
@@ -195,6 +216,7 @@ public class ProductService {
     }
     
     // Get product analytics
+    @Transactional(readOnly = true)
     public java.util.Map<String, Object> getProductAnalytics() {
         logger.debug("Calculating product analytics");
         List<Product> allProducts = productRepo.findAll();
@@ -9,6 +9,11 @@ import java.util.Random;
 
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
@@ -19,8 +24,12 @@ import com.example.Grocito.Entity.User;
 import com.example.Grocito.Entity.Cart;
 import com.example.Grocito.Entity.Notification;
 import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.Repository.UserRoleCountRepository;
+import com.example.Grocito.Repository.UserSpecifications;
 import com.example.Grocito.Repository.CartRepository;
 import com.example.Grocito.Repository.NotificationRepository;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.security.AuthTokenService;
 
 @Service
 public class UserService {
@@ -29,10 +38,16 @@ public class UserService {
 
     @Autowired
     private UserRepository userRepo;
+
+    @Autowired
+    private UserRoleCountRepository userRoleCountRepo;
     
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private AuthTokenService authTokenService;
+    
     @Autowired
     private CartRepository cartRepo;
     
@@ -72,6 +87,11 @@ public class UserService {
         
         if (user.isPresent()) {
             logger.info("User logged in successfully: {}", email);
+            // Drives the active/inactive filter of the admin user directory
+            LocalDate today = LocalDate.now();
+            if (!today.equals(user.get().getLastLogin()) && userRepo.recordLogin(user.get().getId(), today) > 0) {
+                user.get().setLastLogin(today);
+            }
         } else {
             logger.warn("Login failed for user: {}", email);
         }
@@ -132,7 +152,12 @@ public class UserService {
         
         if (updatedUser.getPincode() != null) {
             logger.debug("Updating pincode for user: {}", existingUser.getEmail());
-            existingUser.setPincode(updatedUser.getPincode().trim());
+            String newPincode = updatedUser.getPincode().trim();
+            // Admin tokens carry the pincode scope, so force a fresh token when it changes
+            if ("ADMIN".equals(existingUser.getRole()) && !newPincode.equals(existingUser.getPincode())) {
+                authTokenService.revoke(AuthPrincipal.TYPE_USER, userId);
+            }
+            existingUser.setPincode(newPincode);
         }
         
         if (updatedUser.getContactNumber() != null) {
@@ -211,7 +236,11 @@ public class UserService {
         }
         
         user.setRole(newRole);
-        return userRepo.save(user);
+        User savedUser = userRepo.save(user);
+        
+        // Tokens carry the role, so previously issued ones are no longer valid
+        authTokenService.revoke(AuthPrincipal.TYPE_USER, userId);
+        return savedUser;
     }
     
     // Get all users (admin function)
@@ -220,97 +249,65 @@ public class UserService {
     }
     
     // Get all users with pagination and filtering
+    @Transactional(readOnly = true)
     public Map<String, Object> getAllUsersWithFilters(int page, int limit, String search, String role, String status, String pincode) {
         logger.info("Fetching users with filters - page: {}, limit: {}, search: {}, role: {}, status: {}, pincode: {}", 
                    page, limit, search, role, status, pincode);
         
-        // Get all users first
-        List<User> allUsers = userRepo.findAll();
-        logger.debug("Total users found: {}", allUsers.size());
-        
-        // Apply filters
-        List<User> filteredUsers = allUsers;
-        
-        // Filter by search term (name or email)
-        if (search != null && !search.trim().isEmpty()) {
-            String searchTerm = search.trim().toLowerCase();
-            filteredUsers = filteredUsers.stream()
-                .filter(user -> 
-                    (user.getFullName() != null && user.getFullName().toLowerCase().contains(searchTerm)) ||
-                    (user.getEmail() != null && user.getEmail().toLowerCase().contains(searchTerm))
-                )
-                .collect(java.util.stream.Collectors.toList());
-            logger.debug("After search filter: {} users", filteredUsers.size());
-        }
-        
-        // Filter by role
-        if (role != null && !role.trim().isEmpty()) {
-            filteredUsers = filteredUsers.stream()
-                .filter(user -> role.equals(user.getRole()))
-                .collect(java.util.stream.Collectors.toList());
-            logger.debug("After role filter: {} users", filteredUsers.size());
-        }
-        
-        // Filter by status (active/inactive based on last login)
-        if (status != null && !status.trim().isEmpty()) {
-            boolean isActive = "active".equalsIgnoreCase(status);
-            LocalDate threeMonthsAgo = LocalDate.now().minusMonths(3);
-            
-            filteredUsers = filteredUsers.stream()
-                .filter(user -> {
-                    // Consider a user active if they've registered or logged in within the last 3 months
-                    LocalDate lastActivity = user.getLastLogin() != null ? 
-                        user.getLastLogin() : user.getRegisteredDate();
-                    boolean userIsActive = lastActivity.isAfter(threeMonthsAgo);
-                    return userIsActive == isActive;
-                })
-                .collect(java.util.stream.Collectors.toList());
-            logger.debug("After status filter: {} users", filteredUsers.size());
-        }
-        
-        // Filter by pincode
-        if (pincode != null && !pincode.trim().isEmpty()) {
-            filteredUsers = filteredUsers.stream()
-                .filter(user -> pincode.equals(user.getPincode()))
-                .collect(java.util.stream.Collectors.toList());
-            logger.debug("After pincode filter: {} users", filteredUsers.size());
-        }
-        
-        // Calculate total filtered count
-        int totalFilteredUsers = filteredUsers.size();
+        String searchTerm = search != null && !search.trim().isEmpty() ? search.trim() : null;
+        String roleFilter = role != null && !role.trim().isEmpty() ? role : null;
+        String statusFilter = status != null && !status.trim().isEmpty() ? status : null;
+        String pincodeFilter = pincode != null && !pincode.trim().isEmpty() ? pincode : null;
         
-        // Apply pagination
-        int startIndex = (page - 1) * limit;
-        int endIndex = Math.min(startIndex + limit, totalFilteredUsers);
+        // Consider a user active if they've logged in (or, never having logged in, registered) within the last 3 months
+        LocalDate threeMonthsAgo = LocalDate.now().minusMonths(3);
+        Pageable pageable = PageRequest.of(Math.max(page, 1) - 1, Math.max(limit, 1), Sort.by("id"));
         
         List<User> paginatedUsers;
-        if (startIndex < totalFilteredUsers) {
-            paginatedUsers = filteredUsers.subList(startIndex, endIndex);
+        long totalFilteredUsers;
+        if (searchTerm == null && statusFilter == null) {
+            // Role and pincode totals come from user_role_counts, so only the page itself is read
+            if (roleFilter != null && pincodeFilter != null) {
+                paginatedUsers = userRepo.findByRoleAndPincode(roleFilter, pincodeFilter, pageable);
+                totalFilteredUsers = userRoleCountRepo.sumByRoleAndPincode(roleFilter, pincodeFilter);
+            } else if (roleFilter != null) {
+                paginatedUsers = userRepo.findByRole(roleFilter, pageable);
+                totalFilteredUsers = userRoleCountRepo.sumByRoles(List.of(roleFilter));
+            } else if (pincodeFilter != null) {
+                paginatedUsers = userRepo.findByPincode(pincodeFilter, pageable);
+                totalFilteredUsers = userRoleCountRepo.sumByPincode(pincodeFilter);
+            } else {
+                paginatedUsers = userRepo.findAllBy(pageable);
+                totalFilteredUsers = userRoleCountRepo.sumAll();
+            }
         } else {
-            paginatedUsers = new java.util.ArrayList<>();
+            Specification<User> filters = Specification.where(null);
+            if (searchTerm != null) {
+                filters = filters.and(UserSpecifications.nameOrEmailStartsWith(searchTerm));
+            }
+            if (roleFilter != null) {
+                filters = filters.and(UserSpecifications.hasRole(roleFilter));
+            }
+            if (statusFilter != null) {
+                filters = filters.and("active".equalsIgnoreCase(statusFilter)
+                        ? UserSpecifications.activeSince(threeMonthsAgo)
+                        : UserSpecifications.inactiveSince(threeMonthsAgo));
+            }
+            if (pincodeFilter != null) {
+                filters = filters.and(UserSpecifications.hasPincode(pincodeFilter));
+            }
+            Page<User> result = userRepo.findAll(filters, pageable);
+            paginatedUsers = result.getContent();
+            totalFilteredUsers = result.getTotalElements();
         }
+        logger.debug("Found {} matching users, returning {}", totalFilteredUsers, paginatedUsers.size());
         
         // Calculate stats
-        int totalUsers = allUsers.size();
-        LocalDate threeMonthsAgo = LocalDate.now().minusMonths(3);
-        
-        long activeUsers = allUsers.stream()
-            .filter(user -> {
-                LocalDate lastActivity = user.getLastLogin() != null ? 
-                    user.getLastLogin() : user.getRegisteredDate();
-                return lastActivity.isAfter(threeMonthsAgo);
-            })
-            .count();
-        
+        long totalUsers = userRoleCountRepo.sumAll();
+        long activeUsers = userRepo.count(UserSpecifications.activeSince(threeMonthsAgo));
         long inactiveUsers = totalUsers - activeUsers;
-        
-        long adminUsers = allUsers.stream()
-            .filter(user -> "ADMIN".equals(user.getRole()) || "SUPER_ADMIN".equals(user.getRole()))
-            .count();
-        
-        long deliveryPartners = allUsers.stream()
-            .filter(user -> "DELIVERY_PARTNER".equals(user.getRole()))
-            .count();
+        long adminUsers = userRoleCountRepo.sumByRoles(List.of("ADMIN", "SUPER_ADMIN"));
+        long deliveryPartners = userRoleCountRepo.sumByRoles(List.of("DELIVERY_PARTNER"));
         
         // Create response
         Map<String, Object> response = new HashMap<>();
@@ -420,6 +417,7 @@ public class UserService {
             entityManager.flush();
             
             logger.info("User deletion completed successfully for: {}", user.getEmail());
+            authTokenService.revoke(AuthPrincipal.TYPE_USER, userId);
             
         } catch (Exception e) {
             logger.error("Error during comprehensive user deletion for {}: {}", user.getEmail(), e.getMessage());
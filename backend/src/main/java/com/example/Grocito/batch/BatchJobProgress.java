@@ -0,0 +1,95 @@
+package com.example.Grocito.batch;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory progress of a batch job run, updated after every committed chunk
+ */
+public class BatchJobProgress {
+
+    private final String jobName;
+    private volatile int totalPartitions;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong itemsRead = new AtomicLong();
+    private final AtomicLong itemsWritten = new AtomicLong();
+    private final AtomicLong chunksCommitted = new AtomicLong();
+    private final AtomicLong completedPartitions = new AtomicLong();
+    private final AtomicLong failedPartitions = new AtomicLong();
+    private volatile String status = "RUNNING"; // RUNNING, COMPLETED, FAILED
+    private volatile LocalDateTime finishedAt;
+
+    public BatchJobProgress(String jobName) {
+        this.jobName = jobName;
+    }
+
+    void partitionsListed(int totalPartitions) {
+        this.totalPartitions = totalPartitions;
+    }
+
+    void chunkCommitted(int read, int written) {
+        itemsRead.addAndGet(read);
+        itemsWritten.addAndGet(written);
+        chunksCommitted.incrementAndGet();
+    }
+
+    void partitionCompleted() {
+        completedPartitions.incrementAndGet();
+    }
+
+    void partitionFailed() {
+        failedPartitions.incrementAndGet();
+    }
+
+    /**
+     * The run stopped before its partitions were processed
+     */
+    void abort() {
+        this.status = "FAILED";
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    void finish() {
+        this.status = failedPartitions.get() > 0 ? "FAILED" : "COMPLETED";
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public boolean isRunning() {
+        return "RUNNING".equals(status);
+    }
+
+    /**
+     * Items read per second since the run started
+     */
+    public double getThroughput() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return Math.round(itemsRead.get() * 1000.0 / millis * 100.0) / 100.0;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobName", jobName);
+        map.put("status", status);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        map.put("totalPartitions", totalPartitions);
+        map.put("completedPartitions", completedPartitions.get());
+        map.put("failedPartitions", failedPartitions.get());
+        map.put("chunksCommitted", chunksCommitted.get());
+        map.put("itemsRead", itemsRead.get());
+        map.put("itemsWritten", itemsWritten.get());
+        map.put("itemsPerSecond", getThroughput());
+        return map;
+    }
+
+    // Getters
+    public String getJobName() { return jobName; }
+    public String getStatus() { return status; }
+    public long getItemsRead() { return itemsRead.get(); }
+    public long getItemsWritten() { return itemsWritten.get(); }
+    public long getFailedPartitions() { return failedPartitions.get(); }
+}
@@ -0,0 +1,303 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Entity.BatchJobCheckpoint;
+import com.example.Grocito.Entity.BatchJobLock;
+import com.example.Grocito.Repository.BatchJobCheckpointRepository;
+import com.example.Grocito.Repository.BatchJobLockRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs chunked jobs: keyset-paged reads, one transaction per chunk, a persisted
+ * checkpoint per partition and partitions processed in parallel. A run holds the job's row in
+ * batch_job_locks, renewed by a heartbeat, so a job runs on one instance at a time.
+ */
+@Component
+public class BatchJobRunner {
+    private final Logger logger = LoggerFactory.getLogger(BatchJobRunner.class);
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${batch.partition-parallelism:4}")
+    private int partitionParallelism;
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BatchJobLockRepository lockRepository;
+
+    @Value("${batch.lock-heartbeat-seconds:10}")
+    private long lockHeartbeatSeconds;
+
+    @Value("${batch.lock-expiry-seconds:60}")
+    private long lockExpirySeconds;
+
+    // Distinguishes the lock holders of different instances and of a restarted instance
+    private final String instanceId = instanceName() + ":" + ProcessHandle.current().pid() + ":"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private final ScheduledExecutorService lockHeartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-job-lock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest run of every job, exposed through the batchjobs actuator endpoint
+    private final ConcurrentHashMap<String, BatchJobProgress> progressByJob = new ConcurrentHashMap<>();
+
+    /**
+     * Run a job to completion, resuming any partition that did not finish last time. Fails when the
+     * job is already running, on this or on another instance.
+     */
+    public <T> BatchJobProgress run(ChunkedJob<T> job) {
+        BatchJobProgress progress = new BatchJobProgress(job.getName());
+        BatchJobProgress[] previousRun = new BatchJobProgress[1];
+        BatchJobProgress active = progressByJob.compute(job.getName(), (name, previous) -> {
+            if (previous != null && previous.isRunning()) {
+                return previous;
+            }
+            previousRun[0] = previous;
+            return progress;
+        });
+        if (active != progress) {
+            throw new RuntimeException("Batch job " + job.getName() + " is already running");
+        }
+
+        // Before the job touches the schema or the tables
+        if (!tryLock(job.getName())) {
+            if (previousRun[0] != null) {
+                progressByJob.replace(job.getName(), progress, previousRun[0]);
+            } else {
+                progressByJob.remove(job.getName(), progress);
+            }
+            throw new RuntimeException("Batch job " + job.getName() + " is already running on " + holderOf(job.getName()));
+        }
+        ScheduledFuture<?> heartbeat = lockHeartbeat.scheduleWithFixedDelay(() -> renewLock(job.getName()),
+                lockHeartbeatSeconds, lockHeartbeatSeconds, TimeUnit.SECONDS);
+
+        try {
+            List<String> partitions;
+            try {
+                partitions = job.getPartitions();
+            } catch (RuntimeException e) {
+                progress.abort();
+                throw e;
+            }
+            progress.partitionsListed(partitions.size());
+
+            int jobChunkSize = job.getChunkSize(chunkSize);
+            logger.info("Starting batch job {} with {} partitions (chunk size {})", job.getName(), partitions.size(), jobChunkSize);
+
+            int threads = Math.max(1, Math.min(partitionParallelism, partitions.size()));
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (String partition : partitions) {
+                    futures.add(executor.submit(() -> runPartition(job, partition, jobChunkSize, progress)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // Already recorded on the checkpoint, remaining partitions keep running
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            } finally {
+                executor.shutdown();
+                progress.finish();
+            }
+        } finally {
+            heartbeat.cancel(false);
+            releaseLock(job.getName());
+        }
+
+        logger.info("Batch job {} finished with status {}: {} read, {} written, {} items/s", job.getName(),
+                progress.getStatus(), progress.getItemsRead(), progress.getItemsWritten(), progress.getThroughput());
+        return progress;
+    }
+
+    private boolean tryLock(String jobName) {
+        LocalDateTime now = LocalDateTime.now();
+        if (lockRepository.claim(jobName, instanceId, now, now.minusSeconds(lockExpirySeconds)) == 1) {
+            return true;
+        }
+        try {
+            return lockRepository.insert(jobName, instanceId, now) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Held by a running instance, or locked by one starting the job at the same time
+            return false;
+        }
+    }
+
+    private void renewLock(String jobName) {
+        try {
+            if (lockRepository.renew(jobName, instanceId, LocalDateTime.now()) == 0) {
+                // Heartbeats stalled past the expiry and another instance took the job over
+                logger.error("Lost the lock on batch job {} to {}; both instances may be running it", jobName, holderOf(jobName));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not renew the lock on batch job {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    private void releaseLock(String jobName) {
+        try {
+            lockRepository.release(jobName, instanceId);
+        } catch (RuntimeException e) {
+            // Expires after batch.lock-expiry-seconds
+            logger.warn("Could not release the lock on batch job {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    private String holderOf(String jobName) {
+        return lockRepository.findById(jobName).map(BatchJobLock::getInstanceId).orElse("unknown");
+    }
+
+    private <T> void runPartition(ChunkedJob<T> job, String partition, int chunkSize, BatchJobProgress progress) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BatchJobCheckpoint checkpoint = transactionTemplate.execute(status -> openCheckpoint(job.getName(), partition));
+        Long checkpointId = checkpoint.getId();
+        Long lastProcessedId = checkpoint.getLastProcessedId();
+
+        if (lastProcessedId > 0) {
+            logger.info("Resuming batch job {} partition {} after id {}", job.getName(), partition, lastProcessedId);
+        }
+
+        try {
+            while (true) {
+                final Long afterId = lastProcessedId;
+                long[] result = transactionTemplate.execute(status -> {
+                    List<T> items = job.readChunk(partition, afterId, chunkSize);
+                    if (items.isEmpty()) {
+                        return new long[] {0, 0, afterId};
+                    }
+                    int written = job.writeChunk(items);
+                    Long lastId = job.getId(items.get(items.size() - 1));
+
+                    BatchJobCheckpoint current = checkpointRepository.findById(checkpointId).orElseThrow();
+                    current.setLastProcessedId(lastId);
+                    current.setItemsRead(current.getItemsRead() + items.size());
+                    current.setItemsWritten(current.getItemsWritten() + written);
+                    checkpointRepository.save(current);
+                    return new long[] {items.size(), written, lastId};
+                });
+
+                if (result[0] == 0) {
+                    break;
+                }
+                progress.chunkCommitted((int) result[0], (int) result[1]);
+                lastProcessedId = result[2];
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                BatchJobCheckpoint current = checkpointRepository.findById(checkpointId).orElseThrow();
+                current.setStatus("COMPLETED");
+                current.setCompletedAt(LocalDateTime.now());
+                checkpointRepository.save(current);
+            });
+            progress.partitionCompleted();
+        } catch (RuntimeException e) {
+            logger.error("Batch job {} partition {} failed after id {}: {}", job.getName(), partition, lastProcessedId, e.getMessage());
+            progress.partitionFailed();
+            transactionTemplate.executeWithoutResult(status -> {
+                BatchJobCheckpoint current = checkpointRepository.findById(checkpointId).orElseThrow();
+                current.setStatus("FAILED");
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                current.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                checkpointRepository.save(current);
+            });
+            throw e;
+        }
+    }
+
+    private BatchJobCheckpoint openCheckpoint(String jobName, String partition) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findByJobNameAndPartitionKey(jobName, partition)
+                .orElseGet(() -> new BatchJobCheckpoint(jobName, partition));
+
+        if ("COMPLETED".equals(checkpoint.getStatus())) {
+            // Previous run finished, start over to pick up rows created since
+            checkpoint.restart();
+        } else {
+            checkpoint.setStatus("RUNNING");
+            checkpoint.setLastError(null);
+        }
+        return checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * Progress of the latest run of every job
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        progressByJob.forEach((name, progress) -> jobs.put(name, progress.toMap()));
+        return jobs;
+    }
+
+    /**
+     * Progress of the latest run of a job plus its persisted partition checkpoints
+     */
+    public Map<String, Object> getProgress(String jobName) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        BatchJobProgress progress = progressByJob.get(jobName);
+        details.put("latestRun", progress != null ? progress.toMap() : null);
+
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (BatchJobCheckpoint checkpoint : checkpointRepository.findByJobNameOrderByPartitionKeyAsc(jobName)) {
+            Map<String, Object> partition = new LinkedHashMap<>();
+            partition.put("partition", checkpoint.getPartitionKey());
+            partition.put("status", checkpoint.getStatus());
+            partition.put("lastProcessedId", checkpoint.getLastProcessedId());
+            partition.put("itemsRead", checkpoint.getItemsRead());
+            partition.put("itemsWritten", checkpoint.getItemsWritten());
+            partition.put("lastError", checkpoint.getLastError());
+            partition.put("updatedAt", checkpoint.getUpdatedAt());
+            partitions.add(partition);
+        }
+        details.put("partitions", partitions);
+        return details;
+    }
+
+    @PreDestroy
+    public void stop() {
+        lockHeartbeat.shutdownNow();
+    }
+
+    private static String instanceName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
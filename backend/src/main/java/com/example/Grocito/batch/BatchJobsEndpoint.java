@@ -0,0 +1,30 @@
+package com.example.Grocito.batch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting batch job progress and throughput (/actuator/batchjobs)
+ */
+@Component
+@Endpoint(id = "batchjobs")
+public class BatchJobsEndpoint {
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @ReadOperation
+    public Map<String, Object> jobs() {
+        return batchJobRunner.getProgress();
+    }
+
+    @ReadOperation
+    public Map<String, Object> job(@Selector String jobName) {
+        return batchJobRunner.getProgress(jobName);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.Grocito.batch;
+
+import java.util.List;
+
+/**
+ * A batch job that is processed in keyset-paged chunks, one transaction per chunk.
+ * Items are read in ascending id order within a partition so the last id of a
+ * committed chunk is a valid resume point.
+ */
+public interface ChunkedJob<T> {
+
+    /**
+     * Unique job name, used as the checkpoint key
+     */
+    String getName();
+
+    /**
+     * Independent partitions that can be processed in parallel (e.g. pincodes)
+     */
+    List<String> getPartitions();
+
+    /**
+     * Items per chunk transaction, the configured batch.chunk-size unless the job needs shorter transactions
+     */
+    default int getChunkSize(int configuredChunkSize) {
+        return configuredChunkSize;
+    }
+
+    /**
+     * Read the next chunk of items with an id greater than afterId, ordered by id
+     */
+    List<T> readChunk(String partition, Long afterId, int chunkSize);
+
+    /**
+     * Id used as the keyset position of an item
+     */
+    Long getId(T item);
+
+    /**
+     * Process a chunk inside the chunk transaction and return the number of items written
+     */
+    int writeChunk(List<T> items);
+}
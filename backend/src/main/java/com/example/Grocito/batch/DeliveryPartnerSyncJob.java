@@ -0,0 +1,97 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Copies verified partners from delivery_partner_auth into delivery_partners so
+ * order_assignments.partner_id foreign keys can be satisfied. Partitioned by pincode,
+ * each chunk is written with a single multi-row upsert.
+ */
+@Component
+public class DeliveryPartnerSyncJob implements ChunkedJob<DeliveryPartnerAuth> {
+
+    private static final int PARAMS_PER_ROW = 12;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository authRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public String getName() {
+        return "delivery-partner-sync";
+    }
+
+    @Override
+    public List<String> getPartitions() {
+        return authRepository.findVerifiedPartnerPincodes();
+    }
+
+    @Override
+    public List<DeliveryPartnerAuth> readChunk(String partition, Long afterId, int chunkSize) {
+        return authRepository.findVerifiedPartnersAfter(partition, afterId, PageRequest.of(0, chunkSize));
+    }
+
+    @Override
+    public Long getId(DeliveryPartnerAuth partner) {
+        return partner.getId();
+    }
+
+    @Override
+    public int writeChunk(List<DeliveryPartnerAuth> partners) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO delivery_partners (id, auth_id, full_name, email, phone_number, assigned_pincode, " +
+                "vehicle_type, vehicle_number, driving_license, verification_status, created_at, updated_at, " +
+                "account_status, availability_status, is_available, total_deliveries, successful_deliveries, " +
+                "average_rating, total_earnings) VALUES ");
+
+        for (int i = 0; i < partners.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(");
+            for (int p = 1; p <= PARAMS_PER_ROW; p++) {
+                sql.append("?").append(i * PARAMS_PER_ROW + p).append(", ");
+            }
+            sql.append("'ACTIVE', 'OFFLINE', false, 0, 0, 0.0, 0.0)");
+        }
+
+        sql.append(" ON DUPLICATE KEY UPDATE " +
+                "full_name = VALUES(full_name), email = VALUES(email), phone_number = VALUES(phone_number), " +
+                "assigned_pincode = VALUES(assigned_pincode), vehicle_type = VALUES(vehicle_type), " +
+                "vehicle_number = VALUES(vehicle_number), driving_license = VALUES(driving_license), " +
+                "verification_status = VALUES(verification_status), updated_at = VALUES(updated_at)");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < partners.size(); i++) {
+            DeliveryPartnerAuth partner = partners.get(i);
+            int base = i * PARAMS_PER_ROW;
+            query.setParameter(base + 1, partner.getId());
+            query.setParameter(base + 2, partner.getId());
+            query.setParameter(base + 3, partner.getFullName());
+            query.setParameter(base + 4, partner.getEmail());
+            query.setParameter(base + 5, partner.getPhoneNumber());
+            query.setParameter(base + 6, partner.getPincode());
+            query.setParameter(base + 7, partner.getVehicleType());
+            query.setParameter(base + 8, partner.getVehicleNumber());
+            query.setParameter(base + 9, partner.getLicenseNumber());
+            query.setParameter(base + 10, partner.getVerificationStatus());
+            query.setParameter(base + 11, partner.getCreatedAt());
+            query.setParameter(base + 12, now);
+        }
+        query.executeUpdate();
+        return partners.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Services.OrderArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting the order archive cutoff and last run (/actuator/orderarchive).
+ * POST archives the finished orders right away; chunk progress is under /actuator/batchjobs/order-archive.
+ */
+@Component
+@Endpoint(id = "orderarchive")
+public class OrderArchiveEndpoint {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("cutoff", orderArchiveService.getCutoff().toString());
+        status.put("lastRun", orderArchiveService.getLastRun());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> archive() {
+        return orderArchiveService.archiveFinishedOrders();
+    }
+}
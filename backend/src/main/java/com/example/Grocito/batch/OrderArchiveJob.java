@@ -0,0 +1,195 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Repository.ArchivedOrderDailyTotalRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves DELIVERED and CANCELLED orders placed before the cutoff (order-archive.min-age-days ago) from
+ * orders, order_items and order_assignments into the archive tables. Partitioned by the month of the
+ * order time; the archive tables get a RANGE partition for every month before its orders are moved.
+ * Each chunk copies its orders with INSERT ... SELECT and deletes them in the same short transaction.
+ */
+@Component
+public class OrderArchiveJob implements ChunkedJob<Long> {
+    private final Logger logger = LoggerFactory.getLogger(OrderArchiveJob.class);
+
+    private static final String ORDER_COLUMNS = "id, status, order_time, delivery_address, pincode, total_amount, " +
+            "delivery_fee, partner_earning, payment_method, payment_status, actual_payment_method, payment_id, " +
+            "payment_completed_at, payment_notes, gateway_order_id, assigned_at, picked_up_at, delivered_at, " +
+            "cancelled_at, user_id, delivery_partner_auth_id";
+
+    private static final String ITEM_COLUMNS = "id, quantity, total_price, price, order_id, product_id";
+
+    private static final String ASSIGNMENT_COLUMNS = "id, order_id, partner_id, assigned_at, accepted_at, rejected_at, " +
+            "rejection_reason, status, pickup_time, delivery_time, pickup_latitude, pickup_longitude, delivery_latitude, " +
+            "delivery_longitude, total_distance, delivery_duration, pickup_duration, base_fee, distance_bonus, time_bonus, " +
+            "total_earnings, special_instructions, customer_rating, customer_feedback, proof_of_delivery_url, delivery_otp, " +
+            "signature_url, created_at, updated_at";
+
+    // yyyymm of the order time, the partitioning key of the archive tables
+    private static final String ARCHIVE_MONTH = "YEAR(o.order_time) * 100 + MONTH(o.order_time)";
+
+    private static final String ARCHIVE_ORDERS = "INSERT INTO orders_archive (archive_month, " + ORDER_COLUMNS + ") " +
+            "SELECT " + ARCHIVE_MONTH + ", " + qualified("o", ORDER_COLUMNS) + " FROM orders o WHERE o.id IN (:orderIds)";
+
+    private static final String ARCHIVE_ITEMS = "INSERT INTO order_items_archive (archive_month, " + ITEM_COLUMNS + ") " +
+            "SELECT " + ARCHIVE_MONTH + ", " + qualified("i", ITEM_COLUMNS) + " FROM order_items i " +
+            "JOIN orders o ON o.id = i.order_id WHERE i.order_id IN (:orderIds)";
+
+    private static final String ARCHIVE_ASSIGNMENTS = "INSERT INTO order_assignments_archive (archive_month, " + ASSIGNMENT_COLUMNS + ") " +
+            "SELECT " + ARCHIVE_MONTH + ", " + qualified("a", ASSIGNMENT_COLUMNS) + " FROM order_assignments a " +
+            "JOIN orders o ON o.id = a.order_id WHERE a.order_id IN (:orderIds)";
+
+    private static final List<String> ARCHIVE_TABLES = List.of("orders_archive", "order_items_archive", "order_assignments_archive");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderDailyTotalRepository dailyTotalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order-archive.min-age-days:30}")
+    private long minAgeDays;
+
+    // Orders per chunk; every chunk locks its orders, items and assignments until it commits
+    @Value("${order-archive.chunk-size:200}")
+    private int archiveChunkSize;
+
+    // MySQL RANGE partitions per month; off where the archive tables are not partitioned (e.g. H2)
+    @Value("${order-archive.manage-partitions:true}")
+    private boolean managePartitions;
+
+    @Override
+    public String getName() {
+        return "order-archive";
+    }
+
+    /**
+     * Orders placed before this (start of the day, min-age-days ago) are archived once finished
+     */
+    public LocalDateTime getCutoff() {
+        return LocalDate.now().minusDays(minAgeDays).atStartOfDay();
+    }
+
+    /**
+     * Months from the oldest finished order before the cutoff up to the cutoff, after adding
+     * their archive partitions
+     */
+    @Override
+    public List<String> getPartitions() {
+        LocalDateTime cutoff = getCutoff();
+        LocalDateTime oldest = orderRepository.findOldestArchivableOrderTime(cutoff);
+        if (oldest == null) {
+            return List.of();
+        }
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(oldest); !month.isAfter(YearMonth.from(cutoff)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        if (managePartitions) {
+            for (String table : ARCHIVE_TABLES) {
+                addMonthPartitions(table, months);
+            }
+        }
+        return months.stream().map(YearMonth::toString).collect(Collectors.toList());
+    }
+
+    @Override
+    public int getChunkSize(int configuredChunkSize) {
+        return archiveChunkSize;
+    }
+
+    @Override
+    public List<Long> readChunk(String partition, Long afterId, int chunkSize) {
+        YearMonth month = YearMonth.parse(partition);
+        LocalDateTime nextMonth = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime cutoff = getCutoff();
+        return orderRepository.findArchivableOrderIdsAfter(month.atDay(1).atStartOfDay(),
+                nextMonth.isBefore(cutoff) ? nextMonth : cutoff, afterId, PageRequest.of(0, chunkSize));
+    }
+
+    @Override
+    public Long getId(Long orderId) {
+        return orderId;
+    }
+
+    @Override
+    public int writeChunk(List<Long> orderIds) {
+        // Rolled up while the orders are still in the hot table, so the analytics never count them twice or miss them
+        dailyTotalRepository.addOrders(orderIds);
+
+        execute(ARCHIVE_ORDERS, orderIds);
+        execute(ARCHIVE_ITEMS, orderIds);
+        execute(ARCHIVE_ASSIGNMENTS, orderIds);
+
+        // Children first, they reference the order
+        execute("DELETE FROM order_assignments WHERE order_id IN (:orderIds)", orderIds);
+        execute("DELETE FROM order_items WHERE order_id IN (:orderIds)", orderIds);
+        int moved = execute("DELETE FROM orders WHERE id IN (:orderIds)", orderIds);
+        logger.debug("Archived {} orders", moved);
+        return moved;
+    }
+
+    private int execute(String sql, List<Long> orderIds) {
+        return entityManager.createNativeQuery(sql).setParameter("orderIds", orderIds).executeUpdate();
+    }
+
+    // Split the catch-all p_max partition so every month gets its own, in ascending order. Months at or
+    // below the highest existing bound already fall into an existing partition and are skipped.
+    private void addMonthPartitions(String table, List<YearMonth> months) {
+        List<String> bounds = jdbcTemplate.queryForList("SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", String.class, table);
+        if (bounds.isEmpty()) {
+            logger.debug("Archive table {} is not partitioned", table);
+            return;
+        }
+        int highestBound = bounds.stream().filter(bound -> !"MAXVALUE".equals(bound))
+                .mapToInt(Integer::parseInt).max().orElse(0);
+
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month : months) {
+            int bound = archiveMonth(month.plusMonths(1));
+            if (bound > highestBound) {
+                partitions.add("PARTITION p" + archiveMonth(month) + " VALUES LESS THAN (" + bound + ")");
+            }
+        }
+        if (partitions.isEmpty()) {
+            return;
+        }
+        partitions.add("PARTITION p_max VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION p_max INTO (" + String.join(", ", partitions) + ")");
+        logger.info("Added {} monthly partitions to {}", partitions.size() - 1, table);
+    }
+
+    private static int archiveMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    private static String qualified(String alias, String columns) {
+        return Arrays.stream(columns.split(", ")).map(column -> alias + "." + column).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.pricing.PricingEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills in the partner earning of delivered orders that predate earnings tracking; their stored delivery fee stays.
+ * Partitioned by order pincode; orders without one form the "none" partition.
+ */
+@Component
+public class OrderEarningsMigrationJob implements ChunkedJob<Order> {
+    private final Logger logger = LoggerFactory.getLogger(OrderEarningsMigrationJob.class);
+
+    // Partition key of orders without a pincode (never a valid pincode)
+    static final String NO_PINCODE = "none";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Override
+    public String getName() {
+        return "order-earnings-migration";
+    }
+
+    @Override
+    public List<String> getPartitions() {
+        return orderRepository.findPincodesWithDeliveredOrdersMissingEarnings().stream()
+                .map(pincode -> pincode != null ? pincode : NO_PINCODE)
+                .toList();
+    }
+
+    @Override
+    public List<Order> readChunk(String partition, Long afterId, int chunkSize) {
+        String pincode = NO_PINCODE.equals(partition) ? null : partition;
+        return orderRepository.findDeliveredOrdersMissingEarningsAfter(pincode, afterId, PageRequest.of(0, chunkSize));
+    }
+
+    @Override
+    public Long getId(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    public int writeChunk(List<Order> orders) {
+        int updatedCount = 0;
+        for (Order order : orders) {
+            if (order.getTotalAmount() <= 0) {
+                continue;
+            }
+
+            // The delivery fee charged at checkout stays, only the missing earning is filled in
+            double partnerEarning = pricingEngine.missingPartnerEarning(order.getPincode(), order.getOrderTime(),
+                    order.getTotalAmount(), order.getDeliveryFee());
+            order.setPartnerEarning(partnerEarning);
+
+            // Set delivered time if missing
+            if (order.getDeliveredAt() == null) {
+                order.setDeliveredAt(order.getOrderTime().plusHours(1)); // Assume delivered 1 hour after order
+            }
+
+            orderRepository.save(order);
+            updatedCount++;
+            logger.debug("Updated order {} with earnings: ₹{}", order.getId(), partnerEarning);
+        }
+        return updatedCount;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.Grocito.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wraps the Hikari pool in an {@link AdmissionControlledDataSource} sized to the pool.
+ * On by default whenever virtual threads are enabled, see db.admission-limit.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.admission-limit.enabled", havingValue = "true")
+public class DbAdmissionConfig {
+
+    private static final Logger logger = LoggerConfig.getLogger(DbAdmissionConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dbAdmissionLimiter(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                AdmissionControlledDataSource limited = new AdmissionControlledDataSource(
+                        pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+                logger.info("Database admission limit set to {} concurrent connections", pool.getMaximumPoolSize());
+
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("grocito.db.admission.waiting", limited, AdmissionControlledDataSource::getWaiting)
+                            .description("Threads waiting for a database admission permit")
+                            .register(registry);
+                    Gauge.builder("grocito.db.admission.available", limited, AdmissionControlledDataSource::getAvailablePermits)
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
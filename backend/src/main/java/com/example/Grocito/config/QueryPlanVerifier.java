@@ -0,0 +1,123 @@
+package com.example.Grocito.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs EXPLAIN on the SQL shape of the hot repository queries at startup and warns when
+ * the index created for them by the migrations is missing or not chosen by the optimizer.
+ */
+@Component
+public class QueryPlanVerifier {
+
+    private static final Logger logger = LoggerConfig.getLogger(QueryPlanVerifier.class);
+
+    // Expected index -> representative statement (same predicates and ordering as the repository method)
+    private static final Map<String, String> ACCESS_PATHS = new LinkedHashMap<>();
+
+    static {
+        ACCESS_PATHS.put("idx_orders_pincode_status_time",
+                "SELECT id FROM orders WHERE pincode = '000000' AND status = 'PLACED' ORDER BY order_time DESC");
+        ACCESS_PATHS.put("idx_orders_status_time",
+                "SELECT id FROM orders WHERE status = 'PLACED' ORDER BY order_time DESC");
+        ACCESS_PATHS.put("idx_orders_partner_status_delivered",
+                "SELECT SUM(partner_earning) FROM orders WHERE delivery_partner_auth_id = 0 AND status = 'DELIVERED' " +
+                "AND delivered_at > NOW()");
+        ACCESS_PATHS.put("idx_orders_user_time_id",
+                "SELECT id FROM orders WHERE user_id = 0 ORDER BY order_time DESC, id DESC LIMIT 21");
+        ACCESS_PATHS.put("idx_assignments_partner_status",
+                "SELECT id FROM order_assignments WHERE partner_id = 0 AND status IN ('ACCEPTED', 'PICKED_UP', 'OUT_FOR_DELIVERY')");
+        ACCESS_PATHS.put("idx_assignments_status_assigned",
+                "SELECT id FROM order_assignments WHERE status = 'ASSIGNED' AND assigned_at < NOW()");
+        ACCESS_PATHS.put("idx_products_pincode_category",
+                "SELECT id FROM products WHERE pincode = '000000' AND category = 'Fruits'");
+        ACCESS_PATHS.put("idx_partner_auth_status_pincode",
+                "SELECT id FROM delivery_partner_auth WHERE verification_status = 'VERIFIED' AND pincode = '000000' " +
+                "AND is_active = true");
+        ACCESS_PATHS.put("idx_notifications_user_created",
+                "SELECT id FROM notifications WHERE user_id = 0");
+        ACCESS_PATHS.put("idx_users_full_name",
+                "SELECT id FROM users WHERE full_name LIKE 'a%'");
+        ACCESS_PATHS.put("idx_users_last_login_registered",
+                "SELECT COUNT(*) FROM users WHERE last_login > CURDATE() OR (last_login IS NULL AND registered_date > CURDATE())");
+        ACCESS_PATHS.put("idx_users_role_pincode",
+                "SELECT id FROM users WHERE role = 'USER' AND pincode = '000000' ORDER BY id LIMIT 10");
+        ACCESS_PATHS.put("idx_users_pincode",
+                "SELECT id FROM users WHERE pincode = '000000' ORDER BY id LIMIT 10");
+        ACCESS_PATHS.put("uk_delivery_partners_auth",
+                "SELECT id FROM delivery_partners WHERE auth_id = 0");
+        ACCESS_PATHS.put("idx_delivery_partners_pincode_status",
+                "SELECT verification_status, availability_status, COUNT(*) FROM delivery_partners WHERE assigned_pincode = '000000' " +
+                "GROUP BY verification_status, availability_status");
+        ACCESS_PATHS.put("idx_delivery_partners_status",
+                "SELECT verification_status, availability_status, COUNT(*) FROM delivery_partners " +
+                "GROUP BY verification_status, availability_status");
+        ACCESS_PATHS.put("idx_delivery_partners_full_name",
+                "SELECT id FROM delivery_partners WHERE full_name LIKE 'a%'");
+        ACCESS_PATHS.put("idx_orders_archive_user_time_id",
+                "SELECT id FROM orders_archive WHERE user_id = 0 ORDER BY order_time DESC, id DESC LIMIT 21");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${schema.plan-check.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyAccessPaths() {
+        if (!enabled) {
+            return;
+        }
+
+        int mismatches = 0;
+        for (Map.Entry<String, String> accessPath : ACCESS_PATHS.entrySet()) {
+            try {
+                if (!checkPlan(accessPath.getKey(), accessPath.getValue())) {
+                    mismatches++;
+                }
+            } catch (Exception e) {
+                logger.warn("Could not EXPLAIN access path {}: {}", accessPath.getKey(), e.getMessage());
+                mismatches++;
+            }
+        }
+
+        if (mismatches == 0) {
+            logger.info("Query plan check passed for {} access paths", ACCESS_PATHS.size());
+        } else {
+            logger.warn("Query plan check found {} of {} access paths not using their index", mismatches, ACCESS_PATHS.size());
+        }
+    }
+
+    private boolean checkPlan(String expectedIndex, String sql) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+        if (plan.isEmpty()) {
+            logger.warn("Empty plan for access path {}", expectedIndex);
+            return false;
+        }
+
+        // First row is the driving table of these single-table statements
+        Map<String, Object> row = plan.get(0);
+        String possibleKeys = row.get("possible_keys") != null ? row.get("possible_keys").toString() : "";
+        String chosenKey = row.get("key") != null ? row.get("key").toString() : null;
+
+        if (!possibleKeys.contains(expectedIndex)) {
+            logger.warn("Index {} is missing for: {}", expectedIndex, sql);
+            return false;
+        }
+        if (!expectedIndex.equals(chosenKey)) {
+            // Small or empty tables often make a scan cheaper, so this is only informational
+            logger.debug("Optimizer chose {} instead of {} (rows: {}) for: {}", chosenKey, expectedIndex, row.get("rows"), sql);
+        }
+        return true;
+    }
+}
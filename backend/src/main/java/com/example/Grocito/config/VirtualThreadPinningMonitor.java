@@ -0,0 +1,89 @@
+package com.example.Grocito.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the JFR jdk.VirtualThreadPinned event while virtual threads are enabled. A virtual thread
+ * that blocks inside a synchronized block (older JDBC drivers, SMTP) pins its carrier thread, which
+ * silently caps concurrency at the carrier count. Each pinning site is logged once and counted.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerConfig.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${threads.pinning.threshold-ms:20}")
+    private long thresholdMillis;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; " +
+                    "requests keep running on platform threads", Runtime.version().feature());
+            return;
+        }
+
+        Counter pinned = Counter.builder("grocito.virtualthreads.pinned")
+                .description("Virtual thread pinning events above the threshold")
+                .register(registry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            report(event);
+        });
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started (threshold {} ms)", thresholdMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder site = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            site.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        if (reportedSites.add(site.toString())) {
+            logger.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), site);
+        }
+    }
+}
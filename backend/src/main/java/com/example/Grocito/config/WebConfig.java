@@ -1,22 +1,40 @@
 package com.example.Grocito.config;
 
+import com.example.Grocito.logging.RequestLogContextInterceptor;
+import com.example.Grocito.routing.ReadYourWritesInterceptor;
+import com.example.Grocito.routing.ReadYourWritesTracker;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    @Autowired
+    private RequestLogContextInterceptor requestLogContextInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestLogContextInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(readYourWritesInterceptor).addPathPatterns("/api/**");
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ReadYourWritesTracker.LAST_WRITE_HEADER)
                 .allowCredentials(false)
                 .maxAge(3600);
     }
@@ -27,6 +45,7 @@ public class WebConfig implements WebMvcConfigurer {
         configuration.addAllowedOriginPattern("*");
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader(ReadYourWritesTracker.LAST_WRITE_HEADER);
         configuration.setAllowCredentials(false);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
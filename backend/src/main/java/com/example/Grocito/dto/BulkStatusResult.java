@@ -0,0 +1,31 @@
+package com.example.Grocito.dto;
+
+/**
+ * Outcome of a bulk status update for one order. status is the order's status after the update, null when
+ * the order was not found or is outside the admin's region.
+ */
+public record BulkStatusResult(Long orderId, Result result, String status, String message) {
+
+    public enum Result { UPDATED, UNCHANGED, REJECTED, NOT_FOUND, ACCESS_DENIED }
+
+    public static BulkStatusResult updated(Long orderId, String status) {
+        return new BulkStatusResult(orderId, Result.UPDATED, status, null);
+    }
+
+    public static BulkStatusResult unchanged(Long orderId, String status) {
+        return new BulkStatusResult(orderId, Result.UNCHANGED, status, "Order is already " + status);
+    }
+
+    public static BulkStatusResult rejected(Long orderId, String status, String reason) {
+        return new BulkStatusResult(orderId, Result.REJECTED, status, reason);
+    }
+
+    public static BulkStatusResult notFound(Long orderId) {
+        return new BulkStatusResult(orderId, Result.NOT_FOUND, null, "Order not found with id: " + orderId);
+    }
+
+    public static BulkStatusResult accessDenied(Long orderId) {
+        return new BulkStatusResult(orderId, Result.ACCESS_DENIED, null,
+                "Access denied. You can only update orders from your assigned region.");
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Grocito.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Order count and revenue of one day and status, the unit the order analytics are rolled up from.
+ * Selected from the orders table and from the archived daily totals alike.
+ */
+public record OrderDayTotals(LocalDate day, String status, long orders, double revenue) {
+
+    // Constructor used by the repository constructor expressions
+    public OrderDayTotals(LocalDate day, String status, Long orders, Double revenue) {
+        this(day, status, orders != null ? orders : 0L, revenue != null ? revenue : 0.0);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.Grocito.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Order item row for {@link OrderSummaryDto}, selected together with the product columns the clients display
+ */
+public record OrderLineDto(
+        @JsonIgnore Long orderId,
+        Long id,
+        int quantity,
+        double price,
+        double totalPrice,
+        ProductRef product) {
+
+    // Flat constructor used by the repository constructor expression
+    public OrderLineDto(Long orderId, Long id, Integer quantity, Double price, Double totalPrice,
+                        Long productId, String productName, Double productPrice, String productImageUrl,
+                        String productCategory) {
+        this(orderId, id, quantity != null ? quantity : 0, price != null ? price : 0.0,
+                totalPrice != null ? totalPrice : 0.0,
+                productId != null ? new ProductRef(productId, productName,
+                        productPrice != null ? productPrice : 0.0, productImageUrl, productCategory) : null);
+    }
+
+    public record ProductRef(Long id, String name, double price, String imageUrl, String category) {}
+}
@@ -0,0 +1,51 @@
+package com.example.Grocito.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lean read model for order lists. Populated by a JPQL constructor expression so only the
+ * listed columns are selected; items are attached afterwards with one query per page.
+ * JSON field names match the Order entity so existing clients keep working.
+ */
+public record OrderSummaryDto(
+        Long id,
+        String status,
+        LocalDateTime orderTime,
+        String deliveryAddress,
+        String pincode,
+        double totalAmount,
+        double deliveryFee,
+        String paymentMethod,
+        String paymentStatus,
+        String actualPaymentMethod,
+        LocalDateTime assignedAt,
+        LocalDateTime pickedUpAt,
+        LocalDateTime deliveredAt,
+        LocalDateTime cancelledAt,
+        CustomerRef user,
+        PartnerRef deliveryPartner,
+        List<OrderLineDto> items) {
+
+    // Flat constructor used by the repository constructor expressions (user and partner are left joined)
+    public OrderSummaryDto(Long id, String status, LocalDateTime orderTime, String deliveryAddress, String pincode,
+                           Double totalAmount, Double deliveryFee, String paymentMethod, String paymentStatus,
+                           String actualPaymentMethod, LocalDateTime assignedAt, LocalDateTime pickedUpAt,
+                           LocalDateTime deliveredAt, LocalDateTime cancelledAt,
+                           Long userId, String userFullName, String userEmail, String userContactNumber,
+                           Long partnerId, String partnerFullName, String partnerPhoneNumber,
+                           String partnerVehicleType, String partnerVehicleNumber) {
+        this(id, status, orderTime, deliveryAddress, pincode,
+                totalAmount != null ? totalAmount : 0.0, deliveryFee != null ? deliveryFee : 0.0, paymentMethod, paymentStatus,
+                actualPaymentMethod, assignedAt, pickedUpAt, deliveredAt, cancelledAt,
+                userId != null ? new CustomerRef(userId, userFullName, userEmail, userContactNumber) : null,
+                partnerId != null ? new PartnerRef(partnerId, partnerFullName, partnerPhoneNumber,
+                        partnerVehicleType, partnerVehicleNumber) : null,
+                new ArrayList<>());
+    }
+
+    public record CustomerRef(Long id, String fullName, String email, String contactNumber) {}
+
+    public record PartnerRef(Long id, String fullName, String phoneNumber, String vehicleType, String vehicleNumber) {}
+}
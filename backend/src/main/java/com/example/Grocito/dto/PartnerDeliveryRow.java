@@ -0,0 +1,24 @@
+package com.example.Grocito.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A delivered order of a partner with the fee and earning stored at checkout. Selected from the orders
+ * table and from the archive alike.
+ */
+public record PartnerDeliveryRow(
+        Long orderId,
+        String pincode,
+        LocalDateTime orderTime,
+        LocalDateTime deliveredAt,
+        double totalAmount,
+        double deliveryFee,
+        double partnerEarning) {
+
+    // Constructor used by the repository constructor expressions
+    public PartnerDeliveryRow(Long orderId, String pincode, LocalDateTime orderTime, LocalDateTime deliveredAt,
+                              Double totalAmount, Double deliveryFee, Double partnerEarning) {
+        this(orderId, pincode, orderTime, deliveredAt, totalAmount != null ? totalAmount : 0.0,
+                deliveryFee != null ? deliveryFee : 0.0, partnerEarning != null ? partnerEarning : 0.0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.Grocito.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payment history entry selected straight from the orders table
+ */
+public record PaymentHistoryRow(
+        Long orderId,
+        LocalDateTime orderTime,
+        double totalAmount,
+        String paymentMethod,
+        String paymentStatus,
+        String actualPaymentMethod,
+        String paymentId,
+        LocalDateTime paymentCompletedAt,
+        String paymentNotes,
+        String orderStatus,
+        String paymentDescription) {
+
+    // Constructor used by the repository constructor expression
+    public PaymentHistoryRow(Long orderId, LocalDateTime orderTime, Double totalAmount, String paymentMethod,
+                             String paymentStatus, String actualPaymentMethod, String paymentId,
+                             LocalDateTime paymentCompletedAt, String paymentNotes, String orderStatus) {
+        this(orderId, orderTime, totalAmount != null ? totalAmount : 0.0, paymentMethod, paymentStatus,
+                actualPaymentMethod, paymentId, paymentCompletedAt, paymentNotes, orderStatus,
+                describePayment(paymentMethod, paymentStatus, actualPaymentMethod));
+    }
+
+    /**
+     * User-friendly payment description
+     */
+    public static String describePayment(String paymentMethod, String paymentStatus, String actualPaymentMethod) {
+        if ("ONLINE".equals(paymentMethod)) {
+            return "Paid Online";
+        } else if ("COD".equals(paymentMethod)) {
+            if ("PAID".equals(paymentStatus)) {
+                if ("CASH".equals(actualPaymentMethod)) {
+                    return "Paid by Cash on Delivery";
+                } else if ("UPI".equals(actualPaymentMethod)) {
+                    return "Paid by UPI on Delivery";
+                } else if ("CARD".equals(actualPaymentMethod)) {
+                    return "Paid by Card on Delivery";
+                } else {
+                    return "Paid on Delivery";
+                }
+            } else {
+                return "Cash on Delivery - Payment Pending";
+            }
+        }
+        return "Unknown Payment Method";
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.Grocito.etag;
+
+import com.example.Grocito.Entity.Location;
+import com.example.Grocito.Entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Bumps the content version of the product and location listings on every entity write,
+ * including the stock decrement at checkout, so no write path can forget to.
+ */
+public class CatalogVersionListener {
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Product product) {
+            versions.bump(ResourceVersions.PRODUCTS, ResourceVersions.products(product.getPincode()));
+        } else if (entity instanceof Location) {
+            versions.bump(ResourceVersions.LOCATIONS);
+        }
+    }
+}
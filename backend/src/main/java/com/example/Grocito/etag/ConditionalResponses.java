@@ -0,0 +1,139 @@
+package com.example.Grocito.etag;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves versioned JSON with ETag/Last-Modified validators. A matching If-None-Match or
+ * If-Modified-Since gets a 304 before the loader runs; otherwise the serialized (and gzipped)
+ * bytes of the current version are reused until the resource is bumped.
+ */
+@Component
+public class ConditionalResponses {
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${http-cache.max-entries:512}")
+    private int maxEntries;
+
+    @Value("${http-cache.compress-min-bytes:1024}")
+    private int compressMinBytes;
+
+    private record Representation(String etag, byte[] identity, byte[] gzip) {}
+
+    // Access-ordered, so the hottest representations stay
+    private final Map<String, Representation> representations = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Representation> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * @param resource version counter the response is derived from
+     * @param variant  distinguishes responses of the same resource (path and query parameters)
+     * @param loader   builds the response body, only called when the stored bytes are outdated
+     */
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String resource, String variant, Supplier<?> loader) {
+        ResourceVersions.ContentVersion version = versions.current(resource);
+        String etag = versions.etag(version);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setLastModified(version.lastModified());
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(java.util.List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        if (notModified(request, etag, version.lastModified())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        String key = resource + "|" + variant;
+        Representation representation;
+        synchronized (representations) {
+            representation = representations.get(key);
+        }
+        if (representation == null || !representation.etag().equals(etag)) {
+            representation = build(etag, loader.get());
+            synchronized (representations) {
+                representations.put(key, representation);
+            }
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (representation.gzip() != null && acceptsGzip(request)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(representation.gzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(representation.identity(), headers, HttpStatus.OK);
+    }
+
+    private boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since (RFC 9110)
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.equals("*") || stripWeak(value).equals(stripWeak(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            // HTTP dates have second precision
+            return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private Representation build(String etag, Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            return new Representation(etag, identity, identity.length >= compressMinBytes ? gzip(identity) : null);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response: " + e.getMessage());
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress response: " + e.getMessage());
+        }
+        return out.toByteArray();
+    }
+}
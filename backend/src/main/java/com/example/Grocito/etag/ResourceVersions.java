@@ -0,0 +1,221 @@
+package com.example.Grocito.etag;
+
+import com.example.Grocito.Entity.ResourceVersion;
+import com.example.Grocito.Repository.ResourceVersionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content version counter per cacheable resource. Write paths bump the version, the ETag of
+ * every response built from that resource is derived from it, so validating a client's ETag
+ * never touches the database.
+ *
+ * The versions are shared through the resource_versions table: a background sync pushes local bumps
+ * every http-cache.version-sync-ms and pulls the bumps of other instances, so all instances issue the
+ * same ETag for the same version. Until a local bump is pushed, this instance serves a local ETag
+ * for it, so its own changes show at once. Without the repository (benchmarks) versions stay local.
+ */
+@Component
+public class ResourceVersions {
+    private final Logger logger = LoggerFactory.getLogger(ResourceVersions.class);
+
+    public static final String LOCATIONS = "locations";
+    public static final String DELIVERY_POLICY = "delivery-fee-policy";
+    public static final String PRODUCTS = "products";
+
+    // Rows changed this long before the last pull are read again, covering clock differences between instances
+    private static final long PULL_OVERLAP_SECONDS = 60;
+
+    // Distinguishes local validators of different instances and of a restarted instance
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    private final long startedAt = System.currentTimeMillis();
+    private final ConcurrentHashMap<String, ContentVersion> versions = new ConcurrentHashMap<>();
+
+    // Bumps and first-seen resources not yet written to resource_versions
+    private final Set<String> pendingBumps = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPrefixBumps = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingRegistrations = ConcurrentHashMap.newKeySet();
+
+    // Resolved on use: the catalog entity listener needs this bean while the repositories are being created
+    @Autowired
+    private ObjectProvider<ResourceVersionRepository> repository;
+
+    @Value("${http-cache.max-validator-age-seconds:0}")
+    private long maxValidatorAgeSeconds;
+
+    @Value("${http-cache.version-sync-ms:1000}")
+    private long syncIntervalMillis;
+
+    private LocalDateTime lastPull = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param shared       version from resource_versions
+     * @param localBumps   bumps on this instance not yet reflected in shared
+     * @param lastModified epoch millis of the last change
+     */
+    public record ContentVersion(long shared, long localBumps, long lastModified) {}
+
+    /**
+     * Resource name for the product listings of one pincode
+     */
+    public static String products(String pincode) {
+        return PRODUCTS + ":" + pincode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (repository.getIfAvailable() == null || syncIntervalMillis <= 0) {
+            return;
+        }
+        try {
+            pull(repository.getObject());
+        } catch (RuntimeException e) {
+            logger.warn("Could not load resource versions, starting from local versions: {}", e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-version-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            // Hand the last local bumps to the other instances
+            sync();
+        }
+    }
+
+    public ContentVersion current(String resource) {
+        return versions.computeIfAbsent(resource, k -> {
+            pendingRegistrations.add(k);
+            return new ContentVersion(0, 0, startedAt);
+        });
+    }
+
+    public String etag(ContentVersion version) {
+        String tag = Long.toString(version.shared());
+        if (version.localBumps() > 0) {
+            tag += "." + instanceTag + "." + version.localBumps();
+        }
+        if (maxValidatorAgeSeconds > 0) {
+            tag += "-" + System.currentTimeMillis() / (maxValidatorAgeSeconds * 1000);
+        }
+        // Weak: the same version is served both gzip-encoded and as identity
+        return "W/\"" + tag + "\"";
+    }
+
+    /**
+     * Bump now and again after the surrounding transaction commits, so a response built from
+     * data read between the flush and the commit is not kept under the new version.
+     */
+    public void bump(String... resources) {
+        bumpNow(resources);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpNow(resources);
+                }
+            });
+        }
+    }
+
+    /**
+     * Bump every resource whose name starts with the prefix (e.g. all product listings),
+     * including those only other instances have served
+     */
+    public void bumpAll(String prefix) {
+        pendingPrefixBumps.add(prefix);
+        versions.keySet().stream()
+                .filter(resource -> resource.startsWith(prefix))
+                .forEach(resource -> bumpLocally(resource, false));
+    }
+
+    private void bumpNow(String... resources) {
+        for (String resource : resources) {
+            bumpLocally(resource, true);
+        }
+    }
+
+    private void bumpLocally(String resource, boolean push) {
+        long now = System.currentTimeMillis();
+        versions.compute(resource, (k, v) -> {
+            // Marked inside compute, so a concurrent pull of the same resource sees the bump as pending
+            if (push) {
+                pendingBumps.add(k);
+            }
+            return v == null ? new ContentVersion(0, 1, now) : new ContentVersion(v.shared(), v.localBumps() + 1, now);
+        });
+    }
+
+    void sync() {
+        try {
+            ResourceVersionRepository store = repository.getObject();
+            push(store);
+            pull(store);
+        } catch (RuntimeException e) {
+            // Retried on the next sync; until then this instance keeps serving its local versions
+            logger.warn("Resource version sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void push(ResourceVersionRepository store) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String resource : pendingRegistrations) {
+            store.register(resource, now);
+            pendingRegistrations.remove(resource);
+        }
+        for (String prefix : pendingPrefixBumps) {
+            pendingPrefixBumps.remove(prefix);
+            store.incrementMatching(prefix + "%", now);
+        }
+        for (String resource : pendingBumps) {
+            pendingBumps.remove(resource);
+            try {
+                store.increment(resource, now);
+            } catch (RuntimeException e) {
+                pendingBumps.add(resource);
+                throw e;
+            }
+        }
+    }
+
+    private void pull(ResourceVersionRepository store) {
+        LocalDateTime pulledAt = LocalDateTime.now();
+        for (ResourceVersion row : store.findByUpdatedAtAfter(lastPull.minusSeconds(PULL_OVERLAP_SECONDS))) {
+            long modified = row.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            versions.compute(row.getResourceName(), (k, v) -> {
+                if (v != null && row.getVersion() <= v.shared()) {
+                    return v;
+                }
+                // Pushed bumps are part of the shared version now; a bump made since is still pending
+                long localBumps = v != null && pendingBumps.contains(k) ? v.localBumps() : 0;
+                return new ContentVersion(row.getVersion(), localBumps,
+                        v != null ? Math.max(v.lastModified(), modified) : modified);
+            });
+        }
+        lastPull = pulledAt;
+    }
+}
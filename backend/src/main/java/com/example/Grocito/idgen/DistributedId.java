@@ -0,0 +1,17 @@
+package com.example.Grocito.idgen;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the id from the active {@link IdGenerator} before insert, instead of database IDENTITY
+ */
+@IdGeneratorType(DistributedIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface DistributedId {
+}
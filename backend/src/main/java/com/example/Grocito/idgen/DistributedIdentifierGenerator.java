@@ -0,0 +1,29 @@
+package com.example.Grocito.idgen;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate bridge for {@link DistributedId}. Because the id is known before the INSERT,
+ * Hibernate can batch inserts (hibernate.jdbc.batch_size), which IDENTITY prevents.
+ */
+public class DistributedIdentifierGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        // Keep ids that were assigned explicitly (e.g. records copied between tables)
+        if (currentValue != null) {
+            return currentValue;
+        }
+        return IdGenerators.get().nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
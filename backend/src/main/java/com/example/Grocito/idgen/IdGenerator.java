@@ -0,0 +1,10 @@
+package com.example.Grocito.idgen;
+
+/**
+ * Source of primary keys for entities annotated with {@link DistributedId}.
+ * Implementations must be thread-safe and never return the same value twice.
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,24 @@
+package com.example.Grocito.idgen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the entity id generator. Set ids.generator to another value and declare
+ * an {@link IdGenerator} bean to replace the Snowflake default.
+ */
+@Configuration
+public class IdGeneratorConfig {
+    private final Logger logger = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "ids.generator", havingValue = "snowflake", matchIfMissing = true)
+    public IdGenerator snowflakeIdGenerator(NodeIdLease nodeIdLease) {
+        int nodeId = nodeIdLease.getNodeId();
+        logger.info("Using Snowflake id generator with node id {}", nodeId);
+        return new SnowflakeIdGenerator(nodeId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.Grocito.idgen;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the configured {@link IdGenerator} to Hibernate through {@link IdGenerators}
+ */
+@Component
+public class IdGeneratorInstaller {
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @PostConstruct
+    public void install() {
+        IdGenerators.install(idGenerator);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.Grocito.idgen;
+
+/**
+ * Process-wide holder for the active {@link IdGenerator}. Hibernate instantiates
+ * {@link DistributedIdentifierGenerator} itself, so it reads the generator from here;
+ * {@link IdGeneratorInstaller} installs the Spring-configured one at startup. There is no default,
+ * so entities are never given ids from a generator that does not hold a node id.
+ */
+public final class IdGenerators {
+
+    private static volatile IdGenerator current;
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator get() {
+        IdGenerator generator = current;
+        if (generator == null) {
+            throw new IllegalStateException("No IdGenerator installed; entities are persisted before the application context started");
+        }
+        return generator;
+    }
+
+    public static void install(IdGenerator generator) {
+        current = generator;
+    }
+}
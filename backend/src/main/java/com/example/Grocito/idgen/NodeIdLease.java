@@ -0,0 +1,144 @@
+package com.example.Grocito.idgen;
+
+import com.example.Grocito.Repository.IdGeneratorNodeRepository;
+import com.example.Grocito.config.LoggerConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds this instance's Snowflake node id as a lease row in id_generator_nodes, so two running
+ * instances never generate ids with the same node id. ids.node-id picks the node id explicitly and
+ * startup fails while another live instance holds it; without it the first free node id is taken.
+ * The lease is renewed by a heartbeat and released on shutdown; an instance that stops without
+ * releasing it loses it once the heartbeat is older than ids.node-lease.expiry-seconds.
+ */
+@Component
+@ConditionalOnProperty(name = "ids.generator", havingValue = "snowflake", matchIfMissing = true)
+public class NodeIdLease {
+
+    private static final Logger logger = LoggerConfig.getLogger(NodeIdLease.class);
+
+    @Autowired
+    private IdGeneratorNodeRepository nodeRepository;
+
+    @Value("${ids.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${ids.node-lease.heartbeat-seconds:5}")
+    private long heartbeatSeconds;
+
+    @Value("${ids.node-lease.expiry-seconds:30}")
+    private long expirySeconds;
+
+    private final String instanceId = instanceName() + ":" + ProcessHandle.current().pid() + ":"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile int nodeId = -1;
+
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void acquire() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            int requested = Integer.parseInt(configuredNodeId.trim());
+            if (requested < 0 || requested > SnowflakeIdGenerator.MAX_NODE_ID) {
+                throw new IllegalStateException("ids.node-id must be between 0 and " + SnowflakeIdGenerator.MAX_NODE_ID
+                        + ", got " + requested);
+            }
+            if (!tryClaim(requested)) {
+                throw new IllegalStateException("Snowflake node id " + requested + " is held by another running instance ("
+                        + holderOf(requested) + "); give every instance its own ids.node-id / NODE_ID");
+            }
+            nodeId = requested;
+        } else {
+            for (int candidate = 0; candidate <= SnowflakeIdGenerator.MAX_NODE_ID && nodeId < 0; candidate++) {
+                if (tryClaim(candidate)) {
+                    nodeId = candidate;
+                }
+            }
+            if (nodeId < 0) {
+                throw new IllegalStateException("All " + (SnowflakeIdGenerator.MAX_NODE_ID + 1)
+                        + " Snowflake node ids are held by running instances");
+            }
+        }
+        logger.info("Holding Snowflake node id {} as {}", nodeId, instanceId);
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "id-node-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renew, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void release() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (nodeId >= 0) {
+            try {
+                nodeRepository.release(nodeId, instanceId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not release Snowflake node id {}: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    public int getNodeId() {
+        if (nodeId < 0) {
+            throw new IllegalStateException("No Snowflake node id is held");
+        }
+        return nodeId;
+    }
+
+    private boolean tryClaim(int candidate) {
+        LocalDateTime now = LocalDateTime.now();
+        if (nodeRepository.claim(candidate, instanceId, now, now.minusSeconds(expirySeconds)) == 1) {
+            return true;
+        }
+        try {
+            return nodeRepository.insert(candidate, instanceId, now) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Held by a live instance, or claimed by one starting at the same time
+            return false;
+        }
+    }
+
+    private void renew() {
+        try {
+            if (nodeRepository.renew(nodeId, instanceId, LocalDateTime.now()) == 0 && !tryClaim(nodeId)) {
+                // Heartbeats stalled past the expiry and another instance took the node id over
+                logger.error("Lost the lease on Snowflake node id {} to {}; ids may collide until this instance is restarted",
+                        nodeId, holderOf(nodeId));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not renew the lease on Snowflake node id {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private String holderOf(int candidate) {
+        return nodeRepository.findById(candidate).map(node -> node.getInstanceId()).orElse("unknown");
+    }
+
+    private static String instanceName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
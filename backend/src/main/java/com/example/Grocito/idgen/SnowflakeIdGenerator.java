@@ -0,0 +1,87 @@
+package com.example.Grocito.idgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style generator: milliseconds since {@link #EPOCH}, node id and a per-millisecond sequence.
+ * Layout of the internal value (53 bits, so ids stay exact as JavaScript numbers in the frontends):
+ * 41 bits time | 5 bits node | 7 bits sequence, i.e. 32 nodes and 128 ids per millisecond per node.
+ *
+ * The value is not used as is: its low {@link #SHARD_BITS} bits, mixed with the time, are moved to the top
+ * of the id. Consecutive ids therefore land in 16 different key ranges instead of always being appended
+ * to the right-most B-tree page / region, which is the write hotspot of increasing keys on distributed
+ * SQL. The mapping is a bijection, so ids stay unique; they are only roughly ordered by time.
+ *
+ * Lock-free: the last (time, sequence) pair is one AtomicLong updated with CAS, and nextId() does not allocate.
+ * If the sequence runs out or the clock goes backwards, time is advanced logically instead of blocking,
+ * so the internal value stays strictly increasing per node.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH = 1704067200000L;
+
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 7;
+    public static final int SHARD_BITS = 4;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIME_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final int ID_BITS = 41 + TIME_SHIFT;
+    private static final long SHARD_MASK = (1L << SHARD_BITS) - 1;
+    private static final long UNSHARDED_MASK = (1L << (ID_BITS - SHARD_BITS)) - 1;
+
+    private final long nodeId;
+    private final long nodeBits;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new RuntimeException("Snowflake node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+            // New millisecond starts at sequence 0, otherwise continue (overflow carries into the time bits)
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                return scatter((time << TIME_SHIFT) | nodeBits | (next & SEQUENCE_MASK));
+            }
+        }
+    }
+
+    /**
+     * Creation time encoded in an id, in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (gather(id) >>> TIME_SHIFT) + EPOCH;
+    }
+
+    // Rotate the low bits to the top; XOR with the time so ids of idle periods (sequence 0) spread too
+    static long scatter(long value) {
+        long shard = (value ^ (value >>> TIME_SHIFT)) & SHARD_MASK;
+        return (shard << (ID_BITS - SHARD_BITS)) | (value >>> SHARD_BITS);
+    }
+
+    // Inverse of scatter: the time bits are intact in the unsharded part, so the low bits can be restored
+    static long gather(long id) {
+        long high = (id & UNSHARDED_MASK) << SHARD_BITS;
+        long time = high >>> TIME_SHIFT;
+        long low = ((id >>> (ID_BITS - SHARD_BITS)) ^ time) & SHARD_MASK;
+        return high | low;
+    }
+}
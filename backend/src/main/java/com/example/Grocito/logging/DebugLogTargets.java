@@ -0,0 +1,155 @@
+package com.example.Grocito.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Users, pincodes and a sample rate for which requests log at DEBUG while the configured
+ * level stays INFO. Targets are set at runtime through /actuator/debuglogging and expire
+ * on their own so a forgotten target does not keep a user on DEBUG.
+ */
+@Component
+public class DebugLogTargets {
+    private final Logger logger = LoggerFactory.getLogger(DebugLogTargets.class);
+
+    @Value("${logging.debug-targeting.max-minutes:30}")
+    private long maxMinutes;
+
+    // Only application loggers are raised, framework DEBUG output would drown the request
+    @Value("${logging.debug-targeting.logger-prefix:com.example.Grocito}")
+    private String loggerPrefix;
+
+    // Target -> expiry in epoch millis
+    private final Map<String, Long> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> pincodes = new ConcurrentHashMap<>();
+    private volatile double sampleRate;
+    private volatile long sampleExpiresAt;
+
+    // Checked first on every DEBUG call, so the common case costs a volatile read
+    private volatile boolean active;
+
+    private TargetedDebugTurboFilter turboFilter;
+
+    @PostConstruct
+    public void install() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext loggerContext)) {
+            logger.warn("Targeted debug logging needs logback, found {}", loggerFactory.getClass().getName());
+            return;
+        }
+        turboFilter = new TargetedDebugTurboFilter(this, loggerPrefix);
+        turboFilter.setName("targeted-debug");
+        turboFilter.start();
+        loggerContext.addTurboFilter(turboFilter);
+    }
+
+    @PreDestroy
+    public void uninstall() {
+        if (turboFilter != null && LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            loggerContext.getTurboFilterList().remove(turboFilter);
+        }
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Decide once per request whether it logs at DEBUG
+     */
+    public boolean shouldDebug(String userId, String pincode) {
+        if (!active) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (matches(users, userId, now) || matches(pincodes, pincode, now)) {
+            return true;
+        }
+        if (now < sampleExpiresAt) {
+            return ThreadLocalRandom.current().nextDouble() < sampleRate;
+        }
+        if (users.isEmpty() && pincodes.isEmpty()) {
+            // Sampling window ended and nothing else is targeted
+            refresh();
+        }
+        return false;
+    }
+
+    public void addUser(String userId, Integer minutes) {
+        users.put(userId, expiry(minutes));
+        logger.info("DEBUG logging enabled for user {}", userId);
+        refresh();
+    }
+
+    public void addPincode(String pincode, Integer minutes) {
+        pincodes.put(pincode, expiry(minutes));
+        logger.info("DEBUG logging enabled for pincode {}", pincode);
+        refresh();
+    }
+
+    public void setSampleRate(double rate, Integer minutes) {
+        sampleRate = Math.max(0.0, Math.min(1.0, rate));
+        sampleExpiresAt = expiry(minutes);
+        logger.info("DEBUG logging sampled for {}% of requests", sampleRate * 100);
+        refresh();
+    }
+
+    public void clear() {
+        users.clear();
+        pincodes.clear();
+        sampleRate = 0.0;
+        refresh();
+        logger.info("Targeted DEBUG logging cleared");
+    }
+
+    public Map<String, Object> describe() {
+        refresh();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("active", active);
+        description.put("users", Map.copyOf(users));
+        description.put("pincodes", Map.copyOf(pincodes));
+        description.put("sampleRate", System.currentTimeMillis() < sampleExpiresAt ? sampleRate : 0.0);
+        description.put("sampleExpiresAt", sampleExpiresAt);
+        description.put("loggerPrefix", loggerPrefix);
+        return description;
+    }
+
+    private boolean matches(Map<String, Long> targets, String value, long now) {
+        if (value == null || targets.isEmpty()) {
+            return false;
+        }
+        Long expiresAt = targets.get(value);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= now) {
+            targets.remove(value);
+            refresh();
+            return false;
+        }
+        return true;
+    }
+
+    private long expiry(Integer minutes) {
+        long effective = minutes != null && minutes > 0 ? Math.min(minutes, maxMinutes) : maxMinutes;
+        return System.currentTimeMillis() + effective * 60_000;
+    }
+
+    private void refresh() {
+        long now = System.currentTimeMillis();
+        users.values().removeIf(expiresAt -> expiresAt <= now);
+        pincodes.values().removeIf(expiresAt -> expiresAt <= now);
+        active = !users.isEmpty() || !pincodes.isEmpty() || (sampleRate > 0 && now < sampleExpiresAt);
+    }
+}
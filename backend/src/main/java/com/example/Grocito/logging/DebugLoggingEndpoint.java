@@ -0,0 +1,49 @@
+package com.example.Grocito.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint to turn on DEBUG logging for single users, pincodes or a sample of
+ * requests without changing logger levels (/actuator/debuglogging)
+ */
+@Component
+@Endpoint(id = "debuglogging")
+public class DebugLoggingEndpoint {
+
+    @Autowired
+    private DebugLogTargets debugLogTargets;
+
+    @ReadOperation
+    public Map<String, Object> targets() {
+        return debugLogTargets.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> enable(@Nullable String userId, @Nullable String pincode,
+                                      @Nullable Double sampleRate, @Nullable Integer minutes) {
+        if (userId != null && !userId.isBlank()) {
+            debugLogTargets.addUser(userId.trim(), minutes);
+        }
+        if (pincode != null && !pincode.isBlank()) {
+            debugLogTargets.addPincode(pincode.trim(), minutes);
+        }
+        if (sampleRate != null) {
+            debugLogTargets.setSampleRate(sampleRate, minutes);
+        }
+        return debugLogTargets.describe();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clear() {
+        debugLogTargets.clear();
+        return debugLogTargets.describe();
+    }
+}
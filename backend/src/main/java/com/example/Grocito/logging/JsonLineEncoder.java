@@ -0,0 +1,76 @@
+package com.example.Grocito.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One flat JSON object per event: timestamp, level, thread, logger, formatted message,
+ * the MDC fields as top-level keys and the stack trace, if any. Used by the json-logs profile.
+ */
+public class JsonLineEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final JsonStringEncoder escaper = JsonStringEncoder.getInstance();
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append('{');
+        field(json, "timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+        json.append(',');
+        field(json, "level", event.getLevel().toString());
+        json.append(',');
+        field(json, "thread", event.getThreadName());
+        json.append(',');
+        field(json, "logger", event.getLoggerName());
+        json.append(',');
+        field(json, "message", event.getFormattedMessage());
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null) {
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                json.append(',');
+                field(json, entry.getKey(), entry.getValue());
+            }
+        }
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            json.append(',');
+            field(json, "exception", ThrowableProxyUtil.asString(throwable));
+        }
+        json.append('}').append('\n');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+
+    private void field(StringBuilder json, String name, String value) {
+        json.append('"');
+        escaper.quoteAsString(name, json);
+        json.append("\":");
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        escaper.quoteAsString(value, json);
+        json.append('"');
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.Grocito.logging;
+
+import com.example.Grocito.security.AuthPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Puts the request id, user and pincode into the MDC for every API request (they appear in
+ * the log pattern and as JSON fields) and flags the request for DEBUG logging when it matches
+ * a {@link DebugLogTargets} target.
+ */
+@Component
+public class RequestLogContextInterceptor implements HandlerInterceptor {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    static final String MDC_REQUEST_ID = "requestId";
+    static final String MDC_USER_ID = "userId";
+    static final String MDC_PINCODE = "pincode";
+    static final String MDC_DEBUG = "debug";
+    static final String DEBUG_FLAG = "1";
+
+    @Autowired
+    private DebugLogTargets debugLogTargets;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put(MDC_REQUEST_ID, requestId);
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        AuthPrincipal principal = AuthPrincipal.from(request);
+
+        String userId = resolveUserId(request, principal, pathVariables);
+        String pincode = resolvePincode(request, principal, pathVariables);
+        if (userId != null) {
+            MDC.put(MDC_USER_ID, userId);
+        }
+        if (pincode != null) {
+            MDC.put(MDC_PINCODE, pincode);
+        }
+        if (debugLogTargets.shouldDebug(userId, pincode)) {
+            MDC.put(MDC_DEBUG, DEBUG_FLAG);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(MDC_REQUEST_ID);
+        MDC.remove(MDC_USER_ID);
+        MDC.remove(MDC_PINCODE);
+        MDC.remove(MDC_DEBUG);
+    }
+
+    private String resolveUserId(HttpServletRequest request, AuthPrincipal principal, Map<String, String> pathVariables) {
+        if (principal != null) {
+            // Partners are logged with a prefix so their ids do not collide with customer ids
+            return principal.isUser() ? String.valueOf(principal.getId()) : "partner-" + principal.getId();
+        }
+        String userId = pathVariables != null ? pathVariables.get("userId") : null;
+        return userId != null ? userId : request.getParameter("userId");
+    }
+
+    private String resolvePincode(HttpServletRequest request, AuthPrincipal principal, Map<String, String> pathVariables) {
+        String pincode = pathVariables != null ? pathVariables.get("pincode") : null;
+        if (pincode == null) {
+            pincode = request.getParameter("landingPagePincode");
+        }
+        if (pincode == null) {
+            pincode = request.getParameter("pincode");
+        }
+        if (pincode == null && principal != null) {
+            pincode = principal.getPincode();
+        }
+        return pincode;
+    }
+}
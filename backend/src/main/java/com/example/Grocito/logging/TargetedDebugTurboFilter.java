@@ -0,0 +1,35 @@
+package com.example.Grocito.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Lets DEBUG events of application loggers through, regardless of the logger level, for
+ * requests flagged by {@link RequestLogContextInterceptor}. Runs before the level check of
+ * every logging call, so it returns as early as possible.
+ */
+class TargetedDebugTurboFilter extends TurboFilter {
+
+    private final DebugLogTargets targets;
+    private final String loggerPrefix;
+
+    TargetedDebugTurboFilter(DebugLogTargets targets, String loggerPrefix) {
+        this.targets = targets;
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != Level.DEBUG || !targets.isActive()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!RequestLogContextInterceptor.DEBUG_FLAG.equals(MDC.get(RequestLogContextInterceptor.MDC_DEBUG))) {
+            return FilterReply.NEUTRAL;
+        }
+        return logger.getName().startsWith(loggerPrefix) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.Grocito.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the service hot paths. Meter names are prefixed with "grocito." and
+ * timers publish histogram buckets, so p50/p99 can be aggregated across instances in Prometheus.
+ */
+@Component
+public class GrocitoMetrics {
+
+    public static final String ORDER_PLACE = "grocito.orders.place";
+    public static final String ORDER_ASSIGN = "grocito.orders.assign";
+    public static final String ORDER_FILTER = "grocito.orders.filter";
+    public static final String PRODUCT_SEARCH = "grocito.products.search";
+    public static final String LOCATION_SUGGESTIONS = "grocito.locations.suggestions";
+    public static final String EMAIL_SEND = "grocito.email.send";
+
+    public static final String CACHE_PRINCIPALS = "principals";
+    public static final String CACHE_LOCATIONS = "locations";
+
+    // Bucket boundaries worth alerting on, on top of the generated histogram
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2)};
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PincodeTagPolicy pincodeTags;
+
+    /**
+     * Time an operation that is not scoped to a pincode (tagged pincode=none, Prometheus needs consistent tag keys)
+     */
+    public <T> T time(String name, Supplier<T> operation) {
+        return time(name, (String) null, operation);
+    }
+
+    /**
+     * Time an operation tagged with a (bounded) pincode and its outcome
+     */
+    public <T> T time(String name, String pincode, Supplier<T> operation) {
+        return time(name, Tags.of("pincode", pincodeTags.tagFor(pincode)), operation);
+    }
+
+    public void time(String name, Tags tags, Runnable operation) {
+        time(name, tags, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    public <T> T time(String name, Tags tags, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = operation.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(name, tags.and("outcome", outcome)));
+        }
+    }
+
+    /**
+     * A requested quantity exceeded the available stock (stage: cart or checkout)
+     */
+    public void stockConflict(String stage, String pincode) {
+        Counter.builder("grocito.stock.conflicts")
+                .tags("stage", stage, "pincode", pincodeTags.tagFor(pincode))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Automatic assignment could not place an order with a partner
+     */
+    public void assignmentFailure(String reason, String pincode) {
+        Counter.builder("grocito.assignment.failures")
+                .tags("reason", reason, "pincode", pincodeTags.tagFor(pincode))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * A compare-and-set status change found the row changed since it was read
+     */
+    public void statusConflict(String machine) {
+        Counter.builder("grocito.status.conflicts")
+                .tags("machine", machine)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Entries of an in-memory read model found out of date by its consistency check
+     */
+    public void readModelDrift(String model, int entries) {
+        Counter.builder("grocito.readmodel.drift")
+                .tags("model", model)
+                .register(registry)
+                .increment(entries);
+    }
+
+    /**
+     * What became of a payment webhook (accepted, duplicate, queue-full, rejected, ignored, applied, unmatched, failed)
+     */
+    public void paymentWebhook(String outcome, int events) {
+        Counter.builder("grocito.payments.webhooks")
+                .tags("outcome", outcome)
+                .register(registry)
+                .increment(events);
+    }
+
+    public void cacheHit(String cache) {
+        cacheRequest(cache, "hit");
+    }
+
+    public void cacheMiss(String cache) {
+        cacheRequest(cache, "miss");
+    }
+
+    private void cacheRequest(String cache, String result) {
+        Counter.builder("grocito.cache.requests")
+                .tags("cache", cache, "result", result)
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(SLOS)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.Grocito.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the pincode tag bounded: only well-formed pincodes get their own series, and only
+ * up to metrics.pincode-tags.max-distinct of them. Everything else is reported as "other".
+ */
+@Component
+public class PincodeTagPolicy {
+
+    static final String NONE = "none";
+    static final String OTHER = "other";
+
+    @Value("${metrics.pincode-tags.max-distinct:100}")
+    private int maxDistinct;
+
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+    public String tagFor(String pincode) {
+        if (pincode == null || pincode.isBlank()) {
+            return NONE;
+        }
+        String value = pincode.trim();
+        if (value.length() != 6 || !value.chars().allMatch(Character::isDigit)) {
+            return OTHER;
+        }
+        if (admitted.contains(value)) {
+            return value;
+        }
+        synchronized (admitted) {
+            if (admitted.size() < maxDistinct) {
+                admitted.add(value);
+                return value;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.Grocito.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued (grocito.http.db.statements), tagged with the
+ * route template rather than the raw path so ids do not create new series. Requests above
+ * metrics.statements.warn-threshold are logged, which is usually an N+1 query.
+ */
+@Component
+public class RequestStatementMetricsFilter extends OncePerRequestFilter {
+    private final Logger logger = LoggerFactory.getLogger(RequestStatementMetricsFilter.class);
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${metrics.statements.warn-threshold:50}")
+    private int warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCountingInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            int statements = StatementCountingInspector.current();
+
+            DistributionSummary.builder("grocito.http.db.statements")
+                    .baseUnit("statements")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .serviceLevelObjectives(1, 5, 10, 25, 50, 100)
+                    .register(registry)
+                    .record(statements);
+
+            if (statements > warnThreshold) {
+                logger.warn("{} {} issued {} SQL statements", request.getMethod(), uri, statements);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.Grocito.payments;
+
+/**
+ * A verified payment webhook: the gateway order it is about and the payment it reports. Amounts are paise.
+ */
+public record PaymentEvent(String eventId, String type, String gatewayOrderId, String paymentId, long amount,
+                           String method, String errorDescription) {
+
+    public static final String PAYMENT_CAPTURED = "payment.captured";
+    public static final String ORDER_PAID = "order.paid";
+    public static final String PAYMENT_FAILED = "payment.failed";
+
+    public boolean isCaptured() {
+        return PAYMENT_CAPTURED.equals(type) || ORDER_PAID.equals(type);
+    }
+
+    public boolean isFailed() {
+        return PAYMENT_FAILED.equals(type);
+    }
+
+    /**
+     * The method stored on the order; COD orders only know CASH, UPI and CARD, other digital methods count as UPI
+     */
+    public String actualPaymentMethod() {
+        return "card".equalsIgnoreCase(method) ? "CARD" : "UPI";
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.Grocito.payments;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 signatures of the payment gateway: the checkout callback signs "order_id|payment_id" with the
+ * key secret, webhooks sign the raw request body with the webhook secret. Each thread keeps its own
+ * initialised {@link Mac}, so a check costs the hash only.
+ */
+@Component
+public class PaymentSignatures {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${payments.razorpay.key-secret:}")
+    private String keySecret;
+
+    @Value("${payments.razorpay.webhook-secret:}")
+    private String webhookSecret;
+
+    private final ThreadLocal<Mac> checkoutMac = ThreadLocal.withInitial(() -> mac(keySecret));
+    private final ThreadLocal<Mac> webhookMac = ThreadLocal.withInitial(() -> mac(webhookSecret));
+
+    public boolean isWebhookConfigured() {
+        return !webhookSecret.isBlank();
+    }
+
+    public boolean isCheckoutConfigured() {
+        return !keySecret.isBlank();
+    }
+
+    /**
+     * Signature of the X-Razorpay-Signature header over the exact bytes received
+     */
+    public boolean verifyWebhook(byte[] body, String signature) {
+        return isWebhookConfigured() && matches(webhookMac.get().doFinal(body), signature);
+    }
+
+    /**
+     * Signature returned to the checkout for a successful payment of the gateway order
+     */
+    public boolean verifyCheckout(String gatewayOrderId, String paymentId, String signature) {
+        if (!isCheckoutConfigured() || gatewayOrderId == null || paymentId == null) {
+            return false;
+        }
+        byte[] payload = (gatewayOrderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8);
+        return matches(checkoutMac.get().doFinal(payload), signature);
+    }
+
+    private static boolean matches(byte[] expected, String signature) {
+        if (signature == null || signature.length() != expected.length * 2) {
+            return false;
+        }
+        try {
+            return MessageDigest.isEqual(expected, HexFormat.of().parseHex(signature));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Mac mac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            // An empty key is not allowed; unconfigured secrets never verify anyway
+            mac.init(new SecretKeySpec((secret.isEmpty() ? " " : secret).getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available: " + e.getMessage(), e);
+        }
+    }
+}
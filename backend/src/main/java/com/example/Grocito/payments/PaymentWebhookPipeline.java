@@ -0,0 +1,596 @@
+package com.example.Grocito.payments;
+
+import com.example.Grocito.Entity.PaymentWebhookInboxEvent;
+import com.example.Grocito.Repository.PaymentWebhookInboxRepository;
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Payment webhooks from the gateway, in three stages so a retry burst neither holds request threads nor
+ * holds more than one database connection for applying:
+ * <ol>
+ *   <li>the request thread drops event ids it has already seen, writes the raw body to the
+ *   payment_webhook_inbox table and queues it (or answers 503 when the queue is full or the write fails,
+ *   the gateway retries later),</li>
+ *   <li>verify threads check the HMAC signature with a per-thread Mac, parse the payload and drop
+ *   duplicates by event id,</li>
+ *   <li>a single apply thread writes queued events to their orders in batches, one transaction and one
+ *   connection per batch, deleting their inbox rows in the same transaction.</li>
+ * </ol>
+ * The updates are conditional (a paid order stays paid, a cancelled one is not paid, the amount has to
+ * match the order total), so an event applied twice, e.g. after the dedup cache evicted its id, changes
+ * nothing. An event that could not be applied stays in the inbox, as do the events of an instance that
+ * stopped; once their next attempt is due, any instance claims them and queues them again, at start and
+ * every payments.webhooks.inbox-poll-seconds.
+ */
+@Component
+public class PaymentWebhookPipeline {
+
+    private static final Logger logger = LoggerConfig.getLogger(PaymentWebhookPipeline.class);
+
+    public enum Outcome { ACCEPTED, DUPLICATE, QUEUE_FULL, NOT_STORED, DISABLED }
+
+    // A cancelled order is not marked paid; the capture is counted and logged for a refund instead
+    private static final String CAPTURED_SQL = "UPDATE orders SET payment_status = 'PAID', payment_id = ?, " +
+            "actual_payment_method = ?, payment_completed_at = ?, payment_notes = ?, version = version + 1 " +
+            "WHERE gateway_order_id = ? AND payment_status <> 'PAID' AND status <> 'CANCELLED' " +
+            "AND ROUND(total_amount * 100) = ?";
+
+    // COD orders stay payable (in cash or another attempt) after a failed digital payment
+    private static final String FAILED_SQL = "UPDATE orders SET payment_notes = ?, version = version + 1 " +
+            "WHERE gateway_order_id = ? AND payment_status = 'PENDING'";
+
+    private static final String PAYMENT_OF_GATEWAY_ORDER = "SELECT payment_id, ROUND(total_amount * 100), status, id " +
+            "FROM orders WHERE gateway_order_id = ?";
+
+    private static final String DELETE_FROM_INBOX_SQL = "DELETE FROM payment_webhook_inbox WHERE id = ?";
+
+    private static final int MAX_NOTE_LENGTH = 255;
+
+    // The retry delay grows with the attempts up to this many times payments.webhooks.inbox-retry-seconds
+    private static final int MAX_RETRY_STEPS = 10;
+
+    @Value("${payments.webhooks.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${payments.webhooks.verify-threads:2}")
+    private int verifyThreads;
+
+    @Value("${payments.webhooks.apply-batch-size:200}")
+    private int applyBatchSize;
+
+    @Value("${payments.webhooks.apply-max-attempts:5}")
+    private int applyMaxAttempts;
+
+    @Value("${payments.webhooks.apply-retry-ms:500}")
+    private long applyRetryMillis;
+
+    @Value("${payments.webhooks.dedup-max-entries:100000}")
+    private int dedupMaxEntries;
+
+    @Value("${payments.webhooks.inbox-retry-seconds:60}")
+    private long inboxRetrySeconds;
+
+    @Value("${payments.webhooks.inbox-poll-seconds:15}")
+    private long inboxPollSeconds;
+
+    @Autowired
+    private PaymentSignatures signatures;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PaymentWebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private GrocitoMetrics metrics;
+
+    /**
+     * @param retry taken from the inbox again, its event id may already be marked as seen
+     */
+    private record Delivery(long inboxId, String eventId, byte[] body, String signature, boolean retry) {}
+
+    private record InboxedEvent(long inboxId, PaymentEvent event) {}
+
+    private BlockingQueue<Delivery> inbound;
+    private BlockingQueue<InboxedEvent> verified;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService verifiers;
+    private ExecutorService applier;
+    private ScheduledExecutorService inboxPoller;
+
+    // Events accepted and not yet applied or dropped, wherever they are in the pipeline
+    private final AtomicInteger unfinished = new AtomicInteger();
+
+    // Inbox rows of the events in the pipeline, not claimed again while they are
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Ids of verified events, access ordered so retried ids stay while old ones are evicted
+    private final Map<String, Boolean> seenEventIds = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > dedupMaxEntries;
+        }
+    };
+
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        inbound = new ArrayBlockingQueue<>(queueCapacity);
+        verified = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int threads = Math.max(1, verifyThreads);
+        AtomicInteger threadCount = new AtomicInteger();
+        verifiers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-verify-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            verifiers.execute(this::verifyLoop);
+        }
+        applier = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-apply");
+            thread.setDaemon(true);
+            return thread;
+        });
+        applier.execute(this::applyLoop);
+    }
+
+    /**
+     * Queue what the inbox holds from before the start, then look for due events periodically
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInbox() {
+        if (!signatures.isWebhookConfigured()) {
+            return;
+        }
+        drainInbox();
+        if (inboxPollSeconds > 0) {
+            inboxPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "payment-webhook-inbox");
+                thread.setDaemon(true);
+                return thread;
+            });
+            inboxPoller.scheduleWithFixedDelay(this::drainInbox, inboxPollSeconds, inboxPollSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (inboxPoller != null) {
+            inboxPoller.shutdownNow();
+        }
+        verifiers.shutdownNow();
+        applier.shutdownNow();
+        int pending = pending();
+        if (pending > 0) {
+            logger.warn("Stopping with {} payment webhook events not applied, left in the inbox", pending);
+        }
+        if (!inFlight.isEmpty()) {
+            // Due at once, so the next start or another instance need not wait for the retry delay
+            try {
+                inboxRepository.makeDue(List.copyOf(inFlight), LocalDateTime.now());
+            } catch (DataAccessException e) {
+                logger.warn("Could not release {} payment webhook events in the inbox: {}", inFlight.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Store a webhook as received and queue it; the signature is checked later on a verify thread
+     *
+     * @param eventId the X-Razorpay-Event-Id header, may be null
+     */
+    public Outcome submit(byte[] body, String signature, String eventId) {
+        if (!signatures.isWebhookConfigured()) {
+            return Outcome.DISABLED;
+        }
+        if (eventId != null && isSeen(eventId)) {
+            count("duplicate");
+            return Outcome.DUPLICATE;
+        }
+        // Refused before it is stored, the gateway retries once the apply thread caught up
+        if (inbound.remainingCapacity() == 0) {
+            count("queue-full");
+            return Outcome.QUEUE_FULL;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long inboxId;
+        try {
+            inboxId = inboxRepository.save(new PaymentWebhookInboxEvent(eventId, signature, body, now,
+                    now.plusSeconds(inboxRetrySeconds))).getId();
+        } catch (DataAccessException e) {
+            count("not-stored");
+            logger.error("Payment webhook {} could not be stored in the inbox: {}", eventId, e.getMessage());
+            return Outcome.NOT_STORED;
+        }
+        count("accepted");
+        if (!enqueue(new Delivery(inboxId, eventId, body, signature, false))) {
+            // Stored, so it is queued again from the inbox once its retry is due
+            logger.warn("Payment webhook {} stored but not queued, the webhook queue is full", eventId);
+        }
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Claim the due events of the inbox and queue them, as far as the queue has room
+     */
+    void drainInbox() {
+        try {
+            int queued = 0;
+            boolean claimedAny = true;
+            while (claimedAny && inbound.remainingCapacity() > 0) {
+                claimedAny = false;
+                LocalDateTime now = LocalDateTime.now();
+                List<PaymentWebhookInboxEvent> due = inboxRepository.findDue(now,
+                        PageRequest.of(0, Math.min(applyBatchSize, inbound.remainingCapacity())));
+                for (PaymentWebhookInboxEvent stored : due) {
+                    if (inFlight.contains(stored.getId())) {
+                        continue;
+                    }
+                    LocalDateTime retryAt = now.plusSeconds(
+                            inboxRetrySeconds * Math.min(stored.getAttempts() + 1, MAX_RETRY_STEPS));
+                    if (inboxRepository.claim(stored.getId(), stored.getAttempts(), now, retryAt) == 0) {
+                        continue;
+                    }
+                    claimedAny = true;
+                    if (!enqueue(new Delivery(stored.getId(), stored.getEventId(), stored.getBody(),
+                            stored.getSignature(), true))) {
+                        return;
+                    }
+                    queued++;
+                }
+            }
+            if (queued > 0) {
+                count("retried", queued);
+                logger.info("Queued {} payment webhook events from the inbox", queued);
+            }
+        } catch (DataAccessException e) {
+            // Tried again on the next poll
+            logger.warn("Could not read the payment webhook inbox: {}", e.getMessage());
+        }
+    }
+
+    private boolean enqueue(Delivery delivery) {
+        unfinished.incrementAndGet();
+        inFlight.add(delivery.inboxId());
+        if (!inbound.offer(delivery)) {
+            inFlight.remove(delivery.inboxId());
+            unfinished.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Events accepted and not applied yet
+     */
+    public int pending() {
+        return unfinished.get();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", signatures.isWebhookConfigured());
+        description.put("queued", inbound.size());
+        description.put("verified", verified.size());
+        description.put("pending", pending());
+        try {
+            description.put("inbox", inboxRepository.count());
+        } catch (DataAccessException e) {
+            description.put("inbox", "unavailable: " + e.getMessage());
+        }
+        synchronized (seenEventIds) {
+            description.put("knownEventIds", seenEventIds.size());
+        }
+        Map<String, Long> totals = new TreeMap<>();
+        counts.forEach((outcome, count) -> totals.put(outcome, count.sum()));
+        description.put("events", totals);
+        return description;
+    }
+
+    private void verifyLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Delivery delivery;
+            try {
+                delivery = inbound.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            boolean queued = false;
+            try {
+                queued = verify(delivery);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error verifying a payment webhook: {}", e.getMessage(), e);
+            } finally {
+                if (!queued) {
+                    unfinished.decrementAndGet();
+                    inFlight.remove(delivery.inboxId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check and parse a webhook; true when it was queued for the apply thread, otherwise it is dropped
+     * from the inbox
+     */
+    private boolean verify(Delivery delivery) throws InterruptedException {
+        if (!signatures.verifyWebhook(delivery.body(), delivery.signature())) {
+            count("rejected");
+            logger.warn("SECURITY: payment webhook {} rejected, signature does not match", delivery.eventId());
+            removeFromInbox(delivery.inboxId());
+            return false;
+        }
+        PaymentEvent event = parse(delivery);
+        if (event == null) {
+            count("ignored");
+            removeFromInbox(delivery.inboxId());
+            return false;
+        }
+        // An event taken from the inbox again was seen when it first arrived
+        if (!markSeen(event.eventId()) && !delivery.retry()) {
+            count("duplicate");
+            removeFromInbox(delivery.inboxId());
+            return false;
+        }
+        // Blocks while the apply thread is behind, the inbound queue then fills and new webhooks get a 503
+        verified.put(new InboxedEvent(delivery.inboxId(), event));
+        return true;
+    }
+
+    private void removeFromInbox(long inboxId) {
+        try {
+            inboxRepository.remove(inboxId);
+        } catch (DataAccessException e) {
+            // Dropped again when its retry is due
+            logger.warn("Could not remove payment webhook {} from the inbox: {}", inboxId, e.getMessage());
+        }
+    }
+
+    /**
+     * The event if it is one that changes an order, otherwise null
+     */
+    private PaymentEvent parse(Delivery delivery) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(delivery.body());
+        } catch (IOException e) {
+            logger.warn("Payment webhook {} is not valid JSON: {}", delivery.eventId(), e.getMessage());
+            return null;
+        }
+        String type = root.path("event").asText("");
+        if (!PaymentEvent.PAYMENT_CAPTURED.equals(type) && !PaymentEvent.ORDER_PAID.equals(type)
+                && !PaymentEvent.PAYMENT_FAILED.equals(type)) {
+            logger.debug("Payment webhook {} of type {} ignored", delivery.eventId(), type);
+            return null;
+        }
+        JsonNode payment = root.path("payload").path("payment").path("entity");
+        String gatewayOrderId = payment.path("order_id").textValue();
+        String paymentId = payment.path("id").textValue();
+        if (gatewayOrderId == null || paymentId == null) {
+            logger.warn("Payment webhook {} of type {} has no order or payment id", delivery.eventId(), type);
+            return null;
+        }
+        String eventId = delivery.eventId() != null ? delivery.eventId() : type + ":" + paymentId;
+        return new PaymentEvent(eventId, type, gatewayOrderId, paymentId, payment.path("amount").asLong(),
+                payment.path("method").textValue(), payment.path("error_description").textValue());
+    }
+
+    private void applyLoop() {
+        List<InboxedEvent> batch = new ArrayList<>(applyBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(verified.take());
+                verified.drainTo(batch, applyBatchSize - 1);
+                apply(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error applying payment webhooks: {}", e.getMessage(), e);
+            } finally {
+                unfinished.addAndGet(-batch.size());
+                batch.forEach(inboxed -> inFlight.remove(inboxed.inboxId()));
+                batch.clear();
+            }
+        }
+    }
+
+    private void apply(List<InboxedEvent> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= applyMaxAttempts; attempt++) {
+            try {
+                applyInTransaction(batch);
+                return;
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Applying {} payment events failed (attempt {} of {}): {}",
+                        batch.size(), attempt, applyMaxAttempts, e.getMessage());
+                if (attempt < applyMaxAttempts) {
+                    Thread.sleep(applyRetryMillis * attempt);
+                }
+            }
+        }
+        // One transaction per event, so an event that cannot be applied does not hold back the rest
+        for (InboxedEvent inboxed : batch) {
+            PaymentEvent event = inboxed.event();
+            try {
+                applyInTransaction(List.of(inboxed));
+            } catch (DataAccessException | TransactionException e) {
+                // Kept in the inbox and applied again once its retry is due
+                count("failed");
+                logger.error("Payment event {} ({} {}) for gateway order {} not applied, kept for retry: {}",
+                        event.eventId(), event.type(), event.paymentId(), event.gatewayOrderId(), e.getMessage());
+                try {
+                    inboxRepository.recordError(inboxed.inboxId(), note(String.valueOf(e.getMessage())));
+                } catch (DataAccessException ignored) {
+                    // The row is retried all the same
+                }
+            }
+        }
+    }
+
+    private void applyInTransaction(List<InboxedEvent> events) {
+        List<PaymentEvent> captured = new ArrayList<>();
+        List<PaymentEvent> failed = new ArrayList<>();
+        for (InboxedEvent inboxed : events) {
+            (inboxed.event().isCaptured() ? captured : failed).add(inboxed.event());
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // Captures first; a failure recorded after them no longer matches a paid order, whatever the arrival order.
+        // The inbox rows go in the same transaction, an event is either applied and removed or kept for retry.
+        int[][] updated = transactionTemplate.execute(status -> new int[][] {
+                update(CAPTURED_SQL, captured, (statement, event) -> {
+                    statement.setString(1, event.paymentId());
+                    statement.setString(2, event.actualPaymentMethod());
+                    statement.setTimestamp(3, now);
+                    statement.setString(4, "Digital payment via Razorpay - Payment ID: " + event.paymentId());
+                    statement.setString(5, event.gatewayOrderId());
+                    statement.setLong(6, event.amount());
+                }),
+                update(FAILED_SQL, failed, (statement, event) -> {
+                    statement.setString(1, note("Digital payment " + event.paymentId() + " failed: "
+                            + (event.errorDescription() != null ? event.errorDescription() : "no reason given")));
+                    statement.setString(2, event.gatewayOrderId());
+                }),
+                update(DELETE_FROM_INBOX_SQL, events,
+                        (statement, inboxed) -> statement.setLong(1, inboxed.inboxId()))});
+
+        for (int i = 0; i < captured.size(); i++) {
+            if (updated[0][i] != 0) {
+                count("applied");
+            } else {
+                explainUnmatched(captured.get(i));
+            }
+        }
+        // A failure for an order that is paid (or unknown) changes nothing and needs no explanation
+        for (int i = 0; i < failed.size(); i++) {
+            count(updated[1][i] != 0 ? "applied" : "unmatched");
+        }
+    }
+
+    private interface RowSetter<T> {
+        void set(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    private <T> int[] update(String sql, List<T> rows, RowSetter<T> setter) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                setter.set(statement, rows.get(index));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * A capture that changed no order: a replay of a payment already recorded, or one to look at
+     */
+    private void explainUnmatched(PaymentEvent event) {
+        Object[] order = jdbcTemplate.query(PAYMENT_OF_GATEWAY_ORDER,
+                resultSet -> resultSet.next() ? new Object[] {resultSet.getString(1), resultSet.getLong(2),
+                        resultSet.getString(3), resultSet.getLong(4)} : null,
+                event.gatewayOrderId());
+        if (order != null && event.paymentId().equals(order[0])) {
+            count("duplicate");
+            return;
+        }
+        if (order != null && "CANCELLED".equals(order[2])) {
+            count("cancelled");
+            logger.warn("Payment {} of {} paise captured for cancelled order {} (gateway order {}), to be refunded",
+                    event.paymentId(), event.amount(), order[3], event.gatewayOrderId());
+            return;
+        }
+        count("unmatched");
+        if (order == null) {
+            logger.warn("Payment {} captured for unknown gateway order {}", event.paymentId(), event.gatewayOrderId());
+        } else if ((Long) order[1] != event.amount()) {
+            logger.warn("SECURITY: payment {} of {} paise for gateway order {} does not match the order total of {} paise",
+                    event.paymentId(), event.amount(), event.gatewayOrderId(), order[1]);
+        } else {
+            logger.warn("Payment {} captured for gateway order {} that was already paid by {}",
+                    event.paymentId(), event.gatewayOrderId(), order[0]);
+        }
+    }
+
+    private static String note(String text) {
+        return text.length() > MAX_NOTE_LENGTH ? text.substring(0, MAX_NOTE_LENGTH) : text;
+    }
+
+    private boolean isSeen(String eventId) {
+        synchronized (seenEventIds) {
+            return seenEventIds.get(eventId) != null;
+        }
+    }
+
+    private boolean markSeen(String eventId) {
+        synchronized (seenEventIds) {
+            return seenEventIds.putIfAbsent(eventId, Boolean.TRUE) == null;
+        }
+    }
+
+    private void count(String outcome) {
+        count(outcome, 1);
+    }
+
+    private void count(String outcome, int events) {
+        counts.computeIfAbsent(outcome, key -> new LongAdder()).add(events);
+        metrics.paymentWebhook(outcome, events);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.Grocito.payments;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint showing the payment webhook queues and what became of the events received
+ * (/actuator/paymentwebhooks)
+ */
+@Component
+@Endpoint(id = "paymentwebhooks")
+public class PaymentWebhooksEndpoint {
+
+    @Autowired
+    private PaymentWebhookPipeline pipeline;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return pipeline.describe();
+    }
+}
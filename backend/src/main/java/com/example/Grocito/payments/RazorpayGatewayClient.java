@@ -0,0 +1,96 @@
+package com.example.Grocito.payments;
+
+import com.example.Grocito.config.LoggerConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Creates gateway orders through the Razorpay Orders API. Without a key id (local development) the
+ * gateway is not called and a local order id is made up instead.
+ */
+@Component
+public class RazorpayGatewayClient {
+
+    private static final Logger logger = LoggerConfig.getLogger(RazorpayGatewayClient.class);
+
+    @Value("${payments.razorpay.key-id:}")
+    private String keyId;
+
+    @Value("${payments.razorpay.key-secret:}")
+    private String keySecret;
+
+    @Value("${payments.razorpay.api-url:https://api.razorpay.com/v1}")
+    private String apiUrl;
+
+    @Value("${payments.razorpay.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public boolean isConfigured() {
+        return !keyId.isBlank();
+    }
+
+    /**
+     * Key id the checkout opens with (null when the gateway is not configured)
+     */
+    public String getKeyId() {
+        return isConfigured() ? keyId : null;
+    }
+
+    /**
+     * Create a gateway order for the amount in paise and return its id
+     */
+    public String createOrder(Long orderId, long amount, String currency) {
+        if (!isConfigured()) {
+            logger.debug("Payment gateway not configured, using a local order id for order {}", orderId);
+            return "order_local_" + orderId;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                    "amount", amount, "currency", currency, "receipt", "grocito_" + orderId));
+            String credentials = Base64.getEncoder().encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + "/orders"))
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .header("Authorization", "Basic " + credentials)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new RuntimeException("Payment gateway returned HTTP " + response.statusCode());
+            }
+            JsonNode gatewayOrder = objectMapper.readTree(response.body());
+            String id = gatewayOrder.path("id").asText(null);
+            if (id == null) {
+                throw new RuntimeException("Payment gateway returned no order id");
+            }
+            return id;
+        } catch (IOException e) {
+            throw new RuntimeException("Payment gateway not reachable: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while creating the gateway order");
+        }
+    }
+}
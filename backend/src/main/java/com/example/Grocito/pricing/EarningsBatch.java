@@ -0,0 +1,57 @@
+package com.example.Grocito.pricing;
+
+/**
+ * Partner earnings of a batch of deliveries, evaluated in one pass over parallel arrays in paise. Besides
+ * the result arrays nothing is allocated per delivery.
+ */
+public final class EarningsBatch {
+
+    private final boolean[] freeDelivery;
+    private final long[] baseEarnings;
+    private final long[] totalEarnings;
+    private final EarningsTotals totals;
+
+    private EarningsBatch(int count, PricingPolicy policy) {
+        this.freeDelivery = new boolean[count];
+        this.baseEarnings = new long[count];
+        this.totalEarnings = new long[count];
+        this.totals = new EarningsTotals(policy);
+    }
+
+    /**
+     * The daily target applies once to the whole batch, which counts as one day of deliveries.
+     *
+     * @param orderAmounts order amounts in paise
+     * @param bonuses      per-delivery bonuses in paise, or null
+     */
+    public static EarningsBatch evaluate(PricingPolicy policy, PricingRule rule, long[] orderAmounts, long[] bonuses, int count) {
+        EarningsBatch batch = new EarningsBatch(count, policy);
+        for (int i = 0; i < count; i++) {
+            boolean free = rule.isFreeDelivery(orderAmounts[i]);
+            long base = free ? rule.partnerEarningFree() : rule.partnerEarningPaid();
+            long bonus = bonuses != null ? bonuses[i] : 0;
+            batch.freeDelivery[i] = free;
+            batch.baseEarnings[i] = base;
+            batch.totalEarnings[i] = base + bonus;
+            batch.totals.add(free, base, bonus);
+        }
+        batch.totals.addDailyTarget(count);
+        return batch;
+    }
+
+    public boolean isFreeDelivery(int index) {
+        return freeDelivery[index];
+    }
+
+    public long baseEarnings(int index) {
+        return baseEarnings[index];
+    }
+
+    public long totalEarnings(int index) {
+        return totalEarnings[index];
+    }
+
+    public EarningsTotals totals() {
+        return totals;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.Grocito.pricing;
+
+/**
+ * Running totals of partner earnings in paise, filled one delivery at a time so a batch of any size can
+ * be summed without keeping its rows
+ */
+public final class EarningsTotals {
+
+    private final PricingPolicy policy;
+    private long deliveries;
+    private long freeDeliveries;
+    private long totalBaseEarnings;
+    private long totalBonuses;
+    private long dailyTargetBonus;
+    private int daysOnTarget;
+
+    public EarningsTotals(PricingPolicy policy) {
+        this.policy = policy;
+    }
+
+    public void add(boolean freeDelivery, long baseEarnings, long bonus) {
+        deliveries++;
+        freeDeliveries += freeDelivery ? 1 : 0;
+        totalBaseEarnings += baseEarnings;
+        totalBonuses += bonus;
+    }
+
+    /**
+     * Adds the daily target bonus if the deliveries of one day reach the target
+     */
+    public void addDailyTarget(long deliveriesThatDay) {
+        if (deliveriesThatDay >= policy.dailyTargetDeliveries()) {
+            dailyTargetBonus += policy.dailyTargetBonus();
+            daysOnTarget++;
+        }
+    }
+
+    public long deliveries() {
+        return deliveries;
+    }
+
+    public long freeDeliveries() {
+        return freeDeliveries;
+    }
+
+    public long paidDeliveries() {
+        return deliveries - freeDeliveries;
+    }
+
+    public long totalBaseEarnings() {
+        return totalBaseEarnings;
+    }
+
+    /**
+     * Per-delivery bonuses plus daily target bonuses
+     */
+    public long totalBonuses() {
+        return totalBonuses + dailyTargetBonus;
+    }
+
+    public long dailyTargetBonus() {
+        return dailyTargetBonus;
+    }
+
+    public int daysOnTarget() {
+        return daysOnTarget;
+    }
+
+    public long totalEarnings() {
+        return totalBaseEarnings + totalBonuses + dailyTargetBonus;
+    }
+
+    /**
+     * Average per delivery in paise, rounded half up like the previous BigDecimal division
+     */
+    public long averageEarnings() {
+        return deliveries > 0 ? Math.floorDiv(2 * totalEarnings() + deliveries, 2 * deliveries) : 0;
+    }
+}
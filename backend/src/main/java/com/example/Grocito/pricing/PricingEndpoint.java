@@ -0,0 +1,31 @@
+package com.example.Grocito.pricing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint showing the pricing policy in force and reloading the overrides file right away
+ * (/actuator/pricing)
+ */
+@Component
+@Endpoint(id = "pricing")
+public class PricingEndpoint {
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @ReadOperation
+    public Map<String, Object> policy() {
+        return pricingEngine.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        return pricingEngine.reload();
+    }
+}
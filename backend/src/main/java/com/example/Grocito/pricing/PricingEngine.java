@@ -0,0 +1,263 @@
+package com.example.Grocito.pricing;
+
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.etag.ResourceVersions;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single source of delivery fees and partner earnings. The base amounts come from the pricing.*
+ * properties, per-pincode and time-of-day overrides from an optional JSON file that is reloaded when it
+ * changes (and on POST /actuator/pricing) without a restart. All amounts are integer paise.
+ */
+@Component
+public class PricingEngine {
+
+    private static final Logger logger = LoggerConfig.getLogger(PricingEngine.class);
+
+    private static final BigDecimal[] WHOLE_RUPEES = new BigDecimal[1000];
+
+    static {
+        for (int i = 0; i < WHOLE_RUPEES.length; i++) {
+            WHOLE_RUPEES[i] = BigDecimal.valueOf(i * 100L, 2);
+        }
+    }
+
+    @Value("${pricing.free-delivery-threshold:199.00}")
+    private BigDecimal freeDeliveryThreshold;
+
+    @Value("${pricing.delivery-fee:40.00}")
+    private BigDecimal deliveryFee;
+
+    @Value("${pricing.partner-earning.paid:30.00}")
+    private BigDecimal partnerEarningPaid;
+
+    @Value("${pricing.partner-earning.free:25.00}")
+    private BigDecimal partnerEarningFree;
+
+    @Value("${pricing.daily-target.deliveries:12}")
+    private int dailyTargetDeliveries;
+
+    @Value("${pricing.daily-target.bonus:80.00}")
+    private BigDecimal dailyTargetBonus;
+
+    @Value("${pricing.overrides-file:}")
+    private String overridesFile;
+
+    @Value("${pricing.reload-check-seconds:30}")
+    private long reloadCheckSeconds;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    private volatile PricingPolicy policy;
+
+    // Modification time of the overrides file the current policy was compiled from
+    private volatile long loadedModified = -1;
+    private volatile LocalDateTime loadedAt;
+    private volatile String lastError;
+
+    // Minute of the day, advanced by the scheduler at each minute boundary so a lookup does not read the clock
+    private volatile int currentMinute = minuteOfDay(LocalTime.now());
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        policy = PricingPolicy.compile(baseRule(), dailyTargetDeliveries, toPaise(dailyTargetBonus), List.of());
+        loadedAt = LocalDateTime.now();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pricing-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tick();
+        if (overridesFile.isBlank()) {
+            return;
+        }
+        reload();
+        if (reloadCheckSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::reloadIfChanged, reloadCheckSeconds, reloadCheckSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public PricingPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Rule in force for the pincode (null for the global rule) right now
+     */
+    public PricingRule rule(String pincode) {
+        return policy.ruleFor(pincode, currentMinute);
+    }
+
+    /**
+     * Rule that was in force for the pincode at a given time, e.g. when an order was placed
+     */
+    public PricingRule rule(String pincode, LocalDateTime at) {
+        return at != null ? rule(pincode, at.toLocalTime()) : rule(pincode);
+    }
+
+    /**
+     * Partner earning of a stored order that has none, e.g. one placed before earnings were tracked: the rule
+     * in force when it was placed, applied to its subtotal (the stored total includes the delivery fee charged)
+     */
+    public double missingPartnerEarning(String pincode, LocalDateTime orderTime, double totalAmount, double deliveryFee) {
+        return toRupeesDouble(rule(pincode, orderTime).partnerEarning(toPaise(totalAmount - deliveryFee)));
+    }
+
+    private PricingRule rule(String pincode, LocalTime time) {
+        return policy.ruleFor(pincode, minuteOfDay(time));
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private void tick() {
+        LocalTime now = LocalTime.now();
+        currentMinute = minuteOfDay(now);
+        // Just past the next minute boundary
+        long delayMillis = (60 - now.getSecond()) * 1000L - now.getNano() / 1_000_000 + 5;
+        try {
+            scheduler.schedule(this::tick, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Compile the overrides file into a new policy. A file that does not parse or validate leaves the
+     * current policy in place.
+     */
+    public synchronized Map<String, Object> reload() {
+        if (overridesFile.isBlank()) {
+            return describe();
+        }
+        Path path = Path.of(overridesFile);
+        long modified = -1;
+        try {
+            modified = Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0;
+            List<PricingOverride> overrides = modified > 0
+                    ? objectMapper.readValue(path.toFile(), new TypeReference<List<PricingOverride>>() {})
+                    : List.of();
+            policy = PricingPolicy.compile(baseRule(), dailyTargetDeliveries, toPaise(dailyTargetBonus), overrides);
+            loadedModified = modified;
+            loadedAt = LocalDateTime.now();
+            lastError = null;
+            resourceVersions.bump(ResourceVersions.DELIVERY_POLICY);
+            logger.info("Pricing policy loaded from {}: {} overrides, {} pincodes with their own rules",
+                    path, overrides.size(), policy.overriddenPincodes());
+        } catch (IOException | RuntimeException e) {
+            // Not retried until the file changes again
+            loadedModified = modified;
+            lastError = e.getMessage();
+            logger.error("Pricing overrides {} not loaded, keeping the current policy: {}", path, e.getMessage());
+        }
+        return describe();
+    }
+
+    private void reloadIfChanged() {
+        try {
+            Path path = Path.of(overridesFile);
+            long modified = Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0;
+            if (modified != loadedModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Checking pricing overrides {} failed: {}", overridesFile, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> describe() {
+        PricingPolicy current = policy;
+        PricingRule base = current.base();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("freeDeliveryThreshold", toRupees(base.freeDeliveryThreshold()));
+        description.put("deliveryFee", toRupees(base.deliveryFee()));
+        description.put("partnerEarningPaid", toRupees(base.partnerEarningPaid()));
+        description.put("partnerEarningFree", toRupees(base.partnerEarningFree()));
+        description.put("overridesFile", overridesFile.isBlank() ? null : overridesFile);
+        description.put("overrides", current.overrides());
+        description.put("loadedAt", loadedAt);
+        description.put("lastError", lastError);
+        return description;
+    }
+
+    private PricingRule baseRule() {
+        return new PricingRule(toPaise(freeDeliveryThreshold), toPaise(deliveryFee),
+                toPaise(partnerEarningPaid), toPaise(partnerEarningFree));
+    }
+
+    /**
+     * Rupees to paise; amounts with fractions of a paisa are rejected
+     */
+    public static long toPaise(BigDecimal rupees) {
+        try {
+            return rupees.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + rupees.toPlainString() + " is not a whole number of paise");
+        }
+    }
+
+    /**
+     * Rupees to paise for the double amounts stored on orders, rounded to the nearest paisa
+     */
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    public static double toRupeesDouble(long paise) {
+        return paise / 100.0;
+    }
+
+    /**
+     * Paise as a rupee amount with two decimals, the format the API has always returned. Fees, earnings
+     * and thresholds are whole rupees and come from a cache.
+     */
+    public static BigDecimal toRupees(long paise) {
+        if (paise >= 0 && paise < WHOLE_RUPEES.length * 100L && paise % 100 == 0) {
+            return WHOLE_RUPEES[(int) (paise / 100)];
+        }
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * Request amounts may have more decimals than paise, round them like the previous setScale(2) did
+     */
+    public static long roundToPaise(BigDecimal rupees) {
+        return rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.Grocito.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+
+/**
+ * One entry of the pricing overrides file: replaces some of the base amounts (in rupees) for a pincode,
+ * a time-of-day window or both. Unset amounts keep the value of the rule underneath, a window may wrap
+ * midnight (22:00 to 06:00) and its end is exclusive.
+ */
+public record PricingOverride(
+        String pincode,
+        LocalTime from,
+        LocalTime to,
+        BigDecimal freeDeliveryThreshold,
+        BigDecimal deliveryFee,
+        BigDecimal partnerEarningPaid,
+        BigDecimal partnerEarningFree) {
+
+    public PricingOverride {
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("Pricing override needs both from and to, or neither");
+        }
+        if (from != null && from.equals(to)) {
+            throw new IllegalArgumentException("Pricing override window " + from + " to " + to + " is empty");
+        }
+    }
+
+    boolean isTimed() {
+        return from != null;
+    }
+
+    int fromMinute() {
+        return from.getHour() * 60 + from.getMinute();
+    }
+
+    int toMinute() {
+        return to.getHour() * 60 + to.getMinute();
+    }
+
+    PricingRule applyTo(PricingRule rule) {
+        return new PricingRule(
+                freeDeliveryThreshold != null ? PricingEngine.toPaise(freeDeliveryThreshold) : rule.freeDeliveryThreshold(),
+                deliveryFee != null ? PricingEngine.toPaise(deliveryFee) : rule.deliveryFee(),
+                partnerEarningPaid != null ? PricingEngine.toPaise(partnerEarningPaid) : rule.partnerEarningPaid(),
+                partnerEarningFree != null ? PricingEngine.toPaise(partnerEarningFree) : rule.partnerEarningFree());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.Grocito.pricing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The delivery pricing policy compiled into an immutable lookup table: one rule per minute of the day for
+ * every pincode with overrides, and one shared table for all other pincodes. A lookup is two array/map reads
+ * and allocates nothing. A reload compiles a new policy and swaps it in whole.
+ */
+public final class PricingPolicy {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Applied in this order, so a pincode's own window beats its all-day override, which beats a global window
+    private static final Comparator<PricingOverride> ALL_DAY_FIRST = Comparator.comparing(PricingOverride::isTimed);
+
+    private final PricingRule base;
+    private final int dailyTargetDeliveries;
+    private final long dailyTargetBonus;
+    private final List<PricingOverride> overrides;
+    private final PricingRule[] shared;
+    private final Map<String, PricingRule[]> byPincode;
+
+    private PricingPolicy(PricingRule base, int dailyTargetDeliveries, long dailyTargetBonus, List<PricingOverride> overrides,
+                          PricingRule[] shared, Map<String, PricingRule[]> byPincode) {
+        this.base = base;
+        this.dailyTargetDeliveries = dailyTargetDeliveries;
+        this.dailyTargetBonus = dailyTargetBonus;
+        this.overrides = overrides;
+        this.shared = shared;
+        this.byPincode = byPincode;
+    }
+
+    /**
+     * @param dailyTargetBonus paid once a partner reaches dailyTargetDeliveries deliveries in a day, in paise
+     */
+    public static PricingPolicy compile(PricingRule base, int dailyTargetDeliveries, long dailyTargetBonus,
+                                        List<PricingOverride> overrides) {
+        // Equal rules share one instance, a table of 1440 entries usually holds two or three distinct rules
+        Map<PricingRule, PricingRule> interned = new HashMap<>();
+        interned.put(base, base);
+
+        PricingRule[] shared = new PricingRule[MINUTES_PER_DAY];
+        Arrays.fill(shared, base);
+        overrides.stream()
+                .filter(override -> override.pincode() == null)
+                .sorted(ALL_DAY_FIRST)
+                .forEach(override -> apply(shared, override, interned));
+
+        Map<String, PricingRule[]> byPincode = new HashMap<>();
+        Map<String, List<PricingOverride>> pincodeOverrides = overrides.stream()
+                .filter(override -> override.pincode() != null)
+                .collect(Collectors.groupingBy(PricingOverride::pincode, LinkedHashMap::new, Collectors.toList()));
+        pincodeOverrides.forEach((pincode, list) -> {
+            PricingRule[] table = shared.clone();
+            list.stream().sorted(ALL_DAY_FIRST).forEach(override -> apply(table, override, interned));
+            byPincode.put(pincode, table);
+        });
+
+        return new PricingPolicy(base, dailyTargetDeliveries, dailyTargetBonus, List.copyOf(overrides), shared, byPincode);
+    }
+
+    private static void apply(PricingRule[] table, PricingOverride override, Map<PricingRule, PricingRule> interned) {
+        int from = override.isTimed() ? override.fromMinute() : 0;
+        int minutes = override.isTimed() ? Math.floorMod(override.toMinute() - from, MINUTES_PER_DAY) : MINUTES_PER_DAY;
+        for (int i = 0; i < minutes; i++) {
+            int minute = (from + i) % MINUTES_PER_DAY;
+            PricingRule rule = override.applyTo(table[minute]);
+            table[minute] = interned.computeIfAbsent(rule, key -> key);
+        }
+    }
+
+    /**
+     * Rule for a pincode (may be null) at a minute of the day
+     */
+    public PricingRule ruleFor(String pincode, int minuteOfDay) {
+        PricingRule[] table = pincode != null ? byPincode.get(pincode) : null;
+        return (table != null ? table : shared)[minuteOfDay];
+    }
+
+    /**
+     * The configured rule before any override
+     */
+    public PricingRule base() {
+        return base;
+    }
+
+    public int dailyTargetDeliveries() {
+        return dailyTargetDeliveries;
+    }
+
+    public long dailyTargetBonus() {
+        return dailyTargetBonus;
+    }
+
+    public List<PricingOverride> overrides() {
+        return overrides;
+    }
+
+    public int overriddenPincodes() {
+        return byPincode.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.Grocito.pricing;
+
+/**
+ * Delivery fee and partner earning rule in paise. Free delivery from the threshold up: the customer pays
+ * nothing and Grocito pays the partner; below it the customer pays the fee and the partner gets their share.
+ */
+public record PricingRule(
+        long freeDeliveryThreshold,
+        long deliveryFee,
+        long partnerEarningPaid,
+        long partnerEarningFree) {
+
+    public boolean isFreeDelivery(long orderAmount) {
+        return orderAmount >= freeDeliveryThreshold;
+    }
+
+    public long deliveryFee(long orderAmount) {
+        return isFreeDelivery(orderAmount) ? 0 : deliveryFee;
+    }
+
+    public long partnerEarning(long orderAmount) {
+        return isFreeDelivery(orderAmount) ? partnerEarningFree : partnerEarningPaid;
+    }
+
+    /**
+     * Paid by Grocito to the partner, the customer's fee covers paid deliveries
+     */
+    public long grocitoPaid(long orderAmount) {
+        return isFreeDelivery(orderAmount) ? partnerEarningFree : 0;
+    }
+
+    /**
+     * What the delivery leaves Grocito with, negative for free deliveries
+     */
+    public long grocitoRevenue(long orderAmount) {
+        return isFreeDelivery(orderAmount) ? -partnerEarningFree : deliveryFee - partnerEarningPaid;
+    }
+
+    public long amountNeededForFreeDelivery(long orderAmount) {
+        return Math.max(0, freeDeliveryThreshold - orderAmount);
+    }
+}
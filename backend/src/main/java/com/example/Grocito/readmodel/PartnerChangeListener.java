@@ -0,0 +1,53 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Entity.DeliveryPartner;
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Feeds every insert, update and delete of DeliveryPartnerAuth and DeliveryPartner into the
+ * {@link PartnerReadModel}. Field values are captured when the entity is flushed and applied
+ * once the transaction commits, so a rolled back write never shows up in the read model.
+ */
+public class PartnerChangeListener {
+
+    // Lazy: the read model needs the repositories, which are only built after the listeners
+    @Autowired
+    @Lazy
+    private PartnerReadModel readModel;
+
+    @PostPersist
+    @PostUpdate
+    public void changed(Object entity) {
+        if (entity instanceof DeliveryPartnerAuth auth) {
+            PartnerView account = PartnerView.of(auth);
+            PartnerReadModel.afterCommit(() -> readModel.authChanged(account));
+        } else if (entity instanceof DeliveryPartner partner) {
+            Long partnerId = partner.getId();
+            if (partner.getAuthRecord() == null) {
+                PartnerReadModel.afterCommit(() -> readModel.partnerUnlinked(partnerId));
+                return;
+            }
+            // Identifier of the lazy auth proxy, does not load the account
+            Long authId = partner.getAuthRecord().getId();
+            String accountStatus = partner.getAccountStatus();
+            String availabilityStatus = partner.getAvailabilityStatus();
+            PartnerReadModel.afterCommit(() -> readModel.partnerChanged(authId, partnerId, accountStatus, availabilityStatus));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof DeliveryPartnerAuth auth) {
+            Long authId = auth.getId();
+            PartnerReadModel.afterCommit(() -> readModel.authRemoved(authId));
+        } else if (entity instanceof DeliveryPartner partner) {
+            Long partnerId = partner.getId();
+            PartnerReadModel.afterCommit(() -> readModel.partnerUnlinked(partnerId));
+        }
+    }
+}
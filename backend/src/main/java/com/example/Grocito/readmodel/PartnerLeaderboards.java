@@ -0,0 +1,365 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Repository.ArchivedOrderAssignmentRepository;
+import com.example.Grocito.Repository.ArchivedOrderRepository;
+import com.example.Grocito.Repository.OrderAssignmentRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.config.LoggerConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-pincode partner leaderboards for completion rate, customer rating and earnings. Built from
+ * the orders and order_assignments tables and their archives and updated in place as deliveries,
+ * cancellations and ratings are recorded on this instance, so rank and top-k reads never aggregate the tables.
+ * Every leaderboards.rebuild-interval-minutes the boards are rebuilt from the tables and swapped in,
+ * which picks up the deliveries and ratings recorded on other instances.
+ *
+ * Completion rate is delivered / (delivered + cancelled) over the partner's orders. Partners
+ * enter the completion and rating boards once they have the configured minimum of finished
+ * orders or ratings. A partner moved to another pincode is ranked there after the next rebuild.
+ */
+@Component
+public class PartnerLeaderboards {
+
+    private static final Logger logger = LoggerConfig.getLogger(PartnerLeaderboards.class);
+
+    public enum Metric {
+        COMPLETION_RATE, RATING, EARNINGS;
+
+        /**
+         * Parse "completion-rate", "rating" or "earnings" (case-insensitive)
+         */
+        public static Metric from(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown leaderboard metric: " + name);
+            }
+        }
+    }
+
+    /**
+     * A partner's position on one board
+     *
+     * @param rank 1 for the best partner of the pincode
+     */
+    public record RankedPartner(Long partnerId, String fullName, int rank, int rankedPartners, double score, long basedOn) {}
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderAssignmentRepository orderAssignmentRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ArchivedOrderAssignmentRepository archivedOrderAssignmentRepository;
+
+    @Autowired
+    private PartnerReadModel partnerReadModel;
+
+    @Value("${leaderboards.completion-rate.min-orders:5}")
+    private long minFinishedOrders;
+
+    @Value("${leaderboards.rating.min-ratings:3}")
+    private long minRatings;
+
+    @Value("${leaderboards.rebuild-interval-minutes:15}")
+    private long rebuildIntervalMinutes;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Replaced as a whole by each rebuild, so readers never see a half-built snapshot
+    private volatile Boards current = new Boards();
+
+    // Updates are applied under this lock; during a rebuild they are also kept to replay onto the new boards
+    private final Object updateLock = new Object();
+    private List<Update> journal;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (rebuildIntervalMinutes <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partner-leaderboards");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Build new boards from the tables and swap them in. Updates recorded while the tables are read
+     * are replayed onto the new boards; one committed just before the read may count twice until the next rebuild.
+     */
+    public synchronized void rebuild() {
+        synchronized (updateLock) {
+            journal = new ArrayList<>();
+        }
+        Boards rebuilt;
+        try {
+            // One transaction on the primary, so all four totals come from the same snapshot
+            rebuilt = transactionTemplate.execute(status -> load());
+        } catch (RuntimeException e) {
+            synchronized (updateLock) {
+                journal = null;
+            }
+            logger.warn("Partner leaderboard rebuild failed, keeping the current boards: {}", e.getMessage());
+            return;
+        }
+        synchronized (updateLock) {
+            journal.forEach(update -> update.applyTo(rebuilt));
+            journal = null;
+            current = rebuilt;
+        }
+        logger.info("Partner leaderboards built for {} partners in {} pincodes",
+                rebuilt.pincodeByPartner.size(), rebuilt.byPincode.size());
+    }
+
+    private Boards load() {
+        Map<Long, Scores> scores = new HashMap<>();
+        addOutcomes(scores, orderRepository.getPartnerOutcomeTotals());
+        addOutcomes(scores, archivedOrderRepository.getPartnerOutcomeTotals());
+        addRatings(scores, orderAssignmentRepository.getPartnerRatingTotals());
+        addRatings(scores, archivedOrderAssignmentRepository.getPartnerRatingTotals());
+
+        Boards boards = new Boards();
+        scores.forEach((partnerId, partner) -> {
+            if (partner.pincode != null) {
+                boards.byPincode.computeIfAbsent(partner.pincode, pincode -> new PincodeBoards()).put(partnerId, partner);
+                boards.pincodeByPartner.put(partnerId, partner.pincode);
+            }
+        });
+        return boards;
+    }
+
+    // Updates, applied once the recording transaction commits
+
+    public void recordDelivery(Long partnerId, String orderPincode, double earning) {
+        record(new Update(partnerId, orderPincode, partner -> {
+            partner.delivered++;
+            partner.earnings += earning;
+        }));
+    }
+
+    public void recordCancellation(Long partnerId, String orderPincode) {
+        record(new Update(partnerId, orderPincode, partner -> partner.cancelled++));
+    }
+
+    public void recordRating(Long partnerId, String orderPincode, int rating) {
+        record(new Update(partnerId, orderPincode, partner -> {
+            partner.ratingSum += rating;
+            partner.ratingCount++;
+        }));
+    }
+
+    private void record(Update update) {
+        PartnerReadModel.afterCommit(() -> {
+            synchronized (updateLock) {
+                update.applyTo(current);
+                if (journal != null) {
+                    journal.add(update);
+                }
+            }
+        });
+    }
+
+    // Reads
+
+    public List<RankedPartner> top(String pincode, Metric metric, int limit) {
+        PincodeBoards boards = current.byPincode.get(pincode);
+        return boards != null ? boards.top(metric, limit) : List.of();
+    }
+
+    public Optional<RankedPartner> rankOf(Long partnerId, Metric metric) {
+        Boards snapshot = current;
+        String pincode = snapshot.pincodeByPartner.get(partnerId);
+        PincodeBoards boards = pincode != null ? snapshot.byPincode.get(pincode) : null;
+        return boards != null ? boards.rankOf(partnerId, metric) : Optional.empty();
+    }
+
+    // [partnerId, pincode, delivered, cancelled, earnings]
+    private static void addOutcomes(Map<Long, Scores> scores, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Scores partner = scores.computeIfAbsent(((Number) row[0]).longValue(), id -> new Scores((String) row[1]));
+            partner.delivered += toLong(row[2]);
+            partner.cancelled += toLong(row[3]);
+            partner.earnings += row[4] != null ? ((Number) row[4]).doubleValue() : 0.0;
+        }
+    }
+
+    // [partnerId, pincode, ratingSum, ratingCount]
+    private static void addRatings(Map<Long, Scores> scores, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Scores partner = scores.computeIfAbsent(((Number) row[0]).longValue(), id -> new Scores((String) row[1]));
+            partner.ratingSum += toLong(row[2]);
+            partner.ratingCount += toLong(row[3]);
+        }
+    }
+
+    private String fullName(Long partnerId) {
+        return partnerReadModel.get(partnerId).map(PartnerView::fullName).orElse(null);
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private record Entry(long partnerId, double score) {}
+
+    // Highest score first, lower partner id first among equal scores
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparingLong(Entry::partnerId);
+
+    private interface ScoresUpdate {
+        void apply(Scores scores);
+    }
+
+    /**
+     * Boards of all pincodes and the pincode each partner is ranked in
+     */
+    private final class Boards {
+        final ConcurrentHashMap<String, PincodeBoards> byPincode = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, String> pincodeByPartner = new ConcurrentHashMap<>();
+
+        PincodeBoards boardsFor(Long partnerId, String orderPincode) {
+            // Ranked in the partner's own pincode, which is the order's pincode for every assignment
+            String pincode = pincodeByPartner.computeIfAbsent(partnerId, id ->
+                    partnerReadModel.get(id).map(PartnerView::pincode).orElse(orderPincode));
+            return byPincode.computeIfAbsent(pincode, key -> new PincodeBoards());
+        }
+    }
+
+    private record Update(Long partnerId, String orderPincode, ScoresUpdate change) {
+        void applyTo(Boards boards) {
+            boards.boardsFor(partnerId, orderPincode).update(partnerId, change);
+        }
+    }
+
+    private static final class Scores {
+        final String pincode;
+        long delivered;
+        long cancelled;
+        double earnings;
+        long ratingSum;
+        long ratingCount;
+
+        Scores(String pincode) {
+            this.pincode = pincode;
+        }
+    }
+
+    /**
+     * The three boards of one pincode, guarded by its own lock
+     */
+    private final class PincodeBoards {
+        private final Map<Long, Scores> scores = new HashMap<>();
+        private final Map<Metric, RankedSet<Entry>> boards = new EnumMap<>(Metric.class);
+        private final Map<Metric, Map<Long, Entry>> entries = new EnumMap<>(Metric.class);
+
+        PincodeBoards() {
+            for (Metric metric : Metric.values()) {
+                boards.put(metric, new RankedSet<>(BEST_FIRST));
+                entries.put(metric, new HashMap<>());
+            }
+        }
+
+        synchronized void put(Long partnerId, Scores partner) {
+            scores.put(partnerId, partner);
+            place(partnerId, partner);
+        }
+
+        synchronized void update(Long partnerId, ScoresUpdate update) {
+            Scores partner = scores.computeIfAbsent(partnerId, id -> new Scores(null));
+            update.apply(partner);
+            place(partnerId, partner);
+        }
+
+        synchronized List<RankedPartner> top(Metric metric, int limit) {
+            RankedSet<Entry> board = boards.get(metric);
+            List<Entry> best = board.first(limit);
+            List<RankedPartner> ranked = new ArrayList<>(best.size());
+            for (int i = 0; i < best.size(); i++) {
+                ranked.add(ranked(best.get(i), metric, i, board.size()));
+            }
+            return ranked;
+        }
+
+        synchronized Optional<RankedPartner> rankOf(Long partnerId, Metric metric) {
+            Entry entry = entries.get(metric).get(partnerId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            RankedSet<Entry> board = boards.get(metric);
+            return Optional.of(ranked(entry, metric, board.rank(entry), board.size()));
+        }
+
+        private RankedPartner ranked(Entry entry, Metric metric, int index, int boardSize) {
+            Scores partner = scores.get(entry.partnerId());
+            long basedOn = switch (metric) {
+                case COMPLETION_RATE -> partner.delivered + partner.cancelled;
+                case RATING -> partner.ratingCount;
+                case EARNINGS -> partner.delivered;
+            };
+            return new RankedPartner(entry.partnerId(), fullName(entry.partnerId()), index + 1, boardSize,
+                    Math.round(entry.score() * 100.0) / 100.0, basedOn);
+        }
+
+        private void place(Long partnerId, Scores partner) {
+            long finished = partner.delivered + partner.cancelled;
+            place(Metric.COMPLETION_RATE, partnerId, finished >= minFinishedOrders && finished > 0
+                    ? (double) partner.delivered / finished : null);
+            place(Metric.RATING, partnerId, partner.ratingCount >= minRatings && partner.ratingCount > 0
+                    ? (double) partner.ratingSum / partner.ratingCount : null);
+            place(Metric.EARNINGS, partnerId, partner.delivered > 0 ? partner.earnings : null);
+        }
+
+        // Re-insert the partner with the new score, or take them off the board when the score is null
+        private void place(Metric metric, Long partnerId, Double score) {
+            Map<Long, Entry> current = entries.get(metric);
+            RankedSet<Entry> board = boards.get(metric);
+            Entry previous = current.remove(partnerId);
+            if (previous != null) {
+                board.remove(previous);
+            }
+            if (score != null) {
+                Entry entry = new Entry(partnerId, score);
+                board.add(entry);
+                current.put(partnerId, entry);
+            }
+        }
+    }
+}
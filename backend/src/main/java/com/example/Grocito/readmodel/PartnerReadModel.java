@@ -0,0 +1,303 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.config.LoggerConfig;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of every delivery partner, projected from delivery_partner_auth and delivery_partners
+ * at startup and kept current by {@link PartnerChangeListener} as rows are written. Dispatch and the
+ * partner dashboard read partners from here instead of joining or syncing the two tables per request.
+ *
+ * Online/offline state and heartbeats are runtime-only and live here as well. Writes made by other
+ * instances or by bulk statements bypass the listener; {@link PartnerReadModelChecker} finds and
+ * repairs that drift.
+ */
+@Component
+public class PartnerReadModel {
+
+    private static final Logger logger = LoggerConfig.getLogger(PartnerReadModel.class);
+
+    @Autowired
+    private DeliveryPartnerAuthRepository authRepository;
+
+    // Partners not seen (availability toggle, heartbeat) for this long are no longer offered orders
+    @Value("${partner-read-model.heartbeat-timeout-minutes:5}")
+    private long heartbeatTimeoutMinutes;
+
+    private final ConcurrentHashMap<Long, PartnerView> partners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> authIdByPartnerId = new ConcurrentHashMap<>();
+
+    // Pincode -> partners that went online, in the order they did
+    private final ConcurrentHashMap<String, List<Long>> availableByPincode = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LocalDateTime> lastSeen = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime loadedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<PartnerView> views = authRepository.findPartnerViews();
+        Set<Long> authIds = views.stream().map(PartnerView::authId).collect(Collectors.toSet());
+        for (Long authId : List.copyOf(partners.keySet())) {
+            if (!authIds.contains(authId)) {
+                remove(authId);
+            }
+        }
+        for (PartnerView view : views) {
+            put(view);
+        }
+        loadedAt = LocalDateTime.now();
+        logger.info("Partner read model loaded with {} partners", views.size());
+    }
+
+    /**
+     * Run the update once the surrounding transaction commits (dropped on rollback), or right away without one
+     */
+    public static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    public Optional<PartnerView> get(Long authId) {
+        return authId != null ? Optional.ofNullable(partners.get(authId)) : Optional.empty();
+    }
+
+    /**
+     * Like {@link #get}, but reads the row when it is not known yet (e.g. registered through another instance)
+     */
+    public Optional<PartnerView> getOrLoad(Long authId) {
+        Optional<PartnerView> view = get(authId);
+        if (view.isPresent() || authId == null) {
+            return view;
+        }
+        Optional<PartnerView> loaded = authRepository.findPartnerView(authId);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Look up by delivery_partners.id, the id order_assignments reference
+     */
+    public Optional<PartnerView> getByPartnerId(Long partnerId) {
+        return partnerId != null ? get(authIdByPartnerId.get(partnerId)) : Optional.empty();
+    }
+
+    /**
+     * Like {@link #getByPartnerId}, but reads the rows when the link is not known yet. Empty when the
+     * delivery_partners row does not exist or is not linked to an account.
+     */
+    public Optional<PartnerView> getOrLoadByPartnerId(Long partnerId) {
+        Optional<PartnerView> view = getByPartnerId(partnerId);
+        if (view.isPresent() || partnerId == null) {
+            return view;
+        }
+        Optional<PartnerView> loaded = authRepository.findPartnerViewByPartnerId(partnerId);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * delivery_partners.id of an account, empty while the account has no delivery_partners row.
+     * The two id spaces are never mixed: an unknown account is an error, not its own partner id.
+     */
+    public Optional<Long> partnerIdFor(Long authId) {
+        Optional<PartnerView> view = get(authId).filter(known -> known.partnerId() != null);
+        if (view.isEmpty()) {
+            // The row may have been created through another instance
+            view = refresh(authId);
+        }
+        return Optional.ofNullable(view
+                .orElseThrow(() -> new RuntimeException("Delivery partner not found with ID: " + authId))
+                .partnerId());
+    }
+
+    /**
+     * Re-read the account and its delivery_partners row, e.g. before dispatching an order to it.
+     * Changes made through other instances or bulk statements are picked up here.
+     */
+    public Optional<PartnerView> refresh(Long authId) {
+        Optional<PartnerView> current = authRepository.findPartnerView(authId);
+        if (current.isPresent()) {
+            put(current.get());
+        } else {
+            remove(authId);
+        }
+        return current;
+    }
+
+    public int size() {
+        return partners.size();
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    Map<Long, PartnerView> snapshot() {
+        return new HashMap<>(partners);
+    }
+
+    // Change events
+
+    /**
+     * An auth row was inserted or updated; keeps the delivery_partners fields already known
+     */
+    public void authChanged(PartnerView account) {
+        PartnerView previous = partners.get(account.authId());
+        put(previous != null
+                ? account.withPartner(previous.partnerId(), previous.accountStatus(), previous.availabilityStatus())
+                : account);
+    }
+
+    public void authRemoved(Long authId) {
+        remove(authId);
+    }
+
+    /**
+     * A delivery_partners row linked to the account was inserted or updated
+     */
+    public void partnerChanged(Long authId, Long partnerId, String accountStatus, String availabilityStatus) {
+        PartnerView previous = partners.get(authId);
+        if (previous == null) {
+            // Account not known yet, take both tables from the database
+            getOrLoad(authId);
+            return;
+        }
+        put(previous.withPartner(partnerId, accountStatus, availabilityStatus));
+    }
+
+    /**
+     * A delivery_partners row was deleted or no longer points at an account
+     */
+    public void partnerUnlinked(Long partnerId) {
+        Long authId = authIdByPartnerId.remove(partnerId);
+        if (authId != null) {
+            partners.computeIfPresent(authId, (id, view) ->
+                    partnerId.equals(view.partnerId()) ? view.withPartner(null, null, null) : view);
+        }
+    }
+
+    void put(PartnerView view) {
+        PartnerView previous = partners.put(view.authId(), view);
+        if (previous != null && previous.partnerId() != null && !previous.partnerId().equals(view.partnerId())) {
+            authIdByPartnerId.remove(previous.partnerId(), view.authId());
+        }
+        if (view.partnerId() != null) {
+            authIdByPartnerId.put(view.partnerId(), view.authId());
+        }
+        if (previous != null && previous.pincode() != null && view.pincode() != null
+                && !previous.pincode().equals(view.pincode()) && availableIn(previous.pincode()).remove(view.authId())) {
+            // Moved while online, stays online in the new pincode
+            availableIn(view.pincode()).add(view.authId());
+        }
+    }
+
+    void remove(Long authId) {
+        PartnerView previous = partners.remove(authId);
+        if (previous != null) {
+            if (previous.partnerId() != null) {
+                authIdByPartnerId.remove(previous.partnerId(), authId);
+            }
+            if (previous.pincode() != null) {
+                availableIn(previous.pincode()).remove(authId);
+            }
+        }
+        lastSeen.remove(authId);
+    }
+
+    // Availability
+
+    /**
+     * Put the partner online (offered new orders) or take them offline
+     *
+     * @return whether the state changed
+     */
+    public boolean setAvailable(Long authId, boolean available) {
+        PartnerView view = partners.get(authId);
+        if (view == null || view.pincode() == null) {
+            return false;
+        }
+        List<Long> online = availableIn(view.pincode());
+        if (available) {
+            lastSeen.put(authId, LocalDateTime.now());
+            return online.contains(authId) ? false : online.add(authId);
+        }
+        lastSeen.remove(authId);
+        return online.remove(authId);
+    }
+
+    /**
+     * Stop offering orders to a partner at their active order limit, without treating them as offline
+     */
+    public void setBusy(Long authId) {
+        PartnerView view = partners.get(authId);
+        if (view != null && view.pincode() != null) {
+            availableIn(view.pincode()).remove(authId);
+        }
+    }
+
+    public void heartbeat(Long authId) {
+        lastSeen.put(authId, LocalDateTime.now());
+    }
+
+    public boolean isAvailable(Long authId) {
+        PartnerView view = partners.get(authId);
+        return view != null && view.pincode() != null && availableIn(view.pincode()).contains(authId);
+    }
+
+    /**
+     * Dispatchable partners online in the pincode, longest online first. Partners without a
+     * heartbeat within the timeout are dropped from the list.
+     */
+    public List<Long> getAvailablePartners(String pincode) {
+        List<Long> online = availableIn(pincode);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(heartbeatTimeoutMinutes);
+        online.removeIf(authId -> {
+            LocalDateTime seen = lastSeen.get(authId);
+            return seen == null || seen.isBefore(cutoff);
+        });
+
+        List<Long> available = new ArrayList<>(online.size());
+        for (Long authId : online) {
+            PartnerView view = partners.get(authId);
+            if (view != null && view.isDispatchable() && pincode.equals(view.pincode())) {
+                available.add(authId);
+            }
+        }
+        return available;
+    }
+
+    int onlineCount() {
+        return availableByPincode.values().stream().mapToInt(List::size).sum();
+    }
+
+    private List<Long> availableIn(String pincode) {
+        return availableByPincode.computeIfAbsent(pincode, key -> new CopyOnWriteArrayList<>());
+    }
+}
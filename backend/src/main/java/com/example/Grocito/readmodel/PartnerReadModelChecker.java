@@ -0,0 +1,145 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link PartnerReadModel} with a fresh projection of both partner tables and repairs
+ * entries that drifted, e.g. after writes on another instance or bulk statements that bypass the
+ * entity listener. Runs periodically and on demand from /actuator/partnerreadmodel.
+ */
+@Component
+public class PartnerReadModelChecker {
+
+    private static final Logger logger = LoggerConfig.getLogger(PartnerReadModelChecker.class);
+
+    @Autowired
+    private PartnerReadModel readModel;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository authRepository;
+
+    @Autowired
+    private GrocitoMetrics metrics;
+
+    @Value("${partner-read-model.check-interval-minutes:10}")
+    private long checkIntervalMinutes;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile Map<String, Object> lastResult = Map.of();
+
+    @PostConstruct
+    public void startChecks() {
+        if (checkIntervalMinutes <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partner-read-model-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, checkIntervalMinutes, checkIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopChecks() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Check every partner and repair the drifted ones
+     *
+     * @return counts of missing, stale and orphaned entries found
+     */
+    public Map<String, Object> check() {
+        Map<Long, PartnerView> cached = readModel.snapshot();
+        List<PartnerView> current = authRepository.findPartnerViews();
+
+        int missing = 0;
+        int stale = 0;
+        int orphaned = 0;
+        Map<Long, PartnerView> expected = new HashMap<>();
+        for (PartnerView view : current) {
+            expected.put(view.authId(), view);
+            PartnerView cachedView = cached.get(view.authId());
+            if (cachedView == null) {
+                missing += repair(view.authId()) ? 1 : 0;
+            } else if (!cachedView.equals(view)) {
+                stale += repair(view.authId()) ? 1 : 0;
+            }
+        }
+        for (Long authId : cached.keySet()) {
+            if (!expected.containsKey(authId)) {
+                orphaned += repair(authId) ? 1 : 0;
+            }
+        }
+
+        int drifted = missing + stale + orphaned;
+        if (drifted > 0) {
+            logger.warn("Partner read model drifted from the database: {} missing, {} stale, {} orphaned of {} partners, repaired",
+                    missing, stale, orphaned, current.size());
+            metrics.readModelDrift("partners", drifted);
+        } else {
+            logger.debug("Partner read model consistent with the database ({} partners)", current.size());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("checkedAt", LocalDateTime.now().toString());
+        result.put("partners", current.size());
+        result.put("missing", missing);
+        result.put("stale", stale);
+        result.put("orphaned", orphaned);
+        lastResult = result;
+        return result;
+    }
+
+    public Map<String, Object> getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Re-read one partner and fix its entry. The projection above may predate a change the listener
+     * already applied, so only a difference that is still there on a fresh read counts as drift.
+     */
+    private boolean repair(Long authId) {
+        Optional<PartnerView> fresh = authRepository.findPartnerView(authId);
+        Optional<PartnerView> cached = readModel.get(authId);
+        if (fresh.equals(cached)) {
+            return false;
+        }
+        if (fresh.isPresent()) {
+            readModel.put(fresh.get());
+        } else {
+            readModel.remove(authId);
+        }
+        return true;
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            logger.warn("Partner read model check failed: {}", e.getMessage());
+        }
+    }
+}
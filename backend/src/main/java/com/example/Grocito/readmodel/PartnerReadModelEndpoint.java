@@ -0,0 +1,40 @@
+package com.example.Grocito.readmodel;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting the partner read model and its last consistency check (/actuator/partnerreadmodel).
+ * POST runs a check right away.
+ */
+@Component
+@Endpoint(id = "partnerreadmodel")
+public class PartnerReadModelEndpoint {
+
+    @Autowired
+    private PartnerReadModel readModel;
+
+    @Autowired
+    private PartnerReadModelChecker checker;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("partners", readModel.size());
+        status.put("online", readModel.onlineCount());
+        status.put("loadedAt", String.valueOf(readModel.getLoadedAt()));
+        status.put("lastCheck", checker.getLastResult());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> check() {
+        return checker.check();
+    }
+}
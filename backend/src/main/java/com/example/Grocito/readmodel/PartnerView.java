@@ -0,0 +1,55 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+
+/**
+ * One delivery partner as seen by dispatch and the dashboards: the account from delivery_partner_auth
+ * joined with its operational row in delivery_partners, if one exists yet.
+ *
+ * @param authId    delivery_partner_auth.id, the id partners log in with and orders reference
+ * @param partnerId delivery_partners.id referenced by order_assignments, null until the row exists
+ */
+public record PartnerView(
+        Long authId,
+        Long partnerId,
+        String fullName,
+        String phoneNumber,
+        String email,
+        String pincode,
+        String vehicleType,
+        String vehicleNumber,
+        String verificationStatus,
+        boolean active,
+        String accountStatus,
+        String availabilityStatus) {
+
+    // Used by the repository constructor expression (delivery_partners is left joined)
+    public PartnerView(Long authId, Long partnerId, String fullName, String phoneNumber, String email,
+                       String pincode, String vehicleType, String vehicleNumber, String verificationStatus,
+                       Boolean active, String accountStatus, String availabilityStatus) {
+        this(authId, partnerId, fullName, phoneNumber, email, pincode, vehicleType, vehicleNumber,
+                verificationStatus, Boolean.TRUE.equals(active), accountStatus, availabilityStatus);
+    }
+
+    /**
+     * Account fields of a changed auth row; the delivery_partners fields are filled in by the read model
+     */
+    public static PartnerView of(DeliveryPartnerAuth auth) {
+        return new PartnerView(auth.getId(), null, auth.getFullName(), auth.getPhoneNumber(), auth.getEmail(),
+                auth.getPincode(), auth.getVehicleType(), auth.getVehicleNumber(), auth.getVerificationStatus(),
+                Boolean.TRUE.equals(auth.getIsActive()), null, null);
+    }
+
+    PartnerView withPartner(Long partnerId, String accountStatus, String availabilityStatus) {
+        return new PartnerView(authId, partnerId, fullName, phoneNumber, email, pincode, vehicleType, vehicleNumber,
+                verificationStatus, active, accountStatus, availabilityStatus);
+    }
+
+    /**
+     * Verified, active account that has not been suspended or deactivated in delivery_partners
+     */
+    public boolean isDispatchable() {
+        return active && "VERIFIED".equals(verificationStatus)
+                && (accountStatus == null || "ACTIVE".equals(accountStatus));
+    }
+}
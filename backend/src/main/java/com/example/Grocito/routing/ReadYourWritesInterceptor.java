@@ -0,0 +1,37 @@
+package com.example.Grocito.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Binds the request to the thread for {@link ReadYourWritesTracker}: the last write time the client
+ * sent back, and the response a write of this request stamps with its time.
+ */
+@Component
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        readYourWrites.bind(parseLastWrite(request.getHeader(ReadYourWritesTracker.LAST_WRITE_HEADER)), response);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        readYourWrites.clear();
+    }
+
+    private static Long parseLastWrite(String header) {
+        try {
+            return header != null ? Long.valueOf(header.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.Grocito.routing;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a client's reads on the primary for a short window after it wrote (e.g. placed an order),
+ * so it sees its own changes even when the replica lags. Also pins the rest of the writing request.
+ *
+ * The write time travels with the client rather than living on one instance: the writing response
+ * carries it in the X-Last-Write header, and the client sends it back on its next requests, so the
+ * window holds whichever instance serves them.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+
+    @Value("${datasource.replica.stickiness-seconds:10}")
+    private long stickinessSeconds;
+
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    private final ThreadLocal<HttpServletResponse> currentResponse = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> wroteInRequest = new ThreadLocal<>();
+
+    /**
+     * Record that the client just wrote data it will read back
+     */
+    public void recordWrite() {
+        wroteInRequest.set(Boolean.TRUE);
+        HttpServletResponse response = currentResponse.get();
+        if (response != null) {
+            response.setHeader(LAST_WRITE_HEADER, Long.toString(System.currentTimeMillis()));
+        }
+    }
+
+    public boolean requiresPrimary() {
+        if (Boolean.TRUE.equals(wroteInRequest.get())) {
+            return true;
+        }
+        Long writtenAt = lastWrite.get();
+        if (writtenAt == null) {
+            return false;
+        }
+        // Set by an instance, not by the client's clock; either side allows for clock differences between instances
+        return Math.abs(System.currentTimeMillis() - writtenAt) < stickinessSeconds * 1000;
+    }
+
+    void bind(Long lastWriteMillis, HttpServletResponse response) {
+        lastWrite.set(lastWriteMillis);
+        currentResponse.set(response);
+    }
+
+    void clear() {
+        lastWrite.remove();
+        currentResponse.remove();
+        wroteInRequest.remove();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.Grocito.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures replication lag and takes the replica out of rotation while it is
+ * unreachable, not replicating or further behind than the configured maximum.
+ */
+public class ReplicaLagMonitor {
+    private final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // MySQL 8.0.22+ names first, older servers report the Master variants
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+
+    private volatile boolean usable = true;
+    private volatile long lagSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagSeconds, long checkIntervalMillis) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * Take the replica out of rotation until the next successful check
+     */
+    public void markUnavailable(String reason) {
+        if (usable) {
+            logger.warn("Replica marked unavailable, reads fall back to primary: {}", reason);
+        }
+        usable = false;
+    }
+
+    void check() {
+        try (Connection connection = replica.getConnection()) {
+            long lag = measureLag(connection);
+            lagSeconds = lag;
+            boolean withinLimit = lag >= 0 && lag <= maxLagSeconds;
+            if (withinLimit != usable) {
+                if (withinLimit) {
+                    logger.info("Replica back in rotation (lag {} s)", lag);
+                } else {
+                    logger.warn("Replica lag {} s exceeds {} s, reads fall back to primary", lag, maxLagSeconds);
+                }
+            }
+            usable = withinLimit;
+        } catch (Exception e) {
+            markUnavailable(e.getMessage());
+        }
+    }
+
+    /**
+     * Lag in seconds, or -1 when replication is not running
+     */
+    private long measureLag(Connection connection) throws Exception {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return connection.isValid(2) ? 0 : -1;
+        }
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return -1;
+            }
+            ResultSetMetaData meta = rs.getMetaData();
+            for (String column : LAG_COLUMNS) {
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    if (column.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                        return lagValue(rs.getObject(i));
+                    }
+                }
+            }
+            // Custom lag queries return the lag as their first column
+            return lagValue(rs.getObject(1));
+        }
+    }
+
+    private long lagValue(Object value) {
+        // NULL means the replication threads are stopped
+        return value == null ? -1 : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.Grocito.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Set;
+
+/**
+ * Authenticated caller, decoded from a signed token by {@link TokenAuthenticationFilter}
+ * and stored on the request.
+ */
+public class AuthPrincipal {
+
+    public static final String REQUEST_ATTRIBUTE = "grocito.authPrincipal";
+
+    public static final String TYPE_USER = "U";
+    public static final String TYPE_PARTNER = "P";
+
+    public static final String ROLE_USER = "USER";
+    public static final String ROLE_ADMIN = "ADMIN";
+    public static final String ROLE_SUPER_ADMIN = "SUPER_ADMIN";
+    public static final String ROLE_DELIVERY_PARTNER = "DELIVERY_PARTNER";
+
+    // Roles a token may carry for each account type; anything else is rejected when the token is decoded
+    private static final Set<String> USER_ROLES = Set.of(ROLE_USER, ROLE_ADMIN, ROLE_SUPER_ADMIN, ROLE_DELIVERY_PARTNER);
+    private static final Set<String> PARTNER_ROLES = Set.of(ROLE_DELIVERY_PARTNER);
+
+    private final String type;
+    private final Long id;
+    private final String role;
+    private final String pincode;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public AuthPrincipal(String type, Long id, String role, String pincode, long issuedAt, long expiresAt) {
+        this.type = type;
+        this.id = id;
+        this.role = role;
+        this.pincode = pincode;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Principal attached to the current request, or null if the request is not authenticated
+     */
+    public static AuthPrincipal from(HttpServletRequest request) {
+        Object principal = request.getAttribute(REQUEST_ATTRIBUTE);
+        return principal instanceof AuthPrincipal ? (AuthPrincipal) principal : null;
+    }
+
+    // Key used for revocation, shared by every token of the same account
+    String getSubjectKey() {
+        return type + ":" + id;
+    }
+
+    public boolean isUser() {
+        return TYPE_USER.equals(type);
+    }
+
+    public boolean isPartner() {
+        return TYPE_PARTNER.equals(type);
+    }
+
+    /**
+     * Admin or super admin user account
+     */
+    public boolean isAdmin() {
+        return isUser() && (ROLE_ADMIN.equals(role) || ROLE_SUPER_ADMIN.equals(role));
+    }
+
+    /**
+     * Whether the account type is known and the role is one that type can have
+     */
+    public boolean hasKnownRole() {
+        if (isUser()) {
+            return USER_ROLES.contains(role);
+        }
+        return isPartner() && PARTNER_ROLES.contains(role);
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    // Getters
+    public String getType() { return type; }
+    public Long getId() { return id; }
+    public String getRole() { return role; }
+    public String getPincode() { return pincode; }
+    public long getIssuedAt() { return issuedAt; }
+    public long getExpiresAt() { return expiresAt; }
+}
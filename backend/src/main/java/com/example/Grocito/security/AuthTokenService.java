@@ -0,0 +1,188 @@
+package com.example.Grocito.security;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Issues and verifies self-contained HMAC-SHA256 signed tokens.
+ * Format: base64url(version|type|id|role|pincode|issuedAt|expiresAt) "." base64url(signature)
+ */
+@Service
+public class AuthTokenService {
+    private final Logger logger = LoggerFactory.getLogger(AuthTokenService.class);
+
+    private static final String VERSION = "1";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    // The checked-in default secrets all carry this marker
+    private static final String PLACEHOLDER_SECRET_MARKER = "change-in-production";
+    // Profiles that may run with a placeholder secret
+    private static final Set<String> DEV_PROFILES = Set.of("local", "dev", "test", "loadtest");
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration:86400000}")
+    private long expirationMillis;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private GrocitoMetrics metrics;
+
+    @Autowired
+    private Environment environment;
+
+    // Mac instances are not thread-safe, keep one per thread instead of creating one per request
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::createMac);
+
+    /**
+     * Anyone who knows a placeholder secret can sign tokens for any account, so refuse to start
+     * with one unless a development profile is active
+     */
+    @PostConstruct
+    public void checkSecret() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("jwt.secret is not set");
+        }
+        if (secret.contains(PLACEHOLDER_SECRET_MARKER)
+                && Arrays.stream(environment.getActiveProfiles()).noneMatch(DEV_PROFILES::contains)) {
+            throw new IllegalStateException("jwt.secret is a placeholder value; set JWT_SECRET or activate one of the "
+                    + DEV_PROFILES + " profiles");
+        }
+    }
+
+    /**
+     * Issue a token for a customer or admin account
+     */
+    public String issueUserToken(User user) {
+        return issue(AuthPrincipal.TYPE_USER, user.getId(), user.getRole(), user.getPincode());
+    }
+
+    /**
+     * Issue a token for a delivery partner account
+     */
+    public String issuePartnerToken(DeliveryPartnerAuth partner) {
+        return issue(AuthPrincipal.TYPE_PARTNER, partner.getId(), AuthPrincipal.ROLE_DELIVERY_PARTNER, partner.getPincode());
+    }
+
+    /**
+     * Verify a token and return its principal, or null if it is malformed, tampered, expired or revoked
+     */
+    public AuthPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        AuthPrincipal principal = principalCache.get(token);
+        if (principal != null) {
+            metrics.cacheHit(GrocitoMetrics.CACHE_PRINCIPALS);
+        } else {
+            metrics.cacheMiss(GrocitoMetrics.CACHE_PRINCIPALS);
+            principal = decode(token);
+            if (principal == null || principal.isExpired(now)) {
+                return null;
+            }
+            // Revoked on another instance or before a restart: read once per token, the sync covers cached ones
+            if (!principalCache.loadRevocation(principal)) {
+                return null;
+            }
+            principalCache.put(token, principal);
+        }
+
+        if (principal.isExpired(now) || principalCache.isRevoked(principal)) {
+            principalCache.invalidate(token);
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Revoke every token issued so far for an account (deactivation, role change, deletion), on every
+     * instance. Stored in the caller's transaction.
+     */
+    public void revoke(String type, Long id) {
+        logger.info("Revoking tokens for {} {}", AuthPrincipal.TYPE_PARTNER.equals(type) ? "partner" : "user", id);
+        principalCache.revoke(type, id);
+    }
+
+    private String issue(String type, Long id, String role, String pincode) {
+        long issuedAt = System.currentTimeMillis();
+        String payload = String.join("|", VERSION, type, String.valueOf(id),
+                role != null ? role : "", pincode != null ? pincode : "",
+                String.valueOf(issuedAt), String.valueOf(issuedAt + expirationMillis));
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(sign(payloadBytes));
+    }
+
+    private AuthPrincipal decode(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payloadBytes = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                logger.warn("Rejected token with invalid signature");
+                return null;
+            }
+
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                return null;
+            }
+
+            AuthPrincipal principal = new AuthPrincipal(parts[1], Long.parseLong(parts[2]),
+                    parts[3].isEmpty() ? null : parts[3], parts[4].isEmpty() ? null : parts[4],
+                    Long.parseLong(parts[5]), Long.parseLong(parts[6]));
+            if (!principal.hasKnownRole()) {
+                logger.warn("Rejected token with unknown type or role: {}/{}", parts[1], parts[3]);
+                return null;
+            }
+            return principal;
+        } catch (IllegalArgumentException e) {
+            // Not base64 or not numeric, e.g. a token in an older format
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        Mac mac = macs.get();
+        return mac.doFinal(payload);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Unable to initialize token signing: " + e.getMessage());
+        }
+    }
+}
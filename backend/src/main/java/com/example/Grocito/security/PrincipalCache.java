@@ -0,0 +1,185 @@
+package com.example.Grocito.security;
+
+import com.example.Grocito.Entity.TokenRevocation;
+import com.example.Grocito.Repository.TokenRevocationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded cache of verified tokens plus the revocation list.
+ * A cache hit skips base64 decoding and signature verification; revocation
+ * rejects every token of an account issued before the revocation time.
+ * Lookups never lock: once the cache is full a single thread trims it, dropping
+ * expired tokens first and then arbitrary ones (a dropped token is verified again).
+ *
+ * Revocations are stored in the token_revocations table, so they hold on every instance and
+ * across restarts: a token not in the cache is checked against its account's row, and a
+ * background sync pulls the revocations of other instances every auth.revocation-sync-ms,
+ * dropping the cached tokens they reject.
+ */
+@Component
+public class PrincipalCache {
+    private final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    // Rows revoked this long before the last pull are read again, covering commit delays and clock differences
+    private static final long PULL_OVERLAP_MILLIS = 60_000;
+
+    private static final long PURGE_INTERVAL_MILLIS = 3_600_000;
+
+    @Value("${auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.expiration:86400000}")
+    private long tokenLifetimeMillis;
+
+    @Value("${auth.revocation-sync-ms:5000}")
+    private long syncIntervalMillis;
+
+    @Autowired
+    private TokenRevocationRepository revocations;
+
+    private final ConcurrentHashMap<String, AuthPrincipal> principalsByToken = new ConcurrentHashMap<>(256);
+
+    // Set while one thread trims the cache, other writers skip the trim
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    // Subject key (type:id) -> revocation time in epoch millis
+    private final ConcurrentHashMap<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    private long lastPull;
+    private long lastPurge;
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (syncIntervalMillis <= 0) {
+            return;
+        }
+        sync();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public AuthPrincipal get(String token) {
+        return principalsByToken.get(token);
+    }
+
+    public void put(String token, AuthPrincipal principal) {
+        principalsByToken.put(token, principal);
+        if (principalsByToken.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                evict(System.currentTimeMillis());
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    public void invalidate(String token) {
+        principalsByToken.remove(token);
+    }
+
+    /**
+     * Reject all tokens of the account that were issued up to now, on every instance
+     */
+    public void revoke(String type, Long id) {
+        long now = System.currentTimeMillis();
+        String subjectKey = type + ":" + id;
+        apply(subjectKey, now);
+
+        // Entries older than the token lifetime can no longer match a valid token
+        revokedAt.values().removeIf(time -> time < now - tokenLifetimeMillis);
+
+        // Part of the caller's transaction, a change that revokes tokens does not commit without its revocation
+        revocations.record(subjectKey, now);
+    }
+
+    /**
+     * Read the stored revocation of a token's account, for tokens not in the cache. False when it could
+     * not be read; the token is then refused rather than trusted.
+     */
+    public boolean loadRevocation(AuthPrincipal principal) {
+        try {
+            revocations.findById(principal.getSubjectKey())
+                    .ifPresent(revocation -> apply(revocation.getSubjectKey(), revocation.getRevokedAt()));
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("Could not read token revocations, refusing token of {}: {}", principal.getSubjectKey(), e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean isRevoked(AuthPrincipal principal) {
+        Long time = revokedAt.get(principal.getSubjectKey());
+        return time != null && principal.getIssuedAt() <= time;
+    }
+
+    public int size() {
+        return principalsByToken.size();
+    }
+
+    void sync() {
+        try {
+            long now = System.currentTimeMillis();
+            long since = Math.max(lastPull - PULL_OVERLAP_MILLIS, now - tokenLifetimeMillis);
+            for (TokenRevocation revocation : revocations.findByRevokedAtGreaterThan(since)) {
+                apply(revocation.getSubjectKey(), revocation.getRevokedAt());
+            }
+            lastPull = now;
+            if (now - lastPurge >= PURGE_INTERVAL_MILLIS) {
+                revocations.deleteRevokedBefore(now - tokenLifetimeMillis);
+                lastPurge = now;
+            }
+        } catch (RuntimeException e) {
+            // Retried on the next sync; tokens not in the cache are still checked against the table
+            logger.warn("Token revocation sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(String subjectKey, long time) {
+        Long previous = revokedAt.get(subjectKey);
+        if (previous != null && previous >= time) {
+            return;
+        }
+        revokedAt.merge(subjectKey, time, Math::max);
+        principalsByToken.values().removeIf(principal -> subjectKey.equals(principal.getSubjectKey())
+                && principal.getIssuedAt() <= time);
+    }
+
+    // Trim to 90% of maxSize so a full cache is not scanned again on every put
+    private void evict(long now) {
+        principalsByToken.values().removeIf(principal -> principal.isExpired(now));
+
+        int target = maxSize - maxSize / 10;
+        Iterator<String> tokens = principalsByToken.keySet().iterator();
+        while (principalsByToken.size() > target && tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.Grocito.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the bearer token once per request and stores the principal on the request.
+ * Requests without a valid token pass through unauthenticated; controllers decide access.
+ * Actuator endpoints have no controller, so their write and delete operations are refused here
+ * unless the caller is an admin; their read operations stay open to monitoring.
+ */
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Value("${management.endpoints.web.base-path:/actuator}")
+    private String actuatorBasePath;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        AuthPrincipal principal = null;
+
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            principal = authTokenService.verify(authHeader.substring(BEARER_PREFIX.length()).trim());
+            if (principal != null) {
+                request.setAttribute(AuthPrincipal.REQUEST_ATTRIBUTE, principal);
+            }
+        }
+
+        if (isActuatorWrite(request) && (principal == null || !principal.isAdmin())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Access denied. Admin privileges required.");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isActuatorWrite(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean actuator = path.equals(actuatorBasePath) || path.startsWith(actuatorBasePath + "/");
+        return actuator && !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())
+                && !"OPTIONS".equals(request.getMethod());
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.Grocito.service;
+
+import com.example.Grocito.Repository.ArchivedOrderRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.dto.PartnerDeliveryRow;
+import com.example.Grocito.pricing.EarningsTotals;
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingRule;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.Grocito.pricing.PricingEngine.roundToPaise;
+import static com.example.Grocito.pricing.PricingEngine.toPaise;
+import static com.example.Grocito.pricing.PricingEngine.toRupees;
+
+/**
+ * Partner earnings of any number of deliveries in constant memory: deliveries are read one at a time, from
+ * the request body with a streaming parser or from the orders tables in keyset-paged chunks, and each
+ * breakdown row is written out before the next one is read. The totals follow the rows.
+ */
+@Service
+public class BulkEarningsService {
+
+    private static final Logger logger = LoggerConfig.getLogger(BulkEarningsService.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Open a bulk earnings body, either {"deliveries": [...]} or a bare array of deliveries, and move to the
+     * first delivery. Called before the response starts so a body that is not a deliveries list is a 400.
+     */
+    public JsonParser openDeliveries(InputStream body) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(body);
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                token = parser.nextToken();
+                if ("deliveries".equals(field)) {
+                    break;
+                }
+                parser.skipChildren();
+                token = null;
+            }
+        }
+        if (token != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("Expected a deliveries array");
+        }
+        return parser;
+    }
+
+    /**
+     * Earnings of the deliveries in the request body, with the rules in force for the pincode (may be null).
+     * The daily target applies once, to the whole list, like the non-streaming endpoint.
+     */
+    public void writeEarnings(JsonParser deliveries, String pincode, OutputStream outputStream) throws IOException {
+        PricingRule rule = pricingEngine.rule(pincode);
+        EarningsTotals totals = new EarningsTotals(pricingEngine.policy());
+
+        try (deliveries; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("earningsBreakdown");
+            char[] numberBuffer = new char[24];
+            try {
+                while (deliveries.nextToken() == JsonToken.START_OBJECT) {
+                    writeDelivery(deliveries, rule, totals, generator, numberBuffer);
+                }
+                if (deliveries.currentToken() != JsonToken.END_ARRAY) {
+                    throw new IllegalArgumentException("Expected a delivery object");
+                }
+            } catch (IOException | RuntimeException e) {
+                // The rows so far are already sent, end the document with the error instead of the totals
+                logger.warn("Bulk earnings stopped after {} deliveries: {}", totals.deliveries(), e.getMessage());
+                generator.writeEndArray();
+                generator.writeStringField("error", "Invalid deliveries data");
+                generator.writeStringField("message", e.getMessage());
+                generator.writeEndObject();
+                return;
+            }
+            generator.writeEndArray();
+            totals.addDailyTarget(totals.deliveries());
+            writeTotals(totals, generator);
+            generator.writeEndObject();
+        }
+        logger.debug("Streamed bulk earnings of {} deliveries", totals.deliveries());
+    }
+
+    private void writeDelivery(JsonParser parser, PricingRule rule, EarningsTotals totals,
+                               JsonGenerator generator, char[] numberBuffer) throws IOException {
+        // Read the whole delivery before writing its row, a bad field then leaves no half-written row behind.
+        // Numeric order ids, the usual case, are kept as a long rather than an object.
+        long numericOrderId = 0;
+        String orderId = null;
+        boolean hasNumericOrderId = false;
+        long orderAmount = -1;
+        long bonus = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "orderId" -> {
+                    hasNumericOrderId = value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER;
+                    if (hasNumericOrderId) {
+                        numericOrderId = parser.getLongValue();
+                    } else if (value.isScalarValue()) {
+                        orderId = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    } else {
+                        throw new IllegalArgumentException("orderId must be a number or a string");
+                    }
+                }
+                case "orderAmount" -> orderAmount = readPaise(parser, field);
+                case "bonuses" -> bonus = value == JsonToken.VALUE_NULL ? 0 : readPaise(parser, field);
+                default -> parser.skipChildren();
+            }
+        }
+        if (orderAmount < 0) {
+            throw new IllegalArgumentException("orderAmount is required");
+        }
+        boolean free = rule.isFreeDelivery(orderAmount);
+        long baseEarnings = free ? rule.partnerEarningFree() : rule.partnerEarningPaid();
+        totals.add(free, baseEarnings, bonus);
+
+        generator.writeStartObject();
+        generator.writeFieldName("orderId");
+        if (hasNumericOrderId) {
+            generator.writeNumber(numericOrderId);
+        } else if (orderId != null) {
+            generator.writeString(orderId);
+        } else {
+            generator.writeNull();
+        }
+        writeRupees(generator, "orderAmount", orderAmount, numberBuffer);
+        writeEarningsFields(free, baseEarnings, bonus, generator, numberBuffer);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Rupee amount as paise. Numbers and numeric strings are accepted, like new BigDecimal(value.toString()) did.
+     */
+    private static long readPaise(JsonParser parser, String field) throws IOException {
+        long paise = switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> Math.multiplyExact(parser.getLongValue(), 100L);
+            case VALUE_NUMBER_FLOAT -> {
+                long plain = parsePlainPaise(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                yield plain >= 0 ? plain : roundToPaise(parser.getDecimalValue());
+            }
+            case VALUE_STRING -> roundToPaise(new BigDecimal(parser.getText().trim()));
+            default -> throw new IllegalArgumentException(field + " must be a number");
+        };
+        if (paise < 0) {
+            throw new IllegalArgumentException(field + " must not be negative");
+        }
+        return paise;
+    }
+
+    /**
+     * Paise of a plain decimal like 149.5 or 845.25 read straight from the parser's buffer, or -1 when the
+     * number needs BigDecimal (sign, exponent, more than two decimals or too many digits)
+     */
+    private static long parsePlainPaise(char[] chars, int offset, int length) {
+        long value = 0;
+        int decimals = -1;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 2 && value < Long.MAX_VALUE / 1000) {
+                value = value * 10 + (c - '0');
+                decimals += decimals >= 0 ? 1 : 0;
+            } else {
+                return -1;
+            }
+        }
+        return decimals <= 0 ? value * 100 : decimals == 1 ? value * 10 : value;
+    }
+
+    /**
+     * Paise written as a two-decimal number, the same text BigDecimal.valueOf(paise, 2) gives, without
+     * creating one
+     */
+    private static void writeRupees(JsonGenerator generator, String field, long paise, char[] buffer) throws IOException {
+        generator.writeFieldName(field);
+        if (paise < 0) {
+            generator.writeNumber(toRupees(paise));
+            return;
+        }
+        int end = buffer.length;
+        int position = end;
+        long value = paise;
+        for (int digit = 0; digit < 3 || value > 0; digit++) {
+            if (digit == 2) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        generator.writeNumber(buffer, position, end - position);
+    }
+
+    /**
+     * Earnings of a partner's orders delivered between two days (inclusive), as stored on the order rows at
+     * checkout; orders stored without an earning are priced under the rule in force when they were placed.
+     * The daily target applies per day.
+     */
+    public void writePartnerEarnings(Long partnerId, LocalDate from, LocalDate to,
+                                     OutputStream outputStream) throws IOException {
+        logger.info("Streaming earnings of partner {} from {} to {}", partnerId, from, to);
+        LocalDateTime fromTime = from.atStartOfDay();
+        LocalDateTime toTime = to.plusDays(1).atStartOfDay();
+        EarningsTotals totals = new EarningsTotals(pricingEngine.policy());
+        // One entry per day with deliveries, bounded by the length of the range
+        Map<LocalDate, Long> deliveriesPerDay = new HashMap<>();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("partnerId", partnerId);
+            generator.writeStringField("from", from.toString());
+            generator.writeStringField("to", to.toString());
+            generator.writeArrayFieldStart("earningsBreakdown");
+            ChunkReader archived = (afterTime, afterId, page) ->
+                    archivedOrderRepository.findPartnerDeliveriesAfter(partnerId, toTime, afterTime, afterId, page);
+            ChunkReader hot = (afterTime, afterId, page) ->
+                    orderRepository.findPartnerDeliveriesAfter(partnerId, toTime, afterTime, afterId, page);
+            writePartnerDeliveries(archived, fromTime, totals, deliveriesPerDay, generator);
+            writePartnerDeliveries(hot, fromTime, totals, deliveriesPerDay, generator);
+            generator.writeEndArray();
+
+            deliveriesPerDay.values().forEach(totals::addDailyTarget);
+            writeTotals(totals, generator);
+            generator.writeNumberField("daysOnTarget", totals.daysOnTarget());
+            generator.writeEndObject();
+        }
+        logger.debug("Streamed earnings of {} deliveries of partner {}", totals.deliveries(), partnerId);
+    }
+
+    private void writePartnerDeliveries(ChunkReader reader, LocalDateTime fromTime, EarningsTotals totals,
+                                        Map<LocalDate, Long> deliveriesPerDay, JsonGenerator generator) throws IOException {
+        Pageable chunkPage = PageRequest.of(0, CHUNK_SIZE);
+        char[] numberBuffer = new char[24];
+        // Rows delivered exactly at fromTime pass the (deliveredAt, id) cursor with any positive id
+        LocalDateTime afterTime = fromTime;
+        Long afterId = 0L;
+        List<PartnerDeliveryRow> chunk;
+        do {
+            chunk = reader.read(afterTime, afterId, chunkPage);
+            for (PartnerDeliveryRow row : chunk) {
+                // The stored total includes the fee charged at checkout
+                long deliveryFee = toPaise(row.deliveryFee());
+                long orderAmount = toPaise(row.totalAmount()) - deliveryFee;
+                boolean free;
+                long baseEarnings;
+                if (row.partnerEarning() > 0) {
+                    // Paid what was stored at checkout, whatever the rules say now
+                    free = deliveryFee == 0;
+                    baseEarnings = toPaise(row.partnerEarning());
+                } else {
+                    // Stored without an earning: the rule in force when the order was placed
+                    PricingRule rule = pricingEngine.rule(row.pincode(), row.orderTime());
+                    free = rule.isFreeDelivery(orderAmount);
+                    baseEarnings = free ? rule.partnerEarningFree() : rule.partnerEarningPaid();
+                }
+                totals.add(free, baseEarnings, 0);
+                deliveriesPerDay.merge(row.deliveredAt().toLocalDate(), 1L, Long::sum);
+
+                generator.writeStartObject();
+                generator.writeNumberField("orderId", row.orderId());
+                generator.writeStringField("deliveredAt", row.deliveredAt().toString());
+                writeRupees(generator, "orderAmount", orderAmount, numberBuffer);
+                writeEarningsFields(free, baseEarnings, 0, generator, numberBuffer);
+                generator.writeEndObject();
+            }
+            if (!chunk.isEmpty()) {
+                PartnerDeliveryRow last = chunk.get(chunk.size() - 1);
+                afterTime = last.deliveredAt();
+                afterId = last.orderId();
+            }
+            generator.flush();
+        } while (chunk.size() == CHUNK_SIZE);
+    }
+
+    private static void writeEarningsFields(boolean free, long baseEarnings, long bonus,
+                                            JsonGenerator generator, char[] numberBuffer) throws IOException {
+        generator.writeStringField("deliveryType", free ? "FREE_DELIVERY" : "PAID_DELIVERY");
+        writeRupees(generator, "baseEarnings", baseEarnings, numberBuffer);
+        writeRupees(generator, "totalBonuses", bonus, numberBuffer);
+        writeRupees(generator, "totalEarnings", baseEarnings + bonus, numberBuffer);
+    }
+
+    private static void writeTotals(EarningsTotals totals, JsonGenerator generator) throws IOException {
+        generator.writeNumberField("totalDeliveries", totals.deliveries());
+        generator.writeNumberField("freeDeliveries", totals.freeDeliveries());
+        generator.writeNumberField("paidDeliveries", totals.paidDeliveries());
+        generator.writeNumberField("totalEarnings", toRupees(totals.totalEarnings()));
+        generator.writeNumberField("totalBaseEarnings", toRupees(totals.totalBaseEarnings()));
+        generator.writeNumberField("totalBonuses", toRupees(totals.totalBonuses()));
+        generator.writeNumberField("dailyTargetBonus", toRupees(totals.dailyTargetBonus()));
+        generator.writeNumberField("averageEarningsPerDelivery", toRupees(totals.averageEarnings()));
+    }
+
+    @FunctionalInterface
+    private interface ChunkReader {
+        List<PartnerDeliveryRow> read(LocalDateTime afterTime, Long afterId, Pageable page);
+    }
+}
@@ -1,88 +1,96 @@
 package com.example.Grocito.service;
 
+import com.example.Grocito.pricing.PricingEngine;
+import com.example.Grocito.pricing.PricingRule;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import static com.example.Grocito.pricing.PricingEngine.roundToPaise;
+import static com.example.Grocito.pricing.PricingEngine.toPaise;
+import static com.example.Grocito.pricing.PricingEngine.toRupees;
+
 /**
- * Service for calculating delivery fees and partner earnings
+ * Service for calculating delivery fees and partner earnings, the rupee view of {@link PricingEngine}
+ * used by the delivery fee API
  * 
- * Policy:
+ * Base policy (pricing.* properties, per-pincode and time-of-day overrides on top):
  * - Order Amount >= ₹199: FREE delivery (Partner gets ₹25 from Grocito)
  * - Order Amount < ₹199: ₹40 delivery fee (Partner gets ₹30, Grocito keeps ₹10)
  */
 @Service
 public class DeliveryFeeService {
     
-    private static final BigDecimal FREE_DELIVERY_THRESHOLD = new BigDecimal("199.00");
-    private static final BigDecimal DELIVERY_FEE = new BigDecimal("40.00");
-    private static final BigDecimal PARTNER_EARNINGS_PAID = new BigDecimal("30.00");
-    private static final BigDecimal PARTNER_EARNINGS_FREE = new BigDecimal("25.00");
+    @Autowired
+    private PricingEngine pricingEngine;
     
     /**
      * Calculate delivery fee for an order
      */
     public DeliveryFeeCalculation calculateDeliveryFee(BigDecimal orderAmount) {
-        boolean isFreeDelivery = orderAmount.compareTo(FREE_DELIVERY_THRESHOLD) >= 0;
-        BigDecimal deliveryFee = isFreeDelivery ? BigDecimal.ZERO : DELIVERY_FEE;
-        BigDecimal totalAmount = orderAmount.add(deliveryFee);
-        BigDecimal savings = isFreeDelivery ? DELIVERY_FEE : BigDecimal.ZERO;
-        BigDecimal amountNeededForFree = isFreeDelivery ? BigDecimal.ZERO : 
-            FREE_DELIVERY_THRESHOLD.subtract(orderAmount).max(BigDecimal.ZERO);
+        return calculateDeliveryFee(orderAmount, null);
+    }
+    
+    /**
+     * Calculate delivery fee for an order, with the rules in force for the pincode (may be null)
+     */
+    public DeliveryFeeCalculation calculateDeliveryFee(BigDecimal orderAmount, String pincode) {
+        PricingRule rule = pricingEngine.rule(pincode);
+        BigDecimal rounded = orderAmount.setScale(2, RoundingMode.HALF_UP);
+        long amount = toPaise(rounded);
+        long deliveryFee = rule.deliveryFee(amount);
+        boolean isFreeDelivery = rule.isFreeDelivery(amount);
         
         return new DeliveryFeeCalculation(
-            orderAmount.setScale(2, RoundingMode.HALF_UP),
-            deliveryFee.setScale(2, RoundingMode.HALF_UP),
-            totalAmount.setScale(2, RoundingMode.HALF_UP),
+            rounded,
+            toRupees(deliveryFee),
+            toRupees(amount + deliveryFee),
             isFreeDelivery,
-            savings.setScale(2, RoundingMode.HALF_UP),
-            amountNeededForFree.setScale(2, RoundingMode.HALF_UP)
+            toRupees(isFreeDelivery ? rule.deliveryFee() : 0),
+            toRupees(isFreeDelivery ? 0 : rule.amountNeededForFreeDelivery(amount))
         );
     }
     
     /**
-     * Calculate partner earnings for a delivery - CORRECT POLICY IMPLEMENTATION
+     * Calculate partner earnings for a delivery
      */
     public PartnerEarnings calculatePartnerEarnings(BigDecimal orderAmount, BigDecimal bonuses) {
-        boolean isFreeDelivery = orderAmount.compareTo(FREE_DELIVERY_THRESHOLD) >= 0;
-        
-        // Base earnings - ₹25 for free delivery, ₹30 for paid delivery
-        BigDecimal baseEarnings = isFreeDelivery ? PARTNER_EARNINGS_FREE : PARTNER_EARNINGS_PAID;
-        BigDecimal totalBonuses = bonuses != null ? bonuses : BigDecimal.ZERO;
-        BigDecimal totalEarnings = baseEarnings.add(totalBonuses);
-        
-        // Customer payment - ₹0 for free delivery, ₹40 for paid delivery
-        BigDecimal customerPaid = isFreeDelivery ? BigDecimal.ZERO : DELIVERY_FEE;
-        
-        // Grocito payment to partner - ₹25 for free delivery, ₹0 for paid delivery
-        BigDecimal grocitoPaid = isFreeDelivery ? PARTNER_EARNINGS_FREE : BigDecimal.ZERO;
-        
-        // Grocito revenue/cost - loses ₹25 on free delivery, gains ₹10 on paid delivery
-        BigDecimal grocitoRevenue = isFreeDelivery ? 
-            PARTNER_EARNINGS_FREE.negate() :  // -₹25 (cost)
-            DELIVERY_FEE.subtract(PARTNER_EARNINGS_PAID); // +₹10 (profit)
+        return calculatePartnerEarnings(orderAmount, bonuses, null);
+    }
+    
+    /**
+     * Calculate partner earnings for a delivery, with the rules in force for the pincode (may be null)
+     */
+    public PartnerEarnings calculatePartnerEarnings(BigDecimal orderAmount, BigDecimal bonuses, String pincode) {
+        PricingRule rule = pricingEngine.rule(pincode);
+        BigDecimal rounded = orderAmount.setScale(2, RoundingMode.HALF_UP);
+        long amount = toPaise(rounded);
+        long totalBonuses = bonuses != null ? roundToPaise(bonuses) : 0;
+        long baseEarnings = rule.partnerEarning(amount);
         
         return new PartnerEarnings(
-            orderAmount.setScale(2, RoundingMode.HALF_UP),
-            isFreeDelivery ? "FREE_DELIVERY" : "PAID_DELIVERY",
-            baseEarnings.setScale(2, RoundingMode.HALF_UP),
-            totalBonuses.setScale(2, RoundingMode.HALF_UP),
-            totalEarnings.setScale(2, RoundingMode.HALF_UP),
-            customerPaid.setScale(2, RoundingMode.HALF_UP),
-            grocitoPaid.setScale(2, RoundingMode.HALF_UP),
-            grocitoRevenue.setScale(2, RoundingMode.HALF_UP)
+            rounded,
+            rule.isFreeDelivery(amount) ? "FREE_DELIVERY" : "PAID_DELIVERY",
+            toRupees(baseEarnings),
+            toRupees(totalBonuses),
+            toRupees(baseEarnings + totalBonuses),
+            toRupees(rule.deliveryFee(amount)),
+            toRupees(rule.grocitoPaid(amount)),
+            toRupees(rule.grocitoRevenue(amount))
         );
     }
     
     /**
-     * Get policy information
+     * Get policy information (the base rule, before overrides)
      */
     public DeliveryPolicy getPolicyInfo() {
+        PricingRule base = pricingEngine.policy().base();
         return new DeliveryPolicy(
-            FREE_DELIVERY_THRESHOLD,
-            DELIVERY_FEE,
-            PARTNER_EARNINGS_PAID,
-            PARTNER_EARNINGS_FREE
+            toRupees(base.freeDeliveryThreshold()),
+            toRupees(base.deliveryFee()),
+            toRupees(base.partnerEarningPaid()),
+            toRupees(base.partnerEarningFree())
         );
     }
     
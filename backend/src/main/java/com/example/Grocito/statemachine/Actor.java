@@ -0,0 +1,21 @@
+package com.example.Grocito.statemachine;
+
+/**
+ * Who requests a status change. Partners carry their delivery_partner_auth id for the ownership checks.
+ */
+public record Actor(Role role, Long partnerId) {
+
+    public enum Role { CUSTOMER, PARTNER, ADMIN }
+
+    public static Actor customer() {
+        return new Actor(Role.CUSTOMER, null);
+    }
+
+    public static Actor admin() {
+        return new Actor(Role.ADMIN, null);
+    }
+
+    public static Actor partner(Long partnerId) {
+        return new Actor(Role.PARTNER, partnerId);
+    }
+}
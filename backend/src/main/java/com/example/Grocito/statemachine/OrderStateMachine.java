@@ -0,0 +1,387 @@
+package com.example.Grocito.statemachine;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderAssignment;
+import com.example.Grocito.Repository.OrderAssignmentRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Services.EmailService;
+import com.example.Grocito.Services.PartnerStatsService;
+import com.example.Grocito.config.LoggerConfig;
+import com.example.Grocito.dto.BulkStatusResult;
+import com.example.Grocito.metrics.GrocitoMetrics;
+import com.example.Grocito.readmodel.PartnerLeaderboards;
+import com.example.Grocito.readmodel.PartnerReadModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import static com.example.Grocito.statemachine.Actor.Role.ADMIN;
+import static com.example.Grocito.statemachine.Actor.Role.CUSTOMER;
+import static com.example.Grocito.statemachine.Actor.Role.PARTNER;
+import static com.example.Grocito.statemachine.TransitionTable.ANY;
+
+/**
+ * The order lifecycle PLACED → ASSIGNED → PICKED_UP → OUT_FOR_DELIVERY → DELIVERED (or CANCELLED), and the
+ * matching lifecycle of order assignments. Every status change is a compare-and-set UPDATE on
+ * (id, status, version), so concurrent partner and admin updates cannot overwrite each other; the loser
+ * re-reads the row and is checked against the table again. Side effects of order changes run as hooks on
+ * background threads once the change has committed.
+ */
+@Component
+public class OrderStateMachine {
+
+    private static final Logger logger = LoggerConfig.getLogger(OrderStateMachine.class);
+
+    public static final List<String> ACTIVE_STATUSES = List.of("ASSIGNED", "PICKED_UP", "OUT_FOR_DELIVERY");
+
+    // Same limit the assignment service enforces when a partner accepts an order
+    private static final int MAX_ACTIVE_ORDERS = 2;
+
+    // Compare-and-set attempts; after the first miss the row is re-read with a lock, so the second normally wins
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final TransitionTable<Order> orderTransitions = new TransitionTable<Order>("order",
+            Set.of("PLACED", "PACKED", "ASSIGNED", "PICKED_UP", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED"),
+            Set.of("DELIVERED", "CANCELLED"))
+            .allow(PARTNER, "PLACED", "ASSIGNED")
+            .allow(PARTNER, "ASSIGNED", "PICKED_UP", OrderStateMachine::requireAssignedPartner)
+            .allow(PARTNER, "PICKED_UP", "OUT_FOR_DELIVERY", OrderStateMachine::requireAssignedPartner)
+            .allow(PARTNER, "OUT_FOR_DELIVERY", "DELIVERED", OrderStateMachine::requireAssignedPartner,
+                    OrderStateMachine::requirePaymentCollected)
+            .allow(PARTNER, ACTIVE_STATUSES, "CANCELLED", OrderStateMachine::requireAssignedPartner)
+            .allow(CUSTOMER, ANY, "CANCELLED")
+            // Admins correct open orders freely (the admin panel also uses PACKED), but COD still has to be paid
+            .allow(ADMIN, ANY, "DELIVERED", OrderStateMachine::requirePaymentCollected)
+            .allow(ADMIN, ANY, ANY);
+
+    // Accepting is optional, the partner app goes straight from ASSIGNED to PICKED_UP
+    private final TransitionTable<OrderAssignment> assignmentTransitions = new TransitionTable<OrderAssignment>("assignment",
+            Set.of("ASSIGNED", "ACCEPTED", "REJECTED", "PICKED_UP", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED"),
+            Set.of("DELIVERED", "REJECTED", "CANCELLED"))
+            .allow(PARTNER, "ASSIGNED", "ACCEPTED", this::requireAssignmentOwner)
+            .allow(PARTNER, "ASSIGNED", "REJECTED", this::requireAssignmentOwner)
+            .allow(PARTNER, List.of("ASSIGNED", "ACCEPTED"), "PICKED_UP", this::requireAssignmentOwner)
+            .allow(PARTNER, "PICKED_UP", "OUT_FOR_DELIVERY", this::requireAssignmentOwner)
+            .allow(PARTNER, "OUT_FOR_DELIVERY", "DELIVERED", this::requireAssignmentOwner)
+            .allow(PARTNER, List.of("ASSIGNED", "ACCEPTED", "PICKED_UP", "OUT_FOR_DELIVERY"), "CANCELLED", this::requireAssignmentOwner);
+
+    // Hooks per new order status, run in registration order
+    private final Map<String, List<Consumer<OrderTransition>>> orderHooks = new HashMap<>();
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderAssignmentRepository orderAssignmentRepository;
+
+    @Autowired
+    private PartnerStatsService partnerStatsService;
+
+    @Autowired
+    private PartnerLeaderboards leaderboards;
+
+    @Autowired
+    private PartnerReadModel partnerReadModel;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private GrocitoMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order-state.hook-threads:2}")
+    private int hookThreads;
+
+    private ExecutorService hookExecutor;
+
+    @PostConstruct
+    public void startHooks() {
+        AtomicInteger threadCount = new AtomicInteger();
+        hookExecutor = Executors.newFixedThreadPool(Math.max(1, hookThreads), runnable -> {
+            Thread thread = new Thread(runnable, "order-hooks-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        onOrderStatus("ASSIGNED", this::updatePartnerAvailability);
+        onOrderStatus("DELIVERED", this::updatePartnerAvailability);
+        onOrderStatus("DELIVERED", this::sendDeliveryReceipt);
+        onOrderStatus("CANCELLED", this::recordCancellation);
+        onOrderStatus("CANCELLED", this::updatePartnerAvailability);
+    }
+
+    @PreDestroy
+    public void stopHooks() {
+        hookExecutor.shutdown();
+    }
+
+    /**
+     * Run a hook after every committed change of an order to the status
+     */
+    public void onOrderStatus(String status, Consumer<OrderTransition> hook) {
+        orderHooks.computeIfAbsent(status, key -> new ArrayList<>()).add(hook);
+    }
+
+    /**
+     * Move an order to a new status. The order has to be loaded in the caller's transaction; it is refreshed
+     * to the updated row. Returns false, changing nothing, when the order already has the status.
+     */
+    @Transactional
+    public boolean transition(Order order, String toStatus, Actor actor) {
+        return changeOrder(order, toStatus, actor, () -> orderRepository.compareAndSetStatus(order.getId(),
+                order.getStatus(), order.getVersion(), toStatus, LocalDateTime.now()));
+    }
+
+    /**
+     * Take a PLACED order for the partner. Returns false when another partner got it first.
+     */
+    @Transactional
+    public boolean assign(Order order, DeliveryPartnerAuth partner, double partnerEarning) {
+        return changeOrder(order, "ASSIGNED", Actor.partner(partner.getId()), () -> orderRepository.compareAndSetAssigned(
+                order.getId(), order.getStatus(), order.getVersion(), partner, partnerEarning, LocalDateTime.now()));
+    }
+
+    /**
+     * Move an assignment to a new status, same contract as {@link #transition(Order, String, Actor)}
+     */
+    @Transactional
+    public boolean transition(OrderAssignment assignment, String toStatus, Actor actor) {
+        return changeAssignment(assignment, toStatus, actor, null);
+    }
+
+    @Transactional
+    public boolean reject(OrderAssignment assignment, Actor actor, String rejectionReason) {
+        return changeAssignment(assignment, "REJECTED", actor, rejectionReason);
+    }
+
+    /**
+     * Move many orders to a new status with one locking read and one UPDATE, for the admin bulk actions. Each
+     * order is checked against the same table as a single change; the ones it refuses are left alone. Returns a
+     * result per id, in the order given.
+     */
+    @Transactional
+    public List<BulkStatusResult> transitionAll(Collection<Long> orderIds, String toStatus, Actor actor) {
+        Map<Long, Order> snapshots = new HashMap<>();
+        for (Object[] row : orderRepository.lockStatusRows(orderIds)) {
+            Order snapshot = snapshotOf(row);
+            snapshots.put(snapshot.getId(), snapshot);
+        }
+
+        Map<Long, BulkStatusResult> results = new HashMap<>();
+        List<Order> permitted = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            Order snapshot = snapshots.get(orderId);
+            if (snapshot == null) {
+                results.put(orderId, BulkStatusResult.notFound(orderId));
+            } else if (toStatus.equals(snapshot.getStatus())) {
+                results.put(orderId, BulkStatusResult.unchanged(orderId, toStatus));
+            } else {
+                try {
+                    orderTransitions.check(snapshot, snapshot.getStatus(), toStatus, actor);
+                    permitted.add(snapshot);
+                } catch (RuntimeException e) {
+                    results.put(orderId, BulkStatusResult.rejected(orderId, snapshot.getStatus(), e.getMessage()));
+                }
+            }
+        }
+        if (permitted.isEmpty()) {
+            return orderIds.stream().map(results::get).toList();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderRepository.updateStatusOfAll(permitted.stream().map(Order::getId).toList(), toStatus, now);
+        // The rows are locked since they were checked, anything else is a bug and must not commit half a batch
+        if (updated != permitted.size()) {
+            throw new RuntimeException("Bulk status update changed " + updated + " of " + permitted.size() + " orders");
+        }
+
+        List<OrderTransition> transitions = new ArrayList<>();
+        for (Order snapshot : permitted) {
+            results.put(snapshot.getId(), BulkStatusResult.updated(snapshot.getId(), toStatus));
+            if ("DELIVERED".equals(toStatus)) {
+                snapshot.setDeliveredAt(now);
+                partnerStatsService.recordDelivery(snapshot);
+            }
+            Long partnerId = snapshot.getDeliveryPartner() != null ? snapshot.getDeliveryPartner().getId() : null;
+            transitions.add(new OrderTransition(snapshot.getId(), snapshot.getStatus(), toStatus, partnerId, snapshot.getPincode(), actor));
+        }
+        logger.info("{} orders moved to {} in bulk ({})", updated, toStatus, actor.role());
+        PartnerReadModel.afterCommit(() -> hookExecutor.execute(() -> transitions.forEach(this::runHooks)));
+        return orderIds.stream().map(results::get).toList();
+    }
+
+    private boolean changeOrder(Order order, String toStatus, Actor actor, IntSupplier compareAndSet) {
+        String fromStatus = change("order", orderTransitions, order, order::getStatus, toStatus, actor, compareAndSet);
+        if (fromStatus == null) {
+            return false;
+        }
+        logger.info("Order {} moved from {} to {} ({})", order.getId(), fromStatus, toStatus, actor.role());
+
+        if ("DELIVERED".equals(toStatus)) {
+            // In the transaction of the status change, so every delivery is counted exactly once
+            partnerStatsService.recordDelivery(order);
+        }
+        Long partnerId = order.getDeliveryPartner() != null ? order.getDeliveryPartner().getId() : null;
+        OrderTransition transition = new OrderTransition(order.getId(), fromStatus, toStatus, partnerId, order.getPincode(), actor);
+        PartnerReadModel.afterCommit(() -> hookExecutor.execute(() -> runHooks(transition)));
+        return true;
+    }
+
+    private boolean changeAssignment(OrderAssignment assignment, String toStatus, Actor actor, String rejectionReason) {
+        String fromStatus = change("assignment", assignmentTransitions, assignment, assignment::getStatus, toStatus, actor, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            Integer minutesSinceAccepted = assignment.getAcceptedAt() != null
+                    ? (int) Duration.between(assignment.getAcceptedAt(), now).toMinutes() : null;
+            return orderAssignmentRepository.compareAndSetStatus(assignment.getId(), assignment.getStatus(),
+                    assignment.getVersion(), toStatus, rejectionReason, minutesSinceAccepted, now);
+        });
+        if (fromStatus == null) {
+            return false;
+        }
+        logger.info("Assignment {} moved from {} to {} ({})", assignment.getId(), fromStatus, toStatus, actor.role());
+        return true;
+    }
+
+    /**
+     * Check and compare-and-set until the change is applied; returns the previous status, or null if the
+     * entity already had the new status
+     */
+    private <T> String change(String machine, TransitionTable<T> table, T entity, Supplier<String> status,
+                              String toStatus, Actor actor, IntSupplier compareAndSet) {
+        for (int attempt = 1; ; attempt++) {
+            String fromStatus = status.get();
+            if (toStatus.equals(fromStatus)) {
+                return null;
+            }
+            table.check(entity, fromStatus, toStatus, actor);
+            if (compareAndSet.getAsInt() > 0) {
+                entityManager.refresh(entity);
+                return fromStatus;
+            }
+
+            metrics.statusConflict(machine);
+            if (attempt == MAX_ATTEMPTS) {
+                throw new RuntimeException("The " + machine + " is being updated by someone else, please try again");
+            }
+            logger.debug("Lost compare-and-set of {} to {}, re-reading", machine, toStatus);
+            // A locking read sees the winner's commit even under REPEATABLE READ, and holds the row for the retry
+            entityManager.refresh(entity, LockModeType.PESSIMISTIC_WRITE);
+        }
+    }
+
+    /**
+     * Detached order holding the columns of {@link OrderRepository#lockStatusRows}, enough for the guards
+     */
+    private static Order snapshotOf(Object[] row) {
+        Order order = new Order();
+        order.setId((Long) row[0]);
+        order.setStatus((String) row[1]);
+        order.setPincode((String) row[2]);
+        order.setPaymentMethod((String) row[3]);
+        order.setPaymentStatus((String) row[4]);
+        if (row[5] != null) {
+            DeliveryPartnerAuth partner = new DeliveryPartnerAuth();
+            partner.setId((Long) row[5]);
+            order.setDeliveryPartner(partner);
+        }
+        order.setPartnerEarning(row[6] != null ? ((Number) row[6]).doubleValue() : 0.0);
+        return order;
+    }
+
+    private void runHooks(OrderTransition transition) {
+        for (Consumer<OrderTransition> hook : orderHooks.getOrDefault(transition.toStatus(), List.of())) {
+            try {
+                hook.accept(transition);
+            } catch (RuntimeException e) {
+                logger.error("Hook for order {} moving to {} failed: {}", transition.orderId(), transition.toStatus(), e.getMessage());
+            }
+        }
+    }
+
+    private static void requireAssignedPartner(Order order, Actor actor) {
+        if (order.getDeliveryPartner() == null || !order.getDeliveryPartner().getId().equals(actor.partnerId())) {
+            throw new RuntimeException("You are not assigned to this order");
+        }
+    }
+
+    private static void requirePaymentCollected(Order order, Actor actor) {
+        boolean isCODOrder = "COD".equals(order.getPaymentMethod()) || order.getPaymentMethod() == null;
+        boolean isPaymentPending = "PENDING".equals(order.getPaymentStatus()) || order.getPaymentStatus() == null;
+        if (isCODOrder && isPaymentPending) {
+            logger.warn("SECURITY VIOLATION: {} attempted to mark COD order {} as delivered without payment collection",
+                    actor.role(), order.getId());
+            throw new RuntimeException("Cannot mark COD order as delivered without collecting payment. Please collect payment first using the payment collection interface.");
+        }
+    }
+
+    /**
+     * Assignments reference delivery_partners.id, partners act with their account id
+     */
+    private void requireAssignmentOwner(OrderAssignment assignment, Actor actor) {
+        Long assignedId = assignment.getPartnerId();
+        boolean owner = assignedId != null && partnerReadModel.getOrLoadByPartnerId(assignedId)
+                .map(view -> view.authId().equals(actor.partnerId()))
+                .orElse(false);
+        if (!owner) {
+            throw new RuntimeException("Assignment does not belong to this partner");
+        }
+    }
+
+    private void updatePartnerAvailability(OrderTransition transition) {
+        Long partnerId = transition.partnerId();
+        if (partnerId == null) {
+            return;
+        }
+        long activeOrders = orderRepository.countByDeliveryPartnerIdAndStatusIn(partnerId, ACTIVE_STATUSES);
+        if (activeOrders >= MAX_ACTIVE_ORDERS) {
+            partnerReadModel.setBusy(partnerId);
+            logger.info("Partner {} removed from available list (reached {} active orders limit)", partnerId, MAX_ACTIVE_ORDERS);
+        } else if (!"ASSIGNED".equals(transition.toStatus()) && partnerReadModel.setAvailable(partnerId, true)) {
+            logger.info("Partner {} is now available again (has {} active orders)", partnerId, activeOrders);
+        }
+    }
+
+    private void recordCancellation(OrderTransition transition) {
+        if (transition.partnerId() != null) {
+            leaderboards.recordCancellation(transition.partnerId(), transition.pincode());
+        }
+    }
+
+    private void sendDeliveryReceipt(OrderTransition transition) {
+        logger.info("📧 Triggering delivery receipt email for order ID: {}", transition.orderId());
+        // Reloaded in a transaction of its own, the receipt lists the order items
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> orderRepository.findById(transition.orderId())
+                .ifPresent(emailService::sendDeliveryReceiptEmail));
+    }
+}
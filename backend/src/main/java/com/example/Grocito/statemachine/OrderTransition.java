@@ -0,0 +1,7 @@
+package com.example.Grocito.statemachine;
+
+/**
+ * A committed order status change, as handed to the transition hooks
+ */
+public record OrderTransition(Long orderId, String fromStatus, String toStatus, Long partnerId, String pincode, Actor actor) {
+}
@@ -0,0 +1,81 @@
+package com.example.Grocito.statemachine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Declarative table of the allowed status changes of one entity: which role may move it from which
+ * status to which, and the guards that have to pass on the current row. Final statuses never change again,
+ * and a change to a status the table does not know is refused before any rule is looked at.
+ */
+public final class TransitionTable<T> {
+
+    // Matches any status that is not final
+    public static final String ANY = "*";
+
+    /**
+     * Precondition on the current row, throws a RuntimeException with the reason when it does not hold
+     */
+    @FunctionalInterface
+    public interface Guard<T> {
+        void check(T entity, Actor actor);
+    }
+
+    private record Rule<T>(Actor.Role role, String from, String to, List<Guard<T>> guards) {
+
+        boolean matches(Actor.Role role, String from, String to) {
+            return this.role == role && (ANY.equals(this.from) || this.from.equals(from))
+                    && (ANY.equals(this.to) || this.to.equals(to));
+        }
+    }
+
+    private final String name;
+    private final Set<String> statuses;
+    private final Set<String> finalStatuses;
+    private final List<Rule<T>> rules = new ArrayList<>();
+
+    public TransitionTable(String name, Set<String> statuses, Set<String> finalStatuses) {
+        this.name = name;
+        this.statuses = statuses;
+        this.finalStatuses = finalStatuses;
+    }
+
+    @SafeVarargs
+    public final TransitionTable<T> allow(Actor.Role role, String from, String to, Guard<T>... guards) {
+        rules.add(new Rule<>(role, from, to, List.of(guards)));
+        return this;
+    }
+
+    @SafeVarargs
+    public final TransitionTable<T> allow(Actor.Role role, List<String> from, String to, Guard<T>... guards) {
+        for (String status : from) {
+            allow(role, status, to, guards);
+        }
+        return this;
+    }
+
+    public boolean isFinal(String status) {
+        return finalStatuses.contains(status);
+    }
+
+    /**
+     * Throws unless the actor may move the entity from its current status to the new one
+     */
+    public void check(T entity, String from, String to, Actor actor) {
+        // Rules to ANY would otherwise accept a mistyped status such as DELIVERD
+        if (!statuses.contains(to)) {
+            throw new RuntimeException("Unknown " + name + " status: " + to);
+        }
+        if (isFinal(from)) {
+            throw new RuntimeException("The " + name + " is already " + from);
+        }
+        Rule<T> rule = rules.stream()
+                .filter(candidate -> candidate.matches(actor.role(), from, to))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Cannot change " + name + " status from " + from + " to " + to));
+        for (Guard<T> guard : rule.guards()) {
+            guard.check(entity, actor);
+        }
+    }
+}
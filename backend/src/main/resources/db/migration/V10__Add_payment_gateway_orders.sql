@@ -0,0 +1,10 @@
+-- Digital payment of COD orders through Razorpay (see payments/PaymentWebhookPipeline)
+-- An order is linked to at most one gateway order; payment webhooks look their order up by it.
+-- Orders never sent to the gateway keep NULL, which the unique index allows any number of times.
+
+ALTER TABLE orders ADD COLUMN gateway_order_id VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX uk_orders_gateway_order_id ON orders (gateway_order_id);
+
+-- Archived orders keep their link (see batch/OrderArchiveJob)
+ALTER TABLE orders_archive ADD COLUMN gateway_order_id VARCHAR(64) NULL;
@@ -0,0 +1,30 @@
+-- Tables of the partner dashboard counters (Services/PartnerStatsService) and the chunked batch jobs (batch/).
+-- They are newer than the baselined schema, so databases baselined at version 2 get them here.
+
+CREATE TABLE IF NOT EXISTS partner_daily_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    partner_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    deliveries BIGINT NOT NULL,
+    earnings DOUBLE NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT uk_partner_stat_date UNIQUE (partner_id, stat_date),
+    INDEX idx_stat_date (stat_date)
+);
+
+CREATE TABLE IF NOT EXISTS batch_job_checkpoints (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    partition_key VARCHAR(50) NOT NULL,
+    last_processed_id BIGINT NOT NULL,
+    items_read BIGINT NOT NULL,
+    items_written BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    last_error VARCHAR(500),
+    started_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    completed_at DATETIME(6),
+
+    CONSTRAINT uk_job_partition UNIQUE (job_name, partition_key)
+);
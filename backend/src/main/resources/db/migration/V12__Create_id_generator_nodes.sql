@@ -0,0 +1,7 @@
+-- Snowflake node id leases (see idgen/NodeIdLease): one row per node id held by a running instance.
+-- Rows with a heartbeat older than ids.node-lease.expiry-seconds belong to stopped instances and are taken over.
+CREATE TABLE IF NOT EXISTS id_generator_nodes (
+    node_id INT PRIMARY KEY,
+    instance_id VARCHAR(100) NOT NULL,
+    heartbeat_at DATETIME(6) NOT NULL
+);
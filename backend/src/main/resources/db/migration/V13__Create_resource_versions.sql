@@ -0,0 +1,8 @@
+-- Content versions of cacheable resources (see etag/ResourceVersions), shared by all instances so their ETags agree.
+-- Instances pull rows changed since their last sync through the updated_at index.
+CREATE TABLE IF NOT EXISTS resource_versions (
+    resource_name VARCHAR(150) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    INDEX idx_resource_versions_updated_at (updated_at)
+);
@@ -0,0 +1,8 @@
+-- Cluster-wide run locks of the chunked batch jobs (see batch/BatchJobRunner): one row per running job.
+-- Rows with a heartbeat older than batch.lock-expiry-seconds belong to stopped instances and are taken over.
+CREATE TABLE IF NOT EXISTS batch_job_locks (
+    job_name VARCHAR(100) PRIMARY KEY,
+    instance_id VARCHAR(100) NOT NULL,
+    acquired_at DATETIME(6) NOT NULL,
+    heartbeat_at DATETIME(6) NOT NULL
+);
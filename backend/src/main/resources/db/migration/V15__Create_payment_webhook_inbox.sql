@@ -0,0 +1,15 @@
+-- Payment webhooks as received, written before the gateway gets its 200 (see payments/PaymentWebhookPipeline).
+-- A row is deleted once its event is applied or dropped. Rows whose next_attempt_at has passed belong to no
+-- running apply (failed, or left by a stopped instance) and are picked up again by any instance.
+CREATE TABLE IF NOT EXISTS payment_webhook_inbox (
+    id BIGINT PRIMARY KEY,
+    event_id VARCHAR(100),
+    signature VARCHAR(128) NOT NULL,
+    body MEDIUMBLOB NOT NULL,
+    received_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(255)
+);
+
+CREATE INDEX idx_payment_webhook_inbox_next_attempt ON payment_webhook_inbox (next_attempt_at);
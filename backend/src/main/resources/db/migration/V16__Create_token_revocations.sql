@@ -0,0 +1,8 @@
+-- Token revocations (see security/PrincipalCache), shared by all instances and kept across restarts.
+-- Tokens of the subject issued up to revoked_at (epoch millis, the unit of the token's issue time) are rejected.
+-- Instances pull rows revoked since their last sync; rows older than the token lifetime are purged.
+CREATE TABLE IF NOT EXISTS token_revocations (
+    subject_key VARCHAR(50) PRIMARY KEY,
+    revoked_at BIGINT NOT NULL,
+    INDEX idx_token_revocations_revoked_at (revoked_at)
+);
@@ -0,0 +1,184 @@
+-- Core schema, previously created by hibernate ddl-auto=update
+-- Existing databases are baselined at version 2 and skip this script (see spring.flyway.baseline-version)
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    full_name VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    role VARCHAR(255),
+    address VARCHAR(255),
+    pincode VARCHAR(255),
+    contact_number VARCHAR(255),
+    registered_date DATE,
+    last_login DATE,
+
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    price DOUBLE NOT NULL,
+    category VARCHAR(255),
+    image_url VARCHAR(255),
+    pincode VARCHAR(255),
+    stock INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS cart (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT,
+
+    CONSTRAINT uk_cart_user UNIQUE (user_id),
+    CONSTRAINT fk_cart_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS cart_item (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    quantity INT NOT NULL,
+    product_id BIGINT,
+    cart_id BIGINT,
+
+    CONSTRAINT fk_cart_item_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_cart_item_cart FOREIGN KEY (cart_id) REFERENCES cart (id)
+);
+
+CREATE TABLE IF NOT EXISTS delivery_partner_auth (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(15) NOT NULL,
+    full_name VARCHAR(100) NOT NULL,
+    pincode VARCHAR(10) NOT NULL,
+    vehicle_type VARCHAR(50) NOT NULL,
+    vehicle_number VARCHAR(20) NOT NULL,
+    license_number VARCHAR(50) NOT NULL,
+    verification_status VARCHAR(20) NOT NULL,
+    is_active BIT NOT NULL,
+    reset_token VARCHAR(255),
+    reset_token_expiry DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    last_login DATETIME(6),
+
+    CONSTRAINT uk_partner_auth_email UNIQUE (email),
+    CONSTRAINT uk_partner_auth_phone UNIQUE (phone_number)
+);
+
+CREATE TABLE IF NOT EXISTS delivery_partners (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    full_name VARCHAR(100) NOT NULL,
+    phone_number VARCHAR(15) NOT NULL,
+    email VARCHAR(100),
+    profile_image_url VARCHAR(500),
+    vehicle_type VARCHAR(50) NOT NULL,
+    vehicle_number VARCHAR(20) NOT NULL,
+    driving_license VARCHAR(50) NOT NULL,
+    assigned_pincode VARCHAR(10) NOT NULL,
+    current_latitude DECIMAL(10, 8),
+    current_longitude DECIMAL(11, 8),
+    is_available BIT NOT NULL,
+    availability_status VARCHAR(20),
+    total_deliveries INT,
+    successful_deliveries INT,
+    average_rating DECIMAL(3, 2),
+    total_earnings DECIMAL(10, 2),
+    verification_status VARCHAR(20),
+    account_status VARCHAR(20),
+    bank_account_number VARCHAR(20),
+    bank_ifsc_code VARCHAR(15),
+    bank_account_holder_name VARCHAR(100),
+    auth_id BIGINT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    last_active_at DATETIME(6),
+
+    CONSTRAINT uk_delivery_partners_phone UNIQUE (phone_number),
+    CONSTRAINT uk_delivery_partners_auth UNIQUE (auth_id),
+    CONSTRAINT fk_delivery_partners_auth FOREIGN KEY (auth_id) REFERENCES delivery_partner_auth (id)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    status VARCHAR(255),
+    order_time DATETIME(6),
+    delivery_address VARCHAR(255),
+    pincode VARCHAR(255),
+    total_amount DOUBLE NOT NULL,
+    delivery_fee DOUBLE NOT NULL,
+    partner_earning DOUBLE NOT NULL,
+    payment_method VARCHAR(255),
+    payment_status VARCHAR(255),
+    actual_payment_method VARCHAR(255),
+    payment_id VARCHAR(255),
+    payment_completed_at DATETIME(6),
+    payment_notes VARCHAR(255),
+    assigned_at DATETIME(6),
+    picked_up_at DATETIME(6),
+    delivered_at DATETIME(6),
+    cancelled_at DATETIME(6),
+    user_id BIGINT,
+    delivery_partner_auth_id BIGINT,
+
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_partner_auth FOREIGN KEY (delivery_partner_auth_id) REFERENCES delivery_partner_auth (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    quantity INT NOT NULL,
+    total_price DOUBLE NOT NULL,
+    price DOUBLE NOT NULL,
+    order_id BIGINT,
+    product_id BIGINT,
+
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_assignments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    partner_id BIGINT NOT NULL,
+    assigned_at DATETIME(6) NOT NULL,
+    accepted_at DATETIME(6),
+    rejected_at DATETIME(6),
+    rejection_reason VARCHAR(200),
+    status VARCHAR(20) NOT NULL,
+    pickup_time DATETIME(6),
+    delivery_time DATETIME(6),
+    pickup_latitude DECIMAL(10, 8),
+    pickup_longitude DECIMAL(11, 8),
+    delivery_latitude DECIMAL(10, 8),
+    delivery_longitude DECIMAL(11, 8),
+    total_distance DECIMAL(8, 2),
+    delivery_duration INT,
+    pickup_duration INT,
+    base_fee DECIMAL(8, 2),
+    distance_bonus DECIMAL(8, 2),
+    time_bonus DECIMAL(8, 2),
+    total_earnings DECIMAL(8, 2),
+    special_instructions VARCHAR(500),
+    customer_rating INT,
+    customer_feedback VARCHAR(1000),
+    proof_of_delivery_url VARCHAR(500),
+    delivery_otp VARCHAR(10),
+    signature_url VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    CONSTRAINT fk_order_assignments_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_assignments_partner FOREIGN KEY (partner_id) REFERENCES delivery_partners (id)
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT,
+    message VARCHAR(255),
+    type VARCHAR(255),
+    read_status BIT,
+    created_at DATETIME(6),
+    link VARCHAR(255)
+);
@@ -0,0 +1,38 @@
+-- Composite indexes for the hot repository filters
+-- Keep in sync with config/QueryPlanVerifier, which checks these access paths with EXPLAIN at startup
+
+-- OrderRepository: findByPincodeAndStatusOrderByOrderTimeDesc, findByStatusAndPincodeOrderByOrderTimeAsc,
+-- findByPincodeOrderByOrderTimeDesc, order summaries filtered by pincode
+CREATE INDEX idx_orders_pincode_status_time ON orders (pincode, status, order_time);
+
+-- OrderRepository: findByStatusOrderByOrderTimeDesc, countByStatus
+CREATE INDEX idx_orders_status_time ON orders (status, order_time);
+
+-- OrderRepository: countByDeliveryPartnerIdAndStatus*, sumPartnerEarnings*, findByDeliveryPartnerIdAndStatusOrderByDeliveredAtDesc
+CREATE INDEX idx_orders_partner_status_delivered ON orders (delivery_partner_auth_id, status, delivered_at);
+
+-- OrderRepository: user order and payment history pages
+-- Databases upgraded from ddl-auto may already have it from the entity mapping
+SET @create_user_time_index = IF(
+    (SELECT COUNT(*) FROM information_schema.statistics
+     WHERE table_schema = DATABASE() AND table_name = 'orders' AND index_name = 'idx_orders_user_time_id') = 0,
+    'CREATE INDEX idx_orders_user_time_id ON orders (user_id, order_time, id)',
+    'SELECT 1');
+PREPARE create_user_time_index FROM @create_user_time_index;
+EXECUTE create_user_time_index;
+DEALLOCATE PREPARE create_user_time_index;
+
+-- OrderAssignmentRepository: findActiveAssignmentsByPartnerId, findByStatusAndDeliveryPartnerId, countByDeliveryPartnerIdAndStatus
+CREATE INDEX idx_assignments_partner_status ON order_assignments (partner_id, status);
+
+-- OrderAssignmentRepository: findPendingAssignments, findExpiredAssignments
+CREATE INDEX idx_assignments_status_assigned ON order_assignments (status, assigned_at);
+
+-- ProductRepository: findByPincode, findByCategoryAndPincode, countByPincode
+CREATE INDEX idx_products_pincode_category ON products (pincode, category);
+
+-- DeliveryPartnerAuthRepository: findVerifiedPartnersByPincode, findByVerificationStatusAndPincode, countByVerificationStatusAndPincode
+CREATE INDEX idx_partner_auth_status_pincode ON delivery_partner_auth (verification_status, pincode, is_active);
+
+-- NotificationRepository: findByUserId
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at);
@@ -0,0 +1,26 @@
+-- Admin user directory (UserService.getAllUsersWithFilters)
+-- Keep in sync with config/QueryPlanVerifier, which checks these access paths with EXPLAIN at startup
+
+-- Prefix search on name; email prefix search uses the unique index uk_users_email
+CREATE INDEX idx_users_full_name ON users (full_name);
+
+-- Active/inactive filter: last_login range, or registered_date range for users who never logged in
+CREATE INDEX idx_users_last_login_registered ON users (last_login, registered_date);
+
+-- Role and pincode filters, UserRepository.countByPincode
+CREATE INDEX idx_users_role_pincode ON users (role, pincode);
+CREATE INDEX idx_users_pincode ON users (pincode);
+
+-- Users per role and pincode, maintained by UserCountListener on every user insert, update and delete
+CREATE TABLE IF NOT EXISTS user_role_counts (
+    role VARCHAR(50) NOT NULL,
+    pincode VARCHAR(20) NOT NULL,
+    user_count BIGINT NOT NULL,
+
+    PRIMARY KEY (role, pincode)
+);
+
+INSERT INTO user_role_counts (role, pincode, user_count)
+SELECT COALESCE(role, ''), COALESCE(pincode, ''), COUNT(*)
+FROM users
+GROUP BY COALESCE(role, ''), COALESCE(pincode, '');
@@ -0,0 +1,14 @@
+-- Admin delivery partner pages (DeliveryPartnerService.getFilteredPartners, searchPartners, getDeliveryPartnerAnalytics)
+-- Keep in sync with config/QueryPlanVerifier, which checks these access paths with EXPLAIN at startup
+-- Lookup by auth_id uses the unique index uk_delivery_partners_auth, phone prefix search uses uk_delivery_partners_phone
+
+-- Pincode and status filters, and the per-pincode status counts (covering for the GROUP BY)
+CREATE INDEX idx_delivery_partners_pincode_status ON delivery_partners (assigned_pincode, verification_status, availability_status);
+
+-- Status counts across all pincodes (covering for the GROUP BY)
+CREATE INDEX idx_delivery_partners_status ON delivery_partners (verification_status, availability_status);
+
+-- Prefix search on name, email and vehicle number
+CREATE INDEX idx_delivery_partners_full_name ON delivery_partners (full_name);
+CREATE INDEX idx_delivery_partners_email ON delivery_partners (email);
+CREATE INDEX idx_delivery_partners_vehicle_number ON delivery_partners (vehicle_number);
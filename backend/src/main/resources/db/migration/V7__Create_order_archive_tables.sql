@@ -0,0 +1,102 @@
+-- Cold storage for finished orders (see batch/OrderArchiveJob)
+-- DELIVERED and CANCELLED orders older than order-archive.min-age-days move here together with their items
+-- and assignments, so orders, order_items and order_assignments only hold recent and open orders.
+-- Same columns as the hot tables plus archive_month (yyyymm of the order time), the RANGE partitioning key.
+-- The job adds a partition per month before moving orders into it. Partitioned tables cannot have foreign
+-- keys, and every unique key has to include archive_month.
+
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT NOT NULL,
+    archive_month INT NOT NULL,
+    status VARCHAR(255),
+    order_time DATETIME(6),
+    delivery_address VARCHAR(255),
+    pincode VARCHAR(255),
+    total_amount DOUBLE NOT NULL,
+    delivery_fee DOUBLE NOT NULL,
+    partner_earning DOUBLE NOT NULL,
+    payment_method VARCHAR(255),
+    payment_status VARCHAR(255),
+    actual_payment_method VARCHAR(255),
+    payment_id VARCHAR(255),
+    payment_completed_at DATETIME(6),
+    payment_notes VARCHAR(255),
+    assigned_at DATETIME(6),
+    picked_up_at DATETIME(6),
+    delivered_at DATETIME(6),
+    cancelled_at DATETIME(6),
+    user_id BIGINT,
+    delivery_partner_auth_id BIGINT,
+
+    PRIMARY KEY (id, archive_month),
+    -- ArchivedOrderRepository: user order and payment history pages
+    INDEX idx_orders_archive_user_time_id (user_id, order_time, id)
+) PARTITION BY RANGE (archive_month) (
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id BIGINT NOT NULL,
+    archive_month INT NOT NULL,
+    quantity INT NOT NULL,
+    total_price DOUBLE NOT NULL,
+    price DOUBLE NOT NULL,
+    order_id BIGINT,
+    product_id BIGINT,
+
+    PRIMARY KEY (id, archive_month),
+    INDEX idx_order_items_archive_order (order_id)
+) PARTITION BY RANGE (archive_month) (
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE IF NOT EXISTS order_assignments_archive (
+    id BIGINT NOT NULL,
+    archive_month INT NOT NULL,
+    order_id BIGINT NOT NULL,
+    partner_id BIGINT NOT NULL,
+    assigned_at DATETIME(6) NOT NULL,
+    accepted_at DATETIME(6),
+    rejected_at DATETIME(6),
+    rejection_reason VARCHAR(200),
+    status VARCHAR(20) NOT NULL,
+    pickup_time DATETIME(6),
+    delivery_time DATETIME(6),
+    pickup_latitude DECIMAL(10, 8),
+    pickup_longitude DECIMAL(11, 8),
+    delivery_latitude DECIMAL(10, 8),
+    delivery_longitude DECIMAL(11, 8),
+    total_distance DECIMAL(8, 2),
+    delivery_duration INT,
+    pickup_duration INT,
+    base_fee DECIMAL(8, 2),
+    distance_bonus DECIMAL(8, 2),
+    time_bonus DECIMAL(8, 2),
+    total_earnings DECIMAL(8, 2),
+    special_instructions VARCHAR(500),
+    customer_rating INT,
+    customer_feedback VARCHAR(1000),
+    proof_of_delivery_url VARCHAR(500),
+    delivery_otp VARCHAR(10),
+    signature_url VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (id, archive_month),
+    INDEX idx_order_assignments_archive_order (order_id)
+) PARTITION BY RANGE (archive_month) (
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+-- Order count and revenue of the archived orders per day, pincode and status, written in the same
+-- transaction as the move. The analytics rollups read these instead of scanning orders_archive.
+CREATE TABLE IF NOT EXISTS order_archive_daily_totals (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_date DATE NOT NULL,
+    pincode VARCHAR(255),
+    status VARCHAR(255),
+    orders BIGINT NOT NULL,
+    revenue DOUBLE NOT NULL,
+
+    CONSTRAINT uk_order_archive_daily_totals UNIQUE (order_date, pincode, status)
+);
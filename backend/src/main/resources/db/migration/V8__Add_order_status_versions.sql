@@ -0,0 +1,8 @@
+-- Optimistic versions for the order state machine (see statemachine/OrderStateMachine)
+-- Status changes are compare-and-set UPDATEs on (id, status, version) and bump the version; entity saves of
+-- orders and assignments check it too (JPA @Version), so a stale read can no longer overwrite a newer status.
+-- The CAS statements look rows up by primary key, no new indexes needed.
+
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE order_assignments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
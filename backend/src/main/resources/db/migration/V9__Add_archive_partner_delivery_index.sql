@@ -0,0 +1,5 @@
+-- Streamed partner earnings (GET /api/delivery-fee/partners/{id}/earnings) read a partner's delivered orders in
+-- (delivered_at, id) order from the hot and the archived orders. The hot table is served by
+-- idx_orders_partner_status_delivered (V3); archived rows are all finished, so status is left out here.
+
+CREATE INDEX idx_orders_archive_partner_delivered ON orders_archive (delivery_partner_auth_id, delivered_at, id);
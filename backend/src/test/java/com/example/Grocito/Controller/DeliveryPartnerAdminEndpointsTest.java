@@ -0,0 +1,216 @@
+package com.example.Grocito.Controller;
+
+import com.example.Grocito.Entity.DeliveryPartner;
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.DeliveryPartnerRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.Services.DeliveryPartnerService;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.security.AuthTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Partner admin pages filter, page and count in the database: results match the filters and the number
+ * of SQL statements does not grow with the fleet.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DeliveryPartnerAdminEndpointsTest {
+
+    private static final String PINCODE = "570001";
+    private static final String OTHER_PINCODE = "570002";
+    private static final int PARTNERS_PER_PINCODE = 20;
+
+    // Page query and count query
+    private static final int PAGE_STATEMENTS = 2;
+    // One GROUP BY over the status columns
+    private static final int ANALYTICS_STATEMENTS = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryPartnerRepository partnerRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerAuthRepository;
+
+    @Autowired
+    private DeliveryPartnerService partnerService;
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    private String superAdminToken;
+    private String pincodeAdminToken;
+    private DeliveryPartnerAuth linkedAuth;
+    private DeliveryPartner linkedPartner;
+
+    private double baseline;
+
+    @BeforeAll
+    void seed() {
+        superAdminToken = tokenService.issueUserToken(admin("super-admin@example.com", AuthPrincipal.ROLE_SUPER_ADMIN, null));
+        pincodeAdminToken = tokenService.issueUserToken(admin("pincode-admin@example.com", AuthPrincipal.ROLE_ADMIN, OTHER_PINCODE));
+
+        List<DeliveryPartner> partners = new ArrayList<>();
+        for (String pincode : List.of(PINCODE, OTHER_PINCODE)) {
+            for (int i = 0; i < PARTNERS_PER_PINCODE; i++) {
+                // Every other partner verified, every fourth online
+                partners.add(partner(pincode, i, i % 2 == 0 ? "VERIFIED" : "PENDING", i % 4 == 0 ? "ONLINE" : "OFFLINE"));
+            }
+        }
+        partnerRepository.saveAll(partners);
+
+        linkedAuth = new DeliveryPartnerAuth();
+        linkedAuth.setEmail("linked-partner@example.com");
+        linkedAuth.setPassword("hash");
+        linkedAuth.setPhoneNumber("9100000999");
+        linkedAuth.setFullName("Linked Partner");
+        linkedAuth.setPincode(PINCODE);
+        linkedAuth.setVehicleType("BIKE");
+        linkedAuth.setVehicleNumber("KA01ZZ9999");
+        linkedAuth.setLicenseNumber("DL-LINKED");
+        linkedAuth = partnerAuthRepository.save(linkedAuth);
+        linkedPartner = partner(PINCODE, 99, "VERIFIED", "OFFLINE");
+        linkedPartner.setAccountStatus("SUSPENDED");
+        linkedPartner.setAuthRecord(linkedAuth);
+        linkedPartner = partnerRepository.save(linkedPartner);
+    }
+
+    @Test
+    void filteredPageUsesFixedNumberOfStatements() throws Exception {
+        JsonNode page = measured(superAdminToken, "/api/delivery-partners?page=0&size=5&verificationStatus=VERIFIED"
+                + "&accountStatus=ACTIVE&pincode=" + PINCODE);
+
+        assertThat(page.get("totalElements").asInt()).isEqualTo(PARTNERS_PER_PINCODE / 2);
+        assertThat(page.get("content")).hasSize(5);
+        page.get("content").forEach(partner -> {
+            assertThat(partner.get("assignedPincode").asText()).isEqualTo(PINCODE);
+            assertThat(partner.get("verificationStatus").asText()).isEqualTo("VERIFIED");
+        });
+        // Sorted by name
+        assertThat(page.get("content").get(0).get("fullName").asText()).isEqualTo("Partner " + PINCODE + " 00");
+        assertThat(statementsOf("/api/delivery-partners")).isBetween(1.0, (double) PAGE_STATEMENTS);
+    }
+
+    @Test
+    void pincodeAdminOnlySeesItsOwnPincode() throws Exception {
+        JsonNode own = measured(pincodeAdminToken, "/api/delivery-partners?page=0&size=50");
+        assertThat(own.get("totalElements").asInt()).isEqualTo(PARTNERS_PER_PINCODE);
+
+        JsonNode foreign = measured(pincodeAdminToken, "/api/delivery-partners?page=0&size=50&pincode=" + PINCODE);
+        assertThat(foreign.get("totalElements").asInt()).isZero();
+    }
+
+    @Test
+    void searchMatchesNamePrefixes() throws Exception {
+        JsonNode page = measured(superAdminToken, "/api/delivery-partners?page=0&size=50&search=Partner " + OTHER_PINCODE + " 1");
+        // Partners 10 to 19
+        assertThat(page.get("totalElements").asInt()).isEqualTo(10);
+
+        JsonNode literal = measured(superAdminToken, "/api/delivery-partners?page=0&size=50&search=Partner%25");
+        assertThat(literal.get("totalElements").asInt()).isZero();
+    }
+
+    @Test
+    void analyticsCountsByStatusInOneStatement() throws Exception {
+        JsonNode analytics = measured(superAdminToken, "/api/delivery-partners/analytics");
+
+        int total = 2 * PARTNERS_PER_PINCODE + 1;
+        int online = 2 * PARTNERS_PER_PINCODE / 4;
+        assertThat(analytics.get("totalPartners").asInt()).isEqualTo(total);
+        assertThat(analytics.get("verifiedPartners").asInt()).isEqualTo(PARTNERS_PER_PINCODE + 1);
+        assertThat(analytics.get("pendingPartners").asInt()).isEqualTo(PARTNERS_PER_PINCODE);
+        assertThat(analytics.get("onlinePartners").asInt()).isEqualTo(online);
+        assertThat(analytics.get("offlinePartners").asInt()).isEqualTo(total - online);
+        assertThat(statementsOf("/api/delivery-partners/analytics")).isEqualTo(ANALYTICS_STATEMENTS);
+    }
+
+    @Test
+    void partnerIsFoundByItsAuthRecord() {
+        assertThat(partnerService.getPartnerByAuthId(linkedAuth.getId()))
+                .hasValueSatisfying(partner -> assertThat(partner.getId()).isEqualTo(linkedPartner.getId()));
+        assertThat(partnerService.getPartnerByAuthId(-1L)).isEmpty();
+    }
+
+    @Test
+    void anonymousCallersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/delivery-partners?page=0&size=5")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/delivery-partners/analytics")).andExpect(status().isForbidden());
+    }
+
+    private JsonNode measured(String token, String url) throws Exception {
+        String route = url.contains("/analytics") ? "/api/delivery-partners/analytics" : "/api/delivery-partners";
+        baseline = totalStatements(route);
+        String body = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private double statementsOf(String route) {
+        return totalStatements(route) - baseline;
+    }
+
+    private double totalStatements(String route) {
+        DistributionSummary summary = meterRegistry.find("grocito.http.db.statements")
+                .tags("method", "GET", "uri", route).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private User admin(String email, String role, String pincode) {
+        User user = new User();
+        user.setFullName("Admin " + email);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setPincode(pincode);
+        user.setRegisteredDate(LocalDate.now());
+        return userRepository.save(user);
+    }
+
+    private static DeliveryPartner partner(String pincode, int index, String verificationStatus, String availabilityStatus) {
+        DeliveryPartner partner = new DeliveryPartner();
+        partner.setFullName(String.format("Partner %s %02d", pincode, index));
+        partner.setPhoneNumber(pincode + String.format("%04d", index));
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber("KA" + pincode + index);
+        partner.setDrivingLicense("DL" + pincode + index);
+        partner.setAssignedPincode(pincode);
+        partner.setVerificationStatus(verificationStatus);
+        partner.setAvailabilityStatus(availabilityStatus);
+        partner.setIsAvailable("ONLINE".equals(availabilityStatus));
+        return partner;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.Grocito.Controller;
+
+import com.example.Grocito.Entity.DeliveryPartner;
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderAssignment;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.DeliveryPartnerRepository;
+import com.example.Grocito.Repository.OrderAssignmentRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.security.AuthTokenService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Only the customer who placed an order rates its delivery, and only once.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DeliveryRatingEndpointTest {
+
+    private static final String PINCODE = "590001";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerAuthRepository;
+
+    @Autowired
+    private DeliveryPartnerRepository partnerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    private User customer;
+    private String customerToken;
+    private String otherCustomerToken;
+    private String partnerToken;
+    private DeliveryPartnerAuth partnerAuth;
+    private DeliveryPartner partner;
+
+    @BeforeAll
+    void seed() {
+        customer = customer("rating-customer@example.com");
+        customerToken = tokenService.issueUserToken(customer);
+        otherCustomerToken = tokenService.issueUserToken(customer("rating-other@example.com"));
+
+        partnerAuth = new DeliveryPartnerAuth();
+        partnerAuth.setEmail("rating-partner@example.com");
+        partnerAuth.setPassword("hash");
+        partnerAuth.setPhoneNumber("9200000001");
+        partnerAuth.setFullName("Rated Partner");
+        partnerAuth.setPincode(PINCODE);
+        partnerAuth.setVehicleType("BIKE");
+        partnerAuth.setVehicleNumber("KA59RT0001");
+        partnerAuth.setLicenseNumber("DL-RATED");
+        partnerAuth.setVerificationStatus("VERIFIED");
+        partnerAuth = partnerAuthRepository.save(partnerAuth);
+        partnerToken = tokenService.issuePartnerToken(partnerAuth);
+
+        partner = new DeliveryPartner();
+        partner.setFullName("Rated Partner");
+        partner.setPhoneNumber("9200000001");
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber("KA59RT0001");
+        partner.setDrivingLicense("DL-RATED");
+        partner.setAssignedPincode(PINCODE);
+        partner.setVerificationStatus("VERIFIED");
+        partner.setAuthRecord(partnerAuth);
+        partner = partnerRepository.save(partner);
+    }
+
+    // The context and its database are shared with the other endpoint tests, which count partners and orders
+    @AfterAll
+    void cleanUp() {
+        assignmentRepository.deleteAll(assignmentRepository.findByDeliveryPartner(partner));
+        orderRepository.deleteAll(orderRepository.findAll().stream()
+                .filter(order -> PINCODE.equals(order.getPincode())).toList());
+        partnerRepository.delete(partner);
+        partnerAuthRepository.delete(partnerAuth);
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("rating-")).toList());
+    }
+
+    @Test
+    void onlyTheOwnerMayRate() throws Exception {
+        Long orderId = deliveredOrder();
+
+        mockMvc.perform(rating(orderId, 5, null)).andExpect(status().isForbidden());
+        mockMvc.perform(rating(orderId, 5, otherCustomerToken)).andExpect(status().isForbidden());
+        mockMvc.perform(rating(orderId, 5, partnerToken)).andExpect(status().isForbidden());
+        assertThat(ratingOf(orderId)).isNull();
+
+        mockMvc.perform(rating(orderId, 4, customerToken)).andExpect(status().isOk());
+        assertThat(ratingOf(orderId)).isEqualTo(4);
+    }
+
+    @Test
+    void anOrderIsRatedOnce() throws Exception {
+        Long orderId = deliveredOrder();
+
+        mockMvc.perform(rating(orderId, 2, customerToken)).andExpect(status().isOk());
+        mockMvc.perform(rating(orderId, 5, customerToken)).andExpect(status().isBadRequest());
+        assertThat(ratingOf(orderId)).isEqualTo(2);
+    }
+
+    private MockHttpServletRequestBuilder rating(Long orderId, int stars, String token) {
+        MockHttpServletRequestBuilder request = put("/api/order-assignments/order/" + orderId + "/rating")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rating\": " + stars + ", \"feedback\": \"On time\"}");
+        return token != null ? request.header("Authorization", "Bearer " + token) : request;
+    }
+
+    private Integer ratingOf(Long orderId) {
+        return assignmentRepository.findByOrder_Id(orderId).orElseThrow().getCustomerRating();
+    }
+
+    private Long deliveredOrder() {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus("DELIVERED");
+        order.setOrderTime(LocalDateTime.now().minusHours(1));
+        order.setDeliveredAt(LocalDateTime.now());
+        order.setDeliveryAddress("Rating Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PAID");
+        order.setTotalAmount(120.0);
+        order.setDeliveryPartner(partnerAuth);
+        order = orderRepository.save(order);
+
+        OrderAssignment assignment = new OrderAssignment(order, partner);
+        assignment.setStatus("DELIVERED");
+        assignment.setDeliveryTime(LocalDateTime.now());
+        assignmentRepository.save(assignment);
+        return order.getId();
+    }
+
+    private User customer(String email) {
+        User user = new User();
+        user.setFullName("Customer " + email);
+        user.setEmail(email);
+        user.setRole("USER");
+        user.setPincode(PINCODE);
+        user.setRegisteredDate(LocalDate.now());
+        return userRepository.save(user);
+    }
+}
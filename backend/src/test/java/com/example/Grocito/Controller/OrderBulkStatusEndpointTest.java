@@ -0,0 +1,202 @@
+package com.example.Grocito.Controller;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.security.AuthPrincipal;
+import com.example.Grocito.security.AuthTokenService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The admin panel's bulk status action: one result per order id, and the stock of the orders it cancels
+ * put back once per product. A single admin cancellation puts stock back the same way.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderBulkStatusEndpointTest {
+
+    private static final String PINCODE = "570001";
+    private static final String OTHER_PINCODE = "570002";
+    private static final int STOCK = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    private User customer;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        customer = user("bulk-customer@example.com", "USER", PINCODE);
+        adminToken = tokenService.issueUserToken(user("bulk-admin@example.com", AuthPrincipal.ROLE_ADMIN, PINCODE));
+    }
+
+    // The context and its database are shared with the other endpoint tests, which count orders
+    @AfterAll
+    void cleanUp() {
+        orderRepository.deleteAll(orderRepository.findAll().stream()
+                .filter(order -> order.getPincode().startsWith("5700")).toList());
+        productRepository.deleteAll(productRepository.findAll().stream()
+                .filter(product -> product.getPincode().startsWith("5700")).toList());
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("bulk-")).toList());
+    }
+
+    @Test
+    void everyIdGetsItsResultAndCancelledStockIsRestoredOnce() throws Exception {
+        Product apples = product("Bulk Apples");
+        Product pears = product("Bulk Pears");
+        Long first = order("PLACED", PINCODE, apples, pears);
+        Long second = order("ASSIGNED", PINCODE, apples);
+        Long alreadyCancelled = order("CANCELLED", PINCODE, apples);
+        Long delivered = order("DELIVERED", PINCODE, pears);
+        Long otherRegion = order("PLACED", OTHER_PINCODE, product("Bulk Plums", OTHER_PINCODE));
+        Long missing = Long.MAX_VALUE;
+
+        MvcResult result = mockMvc.perform(patch("/api/orders/bulk-status-update")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("orderIds",
+                                List.of(first, second, alreadyCancelled, delivered, otherRegion, missing),
+                                "status", "CANCELLED"))))
+                .andExpect(status().isOk()).andReturn();
+
+        Map<Long, String> results = new HashMap<>();
+        for (JsonNode row : objectMapper.readTree(result.getResponse().getContentAsString())) {
+            results.put(row.get("orderId").asLong(), row.get("result").asText());
+        }
+        assertThat(results).containsExactlyInAnyOrderEntriesOf(Map.of(
+                first, "UPDATED",
+                second, "UPDATED",
+                alreadyCancelled, "UNCHANGED",
+                delivered, "REJECTED",
+                otherRegion, "ACCESS_DENIED",
+                missing, "NOT_FOUND"));
+
+        assertThat(statusOf(first)).isEqualTo("CANCELLED");
+        assertThat(statusOf(second)).isEqualTo("CANCELLED");
+        assertThat(statusOf(delivered)).isEqualTo("DELIVERED");
+        assertThat(statusOf(otherRegion)).isEqualTo("PLACED");
+        // Two items of each product per order: apples from both cancelled orders, pears from the first only
+        assertThat(stockOf(apples)).isEqualTo(STOCK + 4);
+        assertThat(stockOf(pears)).isEqualTo(STOCK + 2);
+    }
+
+    @Test
+    void onlyAdminsUseTheBulkAction() throws Exception {
+        Long orderId = order("PLACED", PINCODE, product("Bulk Figs"));
+
+        mockMvc.perform(patch("/api/orders/bulk-status-update")
+                        .header("Authorization", "Bearer " + tokenService.issueUserToken(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("orderIds", List.of(orderId), "status", "CANCELLED"))))
+                .andExpect(status().isForbidden());
+        assertThat(statusOf(orderId)).isEqualTo("PLACED");
+    }
+
+    @Test
+    void singleAdminCancellationRestoresStockOnce() throws Exception {
+        Product grapes = product("Bulk Grapes");
+        Long orderId = order("OUT_FOR_DELIVERY", PINCODE, grapes);
+
+        for (int request = 0; request < 2; request++) {
+            mockMvc.perform(put("/api/orders/" + orderId + "/status")
+                            .header("Authorization", "Bearer " + adminToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\": \"CANCELLED\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(statusOf(orderId)).isEqualTo("CANCELLED");
+        assertThat(stockOf(grapes)).isEqualTo(STOCK + 2);
+    }
+
+    private String statusOf(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private Product product(String name) {
+        return product(name, PINCODE);
+    }
+
+    private Product product(String name, String pincode) {
+        return productRepository.save(new Product(null, name, name, 20.0, "Fruits", null, pincode, STOCK));
+    }
+
+    private Long order(String status, String pincode, Product... products) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus(status);
+        order.setOrderTime(LocalDateTime.now().minusMinutes(10));
+        order.setDeliveryAddress("Bulk Street 1");
+        order.setPincode(pincode);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PENDING");
+        double total = 0;
+        for (Product product : products) {
+            OrderItem item = new OrderItem(null, 2, product.getPrice() * 2, product.getPrice(), order, product);
+            order.getItems().add(item);
+            total += item.getTotalPrice();
+        }
+        order.setTotalAmount(total);
+        return orderRepository.save(order).getId();
+    }
+
+    private User user(String email, String role, String pincode) {
+        User user = new User();
+        user.setFullName("User " + email);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setPincode(pincode);
+        user.setRegisteredDate(LocalDate.now());
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.Grocito.Controller;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.OrderItem;
+import com.example.Grocito.Entity.Product;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.ProductRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Order list endpoints answer from projections: a fixed number of SQL statements however many
+ * orders there are, and no user password or lazy collections in the payload.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderListEndpointsTest {
+
+    private static final String PINCODE = "560001";
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    // Page query, count query and one IN query for the items of the page
+    private static final int PAGE_STATEMENTS = 3;
+    // Live orders, archived orders and the items
+    private static final int USER_LIST_STATEMENTS = 3;
+    private static final int MAX_BYTES_PER_ORDER = 1500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User customer;
+
+    // Statement total of the measured route before its request
+    private double baseline;
+
+    @BeforeAll
+    void seed() {
+        customer = new User();
+        customer.setFullName("List Test Customer");
+        customer.setEmail("list-test@example.com");
+        customer.setPassword("secret-password-hash");
+        customer.setRole("USER");
+        customer.setPincode(PINCODE);
+        customer.setRegisteredDate(LocalDate.now());
+        customer = userRepository.save(customer);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(productRepository.save(new Product(null, "Product " + i, "Description " + i, 10.0 + i,
+                    "Fruits", null, PINCODE, 100)));
+        }
+
+        for (int i = 0; i < ORDERS; i++) {
+            // Addresses with LIKE wildcards, matched literally by the admin search
+            String address = switch (i) {
+                case 0 -> "Flat 100% Tower";
+                case 1 -> "Block A_B Street";
+                default -> "House " + i + " Main Road";
+            };
+            orderRepository.save(order(address, LocalDateTime.now().minusMinutes(i), products));
+        }
+    }
+
+    @Test
+    void adminListUsesFixedNumberOfStatements() throws Exception {
+        MvcResult result = measured("/api/orders", "/api/orders?size=" + ORDERS);
+
+        JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(page.get("content")).hasSize(ORDERS);
+        assertThat(page.get("content").get(0).get("items")).hasSize(ITEMS_PER_ORDER);
+        assertThat(statementsOf("/api/orders")).isBetween(1.0, (double) PAGE_STATEMENTS);
+        assertLeanPayload(result, ORDERS);
+    }
+
+    @Test
+    void pincodeListUsesFixedNumberOfStatements() throws Exception {
+        MvcResult result = measured("/api/orders/pincode/{pincode}", "/api/orders/pincode/" + PINCODE + "?size=" + ORDERS);
+
+        assertThat(objectMapper.readTree(result.getResponse().getContentAsString()).get("content")).hasSize(ORDERS);
+        assertThat(statementsOf("/api/orders/pincode/{pincode}")).isBetween(1.0, (double) PAGE_STATEMENTS);
+        assertLeanPayload(result, ORDERS);
+    }
+
+    @Test
+    void userListUsesFixedNumberOfStatements() throws Exception {
+        MvcResult result = measured("/api/orders/user/{id}", "/api/orders/user/" + customer.getId());
+
+        assertThat(objectMapper.readTree(result.getResponse().getContentAsString())).hasSize(ORDERS);
+        assertThat(statementsOf("/api/orders/user/{id}")).isBetween(1.0, (double) USER_LIST_STATEMENTS);
+        assertLeanPayload(result, ORDERS);
+    }
+
+    @Test
+    void exportStreamsEveryOrder() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/orders/all")).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+        assertThat(objectMapper.readTree(result.getResponse().getContentAsString())).hasSize(ORDERS);
+        assertLeanPayload(result, ORDERS);
+    }
+
+    @Test
+    void searchMatchesWildcardsLiterally() throws Exception {
+        assertThat(searchAddresses("%")).containsExactly("Flat 100% Tower");
+        assertThat(searchAddresses("a_b")).containsExactly("Block A_B Street");
+        assertThat(searchAddresses("main road")).hasSize(ORDERS - 2);
+    }
+
+    private List<String> searchAddresses(String term) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders").param("size", "100").param("search", term))
+                .andExpect(status().isOk()).andReturn();
+        List<String> addresses = new ArrayList<>();
+        objectMapper.readTree(result.getResponse().getContentAsString()).get("content")
+                .forEach(order -> addresses.add(order.get("deliveryAddress").asText()));
+        return addresses;
+    }
+
+    private MvcResult measured(String route, String url) throws Exception {
+        baseline = totalStatements(route);
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+    }
+
+    // Statements of the last request to the route, recorded by RequestStatementMetricsFilter
+    private double statementsOf(String route) {
+        return totalStatements(route) - baseline;
+    }
+
+    private double totalStatements(String route) {
+        DistributionSummary summary = meterRegistry.find("grocito.http.db.statements")
+                .tags("method", "GET", "uri", route).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private void assertLeanPayload(MvcResult result, int orders) throws Exception {
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).doesNotContain("password").doesNotContain("secret-password-hash");
+        assertThat(body.length() / orders).isLessThanOrEqualTo(MAX_BYTES_PER_ORDER);
+    }
+
+    private Order order(String address, LocalDateTime orderTime, List<Product> products) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus("PLACED");
+        order.setOrderTime(orderTime);
+        order.setDeliveryAddress(address);
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PENDING");
+        double total = 0;
+        for (Product product : products) {
+            OrderItem item = new OrderItem(null, 2, product.getPrice() * 2, product.getPrice(), order, product);
+            order.getItems().add(item);
+            total += item.getTotalPrice();
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.Grocito.Services;
+
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two IdempotencyService beans on one database stand for two instances. The action saves a user, so
+ * the number of saved users shows how often it committed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    private static final long USER_ID = 42L;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private IdempotencyService first;
+    private IdempotencyService second;
+
+    @BeforeEach
+    void setUp() {
+        first = context.getAutowireCapableBeanFactory().createBean(IdempotencyService.class);
+        second = context.getAutowireCapableBeanFactory().createBean(IdempotencyService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.getAutowireCapableBeanFactory().destroyBean(first);
+        context.getAutowireCapableBeanFactory().destroyBean(second);
+    }
+
+    @Test
+    void retryReplaysTheStoredResponse() {
+        AtomicInteger runs = new AtomicInteger();
+        String email = "replay@example.com";
+
+        ResponseEntity<?> original = first.execute("test", USER_ID, "key-replay", List.of("a"), saveUser(email, runs));
+        ResponseEntity<?> retry = second.execute("test", USER_ID, "key-replay", List.of("a"), saveUser(email, runs));
+
+        assertThat(original.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(runs).hasValue(1);
+        assertThat(userRepository.findByEmail(email)).isPresent();
+    }
+
+    @Test
+    void failedActionLeavesNothingBehind() {
+        AtomicInteger runs = new AtomicInteger();
+        String email = "failed@example.com";
+
+        ResponseEntity<?> failed = first.execute("test", USER_ID, "key-failed", List.of("a"), () -> {
+            saveUser(email, runs).get();
+            return ResponseEntity.badRequest().body("Out of stock");
+        });
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        // The write of the failed attempt is rolled back with it, and the key can be used again
+        assertThat(userRepository.findByEmail(email)).isEmpty();
+
+        ResponseEntity<?> retry = second.execute("test", USER_ID, "key-failed", List.of("a"), saveUser(email, runs));
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void takeoverOfARunningRequestDoesNotRunItAgain() throws Exception {
+        // Every claim counts as abandoned on the second instance
+        ReflectionTestUtils.setField(second, "inProgressTimeoutSeconds", 0L);
+        AtomicInteger runs = new AtomicInteger();
+        String email = "takeover@example.com";
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<?>> slow = CompletableFuture.supplyAsync(() ->
+                first.execute("test", USER_ID, "key-takeover", List.of("a"), () -> {
+                    ResponseEntity<?> response = saveUser(email, runs).get();
+                    started.countDown();
+                    await(finish);
+                    return response;
+                }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ResponseEntity<?>> takeover = CompletableFuture.supplyAsync(() ->
+                second.execute("test", USER_ID, "key-takeover", List.of("a"), saveUser(email, runs)));
+        Thread.sleep(200);
+        finish.countDown();
+
+        assertThat(slow.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(takeover.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(runs).hasValue(1);
+
+        ResponseEntity<?> retry = second.execute("test", USER_ID, "key-takeover", List.of("a"), saveUser(email, runs));
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(runs).hasValue(1);
+    }
+
+    private Supplier<ResponseEntity<?>> saveUser(String email, AtomicInteger runs) {
+        return () -> {
+            runs.incrementAndGet();
+            User user = new User();
+            user.setFullName("Idempotency Test");
+            user.setEmail(email);
+            user.setRole("USER");
+            user.setRegisteredDate(LocalDate.now());
+            Long id = userRepository.save(user).getId();
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", id));
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.Grocito.Services;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.batch.OrderEarningsMigrationJob;
+import com.example.Grocito.pricing.PricingEngine;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The delivery fee, total and partner earning stored at checkout are what the partner is assigned and paid
+ * under, even after the pricing rules change; only orders stored without an earning get one computed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderAssignmentServiceTest {
+
+    private static final String PINCODE = "630001";
+
+    // Not what the current rules charge or pay, as after a pricing change
+    private static final double CHECKOUT_FEE = 13.0;
+    private static final double CHECKOUT_EARNING = 7.0;
+    private static final double CHECKOUT_TOTAL = 213.0;
+
+    @Autowired
+    private OrderAssignmentService assignmentService;
+
+    @Autowired
+    private OrderEarningsMigrationJob earningsMigrationJob;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User customer;
+    private DeliveryPartnerAuth partner;
+
+    @BeforeAll
+    void seed() {
+        customer = new User();
+        customer.setFullName("Pricing Customer");
+        customer.setEmail("pricing-customer@example.com");
+        customer.setRole("USER");
+        customer.setPincode(PINCODE);
+        customer.setRegisteredDate(LocalDate.now());
+        customer = userRepository.save(customer);
+
+        partner = new DeliveryPartnerAuth();
+        partner.setEmail("pricing-partner@example.com");
+        partner.setPassword("hash");
+        partner.setPhoneNumber("9630000001");
+        partner.setFullName("Pricing Partner");
+        partner.setPincode(PINCODE);
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber("KA63PR0001");
+        partner.setLicenseNumber("DL-PRICING");
+        partner.setVerificationStatus("VERIFIED");
+        partner = partnerRepository.save(partner);
+    }
+
+    @Test
+    void assignmentKeepsCheckoutPricing() {
+        Order order = order("PLACED", CHECKOUT_EARNING);
+
+        assertThat(assignmentService.assignOrderToPartner(order.getId(), partner.getId())).isTrue();
+
+        Order assigned = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(assigned.getStatus()).isEqualTo("ASSIGNED");
+        assertThat(assigned.getDeliveryFee()).isEqualTo(CHECKOUT_FEE);
+        assertThat(assigned.getPartnerEarning()).isEqualTo(CHECKOUT_EARNING);
+        assertThat(assigned.getTotalAmount()).isEqualTo(CHECKOUT_TOTAL);
+    }
+
+    @Test
+    void earningsMigrationOnlyFillsInTheEarning() {
+        Order legacy = order("DELIVERED", 0.0);
+
+        assertThat(earningsMigrationJob.writeChunk(List.of(legacy))).isEqualTo(1);
+
+        Order migrated = orderRepository.findById(legacy.getId()).orElseThrow();
+        assertThat(migrated.getDeliveryFee()).isEqualTo(CHECKOUT_FEE);
+        assertThat(migrated.getTotalAmount()).isEqualTo(CHECKOUT_TOTAL);
+        assertThat(migrated.getPartnerEarning()).isPositive().isEqualTo(pricingEngine.missingPartnerEarning(PINCODE,
+                legacy.getOrderTime(), CHECKOUT_TOTAL, CHECKOUT_FEE));
+    }
+
+    private Order order(String status, double partnerEarning) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus(status);
+        order.setOrderTime(LocalDateTime.now().minusHours(2));
+        order.setDeliveryAddress("Pricing Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("ONLINE");
+        order.setPaymentStatus("PAID");
+        order.setDeliveryFee(CHECKOUT_FEE);
+        order.setPartnerEarning(partnerEarning);
+        order.setTotalAmount(CHECKOUT_TOTAL);
+        if ("DELIVERED".equals(status)) {
+            order.setDeliveryPartner(partner);
+            order.setDeliveredAt(LocalDateTime.now().minusHours(1));
+        }
+        return orderRepository.save(order);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.Grocito.batch;
+
+import com.example.Grocito.Repository.BatchJobLockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A job runs on one instance at a time: the lock is taken before the job lists its partitions
+ * (which may run DDL), and the lock of a stopped instance is taken over once it expires.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchJobRunnerTest {
+
+    @Autowired
+    private BatchJobRunner runner;
+
+    @Autowired
+    private BatchJobLockRepository lockRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void secondInstanceDoesNotStartARunningJob() throws Exception {
+        // A second instance of the application, sharing the database
+        BatchJobRunner otherInstance = context.getAutowireCapableBeanFactory().createBean(BatchJobRunner.class);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CountingJob job = new CountingJob("lock-race", reading, finish);
+        try {
+            CompletableFuture<BatchJobProgress> first = CompletableFuture.supplyAsync(() -> runner.run(job));
+            assertThat(reading.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> otherInstance.run(job)).hasMessageContaining("already running");
+            assertThat(job.partitionListings.get()).isEqualTo(1);
+
+            finish.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+            assertThat(lockRepository.findById("lock-race")).isEmpty();
+
+            // Free again once the first run is done
+            assertThat(otherInstance.run(job).getStatus()).isEqualTo("COMPLETED");
+            assertThat(job.partitionListings.get()).isEqualTo(2);
+        } finally {
+            finish.countDown();
+            context.getAutowireCapableBeanFactory().destroyBean(otherInstance);
+        }
+    }
+
+    @Test
+    void lockOfAStoppedInstanceIsTakenOverAfterItExpires() {
+        CountingJob job = new CountingJob("lock-expiry", null, null);
+        lockRepository.insert(job.getName(), "stopped-instance", LocalDateTime.now());
+        assertThatThrownBy(() -> runner.run(job)).hasMessageContaining("stopped-instance");
+        assertThat(job.partitionListings.get()).isZero();
+        assertThat(runner.getProgress()).doesNotContainKey(job.getName());
+
+        lockRepository.renew(job.getName(), "stopped-instance", LocalDateTime.now().minusMinutes(10));
+        assertThat(runner.run(job).getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.partitionListings.get()).isEqualTo(1);
+    }
+
+    /**
+     * One partition of three items; optionally waits in the first read until released
+     */
+    private static class CountingJob implements ChunkedJob<Long> {
+        private final String name;
+        private final CountDownLatch reading;
+        private final CountDownLatch finish;
+        final AtomicInteger partitionListings = new AtomicInteger();
+
+        CountingJob(String name, CountDownLatch reading, CountDownLatch finish) {
+            this.name = name;
+            this.reading = reading;
+            this.finish = finish;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<String> getPartitions() {
+            partitionListings.incrementAndGet();
+            return List.of("all");
+        }
+
+        @Override
+        public List<Long> readChunk(String partition, Long afterId, int chunkSize) {
+            if (reading != null && afterId == 0) {
+                reading.countDown();
+                try {
+                    finish.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return afterId == 0 ? List.of(1L, 2L, 3L) : List.of();
+        }
+
+        @Override
+        public Long getId(Long item) {
+            return item;
+        }
+
+        @Override
+        public int writeChunk(List<Long> items) {
+            return items.size();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.Grocito.etag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two ResourceVersions on the same database stand for two instances: after a sync both issue the same
+ * ETag for a bump made on either of them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResourceVersionsTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    private ResourceVersions first;
+    private ResourceVersions second;
+
+    @BeforeEach
+    void setUp() {
+        first = context.getAutowireCapableBeanFactory().createBean(ResourceVersions.class);
+        second = context.getAutowireCapableBeanFactory().createBean(ResourceVersions.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.getAutowireCapableBeanFactory().destroyBean(first);
+        context.getAutowireCapableBeanFactory().destroyBean(second);
+    }
+
+    @Test
+    void instancesAgreeOnTheVersionAfterABump() {
+        String resource = ResourceVersions.products("111001");
+        String initial = etag(first, resource);
+        assertThat(etag(second, resource)).isEqualTo(initial);
+
+        first.bump(resource);
+        // The writing instance changes its ETag at once, before the bump is shared
+        String local = etag(first, resource);
+        assertThat(local).isNotEqualTo(initial);
+
+        first.sync();
+        second.sync();
+        assertThat(etag(second, resource)).isNotEqualTo(initial).isNotEqualTo(local);
+        assertThat(etag(first, resource)).isEqualTo(etag(second, resource));
+    }
+
+    @Test
+    void prefixBumpReachesResourcesServedOnlyByAnotherInstance() {
+        String resource = ResourceVersions.products("111002");
+        String servedBySecond = etag(second, resource);
+        second.sync();
+
+        first.bumpAll(ResourceVersions.PRODUCTS);
+        first.sync();
+        second.sync();
+        assertThat(etag(second, resource)).isNotEqualTo(servedBySecond);
+        assertThat(etag(first, resource)).isEqualTo(etag(second, resource));
+    }
+
+    private static String etag(ResourceVersions versions, String resource) {
+        return versions.etag(versions.current(resource));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.Grocito.idgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long MAX_SAFE_JS_INTEGER = (1L << 53) - 1;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(8 * 50_000);
+        assertThat(ids).allMatch(id -> id > 0 && id <= MAX_SAFE_JS_INTEGER);
+    }
+
+    @Test
+    void consecutiveIdsAreSpreadOverKeyRanges() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        Set<Long> topBits = new HashSet<>();
+        long previous = generator.nextId();
+        int decreasing = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long id = generator.nextId();
+            topBits.add(id >>> (53 - SnowflakeIdGenerator.SHARD_BITS));
+            decreasing += id < previous ? 1 : 0;
+            previous = id;
+        }
+
+        assertThat(topBits).hasSize(1 << SnowflakeIdGenerator.SHARD_BITS);
+        assertThat(decreasing).isGreaterThan(0);
+    }
+
+    @Test
+    void scatterIsReversible() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(31);
+        long before = System.currentTimeMillis();
+        long id = generator.nextId();
+        long after = System.currentTimeMillis();
+
+        assertThat(SnowflakeIdGenerator.timestampOf(id)).isBetween(before, after);
+        for (long value = 0; value < 100_000; value += 7) {
+            assertThat(SnowflakeIdGenerator.gather(SnowflakeIdGenerator.scatter(value))).isEqualTo(value);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.Grocito.payments;
+
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.PaymentWebhookInboxEvent;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.PaymentWebhookInboxRepository;
+import com.example.Grocito.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A webhook is acknowledged only once it is in the inbox, events left in the inbox are applied when it is
+ * drained, and a capture for a cancelled order leaves the order unpaid and is counted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaymentWebhookPipelineTest {
+
+    private static final String PINCODE = "650001";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentWebhookPipeline pipeline;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PaymentWebhookInboxRepository inboxRepository;
+
+    @Value("${payments.razorpay.webhook-secret}")
+    private String webhookSecret;
+
+    private User customer;
+
+    @BeforeAll
+    void seed() {
+        customer = new User();
+        customer.setFullName("Webhook Customer");
+        customer.setEmail("webhook-customer@example.com");
+        customer.setRole("USER");
+        customer.setPincode(PINCODE);
+        customer.setRegisteredDate(LocalDate.now());
+        customer = userRepository.save(customer);
+    }
+
+    @Test
+    void webhookIsAppliedAndLeavesTheInbox() throws Exception {
+        Long orderId = order("order_inbox_applied", "PLACED");
+
+        mockMvc.perform(webhook("evt_applied", captured("order_inbox_applied", "pay_applied"))).andExpect(status().isOk());
+
+        awaitTrue(() -> "PAID".equals(paymentStatusOf(orderId)));
+        awaitTrue(() -> inboxRepository.count() == 0);
+        assertThat(orderRepository.findById(orderId).orElseThrow().getPaymentId()).isEqualTo("pay_applied");
+    }
+
+    @Test
+    void webhookNotStoredIsRefused() throws Exception {
+        Long orderId = order("order_inbox_down", "PLACED");
+
+        doThrow(new DataAccessResourceFailureException("inbox unavailable")).when(inboxRepository).save(any());
+        try {
+            mockMvc.perform(webhook("evt_down", captured("order_inbox_down", "pay_down")))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            reset(inboxRepository);
+        }
+        assertThat(paymentStatusOf(orderId)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void eventsLeftInTheInboxAreAppliedWhenItIsDrained() throws Exception {
+        Long orderId = order("order_inbox_left", "PLACED");
+        // As a stopped instance leaves it: stored, never applied, due
+        byte[] body = captured("order_inbox_left", "pay_left");
+        LocalDateTime now = LocalDateTime.now();
+        inboxRepository.save(new PaymentWebhookInboxEvent("evt_left", sign(body), body, now, now));
+
+        pipeline.drainInbox();
+
+        awaitTrue(() -> "PAID".equals(paymentStatusOf(orderId)));
+        awaitTrue(() -> inboxRepository.count() == 0);
+    }
+
+    @Test
+    void captureForCancelledOrderIsSkippedAndCounted() throws Exception {
+        Long orderId = order("order_inbox_cancelled", "CANCELLED");
+        long cancelledBefore = cancelledCount();
+
+        mockMvc.perform(webhook("evt_cancelled", captured("order_inbox_cancelled", "pay_cancelled")))
+                .andExpect(status().isOk());
+
+        awaitTrue(() -> cancelledCount() > cancelledBefore);
+        assertThat(paymentStatusOf(orderId)).isEqualTo("PENDING");
+        awaitTrue(() -> inboxRepository.count() == 0);
+    }
+
+    private RequestBuilder webhook(String eventId, byte[] body) throws Exception {
+        return post("/api/payments/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Razorpay-Signature", sign(body))
+                .header("X-Razorpay-Event-Id", eventId)
+                .content(body);
+    }
+
+    private static byte[] captured(String gatewayOrderId, String paymentId) {
+        return ("{\"event\": \"payment.captured\", \"payload\": {\"payment\": {\"entity\": {\"id\": \"" + paymentId
+                + "\", \"order_id\": \"" + gatewayOrderId + "\", \"amount\": 15000, \"method\": \"upi\"}}}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    private Long order(String gatewayOrderId, String status) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus(status);
+        order.setOrderTime(LocalDateTime.now().minusMinutes(30));
+        order.setDeliveryAddress("Webhook Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PENDING");
+        order.setTotalAmount(150.0);
+        order.setGatewayOrderId(gatewayOrderId);
+        return orderRepository.save(order).getId();
+    }
+
+    private String paymentStatusOf(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getPaymentStatus();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long cancelledCount() {
+        Map<String, Long> events = (Map<String, Long>) pipeline.describe().get("events");
+        return events.getOrDefault("cancelled", 0L);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
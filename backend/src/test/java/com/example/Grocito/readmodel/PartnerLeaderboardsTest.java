@@ -0,0 +1,144 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.ArchivedOrderAssignmentRepository;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.readmodel.PartnerLeaderboards.Metric;
+import com.example.Grocito.readmodel.PartnerLeaderboards.RankedPartner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/**
+ * A rebuild reads the tables, so it picks up the writes of other instances and moved partners, and it
+ * keeps the updates this instance records while the tables are being read.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PartnerLeaderboardsTest {
+
+    private static final String PINCODE = "600001";
+    private static final String OTHER_PINCODE = "600002";
+
+    @Autowired
+    private PartnerLeaderboards leaderboards;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository authRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The last of the four reads of a rebuild
+    @SpyBean
+    private ArchivedOrderAssignmentRepository archivedAssignmentRepository;
+
+    @Test
+    void rebuildPicksUpWritesOfOtherInstancesAndMovedPartners() {
+        DeliveryPartnerAuth partner = partner("other-instance");
+        User customer = customer("other-instance");
+        // Written without recording them here, as another instance does
+        deliveredOrder(customer, partner, 40.0);
+        deliveredOrder(customer, partner, 60.0);
+        assertThat(leaderboards.rankOf(partner.getId(), Metric.EARNINGS)).isEmpty();
+
+        leaderboards.rebuild();
+        assertThat(leaderboards.rankOf(partner.getId(), Metric.EARNINGS)).hasValueSatisfying(ranked -> {
+            assertThat(ranked.score()).isEqualTo(100.0);
+            assertThat(ranked.basedOn()).isEqualTo(2);
+        });
+
+        jdbcTemplate.update("UPDATE delivery_partner_auth SET pincode = ? WHERE id = ?", OTHER_PINCODE, partner.getId());
+        leaderboards.rebuild();
+        assertThat(leaderboards.top(OTHER_PINCODE, Metric.EARNINGS, 10)).extracting(RankedPartner::partnerId)
+                .contains(partner.getId());
+        assertThat(leaderboards.top(PINCODE, Metric.EARNINGS, 10)).extracting(RankedPartner::partnerId)
+                .doesNotContain(partner.getId());
+    }
+
+    @Test
+    void updatesRecordedDuringRebuildAreKept() {
+        DeliveryPartnerAuth partner = partner("during-rebuild");
+        User customer = customer("during-rebuild");
+        deliveredOrder(customer, partner, 30.0);
+
+        // A delivery committed on another thread after the tables were read; the archive is empty
+        doAnswer(invocation -> {
+            Thread recorder = new Thread(() -> leaderboards.recordDelivery(partner.getId(), PINCODE, 25.0));
+            recorder.start();
+            recorder.join();
+            return List.of();
+        }).when(archivedAssignmentRepository).getPartnerRatingTotals();
+        try {
+            leaderboards.rebuild();
+        } finally {
+            reset(archivedAssignmentRepository);
+        }
+
+        assertThat(leaderboards.rankOf(partner.getId(), Metric.EARNINGS)).hasValueSatisfying(ranked -> {
+            assertThat(ranked.score()).isEqualTo(55.0);
+            assertThat(ranked.basedOn()).isEqualTo(2);
+        });
+    }
+
+    private DeliveryPartnerAuth partner(String name) {
+        DeliveryPartnerAuth auth = new DeliveryPartnerAuth();
+        auth.setEmail(name + "@partners.example.com");
+        auth.setPassword("hash");
+        auth.setPhoneNumber(String.valueOf(Math.abs(name.hashCode())));
+        auth.setFullName("Partner " + name);
+        auth.setPincode(PINCODE);
+        auth.setVehicleType("BIKE");
+        auth.setVehicleNumber("KA60" + name);
+        auth.setLicenseNumber("DL-" + name);
+        auth.setVerificationStatus("VERIFIED");
+        return authRepository.save(auth);
+    }
+
+    private User customer(String name) {
+        User user = new User();
+        user.setFullName("Customer " + name);
+        user.setEmail(name + "@customers.example.com");
+        user.setRole("USER");
+        user.setPincode(PINCODE);
+        user.setRegisteredDate(LocalDate.now());
+        return userRepository.save(user);
+    }
+
+    private void deliveredOrder(User customer, DeliveryPartnerAuth partner, double earning) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus("DELIVERED");
+        order.setOrderTime(LocalDateTime.now().minusHours(1));
+        order.setDeliveredAt(LocalDateTime.now());
+        order.setDeliveryAddress("Leaderboard Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PAID");
+        order.setTotalAmount(200.0);
+        order.setDeliveryPartner(partner);
+        order.setPartnerEarning(earning);
+        orderRepository.save(order);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.Grocito.readmodel;
+
+import com.example.Grocito.Entity.DeliveryPartner;
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.DeliveryPartnerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The read model follows entity writes once they commit, never shows rolled back ones, and the checker
+ * finds and repairs writes that bypassed the entity listeners.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PartnerReadModelTest {
+
+    private static final String PINCODE = "580001";
+
+    @Autowired
+    private PartnerReadModel readModel;
+
+    @Autowired
+    private PartnerReadModelChecker checker;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository authRepository;
+
+    @Autowired
+    private DeliveryPartnerRepository partnerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followsCommittedWritesOfBothTables() {
+        DeliveryPartnerAuth auth = authRepository.save(account("follow", "PENDING"));
+        assertThat(readModel.get(auth.getId())).hasValueSatisfying(view -> {
+            assertThat(view.verificationStatus()).isEqualTo("PENDING");
+            assertThat(view.partnerId()).isNull();
+        });
+
+        auth.setVerificationStatus("VERIFIED");
+        authRepository.save(auth);
+        DeliveryPartner partner = partnerRepository.save(operationalRow(auth));
+
+        assertThat(readModel.get(auth.getId())).hasValueSatisfying(view -> {
+            assertThat(view.verificationStatus()).isEqualTo("VERIFIED");
+            assertThat(view.partnerId()).isEqualTo(partner.getId());
+            assertThat(view.isDispatchable()).isTrue();
+        });
+        assertThat(readModel.partnerIdFor(auth.getId())).contains(partner.getId());
+        assertThat(readModel.getByPartnerId(partner.getId()).map(PartnerView::authId)).contains(auth.getId());
+
+        partnerRepository.delete(partner);
+        assertThat(readModel.getByPartnerId(partner.getId())).isEmpty();
+        assertThat(readModel.get(auth.getId()).map(PartnerView::partnerId)).isEmpty();
+    }
+
+    @Test
+    void ignoresRolledBackWrites() {
+        Long authId = transactionTemplate.execute(status -> {
+            Long id = authRepository.save(account("rollback", "VERIFIED")).getId();
+            status.setRollbackOnly();
+            return id;
+        });
+        assertThat(readModel.get(authId)).isEmpty();
+    }
+
+    @Test
+    void dispatchesOnlyVerifiedActivePartnersThatAreOnline() {
+        DeliveryPartnerAuth auth = authRepository.save(account("dispatch", "VERIFIED"));
+        DeliveryPartner partner = partnerRepository.save(operationalRow(auth));
+        assertThat(readModel.getAvailablePartners(PINCODE)).doesNotContain(auth.getId());
+
+        assertThat(readModel.setAvailable(auth.getId(), true)).isTrue();
+        assertThat(readModel.getAvailablePartners(PINCODE)).contains(auth.getId());
+
+        partner.setAccountStatus("SUSPENDED");
+        partnerRepository.save(partner);
+        assertThat(readModel.getAvailablePartners(PINCODE)).doesNotContain(auth.getId());
+
+        partner.setAccountStatus("ACTIVE");
+        partnerRepository.save(partner);
+        readModel.setAvailable(auth.getId(), false);
+        assertThat(readModel.getAvailablePartners(PINCODE)).doesNotContain(auth.getId());
+    }
+
+    @Test
+    void checkerRepairsWritesThatBypassedTheListener() {
+        DeliveryPartnerAuth auth = authRepository.save(account("drift", "VERIFIED"));
+        jdbcTemplate.update("UPDATE delivery_partner_auth SET verification_status = 'REJECTED' WHERE id = ?", auth.getId());
+        assertThat(readModel.get(auth.getId()).map(PartnerView::verificationStatus)).contains("VERIFIED");
+
+        Map<String, Object> result = checker.check();
+        assertThat(result.get("stale")).isEqualTo(1);
+        assertThat(readModel.get(auth.getId()).map(PartnerView::verificationStatus)).contains("REJECTED");
+        assertThat(checker.check().get("stale")).isEqualTo(0);
+    }
+
+    @Test
+    void unknownAccountIsNotItsOwnPartnerId() {
+        assertThatThrownBy(() -> readModel.partnerIdFor(-42L)).hasMessageContaining("-42");
+    }
+
+    private static DeliveryPartnerAuth account(String name, String verificationStatus) {
+        DeliveryPartnerAuth auth = new DeliveryPartnerAuth();
+        auth.setEmail(name + "@partners.example.com");
+        auth.setPassword("hash");
+        auth.setPhoneNumber("93" + Math.abs(name.hashCode() % 100_000_000));
+        auth.setFullName("Partner " + name);
+        auth.setPincode(PINCODE);
+        auth.setVehicleType("BIKE");
+        auth.setVehicleNumber("KA01" + name);
+        auth.setLicenseNumber("DL-" + name);
+        auth.setVerificationStatus(verificationStatus);
+        return auth;
+    }
+
+    private static DeliveryPartner operationalRow(DeliveryPartnerAuth auth) {
+        DeliveryPartner partner = new DeliveryPartner();
+        partner.setFullName(auth.getFullName());
+        partner.setPhoneNumber(auth.getPhoneNumber());
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber(auth.getVehicleNumber());
+        partner.setDrivingLicense(auth.getLicenseNumber());
+        partner.setAssignedPincode(PINCODE);
+        partner.setVerificationStatus(auth.getVerificationStatus());
+        partner.setAuthRecord(auth);
+        return partner;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.Grocito.routing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two separate in-memory databases. Each one names itself in a marker table, and the
+ * replica reports its lag from a table the test updates, so fallback on lag is checked for real.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWritesTracker readYourWrites;
+    private ReadYourWritesInterceptor interceptor;
+    private JdbcTemplate routedJdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing-primary");
+        DataSource replica = database("routing-replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        primaryJdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        primaryJdbc.update("INSERT INTO marker VALUES ('primary')");
+        replicaJdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        replicaJdbc.update("INSERT INTO marker VALUES ('replica')");
+        replicaJdbc.execute("CREATE TABLE replica_status (lag_seconds BIGINT)");
+        replicaJdbc.update("INSERT INTO replica_status VALUES (0)");
+
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT lag_seconds FROM replica_status", 5, 2000);
+        lagMonitor.check();
+        readYourWrites = new ReadYourWritesTracker();
+        ReflectionTestUtils.setField(readYourWrites, "stickinessSeconds", 10L);
+        interceptor = new ReadYourWritesInterceptor();
+        ReflectionTestUtils.setField(interceptor, "readYourWrites", readYourWrites);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites);
+        routing.afterPropertiesSet();
+        DataSource routed = new LazyConnectionDataSourceProxy(routing);
+        routedJdbc = new JdbcTemplate(routed);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routed);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setName("com.example.Grocito.Services.AnalyticsService.read");
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.clear();
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyServiceTransactionsUseTheReplica() {
+        assertThat(databaseIn(readOnly)).isEqualTo("replica");
+        assertThat(databaseIn(readWrite)).isEqualTo("primary");
+        assertThat(database()).isEqualTo("primary");
+    }
+
+    @Test
+    void repositoryReadOnlyTransactionsStayOnThePrimary() {
+        readOnly.setName("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findAll");
+        assertThat(databaseIn(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimaryAndReturns() {
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = 60");
+        lagMonitor.check();
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(lagMonitor.getLagSeconds()).isEqualTo(60);
+        assertThat(databaseIn(readOnly)).isEqualTo("primary");
+
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = 1");
+        lagMonitor.check();
+        assertThat(databaseIn(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedReplicationFallsBackToThePrimary() {
+        // NULL lag, as SHOW REPLICA STATUS reports while the replication threads are stopped
+        replicaJdbc.update("UPDATE replica_status SET lag_seconds = NULL");
+        lagMonitor.check();
+        assertThat(databaseIn(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void clientsReadTheirOwnWritesFromThePrimaryOnAnyInstance() {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest(), writeResponse, null);
+        readYourWrites.recordWrite();
+        assertThat(databaseIn(readOnly)).isEqualTo("primary");
+        interceptor.afterCompletion(null, writeResponse, null, null);
+        String lastWrite = writeResponse.getHeader(ReadYourWritesTracker.LAST_WRITE_HEADER);
+        assertThat(lastWrite).isNotNull();
+
+        // Next request of the same client. The tracker keeps nothing between requests, so any instance routes it alike
+        assertThat(databaseIn(readOnly, lastWrite)).isEqualTo("primary");
+
+        // Other clients, and the same client once the window has passed
+        assertThat(databaseIn(readOnly, null)).isEqualTo("replica");
+        String expired = Long.toString(Long.parseLong(lastWrite) - 11_000);
+        assertThat(databaseIn(readOnly, expired)).isEqualTo("replica");
+        assertThat(databaseIn(readOnly, "not-a-time")).isEqualTo("replica");
+    }
+
+    /**
+     * Run the transaction in a request sending the last write header
+     */
+    private String databaseIn(TransactionTemplate transaction, String lastWrite) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (lastWrite != null) {
+            request.addHeader(ReadYourWritesTracker.LAST_WRITE_HEADER, lastWrite);
+        }
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        try {
+            return databaseIn(transaction);
+        } finally {
+            interceptor.afterCompletion(request, null, null, null);
+        }
+    }
+
+    private String databaseIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> database());
+    }
+
+    private String database() {
+        return routedJdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.Grocito.schema;
+
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the schema from the Flyway migrations instead of the entity mappings, and starts the
+ * context with ddl-auto=validate: a migration that drifts from an entity fails the context.
+ *
+ * The migrations run on H2 in MySQL mode. The MySQL-only parts they use are rewritten to their H2
+ * equivalent while loading: the conditional index of V3 becomes CREATE INDEX IF NOT EXISTS, the
+ * archive tables of V7 are created without their partitions, and LONGTEXT becomes CLOB (H2 reads
+ * LONGTEXT as VARCHAR, where MySQL reports the type an @Lob String maps to).
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "migrations"})
+class SchemaMigrationTest {
+
+    private static final String MIGRATIONS = "classpath:db/migration/*.sql";
+
+    // SET @x = IF((SELECT COUNT(*) FROM information_schema.statistics ...) = 0, 'CREATE INDEX ...', 'SELECT 1');
+    // PREPARE x FROM @x; EXECUTE x; DEALLOCATE PREPARE x;
+    private static final Pattern CONDITIONAL_INDEX = Pattern.compile(
+            "SET @(\\w+) = IF\\(.*?'CREATE INDEX (.*?)',\\s*'SELECT 1'\\);\\s*"
+                    + "PREPARE \\1 FROM @\\1;\\s*EXECUTE \\1;\\s*DEALLOCATE PREPARE \\1;",
+            Pattern.DOTALL);
+
+    private static final Pattern LONGTEXT = Pattern.compile("\\bLONGTEXT\\b");
+
+    private static final Pattern PARTITIONS = Pattern.compile(
+            "\\)\\s*PARTITION BY RANGE \\(\\w+\\) \\(.*?\\);", Pattern.DOTALL);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsMatchTheEntities() throws IOException {
+        int migrations = new PathMatchingResourcePatternResolver().getResources(MIGRATIONS).length;
+
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE success = TRUE AND version IS NOT NULL", Integer.class);
+        assertThat(applied).isEqualTo(migrations);
+    }
+
+    static String toH2(String sql) {
+        String rewritten = CONDITIONAL_INDEX.matcher(sql).replaceAll("CREATE INDEX IF NOT EXISTS $2;");
+        rewritten = PARTITIONS.matcher(rewritten).replaceAll(");");
+        return LONGTEXT.matcher(rewritten).replaceAll("CLOB");
+    }
+
+    @TestConfiguration
+    static class H2Migrations {
+        @Bean
+        FlywayConfigurationCustomizer h2MigrationResources() {
+            return configuration -> configuration.resourceProvider(new H2MigrationResourceProvider());
+        }
+    }
+
+    static class H2MigrationResourceProvider implements ResourceProvider {
+
+        @Override
+        public LoadableResource getResource(String name) {
+            return load().stream()
+                    .filter(resource -> resource.getFilename().equals(name))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Collection<LoadableResource> getResources(String prefix, String[] suffixes) {
+            return load().stream()
+                    .filter(resource -> resource.getFilename().startsWith(prefix))
+                    .filter(resource -> Arrays.stream(suffixes).anyMatch(resource.getFilename()::endsWith))
+                    .toList();
+        }
+
+        private List<LoadableResource> load() {
+            try {
+                List<LoadableResource> resources = new ArrayList<>();
+                for (Resource migration : new PathMatchingResourcePatternResolver().getResources(MIGRATIONS)) {
+                    resources.add(new H2MigrationResource(migration.getFilename(),
+                            migration.getContentAsString(StandardCharsets.UTF_8)));
+                }
+                return resources;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static class H2MigrationResource extends LoadableResource {
+        private final String filename;
+        private final String sql;
+
+        H2MigrationResource(String filename, String sql) {
+            this.filename = filename;
+            this.sql = toH2(sql);
+        }
+
+        @Override
+        public Reader read() {
+            return new StringReader(sql);
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return "db/migration/" + filename;
+        }
+
+        @Override
+        public String getAbsolutePathOnDisk() {
+            return getAbsolutePath();
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getRelativePath() {
+            return filename;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.Grocito.security;
+
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator read operations are open, write and delete operations need an admin token.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    @Test
+    void writeOperationsNeedAnAdmin() throws Exception {
+        String customerToken = tokenService.issueUserToken(user("actuator-customer@example.com", AuthPrincipal.ROLE_USER));
+        String adminToken = tokenService.issueUserToken(user("actuator-admin@example.com", AuthPrincipal.ROLE_ADMIN));
+
+        mockMvc.perform(get("/actuator/partnerreadmodel")).andExpect(status().isOk());
+
+        mockMvc.perform(post("/actuator/partnerreadmodel")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/actuator/partnerreadmodel").header("Authorization", "Bearer " + customerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/debuglogging")).andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/actuator/partnerreadmodel").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/actuator/debuglogging").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private User user(String email, String role) {
+        User user = new User();
+        user.setFullName("User " + email);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setPincode("610001");
+        user.setRegisteredDate(LocalDate.now());
+        return userRepository.save(user);
+    }
+}
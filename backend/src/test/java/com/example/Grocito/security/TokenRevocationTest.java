@@ -0,0 +1,70 @@
+package com.example.Grocito.security;
+
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A revocation holds on every instance and across restarts: it is stored, a token not in the cache is
+ * checked against the stored row, and the sync drops cached tokens another instance revoked.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationTest {
+
+    @Autowired
+    private AuthTokenService tokenService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationRepository revocations;
+
+    @Test
+    void revocationIsStored() {
+        tokenService.revoke(AuthPrincipal.TYPE_USER, 920001L);
+
+        assertThat(revocations.findById(AuthPrincipal.TYPE_USER + ":920001")).isPresent();
+    }
+
+    @Test
+    void tokenRevokedElsewhereIsRefusedWhenNotCached() throws Exception {
+        // Issued before a revocation this instance never saw, as on another instance or before a restart
+        String token = tokenService.issueUserToken(user(920002L));
+        Thread.sleep(5);
+        revocations.record(AuthPrincipal.TYPE_USER + ":920002", System.currentTimeMillis());
+
+        assertThat(tokenService.verify(token)).isNull();
+
+        Thread.sleep(5);
+        assertThat(tokenService.verify(tokenService.issueUserToken(user(920002L)))).isNotNull();
+    }
+
+    @Test
+    void syncDropsCachedTokensRevokedElsewhere() throws Exception {
+        String token = tokenService.issueUserToken(user(920003L));
+        assertThat(tokenService.verify(token)).isNotNull();
+        Thread.sleep(5);
+        revocations.record(AuthPrincipal.TYPE_USER + ":920003", System.currentTimeMillis());
+        assertThat(tokenService.verify(token)).as("cached until the next sync").isNotNull();
+
+        principalCache.sync();
+
+        assertThat(tokenService.verify(token)).isNull();
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("revoked-" + id + "@example.com");
+        user.setRole(AuthPrincipal.ROLE_ADMIN);
+        user.setPincode("620001");
+        return user;
+    }
+}
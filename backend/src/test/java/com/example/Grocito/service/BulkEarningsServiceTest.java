@@ -0,0 +1,110 @@
+package com.example.Grocito.service;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A partner's streamed earnings are the earnings stored on the orders at checkout, not a re-pricing of the
+ * orders under the rules.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkEarningsServiceTest {
+
+    private static final String PINCODE = "640001";
+
+    @Autowired
+    private BulkEarningsService bulkEarningsService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void partnerIsPaidTheEarningStoredAtCheckout() throws Exception {
+        User customer = new User();
+        customer.setFullName("Earnings Customer");
+        customer.setEmail("earnings-customer@example.com");
+        customer.setRole("USER");
+        customer.setPincode(PINCODE);
+        customer.setRegisteredDate(LocalDate.now());
+        customer = userRepository.save(customer);
+
+        DeliveryPartnerAuth partner = new DeliveryPartnerAuth();
+        partner.setEmail("earnings-partner@example.com");
+        partner.setPassword("hash");
+        partner.setPhoneNumber("9640000001");
+        partner.setFullName("Earnings Partner");
+        partner.setPincode(PINCODE);
+        partner.setVehicleType("BIKE");
+        partner.setVehicleNumber("KA64ER0001");
+        partner.setLicenseNumber("DL-EARNINGS");
+        partner.setVerificationStatus("VERIFIED");
+        partner = partnerRepository.save(partner);
+
+        // Neither is what the current rules pay, as after a pricing change
+        Long paid = deliveredOrder(customer, partner, 213.0, 13.0, 7.0);
+        Long free = deliveredOrder(customer, partner, 900.0, 0.0, 9.5);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkEarningsService.writePartnerEarnings(partner.getId(), LocalDate.now().minusDays(1), LocalDate.now(), out);
+        JsonNode earnings = objectMapper.readTree(out.toByteArray());
+
+        assertThat(earnings.get("totalDeliveries").asLong()).isEqualTo(2);
+        assertThat(earnings.get("paidDeliveries").asLong()).isEqualTo(1);
+        assertThat(earnings.get("freeDeliveries").asLong()).isEqualTo(1);
+        assertThat(earnings.get("totalBaseEarnings").asDouble()).isEqualTo(16.5);
+        for (JsonNode row : earnings.get("earningsBreakdown")) {
+            if (row.get("orderId").asLong() == paid) {
+                assertThat(row.get("deliveryType").asText()).isEqualTo("PAID_DELIVERY");
+                assertThat(row.get("orderAmount").asDouble()).isEqualTo(200.0);
+                assertThat(row.get("baseEarnings").asDouble()).isEqualTo(7.0);
+            } else {
+                assertThat(row.get("orderId").asLong()).isEqualTo(free);
+                assertThat(row.get("deliveryType").asText()).isEqualTo("FREE_DELIVERY");
+                assertThat(row.get("baseEarnings").asDouble()).isEqualTo(9.5);
+            }
+        }
+    }
+
+    private Long deliveredOrder(User customer, DeliveryPartnerAuth partner, double total, double fee, double earning) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus("DELIVERED");
+        order.setOrderTime(LocalDateTime.now().minusHours(1));
+        order.setDeliveredAt(LocalDateTime.now().minusMinutes(5));
+        order.setDeliveryAddress("Earnings Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("COD");
+        order.setPaymentStatus("PAID");
+        order.setTotalAmount(total);
+        order.setDeliveryFee(fee);
+        order.setPartnerEarning(earning);
+        order.setDeliveryPartner(partner);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.Grocito.statemachine;
+
+import com.example.Grocito.Entity.DeliveryPartnerAuth;
+import com.example.Grocito.Entity.Order;
+import com.example.Grocito.Entity.User;
+import com.example.Grocito.Repository.DeliveryPartnerAuthRepository;
+import com.example.Grocito.Repository.OrderRepository;
+import com.example.Grocito.Repository.UserRepository;
+import com.example.Grocito.dto.BulkStatusResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Status changes racing on the same order through the compare-and-set UPDATEs: every applied change bumps
+ * the version once and none is lost or applied twice.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderStateMachineTest {
+
+    private static final String PINCODE = "620001";
+    private static final int ORDERS = 20;
+    private static final int PARTNERS = 6;
+
+    @Autowired
+    private OrderStateMachine stateMachine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryPartnerAuthRepository partnerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User customer;
+    private List<DeliveryPartnerAuth> partners;
+
+    @BeforeAll
+    void seed() {
+        customer = new User();
+        customer.setFullName("Racing Customer");
+        customer.setEmail("racing-customer@example.com");
+        customer.setRole("USER");
+        customer.setPincode(PINCODE);
+        customer.setRegisteredDate(LocalDate.now());
+        customer = userRepository.save(customer);
+
+        partners = new ArrayList<>();
+        for (int i = 0; i < PARTNERS; i++) {
+            DeliveryPartnerAuth partner = new DeliveryPartnerAuth();
+            partner.setEmail("racer-" + i + "@partners.example.com");
+            partner.setPassword("hash");
+            partner.setPhoneNumber("96200000" + i);
+            partner.setFullName("Racer " + i);
+            partner.setPincode(PINCODE);
+            partner.setVehicleType("BIKE");
+            partner.setVehicleNumber("KA62RC000" + i);
+            partner.setLicenseNumber("DL-RACER-" + i);
+            partner.setVerificationStatus("VERIFIED");
+            partners.add(partnerRepository.save(partner));
+        }
+    }
+
+    @Test
+    void exactlyOnePartnerGetsAnOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PARTNERS);
+        try {
+            for (int round = 0; round < ORDERS; round++) {
+                Long orderId = order("PLACED", null).getId();
+                CyclicBarrier start = new CyclicBarrier(PARTNERS);
+                List<Future<Boolean>> attempts = new ArrayList<>();
+                for (DeliveryPartnerAuth partner : partners) {
+                    attempts.add(executor.submit(raced(start, () -> transactionTemplate.execute(status ->
+                            stateMachine.assign(orderRepository.findById(orderId).orElseThrow(), partner, 24.0)))));
+                }
+
+                List<Long> winners = new ArrayList<>();
+                for (int i = 0; i < PARTNERS; i++) {
+                    if (attempts.get(i).get(30, TimeUnit.SECONDS)) {
+                        winners.add(partners.get(i).getId());
+                    }
+                }
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                assertThat(winners).hasSize(1);
+                assertThat(order.getStatus()).isEqualTo("ASSIGNED");
+                assertThat(order.getDeliveryPartner().getId()).isEqualTo(winners.get(0));
+                assertThat(order.getVersion()).isEqualTo(1L);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void partnerProgressAndAdminCancelNeverLoseAChange() throws Exception {
+        DeliveryPartnerAuth partner = partners.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ORDERS; round++) {
+                Order placed = order("ASSIGNED", partner);
+                Long orderId = placed.getId();
+                long initialVersion = placed.getVersion();
+                CyclicBarrier start = new CyclicBarrier(2);
+
+                Future<Integer> partnerChanges = executor.submit(raced(start, () ->
+                        applied(orderId, "PICKED_UP", Actor.partner(partner.getId()))
+                                + applied(orderId, "OUT_FOR_DELIVERY", Actor.partner(partner.getId()))));
+                Future<Integer> adminChanges = executor.submit(raced(start, () ->
+                        applied(orderId, "CANCELLED", Actor.admin())));
+                int partnerApplied = partnerChanges.get(30, TimeUnit.SECONDS);
+                int adminApplied = adminChanges.get(30, TimeUnit.SECONDS);
+
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                assertThat(adminApplied).isEqualTo(1);
+                assertThat(order.getStatus()).isEqualTo("CANCELLED");
+                assertThat(order.getCancelledAt()).isNotNull();
+                // One version per applied change: a lost update would leave fewer, a doubled one more
+                assertThat(order.getVersion() - initialVersion).isEqualTo(partnerApplied + adminApplied);
+                assertThat(order.getPickedUpAt() != null).isEqualTo(partnerApplied > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleCompareAndSetChangesNothing() {
+        Order order = order("PLACED", null);
+        Long version = order.getVersion();
+        Integer first = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(order.getId(), "PLACED",
+                version, "CANCELLED", LocalDateTime.now()));
+        Integer stale = transactionTemplate.execute(status -> orderRepository.compareAndSetStatus(order.getId(), "PLACED",
+                version, "DELIVERED", LocalDateTime.now()));
+
+        assertThat(first).isEqualTo(1);
+        assertThat(stale).isZero();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void adminCannotMoveAnOrderToAnUnknownStatus() {
+        Order order = order("PLACED", null);
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status ->
+                stateMachine.transition(orderRepository.findById(order.getId()).orElseThrow(), "DELIVERD", Actor.admin())))
+                .hasMessage("Unknown order status: DELIVERD");
+        List<BulkStatusResult> results = stateMachine.transitionAll(List.of(order.getId()), "DELIVERD", Actor.admin());
+
+        assertThat(results).extracting(BulkStatusResult::result).containsExactly(BulkStatusResult.Result.REJECTED);
+        Order unchanged = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(unchanged.getStatus()).isEqualTo("PLACED");
+        assertThat(unchanged.getVersion()).isEqualTo(order.getVersion());
+    }
+
+    /**
+     * 1 when the change was applied, 0 when the order already had the status or the rules refused it
+     */
+    private int applied(Long orderId, String toStatus, Actor actor) {
+        try {
+            Boolean changed = transactionTemplate.execute(status ->
+                    stateMachine.transition(orderRepository.findById(orderId).orElseThrow(), toStatus, actor));
+            return Boolean.TRUE.equals(changed) ? 1 : 0;
+        } catch (RuntimeException e) {
+            // Refused by the transition table, e.g. a partner moving an order that was cancelled meanwhile
+            return 0;
+        }
+    }
+
+    private static <T> Callable<T> raced(CyclicBarrier start, Callable<T> change) {
+        return () -> {
+            start.await(10, TimeUnit.SECONDS);
+            return change.call();
+        };
+    }
+
+    private Order order(String status, DeliveryPartnerAuth partner) {
+        Order order = new Order();
+        order.setUser(customer);
+        order.setStatus(status);
+        order.setOrderTime(LocalDateTime.now());
+        order.setDeliveryAddress("Race Street 1");
+        order.setPincode(PINCODE);
+        order.setPaymentMethod("ONLINE");
+        order.setPaymentStatus("PAID");
+        order.setTotalAmount(150.0);
+        order.setDeliveryPartner(partner);
+        return orderRepository.save(order);
+    }
+}
@@ -9,6 +9,9 @@ const api = axios.create({
   },
 });
 
+// Time of this client's last write (e.g. a placed order), sent back so reads see it on any server
+const LAST_WRITE_HEADER = 'X-Last-Write';
+
 // Add request interceptor to include auth token
 api.interceptors.request.use(
   (config) => {
@@ -16,6 +19,10 @@ api.interceptors.request.use(
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    const lastWrite = sessionStorage.getItem('lastWrite');
+    if (lastWrite) {
+      config.headers[LAST_WRITE_HEADER] = lastWrite;
+    }
     return config;
   },
   (error) => {
@@ -26,6 +33,10 @@ api.interceptors.request.use(
 // Add response interceptor for error handling
 api.interceptors.response.use(
   (response) => {
+    const lastWrite = response.headers?.[LAST_WRITE_HEADER.toLowerCase()];
+    if (lastWrite) {
+      sessionStorage.setItem('lastWrite', lastWrite);
+    }
     return response;
   },
   (error) => {
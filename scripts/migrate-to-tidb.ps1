@@ -59,6 +59,7 @@ In Render dashboard (render.com), set these environment variables:
 SPRING_DATASOURCE_URL=jdbc:mysql://gateway01.us-east-1.prod.aws.tidbcloud.com:4000/grocito_db?sslMode=VERIFY_IDENTITY
 SPRING_DATASOURCE_USERNAME=3Qxxxxxx.root
 SPRING_DATASOURCE_PASSWORD=<your_tidb_password>
+NODE_ID=<optional, 0-31; unset lets each instance lease a free node id>
 
 ===========================================
 STEP 5: Verify Connection